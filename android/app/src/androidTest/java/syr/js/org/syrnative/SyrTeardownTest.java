@@ -0,0 +1,177 @@
+package syr.js.org.syrnative;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.app.Instrumentation;
+import android.content.Intent;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import syrnativeandroid.HostActivity;
+import syrnativeandroid.MainActivity;
+
+import static org.junit.Assert.*;
+
+/**
+ * Opens and closes Syr instances through the plugin's dialog, nothing of a
+ * closed instance may stay reachable. The test is in syrnative's package for
+ * the root view's bridge.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrTeardownTest {
+
+    private static final int SESSIONS = 50;
+
+    private static String screen(String uuid) throws Exception {
+        JSONObject style = new JSONObject();
+        style.put("width", 100);
+        style.put("height", 100);
+        style.put("backgroundColor", "#00ff00");
+        JSONObject instance = new JSONObject();
+        instance.put("uuid", uuid + "-child");
+        instance.put("style", style);
+        JSONObject child = new JSONObject();
+        child.put("elementName", "View");
+        child.put("uuid", uuid + "-child");
+        child.put("guid", uuid + "-child");
+        child.put("instance", instance);
+
+        JSONObject root = new JSONObject();
+        root.put("elementName", "View");
+        root.put("uuid", uuid);
+        root.put("guid", uuid);
+        root.put("instance", new JSONObject().put("uuid", uuid).put("style", style));
+        root.put("children", new JSONArray().put(child));
+        return new JSONObject().put("v", 2).put("type", "gui").put("payload", root).toString();
+    }
+
+    private static String spin(String uuid) throws Exception {
+        JSONObject animation = new JSONObject();
+        animation.put("animatedProperty", "rotateZ");
+        animation.put("value", 0);
+        animation.put("toValue", 360);
+        // still running when the instance is closed
+        animation.put("duration", 60000);
+        JSONObject payload = new JSONObject();
+        payload.put("guid", uuid);
+        payload.put("animation", animation);
+        return new JSONObject().put("v", 2).put("type", "animation").put("payload", payload).toString();
+    }
+
+    private static int rasterThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("SyrRaster") && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * the root view in the views of the plugin's dialog
+     */
+    private static SyrRootView findRootView(View view) {
+        if (view instanceof SyrRootView) {
+            return (SyrRootView) view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                SyrRootView rootView = findRootView(group.getChildAt(i));
+                if (rootView != null) {
+                    return rootView;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void openingAndClosing_keepsNothingOfClosedInstances() throws Exception {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Intent intent = new Intent(Intent.ACTION_MAIN)
+                .setClassName(instrumentation.getTargetContext(), HostActivity.class.getName())
+                .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        final Activity activity = instrumentation.startActivitySync(intent);
+        int threads = rasterThreads();
+        List<WeakReference<Object>> closed = new ArrayList<WeakReference<Object>>();
+
+        for (int i = 0; i < SESSIONS; i++) {
+            // what the plugin does when js asks for it
+            final Dialog[] dialog = new Dialog[1];
+            final SyrRootView[] rootView = new SyrRootView[1];
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    dialog[0] = MainActivity.start(activity);
+                    rootView[0] = findRootView(dialog[0].getWindow().getDecorView());
+                }
+            });
+            instrumentation.waitForIdleSync();
+            assertNotNull(rootView[0]);
+
+            String uuid = "session-" + i;
+            SyrBridge bridge = rootView[0].getBridge();
+            bridge.message(screen(uuid));
+            bridge.message(spin(uuid));
+            final CountDownLatch rendered = new CountDownLatch(1);
+            bridge.mRaster.post(new Runnable() {
+                @Override
+                public void run() {
+                    rendered.countDown();
+                }
+            });
+            assertTrue(rendered.await(30, TimeUnit.SECONDS));
+            instrumentation.waitForIdleSync();
+
+            // and when it is closed, the dismiss listener tears the instance down
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    dialog[0].dismiss();
+                }
+            });
+            closed.add(new WeakReference<Object>(dialog[0]));
+            closed.add(new WeakReference<Object>(rootView[0]));
+            closed.add(new WeakReference<Object>(bridge));
+            dialog[0] = null;
+            rootView[0] = null;
+        }
+        instrumentation.waitForIdleSync();
+
+        int live = closed.size();
+        long deadline = SystemClock.uptimeMillis() + 20000;
+        while (SystemClock.uptimeMillis() < deadline) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            live = 0;
+            for (int i = 0; i < closed.size(); i++) {
+                if (closed.get(i).get() != null) {
+                    live++;
+                }
+            }
+            if (live == 0 && rasterThreads() <= threads) {
+                break;
+            }
+            SystemClock.sleep(100);
+        }
+        activity.finish();
+        assertEquals("instances still reachable", 0, live);
+        assertTrue(rasterThreads() <= threads);
+    }
+}
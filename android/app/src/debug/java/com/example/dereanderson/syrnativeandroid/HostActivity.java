@@ -0,0 +1,10 @@
+package syrnativeandroid;
+
+import android.app.Activity;
+
+/**
+ * An empty activity for the instrumented tests to open the plugin's dialog
+ * on, the way cordova's activity does.
+ */
+public class HostActivity extends Activity {
+}
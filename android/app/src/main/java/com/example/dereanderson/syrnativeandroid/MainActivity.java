@@ -3,6 +3,7 @@ package syrnativeandroid;
 import android.app.Activity;
 
 import android.app.Dialog;
+import android.content.DialogInterface;
 
 // XXX TBD ???:
 // import android.support.v7.app.AppCompatActivity;
@@ -28,6 +29,7 @@ import syr.js.org.syrnative.SyrImage;
 import syr.js.org.syrnative.SyrInstance;
 import syr.js.org.syrnative.SyrInstanceManager;
 import syr.js.org.syrnative.SyrLinearGradient;
+import syr.js.org.syrnative.SyrListView;
 import syr.js.org.syrnative.SyrNetworking;
 import syr.js.org.syrnative.SyrRootView;
 import syr.js.org.syrnative.SyrScrollview;
@@ -47,7 +49,7 @@ public class MainActivity /* extends AppCompatActivity */ {
     // */
 
 
-    public static void start(Activity myActivity) {
+    public static Dialog start(Activity myActivity) {
         RelativeLayout layout = new RelativeLayout(myActivity);
         RelativeLayout.LayoutParams layoutParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
         layout.setLayoutParams(layoutParams);
@@ -73,6 +75,7 @@ public class MainActivity /* extends AppCompatActivity */ {
         modules.add(new SyrLinearGradient());
         modules.add(new SyrScrollview());
         modules.add(new SyrStackview());
+        modules.add(new SyrListView());
         modules.add(new SyrAnimatedImage());
         modules.add(new SyrAnimatedView());
         modules.add(new SyrAnimatedText());
@@ -90,7 +93,7 @@ public class MainActivity /* extends AppCompatActivity */ {
 
         // create a new Rootview
         // SyrRootView rootview = new SyrRootView(this);
-        SyrRootView rootview = new SyrRootView(myActivity);
+        final SyrRootView rootview = new SyrRootView(myActivity);
 
         JSONObject appProps = new JSONObject();
 
@@ -110,6 +113,15 @@ public class MainActivity /* extends AppCompatActivity */ {
 
         d.setContentView(layout);
 
+        // closing the dialog ends the Syr instance, nothing of it outlives the dialog
+        d.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+                rootview.destroy();
+            }
+        });
+
         d.show();
+        return d;
   }
 }
@@ -0,0 +1,238 @@
+package syr.js.org.syrnative.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Generates a <Class>$$SyrMethods table (see syr.js.org.syrnative.SyrMethodTable)
+ * for every class that declares @SyrMethod methods.
+ *
+ * The table lists each method's method_paramTypes_ signature, in the format
+ * the raster exports to js, and calls the method directly with its arguments
+ * decoded by position and declared type. Context parameters are injected
+ * instead of being read from js. Whatever the method returns (a value or a
+ * SyrPromise) is handed back for the call's completion.
+ */
+public class SyrMethodProcessor extends AbstractProcessor {
+
+    static final String SYR_METHOD = "syr.js.org.syrnative.SyrMethod";
+    static final String TABLE_SUFFIX = "$$SyrMethods";
+
+    private static final String CONTEXT = "android.content.Context";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(SYR_METHOD);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations.isEmpty()) {
+            return false;
+        }
+
+        // group the annotated methods by the class declaring them
+        Map<TypeElement, List<ExecutableElement>> classes = new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) element;
+                if (!isCallable(method)) {
+                    continue;
+                }
+                TypeElement owner = (TypeElement) method.getEnclosingElement();
+                List<ExecutableElement> methods = classes.get(owner);
+                if (methods == null) {
+                    methods = new ArrayList<ExecutableElement>();
+                    classes.put(owner, methods);
+                }
+                methods.add(method);
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : classes.entrySet()) {
+            try {
+                writeTable(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not write " + TABLE_SUFFIX + ": " + e.getMessage(), entry.getKey());
+            }
+        }
+        return true;
+    }
+
+    private boolean isCallable(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@SyrMethod methods must be public or protected", method);
+            return false;
+        }
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameter.asType().getKind() == TypeKind.ARRAY) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@SyrMethod parameters can't be arrays, use org.json.JSONArray", parameter);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeTable(TypeElement owner, List<ExecutableElement> methods) throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(owner);
+        String packageName = pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(owner).toString();
+        String tableName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + TABLE_SUFFIX;
+        String ownerName = owner.getQualifiedName().toString();
+
+        StringBuilder signatures = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            StringBuilder signature = new StringBuilder(method.getSimpleName()).append('_');
+            StringBuilder arguments = new StringBuilder();
+            int position = 0;
+            for (VariableElement parameter : method.getParameters()) {
+                TypeMirror type = parameter.asType();
+                signature.append(className(type)).append('_');
+                if (arguments.length() > 0) {
+                    arguments.append(", ");
+                }
+                if (isContext(type)) {
+                    arguments.append("context");
+                } else {
+                    arguments.append(decoder(type, position++));
+                }
+            }
+
+            signatures.append("            \"").append(signature).append("\",\n");
+
+            String receiver = method.getModifiers().contains(Modifier.STATIC)
+                    ? ownerName
+                    : "((" + ownerName + ") module)";
+            String call = receiver + "." + method.getSimpleName() + "(" + arguments + ")";
+            cases.append("            case ").append(i).append(":\n");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                cases.append("                ").append(call).append(";\n")
+                        .append("                return null;\n");
+            } else {
+                cases.append("                return ").append(call).append(";\n");
+            }
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? tableName : packageName + "." + tableName, owner);
+        Writer writer = file.openWriter();
+        try {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("// Generated by SyrMethodProcessor from " + ownerName + ", do not edit.\n"
+                    + "public final class " + tableName + " implements syr.js.org.syrnative.SyrMethodTable {\n\n"
+                    + "    private static final String[] METHODS = {\n"
+                    + signatures
+                    + "    };\n\n"
+                    + "    @Override\n"
+                    + "    public String[] getMethods() {\n"
+                    + "        return METHODS.clone();\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public Object invoke(Object module, int method, org.json.JSONObject args, " + CONTEXT + " context)\n"
+                    + "            throws org.json.JSONException {\n"
+                    + "        switch (method) {\n"
+                    + cases
+                    + "            default:\n"
+                    + "                throw new IllegalArgumentException(\"no method \" + method + \" in " + ownerName + "\");\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private boolean isContext(TypeMirror type) {
+        TypeElement context = processingEnv.getElementUtils().getTypeElement(CONTEXT);
+        return context != null && type.getKind() == TypeKind.DECLARED
+                && processingEnv.getTypeUtils().isAssignable(type, context.asType());
+    }
+
+    /**
+     * the name Class.getName() gives the parameter type, which is what js sends back as paramTypes
+     */
+    private String className(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+
+    private String decoder(TypeMirror type, int position) {
+        String decoders = "syr.js.org.syrnative.SyrArguments.";
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return decoders + "getBoolean(args, " + position + ")";
+            case BYTE:
+                return "(byte) " + decoders + "getInt(args, " + position + ")";
+            case SHORT:
+                return "(short) " + decoders + "getInt(args, " + position + ")";
+            case INT:
+                return decoders + "getInt(args, " + position + ")";
+            case LONG:
+                return decoders + "getLong(args, " + position + ")";
+            case FLOAT:
+                return decoders + "getFloat(args, " + position + ")";
+            case DOUBLE:
+                return decoders + "getDouble(args, " + position + ")";
+            case CHAR:
+                return decoders + "getChar(args, " + position + ")";
+            default:
+                String name = processingEnv.getTypeUtils().erasure(type).toString();
+                if (name.equals("java.lang.String")) {
+                    return decoders + "getString(args, " + position + ")";
+                } else if (name.equals("org.json.JSONObject")) {
+                    return decoders + "getJSONObject(args, " + position + ")";
+                } else if (name.equals("org.json.JSONArray")) {
+                    return decoders + "getJSONArray(args, " + position + ")";
+                }
+                return "(" + name + ") " + decoders + "get(args, " + position + ")";
+        }
+    }
+}
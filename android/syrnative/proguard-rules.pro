@@ -19,3 +19,15 @@
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
 #-renamesourcefileattribute SourceFile
+
+# The bridge is called from js by method name
+-keepclassmembers class syr.js.org.syrnative.SyrBridge {
+    @android.webkit.JavascriptInterface <methods>;
+}
+
+# Native modules are exported to js by class name and their @SyrMethod tables
+# (<Class>$$SyrMethods, generated by syrnative-processor) are found from it
+-keepnames class * implements syr.js.org.syrnative.SyrBaseModule
+-keep class **$$SyrMethods {
+    <init>();
+}
@@ -0,0 +1,188 @@
+package syr.js.org.syrnative;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Which animations report animationComplete when newer ones of the same view
+ * take over, and the frames of chained resizes, with real views.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrAnimatorInstrumentedTest {
+
+    // long enough to still run when the test looks
+    private static final int RUNNING = 60000;
+
+    private Instrumentation mInstrumentation;
+    private SyrAnimator mAnimator;
+    private CompletionBridge mBridge;
+    private Handler mMainHandler;
+    private FrameLayout mView;
+    private View mChild;
+
+    /**
+     * records the animations that reported animationComplete
+     */
+    private static class CompletionBridge extends SyrBridge {
+        final List<String> completed = Collections.synchronizedList(new ArrayList<String>());
+
+        CompletionBridge(Context context) {
+            super(context, null);
+        }
+
+        @Override
+        public void sendEvent(JSONObject message) {
+            try {
+                completed.add(new JSONObject(message.getString("animation"))
+                        .getJSONObject("animation").getString("guid"));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        // with animations off every animation ends at once, nothing is left to take over
+        assumeTrue(Settings.Global.getFloat(context.getContentResolver(),
+                Settings.Global.ANIMATOR_DURATION_SCALE, 1f) > 0);
+        mAnimator = new SyrAnimator();
+        mBridge = new CompletionBridge(context);
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mView = new FrameLayout(context);
+                mChild = new View(context);
+                mView.addView(mChild, new FrameLayout.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+                mView.setLayoutParams(new ViewGroup.LayoutParams(300, 50));
+                mView.measure(View.MeasureSpec.makeMeasureSpec(300, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(50, View.MeasureSpec.EXACTLY));
+                mView.layout(0, 0, 300, 50);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (mAnimator == null) {
+            return;
+        }
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAnimator.cancelAll();
+            }
+        });
+    }
+
+    private void animate(String id, JSONObject animation, int duration) throws Exception {
+        animation.put("guid", id);
+        animation.put("duration", duration);
+        JSONObject payload = new JSONObject();
+        payload.put("guid", "animated-view");
+        payload.put("animation", animation);
+        mAnimator.animate(mView, payload, mBridge, mMainHandler);
+        mInstrumentation.waitForIdleSync();
+    }
+
+    private void move(String id, Float x, Float y) throws Exception {
+        JSONObject animation = new JSONObject();
+        if (x != null) {
+            animation.put("x2", x);
+        }
+        if (y != null) {
+            animation.put("y2", y);
+        }
+        animate(id, animation, RUNNING);
+    }
+
+    private void interpolate(String id, String property, int from, int to, int duration) throws Exception {
+        JSONObject animation = new JSONObject();
+        animation.put("animatedProperty", property);
+        animation.put("value", from);
+        animation.put("toValue", to);
+        animate(id, animation, duration);
+    }
+
+    private List<String> completed() {
+        synchronized (mBridge.completed) {
+            return new ArrayList<String>(mBridge.completed);
+        }
+    }
+
+    @Test
+    public void partlySupersededAnimations_completeWithTheirLastProperty() throws Exception {
+        move("xy", 100f, 100f);
+        // x is taken over, the first animation still moves y
+        move("x", 200f, null);
+        interpolate("opacity", "opacity", 0, 1, RUNNING);
+        assertEquals(Collections.<String>emptyList(), completed());
+
+        move("y", null, 200f);
+        assertEquals(Collections.singletonList("xy"), completed());
+    }
+
+    @Test
+    public void fullySupersededAnimations_completeWhenTheNewOneStarts() throws Exception {
+        interpolate("first", "opacity", 0, 1, RUNNING);
+        interpolate("rotate", "rotateZ", 0, 360, RUNNING);
+        interpolate("second", "opacity", 1, 0, RUNNING);
+        assertEquals(Collections.singletonList("first"), completed());
+
+        move("xy", 10f, 10f);
+        move("again", 20f, 20f);
+        assertEquals(Arrays.asList("first", "xy"), completed());
+    }
+
+    @Test
+    public void chainedResizes_completeInOrderAndMeasureTheChildren() throws Exception {
+        interpolate("grow", "width", 300, 400, RUNNING);
+        interpolate("shrink", "width", 400, 100, 100);
+        assertEquals(Collections.singletonList("grow"), completed());
+
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        while (completed().size() < 2 && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(16);
+        }
+        assertEquals(Arrays.asList("grow", "shrink"), completed());
+
+        final int[] widths = new int[3];
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                widths[0] = mView.getWidth();
+                widths[1] = mView.getLayoutParams().width;
+                widths[2] = mChild.getWidth();
+            }
+        });
+        // the child that fills the view was measured at the new width, not left at 300
+        assertArrayEquals(new int[]{100, 100, 100}, widths);
+    }
+}
@@ -0,0 +1,64 @@
+package syr.js.org.syrnative;
+
+import android.graphics.drawable.Drawable;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Interning and eviction of background drawables, with real drawables.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrDrawableCacheInstrumentedTest {
+
+    private static SyrStyle style(String color) throws Exception {
+        return SyrStyle.fromJSON(new JSONObject().put("backgroundColor", color).put("borderRadius", 4));
+    }
+
+    @Test
+    public void sameStyle_sharesOneState() throws Exception {
+        SyrDrawableCache cache = new SyrDrawableCache(4);
+        Drawable first = cache.get(style("red"), null);
+        Drawable second = cache.get(style("#ff0000"), null);
+        assertNotSame(first, second);
+        assertSame(first.getConstantState(), second.getConstantState());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+
+        // a view that already has the background keeps it
+        assertSame(first, cache.get(style("red"), first));
+    }
+
+    @Test
+    public void leastRecentlyUsed_isEvicted() throws Exception {
+        SyrDrawableCache cache = new SyrDrawableCache(2);
+        cache.get(style("red"), null);
+        cache.get(style("green"), null);
+        // red is used again, green is now the oldest
+        cache.get(style("red"), null);
+        cache.get(style("blue"), null);
+        assertEquals(2, cache.size());
+
+        int misses = cache.getMissCount();
+        cache.get(style("red"), null);
+        assertEquals(misses, cache.getMissCount());
+        cache.get(style("green"), null);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void memoryPressure_emptiesTheCache() throws Exception {
+        SyrDrawableCache cache = new SyrDrawableCache(8);
+        for (int i = 0; i < 8; i++) {
+            cache.get(style(String.format("#%06x", i)), null);
+        }
+        cache.onTrimMemory(SyrDrawableCache.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(4, cache.size());
+        cache.onLowMemory();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,192 @@
+package syr.js.org.syrnative;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * A layout-only View across gui messages: flattened into its parent's view,
+ * given a view of its own when it gets a handler, and unmounted either way.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrFlattenerInstrumentedTest {
+
+    private Instrumentation mInstrumentation;
+    private SyrRaster mRaster;
+    private SyrBridge mBridge;
+    private SyrRootView mRootView;
+
+    /**
+     * what the views under the root's view have to look like
+     */
+    private interface Check {
+        boolean holds(ViewGroup root);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mRootView = new SyrRootView(context);
+            }
+        });
+        mRaster = new SyrRaster(context);
+        mBridge = new SyrBridge(context, null);
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(new SyrView());
+        mRaster.setModules(modules);
+        mRaster.setRootview(mRootView);
+        mBridge.setRaster(mRaster);
+        mRaster.setBridge(mBridge);
+    }
+
+    private static JSONObject node(String uuid, String style, boolean update, boolean unmount) throws Exception {
+        JSONObject instance = new JSONObject();
+        instance.put("uuid", uuid);
+        instance.put("style", new JSONObject(style));
+        JSONObject node = new JSONObject();
+        node.put("elementName", "View");
+        node.put("uuid", uuid);
+        node.put("guid", uuid);
+        node.put("instance", instance);
+        node.put("update", update);
+        node.put("unmount", unmount);
+        return node;
+    }
+
+    /**
+     * a 300x300 root with a 200x200 box at 20,30 around a leaf at 5,5, the box has
+     * nothing to draw unless it gets an onPress
+     */
+    private static String gui(boolean update, boolean pressable, boolean unmountBox) throws Exception {
+        JSONObject leaf = node("flat-leaf",
+                "{\"left\": 5, \"top\": 5, \"width\": 50, \"height\": 50, \"backgroundColor\": \"#ff0000\"}",
+                update, false);
+        JSONObject box = node("flat-box", "{\"left\": 20, \"top\": 30, \"width\": 200, \"height\": 200}",
+                update, unmountBox);
+        if (pressable) {
+            box.getJSONObject("instance").put("props", new JSONObject().put("onPress", true));
+        }
+        box.put("children", new JSONArray().put(leaf));
+        JSONObject root = node("flat-root",
+                "{\"width\": 300, \"height\": 300, \"backgroundColor\": \"#ffffff\"}", update, false);
+        root.put("children", new JSONArray().put(box));
+        return new JSONObject().put("v", 2).put("type", "gui").put("payload", root).toString();
+    }
+
+    private boolean await(final Check check) {
+        final boolean[] held = {false};
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        while (!held[0] && SystemClock.uptimeMillis() < deadline) {
+            mInstrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    held[0] = mRootView.getChildCount() == 1
+                            && check.holds((ViewGroup) mRootView.getChildAt(0));
+                }
+            });
+            SystemClock.sleep(16);
+        }
+        return held[0];
+    }
+
+    /**
+     * @return {mountedCount, flattenedCount}, read on the raster thread
+     */
+    private int[] counts() throws Exception {
+        final int[] counts = new int[2];
+        final CountDownLatch counted = new CountDownLatch(1);
+        mRaster.post(new Runnable() {
+            @Override
+            public void run() {
+                counts[0] = mRaster.mountedCount();
+                counts[1] = mRaster.flattenedCount();
+                counted.countDown();
+            }
+        });
+        assertTrue(counted.await(30, TimeUnit.SECONDS));
+        return counts;
+    }
+
+    private static final Check FLATTENED = new Check() {
+        @Override
+        public boolean holds(ViewGroup root) {
+            // the leaf sits in the root's view, offset by where the box would have been
+            View leaf = root.getChildCount() == 1 ? root.getChildAt(0) : null;
+            return leaf != null && !(leaf instanceof ViewGroup && ((ViewGroup) leaf).getChildCount() > 0)
+                    && leaf.getX() == 25 && leaf.getY() == 35;
+        }
+    };
+
+    private static final Check EMPTY = new Check() {
+        @Override
+        public boolean holds(ViewGroup root) {
+            return root.getChildCount() == 0;
+        }
+    };
+
+    @Test
+    public void flattenUnflattenUnmount_movesTheLeafAndKeepsNothing() throws Exception {
+        mBridge.message(gui(false, false, false));
+        assertTrue(await(FLATTENED));
+        int[] flattened = counts();
+        assertEquals(1, flattened[1]);
+
+        // a handler needs a view to receive the touches, the leaf moves into it
+        mBridge.message(gui(true, true, false));
+        assertTrue(await(new Check() {
+            @Override
+            public boolean holds(ViewGroup root) {
+                View box = root.getChildCount() == 1 ? root.getChildAt(0) : null;
+                if (!(box instanceof ViewGroup) || ((ViewGroup) box).getChildCount() != 1) {
+                    return false;
+                }
+                View leaf = ((ViewGroup) box).getChildAt(0);
+                return box.getX() == 20 && box.getY() == 30 && leaf.getX() == 5 && leaf.getY() == 5;
+            }
+        }));
+        int[] unflattened = counts();
+        assertEquals(0, unflattened[1]);
+        assertEquals(flattened[0] + 1, unflattened[0]);
+
+        mBridge.message(gui(true, true, true));
+        assertTrue(await(EMPTY));
+        int[] unmounted = counts();
+        assertEquals(0, unmounted[1]);
+        // only the root is left
+        assertEquals(unflattened[0] - 2, unmounted[0]);
+    }
+
+    @Test
+    public void unmountingAFlattenedBox_removesTheViewsInItsParent() throws Exception {
+        mBridge.message(gui(false, false, false));
+        assertTrue(await(FLATTENED));
+        int[] flattened = counts();
+
+        mBridge.message(gui(true, false, true));
+        assertTrue(await(EMPTY));
+        int[] unmounted = counts();
+        assertEquals(0, unmounted[1]);
+        assertEquals(flattened[0] - 1, unmounted[0]);
+    }
+}
@@ -0,0 +1,117 @@
+package syr.js.org.syrnative;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * The heights kept by tag across messages, with a real SparseArray.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrHeightCacheInstrumentedTest {
+
+    private final SyrInstanceRegistry mInstances = new SyrInstanceRegistry();
+    private final SyrHeightCache mHeights = new SyrHeightCache(mInstances);
+
+    private static Component node(String uuid, String style, Component... children) throws Exception {
+        Component node = new Component();
+        node.elementName = "View";
+        node.uuid = uuid;
+        node.style = style != null ? SyrStyle.fromJSON(new JSONObject(style)) : null;
+        for (int i = 0; i < children.length; i++) {
+            node.children.add(children[i]);
+        }
+        return node;
+    }
+
+    /**
+     * content
+     *   a: height 40
+     *   group (unstyled)
+     *     b: height 10
+     *     c: styled without a height
+     */
+    private static Component content() throws Exception {
+        return node("content", null,
+                node("a", "{\"height\": 40}"),
+                node("group", null,
+                        node("b", "{\"height\": 10}"),
+                        node("c", "{\"width\": 10}")));
+    }
+
+    private SyrHeightCache.Entry entry(String uuid) throws Exception {
+        return mHeights.get(mInstances.tag(node(uuid, null)));
+    }
+
+    @Test
+    public void measure_recordsEveryNodeUnderItsParent() throws Exception {
+        Component content = content();
+        mHeights.measure(content);
+        assertEquals(5, mHeights.size());
+
+        SyrHeightCache.Entry top = entry("content");
+        assertEquals(0, top.parent);
+        assertEquals(50, top.height);
+
+        SyrHeightCache.Entry a = entry("a");
+        assertEquals(content.tag, a.parent);
+        assertEquals("a", a.key);
+        assertEquals(40, a.contribution);
+        assertTrue(a.fixed);
+
+        SyrHeightCache.Entry group = entry("group");
+        assertEquals(content.tag, group.parent);
+        assertEquals(10, group.contribution);
+        assertEquals(10, group.height);
+        assertFalse(group.fixed);
+
+        SyrHeightCache.Entry c = entry("c");
+        assertEquals(content.getChildren().get(1).tag, c.parent);
+        assertEquals(0, c.contribution);
+        assertTrue(c.fixed);
+    }
+
+    @Test
+    public void keyedNodes_areRecordedByTheirOwnTag() throws Exception {
+        Component row = node("row", "{\"height\": 20}");
+        row.key = "7";
+        mHeights.measure(node("content", null, row));
+        assertNull(entry("row"));
+        assertEquals("row-7", mHeights.get(row.tag).key);
+        assertEquals(20, mHeights.get(row.tag).contribution);
+    }
+
+    @Test
+    public void record_replacesWhatTheNodeAdds() throws Exception {
+        Component content = content();
+        mHeights.measure(content);
+        int other = mInstances.tag(node("other", null));
+        mHeights.record(content.getChildren().get(0), other, 60, false);
+
+        SyrHeightCache.Entry a = entry("a");
+        assertEquals(other, a.parent);
+        assertEquals(60, a.contribution);
+        assertFalse(a.fixed);
+        assertEquals(5, mHeights.size());
+    }
+
+    @Test
+    public void removeTree_forgetsTheNodeAndItsChildren() throws Exception {
+        Component content = content();
+        mHeights.measure(content);
+
+        mHeights.removeTree(content.getChildren().get(1));
+        assertNull(entry("group"));
+        assertNull(entry("b"));
+        assertNull(entry("c"));
+        assertNotNull(entry("a"));
+        assertEquals(2, mHeights.size());
+
+        mHeights.clear();
+        assertEquals(0, mHeights.size());
+    }
+}
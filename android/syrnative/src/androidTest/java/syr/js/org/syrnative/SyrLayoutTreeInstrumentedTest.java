@@ -0,0 +1,140 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frames the layout tree records across messages, with a real raster.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrLayoutTreeInstrumentedTest {
+
+    /**
+     * a raster where every node has a view, looked up by uuid
+     */
+    private static class FrameRaster extends SyrRaster {
+        final HashMap<String, View> views = new HashMap<String, View>();
+
+        FrameRaster(Context context) {
+            super(context);
+        }
+
+        @Override
+        View findView(Component node) {
+            View view = views.get(node.getUuid());
+            if (view == null) {
+                view = new View(getContext());
+                views.put(node.getUuid(), view);
+            }
+            return view;
+        }
+    }
+
+    /**
+     * the frames a layout records
+     */
+    private static class Frames extends SyrViewOperations {
+        final HashMap<View, int[]> frames = new HashMap<View, int[]>();
+
+        Frames(SyrRaster raster) {
+            super(raster);
+        }
+
+        @Override
+        void setFrame(View view, int x, int y, int width, int height) {
+            frames.put(view, new int[]{x, y, width, height});
+        }
+    }
+
+    private FrameRaster mRaster;
+    private SyrLayoutTree mLayout;
+
+    @Before
+    public void setUp() throws Exception {
+        mRaster = new FrameRaster(InstrumentationRegistry.getTargetContext());
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(new SyrView());
+        modules.add(new SyrScrollview());
+        modules.add(new SyrListView());
+        mRaster.setModules(modules);
+        mLayout = new SyrLayoutTree(mRaster);
+    }
+
+    private static Component node(String elementName, String uuid, String style, boolean update,
+                                  Component... children) throws Exception {
+        Component node = new Component();
+        node.elementName = elementName;
+        node.uuid = uuid;
+        node.update = update;
+        node.style = style != null ? SyrStyle.fromJSON(new JSONObject(style)) : null;
+        for (int i = 0; i < children.length; i++) {
+            node.children.add(children[i]);
+        }
+        return node;
+    }
+
+    /**
+     * a 300x300 column with two flex children
+     */
+    private static Component column(int firstFlex, boolean update) throws Exception {
+        return node("View", "root", "{\"width\": 300, \"height\": 300}", update,
+                node("View", "first", "{\"flex\": " + firstFlex + "}", update),
+                node("View", "second", "{\"flex\": 1}", update));
+    }
+
+    private void assertFrame(Frames frames, String uuid, int x, int y, int width, int height) {
+        int[] frame = frames.frames.get(mRaster.views.get(uuid));
+        assertNotNull(uuid + " has no frame", frame);
+        assertArrayEquals(new int[]{x, y, width, height}, frame);
+    }
+
+    @Test
+    public void flexChange_movesTheSiblingUnderAnUnchangedRoot() throws Exception {
+        Frames mounted = new Frames(mRaster);
+        mLayout.layout(column(1, false), mounted);
+        assertFrame(mounted, "first", 0, 0, 300, 150);
+        assertFrame(mounted, "second", 0, 150, 300, 150);
+
+        Frames updated = new Frames(mRaster);
+        mLayout.layout(column(2, true), updated);
+        // the root keeps its size, its children still get their new frames
+        assertNull(updated.frames.get(mRaster.views.get("root")));
+        assertFrame(updated, "first", 0, 0, 300, 200);
+        assertFrame(updated, "second", 0, 200, 300, 100);
+    }
+
+    @Test
+    public void scrollviewRows_areLeftToTheWindow() throws Exception {
+        String[] elements = {"ScrollView", "ListView"};
+        for (int e = 0; e < elements.length; e++) {
+            String element = elements[e];
+            Component[] rows = new Component[100];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = node("View", element + "-row-" + i, "{\"flex\": 1}", false,
+                        node("View", element + "-cell-" + i, "{\"flex\": 1}", false));
+            }
+            Component screen = node("View", element + "-screen", "{\"width\": 300, \"height\": 300}", false,
+                    node(element, element + "-scroll", "{\"flex\": 1}", false, rows));
+            Frames frames = new Frames(mRaster);
+            mLayout.layout(screen, frames);
+
+            assertFrame(frames, element + "-scroll", 0, 0, 300, 300);
+            assertNull(mRaster.views.get(element + "-row-0"));
+        }
+        // only the screens and the scrollviews have layout nodes
+        assertEquals(4, mLayout.size());
+    }
+}
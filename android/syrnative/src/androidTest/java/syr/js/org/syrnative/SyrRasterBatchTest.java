@@ -0,0 +1,147 @@
+package syr.js.org.syrnative;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Printer;
+import android.view.ViewGroup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The view mutations of a gui message reach the main thread as one batch.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrRasterBatchTest {
+
+    private static final int CHILDREN = 40;
+
+    private Instrumentation mInstrumentation;
+    private SyrBridge mBridge;
+    private SyrRootView mRootView;
+
+    /**
+     * a bridge without a browser, events go nowhere
+     */
+    private static class SilentBridge extends SyrBridge {
+        SilentBridge(Context context) {
+            super(context, null);
+        }
+
+        @Override
+        public void sendEvent(JSONObject message) {
+        }
+
+        @Override
+        public void sendImmediate(JSONObject message) {
+        }
+    }
+
+    /**
+     * counts what syrnative posts to the main looper
+     */
+    private static class MainThreadPosts implements Printer {
+        volatile int count;
+
+        @Override
+        public void println(String line) {
+            if (line.startsWith(">>>>> Dispatching") && line.contains("syr.js.org.syrnative")
+                    && !line.contains("SyrEventQueue") && !line.contains("Test")) {
+                count++;
+            }
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mRootView = new SyrRootView(context);
+            }
+        });
+        SyrRaster raster = new SyrRaster(context);
+        mBridge = new SilentBridge(context);
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(new SyrView());
+        raster.setModules(modules);
+        raster.setRootview(mRootView);
+        mBridge.setRaster(raster);
+        raster.setBridge(mBridge);
+    }
+
+    private static JSONObject node(String uuid, boolean update) throws Exception {
+        JSONObject style = new JSONObject();
+        style.put("width", 100);
+        style.put("height", 20);
+        style.put("backgroundColor", "#ff0000");
+        JSONObject instance = new JSONObject();
+        instance.put("uuid", uuid);
+        instance.put("style", style);
+        JSONObject node = new JSONObject();
+        node.put("elementName", "View");
+        node.put("uuid", uuid);
+        node.put("guid", uuid);
+        node.put("instance", instance);
+        node.put("update", update);
+        node.put("unmount", false);
+        return node;
+    }
+
+    /**
+     * a screen of CHILDREN views under one root
+     */
+    private static String gui(boolean update) throws Exception {
+        JSONArray children = new JSONArray();
+        for (int i = 0; i < CHILDREN; i++) {
+            children.put(node("batch-item-" + i, update));
+        }
+        JSONObject root = node("batch-root", update);
+        root.put("children", children);
+        return new JSONObject().put("v", 2).put("type", "gui").put("payload", root).toString();
+    }
+
+    @Test
+    public void renderingMessages_postOnceToTheMainThread() throws Exception {
+        MainThreadPosts posts = new MainThreadPosts();
+        Looper.getMainLooper().setMessageLogging(posts);
+        int messages = 10;
+        for (int i = 0; i < messages; i++) {
+            // mounted by the first message, re-rendered by the others
+            mBridge.message(gui(i > 0));
+        }
+
+        final boolean[] shown = {false};
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        while (!shown[0] && SystemClock.uptimeMillis() < deadline) {
+            mInstrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    shown[0] = mRootView.getChildCount() == 1
+                            && ((ViewGroup) mRootView.getChildAt(0)).getChildCount() == CHILDREN;
+                }
+            });
+            SystemClock.sleep(16);
+        }
+        mInstrumentation.waitForIdleSync();
+        Looper.getMainLooper().setMessageLogging(null);
+
+        assertTrue(shown[0]);
+        // CHILDREN views a message, each one used to be a post of its own
+        assertTrue("main thread posts: " + posts.count, posts.count <= messages);
+    }
+}
@@ -0,0 +1,336 @@
+package syr.js.org.syrnative;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Interleaved gui, animation and cmd messages from a bridge thread while the
+ * main thread touches the root view, the raster must end up in the state of
+ * the last message.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrRasterStressTest {
+
+    private static final int CHILDREN = 20;
+    private static final int MESSAGES = 2000;
+
+    private Instrumentation mInstrumentation;
+    private SyrRaster mRaster;
+    private SyrBridge mBridge;
+    private SyrRootView mRootView;
+    private StressModule mStressModule;
+
+    /**
+     * the module the cmd messages call, it records the threads its calls ran on
+     */
+    public static class StressModule implements SyrBaseModule {
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(MESSAGES / 4);
+        final AtomicInteger running = new AtomicInteger();
+        volatile boolean overlapped;
+
+        @Override
+        public String getName() {
+            return "StressModule";
+        }
+
+        @SyrMethod
+        public void noop() {
+            if (running.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            threads.add(Thread.currentThread().getName());
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = InstrumentationRegistry.getTargetContext();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mRootView = new SyrRootView(context);
+            }
+        });
+        mRaster = new SyrRaster(context);
+        mBridge = new SyrBridge(context, null);
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(new SyrView());
+        modules.add(new SyrText());
+        mStressModule = new StressModule();
+        modules.add(mStressModule);
+        mRaster.setModules(modules);
+        mRaster.setRootview(mRootView);
+        mBridge.setRaster(mRaster);
+        mRaster.setBridge(mBridge);
+    }
+
+    private static JSONObject node(String uuid, String key, boolean update, boolean unmount) throws Exception {
+        JSONObject style = new JSONObject();
+        style.put("width", 100);
+        style.put("height", 20);
+        // a background keeps the view from being flattened
+        style.put("backgroundColor", "#ff0000");
+        JSONObject instance = new JSONObject();
+        instance.put("uuid", uuid);
+        instance.put("style", style);
+        JSONObject node = new JSONObject();
+        node.put("elementName", "View");
+        node.put("uuid", uuid);
+        node.put("guid", uuid);
+        node.put("instance", instance);
+        node.put("update", update);
+        node.put("unmount", unmount);
+        if (key != null) {
+            node.put("attributes", new JSONObject().put("key", key));
+        }
+        return node;
+    }
+
+    private static String gui(List<String> keys, String unmounted, boolean update) throws Exception {
+        JSONArray children = new JSONArray();
+        for (int i = 0; i < keys.size(); i++) {
+            children.put(node("stress-item", keys.get(i), update, false));
+        }
+        if (unmounted != null) {
+            children.put(node("stress-item", unmounted, true, true));
+        }
+        JSONObject root = node("stress-root", null, update, false);
+        root.put("children", children);
+        return new JSONObject().put("v", 2).put("type", "gui").put("payload", root).toString();
+    }
+
+    private static String animation(int step) throws Exception {
+        JSONObject animation = new JSONObject();
+        animation.put("x", 0);
+        animation.put("y", 0);
+        animation.put("x2", step % 10);
+        animation.put("y2", step % 10);
+        animation.put("duration", 1);
+        JSONObject payload = new JSONObject();
+        payload.put("guid", "stress-root");
+        payload.put("animation", animation);
+        return new JSONObject().put("v", 2).put("type", "animation").put("payload", payload).toString();
+    }
+
+    private static String cmd() throws Exception {
+        JSONObject payload = new JSONObject();
+        payload.put("clazz", StressModule.class.getName());
+        payload.put("method", "noop");
+        payload.put("paramTypes", new JSONArray());
+        payload.put("args", new JSONObject());
+        return new JSONObject().put("v", 2).put("type", "cmd").put("payload", payload).toString();
+    }
+
+    @Test
+    public void interleavedMessages_endInTheLastState() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < CHILDREN; i++) {
+            keys.add("k" + i);
+        }
+
+        // the WebView has a single JavaBridge thread, one producer stands in for it
+        final Throwable[] failure = new Throwable[1];
+        Thread javaBridge = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Random random = new Random(22);
+                    mBridge.message(gui(keys, null, false));
+                    List<String> shown = new ArrayList<String>(keys);
+                    for (int i = 0; i < MESSAGES; i++) {
+                        switch (i % 4) {
+                            case 0:
+                                Collections.shuffle(shown, random);
+                                mBridge.message(gui(shown, null, true));
+                                break;
+                            case 1:
+                                // drop a child, it is mounted again by the next update
+                                String dropped = shown.remove(random.nextInt(shown.size()));
+                                mBridge.message(gui(shown, dropped, true));
+                                shown.add(random.nextInt(shown.size() + 1), dropped);
+                                break;
+                            case 2:
+                                mBridge.message(animation(i));
+                                break;
+                            default:
+                                mBridge.message(cmd());
+                                break;
+                        }
+                    }
+                    List<String> last = new ArrayList<String>(keys);
+                    Collections.reverse(last);
+                    mBridge.message(gui(last, null, true));
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        }, "JavaBridge");
+
+        final boolean[] producing = {true};
+        javaBridge.start();
+        while (producing[0]) {
+            // touches and layout reads on the main thread while the raster renders
+            mInstrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    mRaster.noteInput();
+                    mRootView.requestLayout();
+                    if (mRootView.getChildCount() > 0) {
+                        ((ViewGroup) mRootView.getChildAt(0)).getChildCount();
+                    }
+                }
+            });
+            javaBridge.join(5);
+            producing[0] = javaBridge.isAlive();
+        }
+        assertNull(failure[0]);
+
+        // every message before this one has been rendered once it runs
+        final CountDownLatch drained = new CountDownLatch(1);
+        final List<View> expected = new ArrayList<View>();
+        mRaster.post(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = CHILDREN - 1; i >= 0; i--) {
+                    expected.add(mRaster.findView("stress-item-k" + i));
+                }
+                expected.add(mRaster.findView("stress-root"));
+                drained.countDown();
+            }
+        });
+        assertTrue(drained.await(30, TimeUnit.SECONDS));
+        for (int i = 0; i < expected.size(); i++) {
+            assertNotNull(expected.get(i));
+        }
+
+        // the scheduler spreads batches over frames, wait for the last one
+        final boolean[] settled = {false};
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        while (!settled[0] && SystemClock.uptimeMillis() < deadline) {
+            mInstrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    settled[0] = matches(expected);
+                }
+            });
+            SystemClock.sleep(16);
+        }
+        assertTrue(settled[0]);
+
+        // every cmd reached the module, one at a time on its serial queue off the main,
+        // raster and bridge threads
+        assertTrue(mStressModule.done.await(30, TimeUnit.SECONDS));
+        assertEquals(MESSAGES / 4, mStressModule.threads.size());
+        assertFalse(mStressModule.overlapped);
+        for (int i = 0; i < mStressModule.threads.size(); i++) {
+            assertTrue(mStressModule.threads.get(i), mStressModule.threads.get(i).startsWith("SyrModules-"));
+        }
+    }
+
+    /**
+     * a screen js mounts: a non-renderable wrapping views nested a few levels deep
+     */
+    private static JSONObject screen(String uuid, int depth, boolean unmount) throws Exception {
+        JSONObject view = node(uuid + "-view", null, true, false);
+        JSONArray children = new JSONArray();
+        for (int i = 0; depth > 0 && i < 3; i++) {
+            children.put(screen(uuid + "-" + i, depth - 1, false).getJSONArray("children").get(0));
+        }
+        view.put("children", children);
+        JSONObject wrapper = new JSONObject();
+        wrapper.put("elementName", "Screen");
+        wrapper.put("uuid", uuid);
+        wrapper.put("guid", uuid);
+        wrapper.put("update", true);
+        wrapper.put("unmount", unmount);
+        wrapper.put("children", new JSONArray().put(view));
+        return wrapper;
+    }
+
+    private static String host(JSONObject child) throws Exception {
+        JSONObject root = node("stress-root", null, child != null, false);
+        root.put("children", child != null ? new JSONArray().put(child) : new JSONArray());
+        return new JSONObject().put("v", 2).put("type", "gui").put("payload", root).toString();
+    }
+
+    private int mountedCount() throws Exception {
+        final int[] count = new int[1];
+        final CountDownLatch counted = new CountDownLatch(1);
+        mRaster.post(new Runnable() {
+            @Override
+            public void run() {
+                count[0] = mRaster.mountedCount();
+                counted.countDown();
+            }
+        });
+        assertTrue(counted.await(30, TimeUnit.SECONDS));
+        return count[0];
+    }
+
+    @Test
+    public void mountingAndUnmountingScreens_keepsNothingOfThem() throws Exception {
+        mBridge.message(host(null));
+        int mounted = mountedCount();
+        for (int i = 0; i < 50; i++) {
+            mBridge.message(host(screen("screen", 3, false)));
+            mBridge.message(host(screen("screen", 3, true)));
+        }
+        // every node of the screens, however deep, left the registry
+        assertEquals(mounted, mountedCount());
+
+        final boolean[] emptied = {false};
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        while (!emptied[0] && SystemClock.uptimeMillis() < deadline) {
+            mInstrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    emptied[0] = mRootView.getChildCount() == 1
+                            && ((ViewGroup) mRootView.getChildAt(0)).getChildCount() == 0;
+                }
+            });
+            SystemClock.sleep(16);
+        }
+        assertTrue(emptied[0]);
+    }
+
+    private boolean matches(List<View> expected) {
+        if (mRootView.getChildCount() != 1 || mRootView.getChildAt(0) != expected.get(CHILDREN)) {
+            return false;
+        }
+        ViewGroup root = (ViewGroup) mRootView.getChildAt(0);
+        if (root.getChildCount() != CHILDREN) {
+            return false;
+        }
+        for (int i = 0; i < CHILDREN; i++) {
+            if (root.getChildAt(i) != expected.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Releasing and acquiring pooled views, with real views.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyrViewPoolInstrumentedTest {
+
+    /**
+     * a recyclable element the pool isn't pre-warmed with
+     */
+    static class Row implements SyrBaseModule, SyrComponent, SyrRecyclable {
+        boolean reusable = true;
+
+        @Override
+        public String getName() {
+            return "Row";
+        }
+
+        @Override
+        public View render(JSONObject component, Context context, View instance) {
+            return instance != null ? instance : createView(context);
+        }
+
+        @Override
+        public View render(Component component, Context context, View instance) {
+            return instance != null ? instance : createView(context);
+        }
+
+        @Override
+        public View createView(Context context) {
+            return new FrameLayout(context);
+        }
+
+        @Override
+        public boolean resetView(View view) {
+            return reusable;
+        }
+    }
+
+    private Context mContext;
+    private Row mRow;
+    private SyrViewPool mPool;
+
+    @Before
+    public void setUp() throws Exception {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mRow = new Row();
+        SyrRaster raster = new SyrRaster(mContext);
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(mRow);
+        modules.add(new SyrView());
+        raster.setModules(modules);
+        mPool = raster.getViewPool();
+    }
+
+    private static Component node(String elementName) {
+        Component node = new Component();
+        node.elementName = elementName;
+        return node;
+    }
+
+    private void release(final String elementName, final View view) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mPool.release(elementName, view);
+            }
+        });
+    }
+
+    @Test
+    public void releasedView_isAcquiredAgainReset() throws Exception {
+        assertNull(mPool.acquire(node("Row")));
+        assertEquals(1, mPool.getMissCount());
+
+        View view = mRow.createView(mContext);
+        view.setAlpha(0.5f);
+        view.setTranslationX(20);
+        release("Row", view);
+        assertEquals(1, mPool.size("Row"));
+
+        View acquired = mPool.acquire(node("Row"));
+        assertSame(view, acquired);
+        assertEquals(1f, acquired.getAlpha(), 0.001f);
+        assertEquals(0f, acquired.getTranslationX(), 0.001f);
+        assertNotNull(acquired.getLayoutParams());
+        assertEquals(0, mPool.size("Row"));
+        assertEquals(1, mPool.getHitCount());
+    }
+
+    @Test
+    public void viewsStayWithTheirElement() throws Exception {
+        release("Row", mRow.createView(mContext));
+        assertNull(mPool.acquire(node("Text")));
+        assertNotNull(mPool.acquire(node("Row")));
+    }
+
+    @Test
+    public void capacity_boundsThePool() throws Exception {
+        mPool.setCapacity("Row", 2);
+        for (int i = 0; i < 5; i++) {
+            release("Row", mRow.createView(mContext));
+        }
+        assertEquals(2, mPool.size("Row"));
+
+        mPool.setCapacity("Row", 1);
+        assertEquals(1, mPool.size("Row"));
+        mPool.setCapacity("Row", 0);
+        release("Row", mRow.createView(mContext));
+        assertEquals(0, mPool.size("Row"));
+    }
+
+    @Test
+    public void viewsThatCantBeReused_areDropped() throws Exception {
+        mRow.reusable = false;
+        release("Row", mRow.createView(mContext));
+        assertEquals(0, mPool.size("Row"));
+
+        // an element without a recyclable component isn't pooled
+        release("Unknown", mRow.createView(mContext));
+        assertEquals(0, mPool.size("Unknown"));
+    }
+
+    @Test
+    public void attachedViews_areNotPooled() throws Exception {
+        final View view = mRow.createView(mContext);
+        FrameLayout parent = new FrameLayout(mContext);
+        parent.addView(view);
+        release("Row", view);
+        assertEquals(0, mPool.size("Row"));
+    }
+
+    @Test
+    public void defaultsCapturedOffTheMainThread_resetViewsOnIt() throws Exception {
+        final SyrText text = new SyrText();
+        final SyrButton button = new SyrButton();
+        final TextView[] created = new TextView[2];
+        // the raster thread renders the first view of an element
+        Thread raster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                created[0] = (TextView) text.createView(mContext);
+                created[1] = (TextView) button.createView(mContext);
+            }
+        });
+        raster.start();
+        raster.join();
+
+        final TextView[] reset = new TextView[2];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                reset[0] = (TextView) text.createView(mContext);
+                reset[1] = (TextView) button.createView(mContext);
+                for (int i = 0; i < 2; i++) {
+                    reset[i].setTextColor(Color.RED);
+                    reset[i].setText("styled");
+                }
+                assertTrue(text.resetView(reset[0]));
+                assertTrue(button.resetView(reset[1]));
+            }
+        });
+        for (int i = 0; i < 2; i++) {
+            assertEquals(created[i].getCurrentTextColor(), reset[i].getCurrentTextColor());
+            assertEquals("", reset[i].getText().toString());
+        }
+    }
+}
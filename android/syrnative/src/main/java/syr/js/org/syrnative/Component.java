@@ -1,21 +1,60 @@
 package syr.js.org.syrnative;
 
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Created by simalkireddy on 5/31/18.
+ *
+ * A render node decoded from the AST sent over the bridge.
+ * Fields are filled in by the SyrASTDecoder, only the parts of the AST
+ * the raster uses are kept, the rest of the component instance is skipped.
  */
 
 public class Component {
 
-    private String uuid;
-    private Component[] children;
-    private String guid;
-    private String elementName;
-    private JSONObject attributes;
-    private JSONObject instance;
-    private String fenceid;
-    private String key;
+    String uuid;
+    List<Component> children = new ArrayList<Component>();
+    String guid;
+    String elementName;
+    JSONObject attributes;
+    String fenceid;
+    String key;
+    boolean update;
+    boolean unmount;
+    // tag js sent with the node once it knew it, checked once before it is trusted
+    int sentTag;
+    // tag of the node's instance, 0 until the registry resolved it. See SyrInstanceRegistry
+    int tag;
+    // uuid with the key, built once when the node is decoded, see SyrRaster.instanceKey
+    String instanceKey;
+
+    // parts of the component instance, props are the only tree materialized
+    String instanceUuid;
+    JSONObject props;
+    SyrStyle style;
+    String value;
+    // data of a ListView, only sent with its mount
+    JSONArray rows;
+
+    // number of children rendered into this node, stackviews space every child after the first
+    int renderedChildren;
+
+    // sum of the heights of the children as the raster measures them, -1 until measured
+    int contentHeight = -1;
+
+    // what changed since the node last rendered into the same view, everything until diffed
+    int styleChanges = SyrStyle.ALL;
+    boolean propsChanged = true;
+    boolean valueChanged = true;
+
+    private JSONObject json;
 
     public String getUuid() {
         return uuid;
@@ -38,10 +77,18 @@ public class Component {
     }
 
     public void setKey(String key) {
+        if (key == null ? this.key != null : !key.equals(this.key)) {
+            instanceKey = null;
+            tag = 0;
+        }
         this.key = key;
     }
 
-    public Component[] getChildren() {
+    public int getTag() {
+        return tag;
+    }
+
+    public List<Component> getChildren() {
         return children;
     }
 
@@ -49,8 +96,172 @@ public class Component {
         return attributes;
     }
 
-    public JSONObject getInstance() {
-        return instance;
+    public String getInstanceUuid() {
+        return instanceUuid;
+    }
+
+    public JSONObject getProps() {
+        return props;
+    }
+
+    public SyrStyle getStyle() {
+        return style;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public JSONArray getRows() {
+        return rows;
+    }
+
+    public boolean isUpdate() {
+        return update;
+    }
+
+    public boolean isUnmount() {
+        return unmount;
+    }
+
+    /**
+     * whether any of the style properties in mask changed since the view was last rendered
+     */
+    public boolean styleChanged(int mask) {
+        return (styleChanges & mask) != 0;
+    }
+
+    public boolean propsChanged() {
+        return propsChanged;
+    }
+
+    public boolean valueChanged() {
+        return valueChanged;
+    }
+
+    public boolean hasChanges() {
+        return styleChanges != 0 || propsChanged || valueChanged;
+    }
+
+    /**
+     * compare with the node the view was last rendered from, null for a new view
+     */
+    void diff(Component previous) {
+        if (previous == null) {
+            styleChanges = SyrStyle.ALL;
+            propsChanged = true;
+            valueChanged = true;
+            return;
+        }
+
+        if (style == null) {
+            styleChanges = previous.style == null ? 0 : previous.style.flags;
+        } else {
+            styleChanges = style.diff(previous.style);
+        }
+        propsChanged = !sameJSON(props, previous.props);
+        valueChanged = value == null ? previous.value != null : !value.equals(previous.value);
+    }
+
+    /**
+     * what the raster keeps of a rendered node to diff the next update against,
+     * without holding on to its children
+     */
+    Component snapshot() {
+        Component snapshot = new Component();
+        snapshot.elementName = elementName;
+        snapshot.props = props;
+        snapshot.style = style;
+        snapshot.value = value;
+        return snapshot;
+    }
+
+    /**
+     * deep equality of decoded json values, no strings are built
+     */
+    static boolean sameJSON(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject objectA = (JSONObject) a;
+            JSONObject objectB = (JSONObject) b;
+            if (objectA.length() != objectB.length()) {
+                return false;
+            }
+            Iterator<String> keys = objectA.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!sameJSON(objectA.opt(key), objectB.opt(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            JSONArray arrayA = (JSONArray) a;
+            JSONArray arrayB = (JSONArray) b;
+            if (arrayA.length() != arrayB.length()) {
+                return false;
+            }
+            for (int i = 0; i < arrayA.length(); i++) {
+                if (!sameJSON(arrayA.opt(i), arrayB.opt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * JSON view of this node for components that render from a JSONObject.
+     * Built once per node and only holds this node, never the children.
+     */
+    public JSONObject toJSON() {
+        if (json == null) {
+            try {
+                JSONObject instance = new JSONObject();
+                instance.put("uuid", instanceUuid);
+                instance.put("props", props != null ? props : new JSONObject());
+                if (style != null) {
+                    instance.put("style", style.toJSON());
+                }
+                if (value != null) {
+                    instance.put("value", value);
+                }
+
+                json = new JSONObject();
+                json.put("uuid", uuid);
+                json.put("guid", guid);
+                json.put("elementName", elementName);
+                json.put("instance", instance);
+                if (attributes != null) {
+                    json.put("attributes", attributes);
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Render node for an AST that has already been parsed into json.
+     */
+    public static Component fromJSON(JSONObject json) {
+        try {
+            return new SyrASTDecoder().decodeAST(json.toString());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new Component();
+        }
     }
 
 }
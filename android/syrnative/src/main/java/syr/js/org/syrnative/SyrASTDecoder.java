@@ -0,0 +1,285 @@
+package syr.js.org.syrnative;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Pull parser that decodes bridge messages in a single pass.
+ *
+ * gui payloads go straight from the message string to Component render nodes,
+ * no JSONObject/JSONArray is built for the tree itself. Only the props of a
+ * node are materialized, its style is read into a SyrStyle and everything else
+ * on the component instance (state, cached child asts, etc.) is skipped
+ * without being parsed into objects.
+ *
+ * Element names and style keys repeat across every node of every update, they
+ * are interned so retained nodes share one copy (and its cached hash).
+ */
+public class SyrASTDecoder {
+
+    private HashMap<String, String> mNames = new HashMap<String, String>();
+
+    public SyrMessage decodeMessage(String message) throws IOException, JSONException {
+        JsonReader reader = new JsonReader(new StringReader(message));
+        int version = SyrMessage.PROTOCOL_LEGACY;
+        String type = null;
+        String legacyPayload = null;
+        JSONObject payload = null;
+        Component ast = null;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("v")) {
+                    version = reader.nextInt();
+                } else if (name.equals("type")) {
+                    type = reader.nextString();
+                } else if (name.equals("payload")) {
+                    // the raster writes the type before the payload, so gui asts stream into nodes
+                    if ("gui".equals(type)) {
+                        ast = readComponent(reader);
+                    } else {
+                        payload = readObject(reader);
+                    }
+                } else if (name.equals("ast")) {
+                    legacyPayload = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            reader.close();
+        }
+
+        if (type == null) {
+            throw new JSONException("bridge message without a type");
+        }
+
+        if (legacyPayload != null) {
+            // compatibility mode, the payload is a json string of its own
+            if (type.equals("gui")) {
+                ast = decodeAST(legacyPayload);
+            } else {
+                payload = new JSONObject(legacyPayload);
+            }
+        } else if (ast == null && payload != null && type.equals("gui")) {
+            // payload arrived ahead of its type
+            ast = decodeAST(payload.toString());
+        }
+
+        return new SyrMessage(version, type, payload, ast);
+    }
+
+    public Component decodeAST(String ast) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(ast));
+        Component component;
+        try {
+            component = readComponent(reader);
+        } finally {
+            reader.close();
+        }
+        resolveKeys(component);
+        return component;
+    }
+
+    /**
+     * children without attributes inherit the key of their keyed parent, so the views
+     * of the items of an array don't share instance keys. Every node's instance key
+     * is built here, the raster never builds one again
+     */
+    private static void resolveKeys(Component node) {
+        SyrRaster.instanceKey(node);
+        List<Component> children = node.children;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            if (node.attributes != null && node.key != null && child.attributes == null) {
+                child.key = node.key;
+            }
+            resolveKeys(child);
+        }
+    }
+
+    private Component readComponent(JsonReader reader) throws IOException {
+        Component component = new Component();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+
+            if (name.equals("elementName")) {
+                component.elementName = intern(reader.nextString());
+            } else if (name.equals("uuid")) {
+                component.uuid = reader.nextString();
+            } else if (name.equals("guid")) {
+                component.guid = reader.nextString();
+            } else if (name.equals("fenceid")) {
+                component.fenceid = reader.nextString();
+            } else if (name.equals("key")) {
+                component.key = reader.nextString();
+            } else if (name.equals("tag")) {
+                component.sentTag = reader.nextInt();
+            } else if (name.equals("update")) {
+                component.update = reader.nextBoolean();
+            } else if (name.equals("unmount")) {
+                component.unmount = reader.nextBoolean();
+            } else if (name.equals("attributes")) {
+                component.attributes = readObject(reader);
+                if (component.attributes.has("key")) {
+                    component.key = component.attributes.optString("key");
+                }
+            } else if (name.equals("instance")) {
+                readInstance(reader, component);
+            } else if (name.equals("children")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        component.children.add(readComponent(reader));
+                    } else {
+                        // text children are already folded into the instance value
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return component;
+    }
+
+    private void readInstance(JsonReader reader, Component component) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+
+            if (name.equals("uuid")) {
+                component.instanceUuid = reader.nextString();
+            } else if (name.equals("props")) {
+                component.props = readObject(reader);
+            } else if (name.equals("style")) {
+                component.style = readStyle(reader);
+            } else if (name.equals("value")) {
+                component.value = reader.nextString();
+            } else if (name.equals("rows") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                component.rows = readArray(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    // style goes straight into the primitive struct, no map is built for it
+    private SyrStyle readStyle(JsonReader reader) throws IOException {
+        SyrStyle style = new SyrStyle();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = intern(reader.nextName());
+            switch (reader.peek()) {
+                case NUMBER:
+                    style.put(name, reader.nextDouble());
+                    break;
+                case STRING:
+                    style.put(name, reader.nextString());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    break;
+                default:
+                    style.putExtra(name, readValue(reader));
+            }
+        }
+        reader.endObject();
+        return style;
+    }
+
+    private JSONObject readObject(JsonReader reader) throws IOException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            try {
+                object.put(name, readValue(reader));
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+        }
+        reader.endObject();
+        return object;
+    }
+
+    private JSONArray readArray(JsonReader reader) throws IOException {
+        JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    private Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                return readNumber(reader.nextString());
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    // numbers keep the same boxed types org.json would have produced
+    private Object readNumber(String number) {
+        if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(number);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                // fall through to double
+            }
+        }
+        return Double.parseDouble(number);
+    }
+
+    private String intern(String name) {
+        String interned = mNames.get(name);
+        if (interned == null) {
+            mNames.put(name, name);
+            interned = name;
+        }
+        return interned;
+    }
+}
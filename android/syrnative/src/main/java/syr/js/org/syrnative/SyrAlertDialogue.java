@@ -15,11 +15,12 @@ import org.json.JSONObject;
  * Created by simalkireddy on 6/8/18.
  */
 
-public class SyrAlertDialogue implements SyrBaseModule {
+public class SyrAlertDialogue implements SyrQueuedModule {
 
     @SyrMethod
-    public static void alert(String title, String message, final JSONArray actions, Context c) {
+    public static SyrPromise alert(String title, String message, final JSONArray actions, Context c) {
 
+        final SyrPromise promise = new SyrPromise();
         AlertDialog.Builder builder = new AlertDialog.Builder(c);
         try {
             builder.setTitle(title)
@@ -27,41 +28,54 @@ public class SyrAlertDialogue implements SyrBaseModule {
                     .setPositiveButton(actions.getJSONObject(0).getString("title"), new DialogInterface.OnClickListener() {
                         public void onClick(DialogInterface dialog, int which) {
                             // continue with delete
-                            try {
-
-                                JSONObject eventMap = new JSONObject();
-                                eventMap.put("type", "event");
-                                eventMap.put("name", "alertDialogue");
-                                eventMap.put("body", actions.getJSONObject(0).getString("title"));
-                                SyrEventHandler.getInstance().sendEvent(eventMap);
-                            } catch (JSONException e) {
-                                e.printStackTrace();
-                            }
+                            sendAction(promise, actions, 0);
                         }
                     })
                     .setNegativeButton(actions.getJSONObject(1).getString("title"), new DialogInterface.OnClickListener() {
                         public void onClick(DialogInterface dialog, int which) {
-                            try {
-
-                                JSONObject eventMap = new JSONObject();
-                                eventMap.put("type", "event");
-                                eventMap.put("name", "alertDialogue");
-                                eventMap.put("body", actions.getJSONObject(1).getString("title"));
-                                SyrEventHandler.getInstance().sendEvent(eventMap);
-                            } catch (JSONException e) {
-                                e.printStackTrace();
-                            }
+                            sendAction(promise, actions, 1);
+                        }
+                    })
+                    .setOnCancelListener(new DialogInterface.OnCancelListener() {
+                        public void onCancel(DialogInterface dialog) {
+                            // no action was picked
+                            promise.resolve(null);
                         }
                     })
                     .show();
         } catch (JSONException e) {
             e.printStackTrace();
+            promise.reject(e.getMessage());
         }
 
+        return promise;
+    }
+
+    private static void sendAction(SyrPromise promise, JSONArray actions, int index) {
+        try {
+            String action = actions.getJSONObject(index).getString("title");
+            if (promise.isAwaited()) {
+                promise.resolve(action);
+            } else {
+                JSONObject eventMap = new JSONObject();
+                eventMap.put("type", "event");
+                eventMap.put("name", "alertDialogue");
+                eventMap.put("body", action);
+                SyrEventHandler.getInstance().sendEvent(eventMap);
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
     }
 
     @Override
     public String getName() {
         return "AlertDialogue";
     }
+
+    @Override
+    public int getMethodQueue() {
+        // dialogs are shown from the main thread
+        return QUEUE_UI;
+    }
 }
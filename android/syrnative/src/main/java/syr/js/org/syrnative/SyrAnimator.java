@@ -2,29 +2,82 @@ package syr.js.org.syrnative;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.os.Handler;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.LinearInterpolator;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 
 /**
  * Syr Project
  * https://syr.js.org
  * Created by Derek Anderson on 1/8/18.
+ *
+ * Position, rotation and opacity are animated with the view's
+ * ViewPropertyAnimator, drawn from a hardware layer while they run, so the
+ * view isn't redrawn or laid out per frame and the animation can run on the
+ * RenderThread. Width and height move the view's frame each frame, only the
+ * view and its children are measured and laid out, the rest of the tree once
+ * at the end.
+ *
+ * An animation that a newer one of the same view takes over still reports
+ * animationComplete, when the newer one starts: a resize when the next resize
+ * of the view starts, a property animation once every property it animated
+ * was taken over, the way the ViewPropertyAnimator drops it.
  */
 public class SyrAnimator {
-    // todo: width and height
-    // do we need two of these? borrow this from the raster?
-//    static private Handler animationHandler = new Handler(Looper.getMainLooper());
-    static private HashMap<View, ObjectAnimator> animationCache = new HashMap<>();
+    // views of this raster that were animated, so an unmount or a teardown can stop them
+    private final HashSet<View> mAnimated = new HashSet<View>();
+    // running width and height animations
+    private final HashMap<View, ValueAnimator> mResizes = new HashMap<View, ValueAnimator>();
+    // property animations that haven't reported animationComplete yet, main thread
+    private final HashMap<View, ArrayList<Completion>> mCompletions = new HashMap<View, ArrayList<Completion>>();
+
+    // view properties a ViewPropertyAnimator animation drives
+    static final int PROPERTY_X = 1;
+    static final int PROPERTY_Y = 1 << 1;
+    static final int PROPERTY_ALPHA = 1 << 2;
+    static final int PROPERTY_ROTATION = 1 << 3;
+    static final int PROPERTY_ROTATION_X = 1 << 4;
+    static final int PROPERTY_ROTATION_Y = 1 << 5;
+    static final int PROPERTY_SCALE = 1 << 6;
+
+    /**
+     * the end action of a property animation, reports animationComplete once
+     */
+    private class Completion implements Runnable {
+        final View view;
+        // properties the animation still drives
+        int properties;
+        final Runnable complete;
+
+        Completion(View view, int properties, Runnable complete) {
+            this.view = view;
+            this.properties = properties;
+            this.complete = complete;
+        }
+
+        @Override
+        public void run() {
+            ArrayList<Completion> completions = mCompletions.get(view);
+            if (completions == null || !completions.remove(this)) {
+                return;
+            }
+            if (completions.isEmpty()) {
+                mCompletions.remove(view);
+            }
+            complete.run();
+        }
+    }
 
     static private String determineAnimationType(JSONObject animationDict) {
         if (animationDict.has("animatedProperty")) {
@@ -33,20 +86,43 @@ public class SyrAnimator {
         return "animateComponentXY";
     }
 
-    // animate a view
-    static void animate(final View component, final JSONObject jsonAnimation, final SyrBridge bridge, final Handler animationHandler) throws JSONException {
+    /**
+     * stop the animations of an unmounted view, on the main thread
+     */
+    void cancel(View view) {
+        mAnimated.remove(view);
+        mCompletions.remove(view);
+        ValueAnimator resize = mResizes.remove(view);
+        if (resize != null) {
+            // js doesn't hear animationComplete for a node that is gone
+            resize.removeAllListeners();
+            resize.cancel();
+        }
+        // end actions don't run for a cancelled ViewPropertyAnimator
+        view.animate().cancel();
+        view.clearAnimation();
+    }
+
+    /**
+     * stop every animation and forget the views, on the main thread when the raster is torn down
+     */
+    void cancelAll() {
+        View[] views = mAnimated.toArray(new View[mAnimated.size()]);
+        for (int i = 0; i < views.length; i++) {
+            cancel(views[i]);
+        }
+    }
+
+    // animate a view, called on the raster thread, the animation starts on the main thread
+    void animate(final View component, final JSONObject jsonAnimation, final SyrBridge bridge, final Handler animationHandler) throws JSONException {
         final String guid = jsonAnimation.getString("guid");
         final JSONObject animationDict = jsonAnimation.getJSONObject("animation");
         String animationType = determineAnimationType(animationDict);
+        final int duration = animationDict.getInt("duration");
 
-        final Animator.AnimatorListener listener = new Animator.AnimatorListener() {
+        final Runnable complete = new Runnable() {
             @Override
-            public void onAnimationStart(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationEnd(final Animator animation) {
+            public void run() {
                 try {
                     JSONObject eventMap = new JSONObject();
                     eventMap.put("type", "animationComplete");
@@ -57,232 +133,202 @@ public class SyrAnimator {
                     e.printStackTrace();
                 }
             }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-
-            }
         };
 
-        if (animationType == "animateComponentXY") {
-
+        if (animationType.equals("animateComponentXY")) {
+            //@TODO taking out fromX and fromY for now to get smooth working. Need to figure out a better way to do it
+            final boolean animateX = animationDict.has("x2");
+            final boolean animateY = animationDict.has("y2");
+            final float toX = (float) animationDict.optDouble("x2", 0);
+            final float toY = (float) animationDict.optDouble("y2", 0);
+            if (!animateX && !animateY) {
+                return;
+            }
 
             animationHandler.post(new Runnable() {
                 @Override
                 public void run() {
-
-                    AnimatorSet mover = null;
-
-                    Integer fromX = null;
-                    Integer fromY = null;
-                    Integer toX = null;
-                    Integer toY = null;
-                    Integer duration = null;
-                    try {
-                        duration = animationDict.getInt("duration");
-
-                        ObjectAnimator xAnimation = null;
-                        ObjectAnimator yAnimation = null;
-
-                        if (animationDict.has("x2") && animationDict.has("y2")) {
-                            mover = new AnimatorSet();
-                        }
-                        //@TODO taking out fromX and fromY for now to get smooth working. Need to figure out a better way to do it
-                        if (animationDict.has("x2")) {
-                            fromX = animationDict.getInt("x");
-                            toX = animationDict.getInt("x2");
-                            xAnimation = ObjectAnimator.ofFloat(component, "x", toX);
-                            xAnimation.setDuration(duration);
-
-                            xAnimation.setInterpolator(new AccelerateDecelerateInterpolator());
-                        }
-
-                        if (animationDict.has("y2")) {
-                            fromY = animationDict.getInt("y");
-                            toY = animationDict.getInt("y2");
-                            yAnimation = ObjectAnimator.ofFloat(component, "y", toY);
-                            yAnimation.setDuration(duration);
-
-                            yAnimation.setInterpolator(new AccelerateDecelerateInterpolator());
-                        }
-
-                        if (mover != null) {
-                            mover.play(xAnimation).with(yAnimation);
-                            mover.addListener(listener);
-                            mover.start();
-                        } else {
-                            if (fromX != null) {
-                                xAnimation.addListener(listener);
-                                xAnimation.start();
-                            } else if (fromY != null) {
-                                yAnimation.addListener(listener);
-                                yAnimation.start();
-                            }
-                        }
-
-                    } catch (JSONException e) {
-                        e.printStackTrace();
+                    ViewPropertyAnimator animator = component.animate();
+                    if (animateX) {
+                        animator.x(toX);
                     }
-
+                    if (animateY) {
+                        animator.y(toY);
+                    }
+                    animator.setInterpolator(new AccelerateDecelerateInterpolator());
+                    start(component, animator, duration, (animateX ? PROPERTY_X : 0) | (animateY ? PROPERTY_Y : 0), complete);
                 }
             });
-
-
         }
 
-        if (animationType == "animateInterpolate") {
+        if (animationType.equals("animateInterpolate")) {
 
             String propertyName = animationDict.getString("animatedProperty").toLowerCase();
-            final Integer fromValue = animationDict.getInt("value");
-            final Integer toValue = animationDict.getInt("toValue");
-            final Integer duration = animationDict.getInt("duration");
-
-            if (propertyName.contains("rotate") || propertyName.contains("opacity")) {
 
-                if (propertyName.contains("rotate")) {
-                    if (propertyName.contains("x")) {
-                        propertyName = "rotationX";
-                    }
-                    if (propertyName.contains("y")) {
-                        propertyName = "rotationY";
-                    }
-                    if (propertyName.contains("z")) {
-                        propertyName = "rotation";
-                    }
-                }
-
-                if (propertyName.contains("opacity")) {
-                    propertyName = "alpha";
-                }
-
-                final String finalPropertyName = propertyName;
+            if (propertyName.contains("height") || propertyName.contains("width")) {
+                final boolean height = propertyName.contains("height");
+                final int fromValue = animationDict.getInt("value");
+                final int toValue = animationDict.getInt("toValue");
                 animationHandler.post(new Runnable() {
                     @Override
                     public void run() {
-                        ObjectAnimator anim;
-                        if (animationCache.containsKey(component) && !finalPropertyName.contains("alpha")) {
-                            anim = animationCache.get(component);
-                        } else {
-                            anim = ObjectAnimator.ofFloat(component, finalPropertyName, fromValue, toValue); // rotationX, rotationY
-                            animationCache.put(component, anim);
-                            anim.addListener(listener);
-                        }
-
-                        anim.setDuration(duration);
-                        // we don't want easing at the ends by default.
-                        // otherwise callbacks will be delayed through final frames
-                        anim.setInterpolator(new LinearInterpolator());
-                        anim.start();
+                        resize(component, height, fromValue, toValue, duration, complete);
                     }
                 });
-
+                return;
             }
 
-            if (propertyName.contains("height")) {
-                animationHandler.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        ValueAnimator valueAnimator = ValueAnimator
-                                .ofInt(fromValue, toValue)
-                                .setDuration(duration);
-
-                        valueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                            @Override
-                            public void onAnimationUpdate(final ValueAnimator animation) {
-
-                                animationHandler.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        // get the value the interpolator is at
-                                        Integer value = (Integer) animation.getAnimatedValue();
-                                        // I'm going to set the layout's height 1:1 to the tick
-                                        component.getLayoutParams().height = value.intValue();
-                                        // force all layouts to see which ones are affected by
-                                        // this layouts height change
-                                        component.requestLayout();
-                                    }
-                                });
-
-                            }
-                        });
-
-                        valueAnimator.addListener(new AnimatorListenerAdapter() {
-                            @Override
-                            public void onAnimationEnd(Animator animation) {
-                                animationHandler.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        try {
-                                            JSONObject eventMap = new JSONObject();
-                                            eventMap.put("type", "animationComplete");
-                                            eventMap.put("animation", jsonAnimation.toString());
-                                            eventMap.put("guid", guid);
-                                            bridge.sendEvent(eventMap);
-                                        } catch (JSONException e) {
-                                            e.printStackTrace();
-                                        }
-                                    }
-                                });
-                            }
-                        });
-
-                        valueAnimator.start();
-                    }
-                });
+            final String property = transformProperty(propertyName);
+            if (property == null) {
+                return;
             }
+            final float fromValue = (float) animationDict.getDouble("value");
+            final float toValue = (float) animationDict.getDouble("toValue");
+            animationHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    ViewPropertyAnimator animator = component.animate();
+                    int properties;
+                    if (property.equals("alpha")) {
+                        component.setAlpha(fromValue);
+                        animator.alpha(toValue);
+                        properties = PROPERTY_ALPHA;
+                    } else if (property.equals("rotationX")) {
+                        component.setRotationX(fromValue);
+                        animator.rotationX(toValue);
+                        properties = PROPERTY_ROTATION_X;
+                    } else if (property.equals("rotationY")) {
+                        component.setRotationY(fromValue);
+                        animator.rotationY(toValue);
+                        properties = PROPERTY_ROTATION_Y;
+                    } else if (property.equals("rotation")) {
+                        component.setRotation(fromValue);
+                        animator.rotation(toValue);
+                        properties = PROPERTY_ROTATION;
+                    } else {
+                        component.setScaleX(fromValue);
+                        component.setScaleY(fromValue);
+                        animator.scaleX(toValue).scaleY(toValue);
+                        properties = PROPERTY_SCALE;
+                    }
+                    // we don't want easing at the ends by default.
+                    // otherwise callbacks will be delayed through final frames
+                    animator.setInterpolator(new LinearInterpolator());
+                    start(component, animator, duration, properties, complete);
+                }
+            });
+        }
+    }
 
-            if (propertyName.contains("width")) {
-                ValueAnimator valueAnimator = ValueAnimator
-                        .ofInt(fromValue, toValue)
-                        .setDuration(duration);
+    /**
+     * the view property an animatedProperty from js drives, null when it isn't a transform
+     */
+    static String transformProperty(String animatedProperty) {
+        if (animatedProperty.contains("opacity")) {
+            return "alpha";
+        }
+        if (animatedProperty.contains("rotate")) {
+            if (animatedProperty.contains("rotatex")) {
+                return "rotationX";
+            }
+            if (animatedProperty.contains("rotatey")) {
+                return "rotationY";
+            }
+            // rotate and rotateZ, like the dom raster
+            return "rotation";
+        }
+        if (animatedProperty.contains("scale")) {
+            return "scale";
+        }
+        return null;
+    }
 
-                valueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                    @Override
-                    public void onAnimationUpdate(final ValueAnimator animation) {
+    /**
+     * @param properties the PROPERTY_ flags the animation drives
+     */
+    private void start(View view, ViewPropertyAnimator animator, int duration, int properties, Runnable complete) {
+        mAnimated.add(view);
+        ArrayList<Completion> completions = mCompletions.get(view);
+        if (completions == null) {
+            completions = new ArrayList<Completion>();
+            mCompletions.put(view, completions);
+        }
+        supersede(completions, properties);
+        Completion completion = new Completion(view, properties, complete);
+        completions.add(completion);
+        animator.setDuration(duration)
+                .withLayer()
+                .withEndAction(completion)
+                .start();
+    }
 
-                        animationHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                // get the value the interpolator is at
-                                Integer value = (Integer) animation.getAnimatedValue();
-                                // I'm going to set the layout's height 1:1 to the tick
-                                component.getLayoutParams().width = value.intValue();
-                                // force all layouts to see which ones are affected by
-                                // this layouts height change
-                                component.requestLayout();
-                            }
-                        });
+    /**
+     * The new animation takes these properties over from the running ones of
+     * the view. One left without properties is cancelled by the
+     * ViewPropertyAnimator and its end action never runs, it completes here.
+     */
+    private void supersede(ArrayList<Completion> completions, int properties) {
+        Completion[] running = completions.toArray(new Completion[completions.size()]);
+        for (int i = 0; i < running.length; i++) {
+            Completion completion = running[i];
+            completion.properties &= ~properties;
+            if (completion.properties == 0) {
+                completion.run();
+            }
+        }
+    }
 
-                    }
-                });
+    /**
+     * Animate the width or height of a view. Every frame measures the view at
+     * its new size and sets its frame directly, which measures and lays out
+     * only the view and its children instead of requesting a layout of the
+     * whole tree. The layout params follow along so a layout pass in between
+     * keeps the size, the tree is laid out once at the end.
+     */
+    private void resize(final View view, final boolean height, int fromValue, final int toValue, int duration, final Runnable complete) {
+        ValueAnimator previous = mResizes.remove(view);
+        if (previous != null) {
+            // its end listener still runs and reports animationComplete
+            previous.cancel();
+        }
 
-                valueAnimator.addListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        animationHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    JSONObject eventMap = new JSONObject();
-                                    eventMap.put("type", "animationComplete");
-                                    eventMap.put("animation", jsonAnimation.toString());
-                                    eventMap.put("guid", guid);
-                                    bridge.sendEvent(eventMap);
-                                } catch (JSONException e) {
-                                    e.printStackTrace();
-                                }
-                            }
-                        });
+        final ValueAnimator valueAnimator = ValueAnimator.ofInt(fromValue, toValue).setDuration(duration);
+        // started on the main looper, ticks arrive on the main thread in the frame they're for
+        valueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                int value = (Integer) animation.getAnimatedValue();
+                ViewGroup.LayoutParams params = view.getLayoutParams();
+                if (params != null) {
+                    if (height) {
+                        params.height = value;
+                    } else {
+                        params.width = value;
                     }
-                });
-                valueAnimator.start();
+                }
+                int width = height ? view.getWidth() : value;
+                int frameHeight = height ? value : view.getHeight();
+                // children that fill or wrap the view follow its size
+                view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(frameHeight, View.MeasureSpec.EXACTLY));
+                int left = view.getLeft();
+                int top = view.getTop();
+                view.layout(left, top, left + width, top + frameHeight);
             }
-        }
+        });
+        valueAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                if (mResizes.get(view) == valueAnimator) {
+                    mResizes.remove(view);
+                }
+                // let the parent and siblings see the final size
+                view.requestLayout();
+                complete.run();
+            }
+        });
+        mAnimated.add(view);
+        mResizes.put(view, valueAnimator);
+        valueAnimator.start();
     }
-
 }
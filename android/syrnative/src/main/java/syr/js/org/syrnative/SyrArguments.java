@@ -0,0 +1,136 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Typed positional decoders for the arguments object js sends with a cmd,
+ * ({"0": .., "1": ..}). Used by the generated SyrMethodTables, and through
+ * get(args, position, type) by modules called reflectively.
+ *
+ * Numbers are converted to the declared parameter type, so a js number that
+ * arrived as a Double can still be passed to an int parameter. Objects and
+ * arrays may arrive as json strings, they are parsed when the parameter asks
+ * for a JSONObject or JSONArray.
+ */
+public final class SyrArguments {
+
+    private SyrArguments() {
+    }
+
+    public static Object get(JSONObject args, int position) {
+        Object value = args.opt(Integer.toString(position));
+        return value == JSONObject.NULL ? null : value;
+    }
+
+    /**
+     * the argument for a parameter of the given type, decoded the way the generated tables decode it
+     */
+    public static Object get(JSONObject args, int position, Class<?> type) throws JSONException {
+        if (type == boolean.class) {
+            return getBoolean(args, position);
+        } else if (type == byte.class) {
+            return (byte) getInt(args, position);
+        } else if (type == short.class) {
+            return (short) getInt(args, position);
+        } else if (type == int.class) {
+            return getInt(args, position);
+        } else if (type == long.class) {
+            return getLong(args, position);
+        } else if (type == float.class) {
+            return getFloat(args, position);
+        } else if (type == double.class) {
+            return getDouble(args, position);
+        } else if (type == char.class) {
+            return getChar(args, position);
+        } else if (type == String.class) {
+            return getString(args, position);
+        } else if (type == JSONObject.class) {
+            return getJSONObject(args, position);
+        } else if (type == JSONArray.class) {
+            return getJSONArray(args, position);
+        }
+        return get(args, position);
+    }
+
+    public static String getString(JSONObject args, int position) {
+        Object value = get(args, position);
+        return value != null ? value.toString() : null;
+    }
+
+    public static boolean getBoolean(JSONObject args, int position) throws JSONException {
+        Object value = get(args, position);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        }
+        throw mismatch(position, value, "boolean");
+    }
+
+    public static int getInt(JSONObject args, int position) throws JSONException {
+        return (int) getDouble(args, position);
+    }
+
+    public static long getLong(JSONObject args, int position) throws JSONException {
+        Object value = get(args, position);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return (long) getDouble(args, position);
+    }
+
+    public static float getFloat(JSONObject args, int position) throws JSONException {
+        return (float) getDouble(args, position);
+    }
+
+    public static double getDouble(JSONObject args, int position) throws JSONException {
+        Object value = get(args, position);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw mismatch(position, value, "number");
+    }
+
+    public static char getChar(JSONObject args, int position) throws JSONException {
+        String value = getString(args, position);
+        if (value == null || value.length() != 1) {
+            throw mismatch(position, value, "char");
+        }
+        return value.charAt(0);
+    }
+
+    public static JSONObject getJSONObject(JSONObject args, int position) throws JSONException {
+        Object value = get(args, position);
+        if (value == null || value instanceof JSONObject) {
+            return (JSONObject) value;
+        } else if (value instanceof String) {
+            return new JSONObject((String) value);
+        }
+        throw mismatch(position, value, "object");
+    }
+
+    public static JSONArray getJSONArray(JSONObject args, int position) throws JSONException {
+        Object value = get(args, position);
+        if (value == null || value instanceof JSONArray) {
+            return (JSONArray) value;
+        } else if (value instanceof String) {
+            return new JSONArray((String) value);
+        }
+        throw mismatch(position, value, "array");
+    }
+
+    private static JSONException mismatch(int position, Object value, String expected) {
+        return new JSONException("argument " + position + " is " + value + ", expected " + expected);
+    }
+}
@@ -2,6 +2,7 @@ package syr.js.org.syrnative;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
@@ -16,12 +17,8 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.URLEncoder;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 
 /**
  * Syr Project
@@ -35,10 +32,21 @@ public class SyrBridge {
     public SyrRaster mRaster;
     public HashMap<String, String> bootParams = new HashMap<String, String>();
 
-    static private Handler uiHandler = new Handler(Looper.getMainLooper());
+    // everything the bridge posts goes through this handler, so a teardown can drop it
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
     private Context mContext;
     private SyrBundle mBundle;
     private WebView mBridgedBrowser;
+    private SyrASTDecoder mDecoder = new SyrASTDecoder();
+    private SyrEventQueue mEvents = new SyrEventQueue(uiHandler, new SyrEventQueue.Sender() {
+        @SuppressLint("JavascriptInterface")
+        @Override
+        public void evaluate(String script) {
+            if (mBridgedBrowser != null) {
+                mBridgedBrowser.evaluateJavascript(script, null);
+            }
+        }
+    });
 
     /**
      * Instantiate the interface and set the context
@@ -57,24 +65,45 @@ public class SyrBridge {
     }
 
     /**
-     * Recieve message from the SyrBridge
+     * Recieve message from the SyrBridge, on the WebView's JavaBridge thread.
+     * Messages are decoded here and rendered in order on the raster thread, cmd
+     * messages don't touch the raster and go straight to the module's executor
      */
     @JavascriptInterface
     public void message(String message) {
         try {
-            JSONObject jsonObject = new JSONObject(message);
-            String messageType = jsonObject.getString("type");
+            final SyrMessage syrMessage = mDecoder.decodeMessage(message);
+
+            if (syrMessage.getType().equals("cmd")) {
+                runCMD(syrMessage.getPayload());
+            } else {
+                mRaster.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        rasterMessage(syrMessage);
+                    }
+                });
+            }
+
+        } catch (Throwable tx) {
+            tx.printStackTrace();
+        }
+    }
+
+    private void rasterMessage(SyrMessage syrMessage) {
+        try {
+            String messageType = syrMessage.getType();
 
             if (messageType.equals("gui")) {
-                mRaster.parseAST(jsonObject);
+                mRaster.parseAST(syrMessage.getAST());
             } else if (messageType.equals("animation")) {
-                mRaster.setupAnimation(jsonObject);
-            } else if (messageType.equals("cmd")) {
-                String commandString = jsonObject.getString("ast");
-                runCMD(commandString);
+                mRaster.setupAnimation(syrMessage.getPayload());
+            } else if (messageType.equals("list")) {
+                mRaster.updateList(syrMessage.getPayload());
             }
 
         } catch (Throwable tx) {
+            // a bad message must not take down the raster thread
             tx.printStackTrace();
         }
     }
@@ -97,6 +126,18 @@ public class SyrBridge {
                         mRaster.clearRootView();
                         return false;
                     }
+
+                    @Override
+                    public void onPageStarted(WebView view, String url, Bitmap favicon) {
+                        // SyrEvents goes away with the page, events wait for the next one
+                        mEvents.setReady(false);
+                    }
+
+                    @Override
+                    public void onPageFinished(WebView view, String url) {
+                        // the bundle has run and defined SyrEvents
+                        mEvents.setReady(true);
+                    }
                 });
 
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
@@ -119,13 +160,14 @@ public class SyrBridge {
                 ///random comment
 
                 String screenDensity = Float.toString(mContext.getResources().getDisplayMetrics().density);
-                String loadURL = String.format(mBundle.getBundleUrl() + "?window_height=%s&window_width=%s&screen_density=%s&platform=android&platform_version=%s&exported_methods=%s&initial_props=%s",
+                String loadURL = String.format(mBundle.getBundleUrl() + "?window_height=%s&window_width=%s&screen_density=%s&platform=android&platform_version=%s&exported_methods=%s&initial_props=%s&bridge_protocol=%s",
                         bootParams.get("height"),
                         bootParams.get("width"),
                         screenDensity,
                         Build.VERSION.SDK_INT,
                         exportedMethodString,
-                        bootParams.get("initial_props"));
+                        bootParams.get("initial_props"),
+                        SyrMessage.PROTOCOL_VERSION);
 
                 mBridgedBrowser.loadUrl(loadURL);
 
@@ -133,90 +175,49 @@ public class SyrBridge {
         });
     }
 
-    public void runCMD(String commandString) throws JSONException, ClassNotFoundException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
-        JSONObject commandObj = new JSONObject(commandString);
-        String clazz = commandObj.getString("clazz");
+    /**
+     * tear the bridge down on the main thread: the browser is destroyed and
+     * whatever the bridge still had queued for the main thread is dropped
+     */
+    public void destroy() {
+        uiHandler.removeCallbacksAndMessages(null);
+        mEvents.shutdown();
+        SyrEventHandler.getInstance().detach(this);
+        if (mBridgedBrowser != null) {
+            mBridgedBrowser.removeJavascriptInterface("SyrBridge");
+            mBridgedBrowser.stopLoading();
+            mBridgedBrowser.destroy();
+            mBridgedBrowser = null;
+        }
+    }
 
+    public void runCMD(JSONObject commandObj) throws JSONException {
         // ensure that the calls are only going to a registered module
         // and not an exposed system method
-        if (mRaster.registeredModules.containsKey(clazz)) {
-
-            HashMap<String, Class> primativeClasses = new HashMap<>();
-            primativeClasses.put("boolean", boolean.class);
-            primativeClasses.put("byte", byte.class);
-            primativeClasses.put("char", char.class);
-            primativeClasses.put("double", double.class);
-            primativeClasses.put("float", float.class);
-            primativeClasses.put("int", int.class);
-            primativeClasses.put("long", long.class);
-            primativeClasses.put("short", short.class);
-
-            String methodName = commandObj.getString("method");
-            String argString = commandObj.getString("args");
-            JSONObject argsObj = new JSONObject(argString);
-            ArrayList<Object> argsList = new ArrayList<>();
-
-            for (Iterator<String> iter = argsObj.keys(); iter.hasNext(); ) {
-                String key = iter.next();
-                argsList.add(argsObj.get(key));
-            }
-
-
-            JSONArray paramsTypes = commandObj.getJSONArray("paramTypes");
-
-
-            Class<?> c = Class.forName(clazz);
-            Object obj = c.newInstance();
-
-            ArrayList<Class> paramsList = new ArrayList<>();
-            for (int i = 0; i < paramsTypes.length(); i++) {
-                String paramType = paramsTypes.getString(i);
-                if (primativeClasses.containsKey(paramType)) {
-                    paramsList.add(primativeClasses.get(paramType));
-                } else {
-                    paramsList.add(Class.forName(paramType));
-                }
-            }
-
-//             Log.i("Class name", c.toString());
-            //@TODO: Make passing of context generic
-            if (c.toString().contains("SyrAlertDialogue")) {
-//                paramsList.add(Context.class);
-                argsList.add(mContext);
-            }
-
-
-            Class params[] = paramsList.toArray(new Class[paramsList.size()]);
-            Object args[] = argsList.toArray(new Object[argsList.size()]);
-
-            // FooMethod
-            // Class params[] = {String.class, int.class}
-            //
-            Method m = c.getMethod(methodName, params);
-            Object res = m.invoke(obj, args);
-        } else {
-            Log.w("syrcmdexec", "Unacceptable Class Accessed: " + clazz);
+        if (!mRaster.getDispatcher().dispatch(commandObj)) {
+            Log.w("syrcmdexec", "Unacceptable Class Accessed: " + commandObj.optString("clazz"));
         }
-
     }
 
+    /**
+     * queue an event for js, queued events go over the bridge together once per frame
+     */
     public void sendEvent(JSONObject message) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            sendImmediate(message);
+            mEvents.add(message);
         }
     }
 
+    /**
+     * send an event to js without waiting for the next frame
+     */
     public void sendImmediate(JSONObject message) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            String msg = message.toString();
-            final String eventJS = String.format("SyrEvents.emit(%s);", msg);
-            uiHandler.post(new Runnable() {
-                @SuppressLint("JavascriptInterface")
-                @Override
-                public void run() {
-                    mBridgedBrowser.evaluateJavascript(eventJS, null);
-                }
-            });
+            mEvents.flushWith(message);
         }
     }
+
+    public SyrEventQueue getEventQueue() {
+        return mEvents;
+    }
 }
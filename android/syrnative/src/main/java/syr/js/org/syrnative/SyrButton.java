@@ -1,9 +1,11 @@
 package syr.js.org.syrnative;
 
 import android.content.Context;
-import android.graphics.Color;
+import android.content.res.ColorStateList;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.text.TextUtils;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Button;
@@ -15,127 +17,135 @@ import org.json.JSONObject;
  * Created by dereanderson on 1/9/18.
  */
 
-public class SyrButton implements SyrBaseModule, SyrComponent {
+public class SyrButton implements SyrBaseModule, SyrComponent, SyrRecyclable {
+
+    // what a new Button looks like, restored on pooled views. Captured by
+    // createView on the raster or the main thread and read by resetView on
+    // main, so it is published whole through the volatile field
+    private volatile Defaults mDefaults;
+
+    private static final class Defaults {
+        final Typeface typeface;
+        final ColorStateList textColors;
+        final Drawable.ConstantState background;
+
+        Defaults(Button button) {
+            typeface = button.getTypeface();
+            textColors = button.getTextColors();
+            Drawable drawable = button.getBackground();
+            background = drawable != null ? drawable.getConstantState() : null;
+        }
+    }
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
         Button button;
 
         if (instance != null) {
             button = (Button) instance;
         } else {
-            button = new Button(context);
+            button = (Button) createView(context);
         }
 
-        button.setAllCaps(false);
-        JSONObject style = null;
-
-        try {
-            JSONObject jsonInstance = component.getJSONObject("instance");
-            JSONObject jsonProps = jsonInstance.getJSONObject("props");
-            final String uuid = component.getString("uuid");
-
-            // if enabled prop is passed set it, else default to true
-            Boolean isEnabled;
-            if (jsonProps.has("enabled")) {
-                isEnabled = jsonProps.getBoolean("enabled");
-            } else {
-                isEnabled = true;
-            }
+        // read by the click listener, pooled buttons are reused for other components
+        button.setTag(component.getUuid());
+        JSONObject props = component.getProps();
 
+        // if enabled prop is passed set it, else default to true
+        if (component.propsChanged()) {
+            boolean isEnabled = props == null || props.optBoolean("enabled", true);
             button.setEnabled(isEnabled);
+        }
 
-            // create button
-            if (instance == null) {
-                button.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        try {
-                            JSONObject eventMap = new JSONObject();
-                            eventMap.put("type", "onPress");
-                            eventMap.put("guid", uuid);
-                            SyrEventHandler.getInstance().sendEvent(eventMap);
-                        } catch (JSONException e) {
-                            e.printStackTrace();
-                        }
-
-                    }
-                });
-            }
-
-            // set button styles
-            if (jsonInstance.has("style")) {
-
-                style = jsonInstance.getJSONObject("style");
-                if (instance == null) {
-                    button.setLayoutParams(SyrStyler.styleLayout(style));
-
-                } else {
-                    if (style.has("width")) {
-
-                        button.getLayoutParams().width = style.getInt("width");
-
-                    }
+        // set button styles, only what changed since the last render
+        SyrStyle style = component.getStyle();
+        if (style != null) {
 
-                    if (style.has("height")) {
+            if (component.styleChanged(SyrStyle.SIZE)) {
+                SyrStyler.applyLayout(button, style);
+            }
 
-                        button.getLayoutParams().height = style.getInt("height");
-                    }
-                    button.setLayoutParams(button.getLayoutParams());
-                }
+            if (component.styleChanged(SyrStyle.BACKGROUND)) {
                 SyrStyler.styleView(button, style);
+            }
 
-                if (style.has("color")) {
-                    button.setTextColor(Color.parseColor(style.getString("color")));
-                }
-
-                if (style.has("fontWeight")) {
-                    if (style.getString("fontWeight").contains("bold")) {
-                        button.setTypeface(null, Typeface.BOLD);
-                    }
-                }
+            if (component.styleChanged(SyrStyle.COLOR) && style.has(SyrStyle.COLOR)) {
+                button.setTextColor(style.color);
+            }
 
-                if (style.has("left")) {
-                    button.setX(style.getInt("left"));
+            if (component.styleChanged(SyrStyle.FONT_WEIGHT) && style.has(SyrStyle.FONT_WEIGHT)) {
+                if (style.bold) {
+                    button.setTypeface(null, Typeface.BOLD);
                 }
+            }
 
-                if (style.has("top")) {
-                    button.setY(style.getInt("top"));
-                }
+            if (component.styleChanged(SyrStyle.LEFT) && style.has(SyrStyle.LEFT)) {
+                button.setX(style.left);
             }
 
-            // set button label/text
-            if(jsonInstance.has("value")) {
-                button.setText(jsonInstance.getString("value"));
-            } else {
-                button.setText("");
+            if (component.styleChanged(SyrStyle.TOP) && style.has(SyrStyle.TOP)) {
+                button.setY(style.top);
+            }
+        }
 
+        // set button label/text
+        if (component.valueChanged()) {
+            String value = component.getValue() != null ? component.getValue() : "";
+            if (!TextUtils.equals(button.getText(), value)) {
+                button.setText(value);
             }
+        }
 
-            //touchableOPacity effect for button since we are setting the state list animator to null. Need to couple this with the optional
-            //for using the default android button behaviour
-            final Button b = button;
-            button.setOnTouchListener(new View.OnTouchListener() {
-                @Override
-                public boolean onTouch(View view, MotionEvent event) {
-                    switch (event.getAction()) {
-                        case MotionEvent.ACTION_DOWN:
-                            b.setAlpha((float) 0.3);
-                            break;
-                        case MotionEvent.ACTION_UP:
-                            b.setAlpha(1);
-                            break;
-                        case MotionEvent.ACTION_CANCEL:
-                            b.setAlpha(1);
-                            break;
-                    }
-                    return false;
-                }
-            });
+        return button;
+    }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+    @Override
+    public View createView(Context context) {
+        Button button = new Button(context);
+        if (mDefaults == null) {
+            mDefaults = new Defaults(button);
         }
+        button.setAllCaps(false);
+        button.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                try {
+                    JSONObject eventMap = new JSONObject();
+                    eventMap.put("type", "onPress");
+                    eventMap.put("guid", v.getTag());
+                    SyrEventHandler.getInstance().sendEvent(eventMap);
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+
+            }
+        });
+
+        //touchableOPacity effect for button since we are setting the state list animator to null. Need to couple this with the optional
+        //for using the default android button behaviour
+        final Button b = button;
+        button.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View view, MotionEvent event) {
+                switch (event.getAction()) {
+                    case MotionEvent.ACTION_DOWN:
+                        b.setAlpha((float) 0.3);
+                        break;
+                    case MotionEvent.ACTION_UP:
+                        b.setAlpha(1);
+                        break;
+                    case MotionEvent.ACTION_CANCEL:
+                        b.setAlpha(1);
+                        break;
+                }
+                return false;
+            }
+        });
 
         //TODO: Depending on a prop we need add the drop shadow/default android button behaviour
 
@@ -151,6 +161,24 @@ public class SyrButton implements SyrBaseModule, SyrComponent {
         return button;
     }
 
+    @Override
+    public boolean resetView(View view) {
+        Defaults defaults = mDefaults;
+        if (defaults == null) {
+            return false;
+        }
+        Button button = (Button) view;
+        button.setTag(null);
+        button.setText("");
+        button.setEnabled(true);
+        button.setTypeface(defaults.typeface);
+        button.setTextColor(defaults.textColors);
+        if (defaults.background != null) {
+            button.setBackground(defaults.background.newDrawable());
+        }
+        return true;
+    }
+
     @Override
     public String getName() {
         return "Button";
@@ -0,0 +1,395 @@
+package syr.js.org.syrnative;
+
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * CSS color strings to ARGB ints, shared by every component.
+ *
+ * Handles #rgb, #rgba, #rrggbb, #rrggbbaa, rgb()/rgba() (comma or space
+ * separated, numbers or percentages, optional "/ alpha"), hsl()/hsla() and
+ * the CSS named colors plus "transparent". The string is scanned in place,
+ * and resolved colors are kept in a small LRU so the same strings coming
+ * back on every render are a single lookup.
+ */
+public final class SyrColor {
+
+    static final int CACHE_SIZE = 256;
+
+    private static final LruCache<String, Integer> sCache = new LruCache<String, Integer>(CACHE_SIZE);
+
+    private static final ThreadLocal<SyrColor> sScanner = new ThreadLocal<SyrColor>() {
+        @Override
+        protected SyrColor initialValue() {
+            return new SyrColor();
+        }
+    };
+
+    private static final String[] NAMED = {
+            "aliceblue", "f0f8ff", "antiquewhite", "faebd7", "aqua", "00ffff",
+            "aquamarine", "7fffd4", "azure", "f0ffff", "beige", "f5f5dc",
+            "bisque", "ffe4c4", "black", "000000", "blanchedalmond", "ffebcd",
+            "blue", "0000ff", "blueviolet", "8a2be2", "brown", "a52a2a",
+            "burlywood", "deb887", "cadetblue", "5f9ea0", "chartreuse", "7fff00",
+            "chocolate", "d2691e", "coral", "ff7f50", "cornflowerblue", "6495ed",
+            "cornsilk", "fff8dc", "crimson", "dc143c", "cyan", "00ffff",
+            "darkblue", "00008b", "darkcyan", "008b8b", "darkgoldenrod", "b8860b",
+            "darkgray", "a9a9a9", "darkgreen", "006400", "darkgrey", "a9a9a9",
+            "darkkhaki", "bdb76b", "darkmagenta", "8b008b", "darkolivegreen", "556b2f",
+            "darkorange", "ff8c00", "darkorchid", "9932cc", "darkred", "8b0000",
+            "darksalmon", "e9967a", "darkseagreen", "8fbc8f", "darkslateblue", "483d8b",
+            "darkslategray", "2f4f4f", "darkslategrey", "2f4f4f", "darkturquoise", "00ced1",
+            "darkviolet", "9400d3", "deeppink", "ff1493", "deepskyblue", "00bfff",
+            "dimgray", "696969", "dimgrey", "696969", "dodgerblue", "1e90ff",
+            "firebrick", "b22222", "floralwhite", "fffaf0", "forestgreen", "228b22",
+            "fuchsia", "ff00ff", "gainsboro", "dcdcdc", "ghostwhite", "f8f8ff",
+            "gold", "ffd700", "goldenrod", "daa520", "gray", "808080",
+            "green", "008000", "greenyellow", "adff2f", "grey", "808080",
+            "honeydew", "f0fff0", "hotpink", "ff69b4", "indianred", "cd5c5c",
+            "indigo", "4b0082", "ivory", "fffff0", "khaki", "f0e68c",
+            "lavender", "e6e6fa", "lavenderblush", "fff0f5", "lawngreen", "7cfc00",
+            "lemonchiffon", "fffacd", "lightblue", "add8e6", "lightcoral", "f08080",
+            "lightcyan", "e0ffff", "lightgoldenrodyellow", "fafad2", "lightgray", "d3d3d3",
+            "lightgreen", "90ee90", "lightgrey", "d3d3d3", "lightpink", "ffb6c1",
+            "lightsalmon", "ffa07a", "lightseagreen", "20b2aa", "lightskyblue", "87cefa",
+            "lightslategray", "778899", "lightslategrey", "778899", "lightsteelblue", "b0c4de",
+            "lightyellow", "ffffe0", "lime", "00ff00", "limegreen", "32cd32",
+            "linen", "faf0e6", "magenta", "ff00ff", "maroon", "800000",
+            "mediumaquamarine", "66cdaa", "mediumblue", "0000cd", "mediumorchid", "ba55d3",
+            "mediumpurple", "9370db", "mediumseagreen", "3cb371", "mediumslateblue", "7b68ee",
+            "mediumspringgreen", "00fa9a", "mediumturquoise", "48d1cc", "mediumvioletred", "c71585",
+            "midnightblue", "191970", "mintcream", "f5fffa", "mistyrose", "ffe4e1",
+            "moccasin", "ffe4b5", "navajowhite", "ffdead", "navy", "000080",
+            "oldlace", "fdf5e6", "olive", "808000", "olivedrab", "6b8e23",
+            "orange", "ffa500", "orangered", "ff4500", "orchid", "da70d6",
+            "palegoldenrod", "eee8aa", "palegreen", "98fb98", "paleturquoise", "afeeee",
+            "palevioletred", "db7093", "papayawhip", "ffefd5", "peachpuff", "ffdab9",
+            "peru", "cd853f", "pink", "ffc0cb", "plum", "dda0dd",
+            "powderblue", "b0e0e6", "purple", "800080", "rebeccapurple", "663399",
+            "red", "ff0000", "rosybrown", "bc8f8f", "royalblue", "4169e1",
+            "saddlebrown", "8b4513", "salmon", "fa8072", "sandybrown", "f4a460",
+            "seagreen", "2e8b57", "seashell", "fff5ee", "sienna", "a0522d",
+            "silver", "c0c0c0", "skyblue", "87ceeb", "slateblue", "6a5acd",
+            "slategray", "708090", "slategrey", "708090", "snow", "fffafa",
+            "springgreen", "00ff7f", "steelblue", "4682b4", "tan", "d2b48c",
+            "teal", "008080", "thistle", "d8bfd8", "tomato", "ff6347",
+            "turquoise", "40e0d0", "violet", "ee82ee", "wheat", "f5deb3",
+            "white", "ffffff", "whitesmoke", "f5f5f5", "yellow", "ffff00",
+            "yellowgreen", "9acd32"
+    };
+
+    private static final HashMap<String, Integer> sNamed = new HashMap<String, Integer>(NAMED.length);
+
+    static {
+        for (int i = 0; i < NAMED.length; i += 2) {
+            sNamed.put(NAMED[i], 0xff000000 | Integer.parseInt(NAMED[i + 1], 16));
+        }
+        sNamed.put("transparent", 0);
+    }
+
+    private String mText;
+    private int mPos;
+    private int mEnd;
+
+    private SyrColor() {
+    }
+
+    /**
+     * the ARGB value of a CSS color, throws IllegalArgumentException when it can't be parsed
+     */
+    public static int parse(String color) {
+        if (color == null) {
+            throw new IllegalArgumentException("Unknown color: null");
+        }
+        Integer cached = sCache.get(color);
+        if (cached != null) {
+            return cached;
+        }
+        int argb = sScanner.get().read(color);
+        sCache.put(color, argb);
+        return argb;
+    }
+
+    /**
+     * like parse(), with a fallback for colors that can't be parsed
+     */
+    public static int parse(String color, int fallback) {
+        try {
+            return parse(color);
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private int read(String color) {
+        mText = color;
+        mPos = 0;
+        mEnd = color.length();
+        try {
+            while (mPos < mEnd && Character.isWhitespace(color.charAt(mPos))) {
+                mPos++;
+            }
+            while (mEnd > mPos && Character.isWhitespace(color.charAt(mEnd - 1))) {
+                mEnd--;
+            }
+            if (mPos == mEnd) {
+                throw invalid();
+            }
+
+            if (color.charAt(mPos) == '#') {
+                return readHex();
+            } else if (consume("rgba(") || consume("rgb(")) {
+                return readRgb();
+            } else if (consume("hsla(") || consume("hsl(")) {
+                return readHsl();
+            }
+            return readNamed();
+        } finally {
+            mText = null;
+        }
+    }
+
+    private int readHex() {
+        int digits = mEnd - mPos - 1;
+        int value = 0;
+        for (int i = mPos + 1; i < mEnd; i++) {
+            int digit = Character.digit(mText.charAt(i), 16);
+            if (digit < 0) {
+                throw invalid();
+            }
+            value = (value << 4) | digit;
+        }
+
+        switch (digits) {
+            case 3:
+                return argb(0xff, ((value >> 8) & 0xf) * 17, ((value >> 4) & 0xf) * 17, (value & 0xf) * 17);
+            case 4:
+                return argb((value & 0xf) * 17, ((value >> 12) & 0xf) * 17,
+                        ((value >> 8) & 0xf) * 17, ((value >> 4) & 0xf) * 17);
+            case 6:
+                return 0xff000000 | value;
+            case 8:
+                // css order, alpha last
+                return (value << 24) | (value >>> 8);
+            default:
+                throw invalid();
+        }
+    }
+
+    private int readRgb() {
+        int red = channel();
+        expectSeparator();
+        int green = channel();
+        expectSeparator();
+        int blue = channel();
+        int alpha = separator() ? alpha() : 0xff;
+        close();
+        return argb(alpha, red, green, blue);
+    }
+
+    private int readHsl() {
+        float hue = hue();
+        expectSeparator();
+        float saturation = fraction();
+        expectSeparator();
+        float lightness = fraction();
+        int alpha = separator() ? alpha() : 0xff;
+        close();
+
+        // css color 4 hsl to rgb
+        hue = ((hue % 360f) + 360f) % 360f;
+        float chroma = saturation * Math.min(lightness, 1 - lightness);
+        return argb(alpha,
+                hslChannel(0, hue, lightness, chroma),
+                hslChannel(8, hue, lightness, chroma),
+                hslChannel(4, hue, lightness, chroma));
+    }
+
+    private int readNamed() {
+        String name = mText;
+        if (mPos != 0 || mEnd != name.length()) {
+            name = name.substring(mPos, mEnd);
+        }
+        Integer value = sNamed.get(name);
+        if (value == null) {
+            value = sNamed.get(name.toLowerCase(Locale.US));
+        }
+        if (value == null) {
+            throw invalid();
+        }
+        return value;
+    }
+
+    private static int hslChannel(int n, float hue, float lightness, float chroma) {
+        float k = (n + hue / 30f) % 12f;
+        float value = lightness - chroma * Math.max(-1f, Math.min(Math.min(k - 3f, 9f - k), 1f));
+        return clamp(round(value * 255f));
+    }
+
+    /**
+     * 0-255, or a percentage of 255
+     */
+    private int channel() {
+        float value = number();
+        if (percent()) {
+            value = value * 255f / 100f;
+        }
+        return clamp(round(value));
+    }
+
+    /**
+     * 0-1, or a percentage
+     */
+    private int alpha() {
+        float value = number();
+        if (percent()) {
+            value /= 100f;
+        }
+        return clamp(round(value * 255f));
+    }
+
+    /**
+     * a saturation or lightness percentage as 0-1
+     */
+    private float fraction() {
+        float value = number();
+        percent();
+        return Math.max(0f, Math.min(1f, value / 100f));
+    }
+
+    /**
+     * hue in degrees, deg/rad/grad/turn units are converted
+     */
+    private float hue() {
+        float value = number();
+        if (consume("deg")) {
+            return value;
+        } else if (consume("rad")) {
+            return (float) Math.toDegrees(value);
+        } else if (consume("grad")) {
+            return value * 0.9f;
+        } else if (consume("turn")) {
+            return value * 360f;
+        }
+        return value;
+    }
+
+    private float number() {
+        skipSpace();
+        boolean negative = false;
+        if (mPos < mEnd && (mText.charAt(mPos) == '-' || mText.charAt(mPos) == '+')) {
+            negative = mText.charAt(mPos) == '-';
+            mPos++;
+        }
+
+        double value = 0;
+        int digits = 0;
+        while (mPos < mEnd && isDigit(mText.charAt(mPos))) {
+            value = value * 10 + (mText.charAt(mPos++) - '0');
+            digits++;
+        }
+        if (mPos < mEnd && mText.charAt(mPos) == '.') {
+            mPos++;
+            double scale = 0.1;
+            while (mPos < mEnd && isDigit(mText.charAt(mPos))) {
+                value += (mText.charAt(mPos++) - '0') * scale;
+                scale /= 10;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            throw invalid();
+        }
+
+        if (mPos + 1 < mEnd && (mText.charAt(mPos) == 'e' || mText.charAt(mPos) == 'E')) {
+            int exponentAt = mPos + 1;
+            boolean negativeExponent = false;
+            if (mText.charAt(exponentAt) == '-' || mText.charAt(exponentAt) == '+') {
+                negativeExponent = mText.charAt(exponentAt) == '-';
+                exponentAt++;
+            }
+            if (exponentAt < mEnd && isDigit(mText.charAt(exponentAt))) {
+                int exponent = 0;
+                mPos = exponentAt;
+                while (mPos < mEnd && isDigit(mText.charAt(mPos))) {
+                    exponent = exponent * 10 + (mText.charAt(mPos++) - '0');
+                }
+                value *= Math.pow(10, negativeExponent ? -exponent : exponent);
+            }
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    private boolean percent() {
+        if (mPos < mEnd && mText.charAt(mPos) == '%') {
+            mPos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * skips a comma, slash or whitespace between components, false at the closing paren
+     */
+    private boolean separator() {
+        skipSpace();
+        if (mPos < mEnd && (mText.charAt(mPos) == ',' || mText.charAt(mPos) == '/')) {
+            mPos++;
+            skipSpace();
+        }
+        return mPos < mEnd && mText.charAt(mPos) != ')';
+    }
+
+    private void expectSeparator() {
+        if (!separator()) {
+            throw invalid();
+        }
+    }
+
+    private void close() {
+        skipSpace();
+        if (mPos != mEnd - 1 || mText.charAt(mPos) != ')') {
+            throw invalid();
+        }
+        mPos = mEnd;
+    }
+
+    private void skipSpace() {
+        while (mPos < mEnd && Character.isWhitespace(mText.charAt(mPos))) {
+            mPos++;
+        }
+    }
+
+    private boolean consume(String token) {
+        if (mText.regionMatches(true, mPos, token, 0, token.length())) {
+            mPos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Unknown color: " + mText);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int round(float value) {
+        return (int) Math.floor(value + 0.5f);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    static int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+}
@@ -8,8 +8,22 @@ import org.json.JSONObject;
 
 /**
  * Created by simalkireddy on 5/5/18.
+ *
+ * Renders run on two threads. The first render of a node runs on the raster
+ * thread, with a new view or a detached one from the SyrViewPool, and has to
+ * return a view that isn't attached to a parent yet, the raster checks. Every
+ * later render of that view runs on the main thread, once it is attached.
+ * Off the main thread a render may only touch the view it returns and views it
+ * creates for it, never a view that is on screen.
  */
 
 public interface SyrComponent {
     public View render(JSONObject component, Context context, View instance);
+
+    /**
+     * Render from a decoded node, styles are already resolved on component.getStyle()
+     *
+     * @param instance the view to render into, null or detached on the raster thread
+     */
+    public View render(Component component, Context context, View instance);
 }
@@ -0,0 +1,159 @@
+package syr.js.org.syrnative;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.graphics.drawable.LayerDrawable;
+import android.util.LruCache;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Interned background/border drawables, keyed on the resolved background
+ * style (background color, border radius, border color and width, side border).
+ *
+ * Only the immutable ConstantState is cached, every view gets its own
+ * newDrawable() copy sharing it, so list rows styled alike build the
+ * GradientDrawable once. The cache is bounded and emptied when the system
+ * runs low on memory.
+ */
+public class SyrDrawableCache implements ComponentCallbacks2 {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+
+    private static final int BACKGROUND_FLAGS = SyrStyle.BACKGROUND_COLOR | SyrStyle.BORDER_RADIUS
+            | SyrStyle.BORDER_COLOR | SyrStyle.BORDER_WIDTH | SyrStyle.BORDER_SIDE_WIDTH;
+
+    private static SyrDrawableCache sInstance;
+
+    private final LruCache<String, Drawable.ConstantState> mStates;
+    private boolean mRegistered;
+
+    SyrDrawableCache(int maxSize) {
+        mStates = new LruCache<String, Drawable.ConstantState>(maxSize);
+    }
+
+    public static synchronized SyrDrawableCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new SyrDrawableCache(DEFAULT_MAX_SIZE);
+        }
+        return sInstance;
+    }
+
+    /**
+     * listen for memory pressure, only registers once per process
+     */
+    public synchronized void register(Context context) {
+        if (!mRegistered) {
+            context.getApplicationContext().registerComponentCallbacks(this);
+            mRegistered = true;
+        }
+    }
+
+    /**
+     * the background for a view with this style, a view whose background was
+     * already made from the cached state keeps it
+     */
+    public Drawable get(SyrStyle style, Drawable current) {
+        String key = key(style);
+        Drawable.ConstantState state = mStates.get(key);
+        if (state == null) {
+            Drawable drawable = create(style);
+            state = drawable.getConstantState();
+            if (state == null) {
+                return drawable;
+            }
+            mStates.put(key, state);
+        }
+        if (current != null && current.getConstantState() == state) {
+            return current;
+        }
+        return state.newDrawable();
+    }
+
+    public int getHitCount() {
+        return mStates.hitCount();
+    }
+
+    public int getMissCount() {
+        return mStates.missCount();
+    }
+
+    public int size() {
+        return mStates.size();
+    }
+
+    public void purge() {
+        mStates.evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            purge();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            mStates.trimToSize(mStates.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        purge();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration configuration) {
+    }
+
+    static String key(SyrStyle style) {
+        int flags = style.flags & BACKGROUND_FLAGS;
+        StringBuilder key = new StringBuilder(48).append(flags);
+        if ((flags & SyrStyle.BACKGROUND_COLOR) != 0) {
+            key.append('|').append(style.backgroundColor);
+        }
+        if ((flags & SyrStyle.BORDER_RADIUS) != 0) {
+            key.append('|').append(style.borderRadius);
+        }
+        if ((flags & SyrStyle.BORDER_COLOR) != 0) {
+            key.append('|').append(style.borderColor);
+        }
+        if ((flags & SyrStyle.BORDER_WIDTH) != 0) {
+            key.append('|').append(style.borderWidth);
+        }
+        return key.toString();
+    }
+
+    private static Drawable create(SyrStyle style) {
+        GradientDrawable gd;
+        if (style.has(SyrStyle.BACKGROUND_COLOR)) {
+            gd = new GradientDrawable(
+                    GradientDrawable.Orientation.TOP_BOTTOM,
+                    new int[]{style.backgroundColor, style.backgroundColor});
+        } else {
+            gd = new GradientDrawable();
+        }
+
+        if (style.has(SyrStyle.BORDER_RADIUS)) {
+            gd.setCornerRadius(style.borderRadius);
+        }
+
+        if (style.has(SyrStyle.BORDER_COLOR) && style.has(SyrStyle.BORDER_WIDTH)) {
+            // borders on views
+            gd.setStroke(style.borderWidth, style.borderColor);
+
+        } else if (style.has(SyrStyle.BORDER_COLOR)) {
+
+            gd.setStroke(3, style.borderColor);
+        }
+
+        if (style.has(SyrStyle.BORDER_SIDE_WIDTH)) {
+            LayerDrawable layerDrawable = new LayerDrawable(new Drawable[]{gd});
+            layerDrawable.setLayerInset(0, 6, -3, -3, -3);
+            return layerDrawable;
+        }
+        return gd;
+    }
+}
@@ -24,9 +24,31 @@ public class SyrEventHandler {
         return sSyrEventHandler;
     }
 
+    /**
+     * let go of a bridge that is torn down, so the singleton doesn't keep its context alive
+     */
+    public void detach(SyrBridge bridge) {
+        if (mBridge == bridge) {
+            mBridge = null;
+        }
+    }
+
     public void sendEvent(final JSONObject event) {
 
-        mBridge.sendEvent(event);
+        SyrBridge bridge = mBridge;
+        if (bridge != null) {
+            bridge.sendEvent(event);
+        }
+
+    }
+
+    // for events that can't wait for the next batched flush
+    public void sendImmediate(final JSONObject event) {
+
+        SyrBridge bridge = mBridge;
+        if (bridge != null) {
+            bridge.sendImmediate(event);
+        }
 
     }
 }
\ No newline at end of file
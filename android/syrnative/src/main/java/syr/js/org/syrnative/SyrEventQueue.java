@@ -0,0 +1,272 @@
+package syr.js.org.syrnative;
+
+import android.os.Handler;
+import android.util.Log;
+import android.view.Choreographer;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Outbound native to js events, delivered in batches.
+ *
+ * Events are queued from any thread and flushed on the next frame as a single
+ * SyrEvents.emit([...]) evaluation, SyrEvents.emit already takes an array.
+ * A flush is also forced once FLUSH_THRESHOLD events are waiting, so a big
+ * mount doesn't build one huge script. Events that can't wait for the frame
+ * go through flushWith(), which sends everything queued ahead of them in the
+ * same call so ordering is kept.
+ *
+ * Events of a coalescible type (scroll, layout and the like) are latest-wins:
+ * while a flush is pending a new event with the same guid and type drops the
+ * queued one and takes its place at the end of the queue, so it is still
+ * delivered after every discrete event (onPress, etc.) that came before it.
+ * Discrete events are never merged or reordered.
+ *
+ * Until the page is ready events only queue up, setReady(true) flushes them.
+ * When the browser navigates away the queued events go with the page.
+ */
+public class SyrEventQueue implements Choreographer.FrameCallback {
+
+    public interface Sender {
+        /**
+         * evaluate the script in the bridged browser, always called on the main thread
+         */
+        void evaluate(String script);
+    }
+
+    static final int FLUSH_THRESHOLD = 64;
+
+    private final Handler mHandler;
+    private final Sender mSender;
+    private ArrayList<String> mPending = new ArrayList<String>();
+    private ArrayList<String> mSending = new ArrayList<String>();
+    private boolean mFrameScheduled;
+    private boolean mFlushPosted;
+    private boolean mReady;
+    private boolean mShutdown;
+
+    // event types where only the latest pending event per guid matters
+    private final HashSet<String> mCoalescible = new HashSet<String>();
+    // (guid, type) -> position in mPending of the event that would be superseded
+    private HashMap<String, Integer> mCoalesceIndex = new HashMap<String, Integer>();
+
+    // delivery counters
+    private int mFlushes;
+    private int mEvents;
+    private int mLargestFlush;
+    private int mCoalesced;
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(SyrEventQueue.this);
+        }
+    };
+
+    private final Runnable mFlush = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (SyrEventQueue.this) {
+                mFlushPosted = false;
+            }
+            flush();
+        }
+    };
+
+    SyrEventQueue(Handler mainHandler, Sender sender) {
+        mHandler = mainHandler;
+        mSender = sender;
+
+        mCoalescible.add("onScroll");
+        mCoalescible.add("onLayout");
+        mCoalescible.add("onTouchMove");
+    }
+
+    /**
+     * declare an event type as latest-wins, only for events that carry the complete state
+     */
+    public synchronized void setCoalescible(String type, boolean coalescible) {
+        if (coalescible) {
+            mCoalescible.add(type);
+        } else {
+            mCoalescible.remove(type);
+        }
+    }
+
+    /**
+     * queue an event for the next flush, from any thread
+     */
+    public void add(JSONObject event) {
+        String message = event.toString();
+        String type = event.optString("type");
+        boolean scheduleFrame = false;
+        boolean postFlush = false;
+        synchronized (this) {
+            if (mShutdown) {
+                return;
+            }
+            if (mCoalescible.contains(type)) {
+                // emitter events carry a name instead of a guid
+                String key = type + "/" + event.optString("guid", event.optString("name"));
+                Integer superseded = mCoalesceIndex.put(key, mPending.size());
+                if (superseded != null) {
+                    mPending.set(superseded, null);
+                    mCoalesced++;
+                }
+            }
+            mPending.add(message);
+            if (!mReady) {
+                // nothing to flush into yet, setReady(true) sends them
+            } else if (mPending.size() >= FLUSH_THRESHOLD && !mFlushPosted) {
+                mFlushPosted = true;
+                postFlush = true;
+            } else if (!mFrameScheduled) {
+                mFrameScheduled = true;
+                scheduleFrame = true;
+            }
+        }
+        if (postFlush) {
+            post(mFlush);
+        } else if (scheduleFrame) {
+            post(mScheduleFrame);
+        }
+    }
+
+    /**
+     * send an event without waiting for the frame, together with anything queued before it
+     */
+    public void flushWith(JSONObject event) {
+        String message = event.toString();
+        synchronized (this) {
+            if (mShutdown) {
+                return;
+            }
+            mPending.add(message);
+            if (!mReady || mFlushPosted) {
+                return;
+            }
+            mFlushPosted = true;
+        }
+        post(mFlush);
+    }
+
+    /**
+     * the browser can take scripts, events queued before it was ready go out now.
+     * Not ready again when the browser navigates, the events queued for the old page are dropped.
+     */
+    public void setReady(boolean ready) {
+        synchronized (this) {
+            if (mShutdown) {
+                return;
+            }
+            mReady = ready;
+            if (!ready) {
+                mPending.clear();
+                mCoalesceIndex.clear();
+                return;
+            }
+            if (mFlushPosted) {
+                return;
+            }
+            mFlushPosted = true;
+        }
+        post(mFlush);
+    }
+
+    /**
+     * drop the queued events and stop flushing for good, on the main thread when the bridge is torn down
+     */
+    public void shutdown() {
+        synchronized (this) {
+            mShutdown = true;
+            mReady = false;
+            mPending.clear();
+            mSending.clear();
+            mCoalesceIndex.clear();
+            mFrameScheduled = false;
+            mFlushPosted = false;
+        }
+        mHandler.removeCallbacks(mFlush);
+        mHandler.removeCallbacks(mScheduleFrame);
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    void post(Runnable task) {
+        mHandler.post(task);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        synchronized (this) {
+            mFrameScheduled = false;
+        }
+        flush();
+    }
+
+    /**
+     * deliver every queued event in one evaluation, on the main thread
+     */
+    void flush() {
+        ArrayList<String> events;
+        synchronized (this) {
+            if (!mReady || mPending.isEmpty()) {
+                return;
+            }
+            // swap buffers so producers keep queueing while the script is built
+            events = mPending;
+            mPending = mSending;
+            mSending = events;
+            mCoalesceIndex.clear();
+        }
+
+        int count = 0;
+        StringBuilder script = new StringBuilder("SyrEvents.emit([");
+        for (int i = 0; i < events.size(); i++) {
+            String event = events.get(i);
+            if (event == null) {
+                // superseded by a later event of the same guid and type
+                continue;
+            }
+            if (count > 0) {
+                script.append(',');
+            }
+            script.append(event);
+            count++;
+        }
+        script.append("]);");
+        events.clear();
+
+        mSender.evaluate(script.toString());
+
+        mFlushes++;
+        mEvents += count;
+        mLargestFlush = Math.max(mLargestFlush, count);
+        if (Log.isLoggable("SyrBridge", Log.DEBUG)) {
+            Log.d("SyrBridge", "flushed " + count + " events, " + mEvents + " events in "
+                    + mFlushes + " flushes, largest " + mLargestFlush + ", " + mCoalesced + " coalesced");
+        }
+    }
+
+    public int getFlushCount() {
+        return mFlushes;
+    }
+
+    public int getEventCount() {
+        return mEvents;
+    }
+
+    public int getLargestFlush() {
+        return mLargestFlush;
+    }
+
+    public int getCoalescedCount() {
+        return mCoalesced;
+    }
+}
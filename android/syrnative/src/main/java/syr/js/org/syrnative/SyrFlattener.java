@@ -0,0 +1,169 @@
+package syr.js.org.syrnative;
+
+import android.util.SparseArray;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Layout-only Views, collapsed into the view they would be added to.
+ *
+ * A View that only positions its children (no background, border, opacity,
+ * clipping or handlers) doesn't get a RelativeLayout of its own. Its children
+ * are added to its parent's view instead, offset by where the View would have
+ * been, which saves a measure and layout pass per level of nesting. The raster
+ * turns it back into a real view as soon as an update gives it anything to draw.
+ */
+public class SyrFlattener {
+
+    // the only style a layout-only view can have
+    private static final int LAYOUT_STYLE = SyrStyle.WIDTH | SyrStyle.HEIGHT | SyrStyle.LEFT
+            | SyrStyle.TOP | SyrStyle.OVERFLOW;
+
+    static class Entry {
+        // the view the flattened node's children are added to
+        ViewGroup host;
+        // where the node's children start within the host
+        int x;
+        int y;
+    }
+
+    private final SyrRaster mRaster;
+    private final SyrLayoutTree mLayout;
+    // by tag
+    private final SparseArray<Entry> mEntries = new SparseArray<Entry>();
+
+    SyrFlattener(SyrRaster raster, SyrLayoutTree layout) {
+        mRaster = raster;
+        mLayout = layout;
+    }
+
+    Entry get(int tag) {
+        return mEntries.get(tag);
+    }
+
+    /**
+     * whether a View node can be left out of the view hierarchy
+     *
+     * @param parent     the node the view would be a child of
+     * @param viewParent the view its children would be added to
+     */
+    boolean isLayoutOnly(Component node, Component parent, ViewGroup viewParent) {
+        Object module = mRaster.getComponentModule(node.getElementName());
+        if (module == null || module.getClass() != SyrView.class) {
+            return false;
+        }
+        // stackviews and scrollviews place their children themselves
+        if (viewParent == null || viewParent instanceof LinearLayout || viewParent instanceof ScrollView
+                || viewParent instanceof SyrScrollContainer) {
+            return false;
+        }
+        SyrStyle style = node.getStyle();
+        if (style == null || (style.flags & ~LAYOUT_STYLE) != 0 || style.overflowHidden
+                || style.extras != null || hasHandlers(node.getProps())) {
+            return false;
+        }
+        // flexbox frames are relative to the parent's view
+        if (mLayout.participates(node) || (parent != null && mLayout.participates(parent))) {
+            return false;
+        }
+        if (style.has(SyrStyle.OVERFLOW)) {
+            // overflow visible, nothing is clipped to the view
+            return true;
+        }
+        // a view clips its children, without one they must already fit
+        return style.has(SyrStyle.SIZE) && fits(node, style.width, style.height);
+    }
+
+    private boolean fits(Component node, int width, int height) {
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            if (child.isUnmount()) {
+                continue;
+            }
+            if (mRaster.getComponentModule(child.getElementName()) == null) {
+                if (!fits(child, width, height)) {
+                    return false;
+                }
+                continue;
+            }
+            SyrStyle style = child.getStyle();
+            if (style == null || !style.has(SyrStyle.SIZE)) {
+                return false;
+            }
+            float left = style.has(SyrStyle.LEFT) ? style.left : 0;
+            float top = style.has(SyrStyle.TOP) ? style.top : 0;
+            if (left < 0 || top < 0 || left + style.width > width || top + style.height > height) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasHandlers(JSONObject props) {
+        if (props == null) {
+            return false;
+        }
+        Iterator<String> keys = props.keys();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith("on")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * flatten a node into host, or move a flattened one
+     *
+     * @param offset where the node's parent starts within host, null at its origin
+     * @return where the node's children start within host
+     */
+    int[] flatten(int tag, ViewGroup host, Component node, int[] offset) {
+        Entry entry = mEntries.get(tag);
+        if (entry == null) {
+            entry = new Entry();
+            mEntries.put(tag, entry);
+        }
+        int[] position = position(node, offset);
+        entry.host = host;
+        entry.x = position[0];
+        entry.y = position[1];
+        return position;
+    }
+
+    /**
+     * where a node goes within the view it's added to, its style's left and top plus the offset
+     */
+    static int[] position(Component node, int[] offset) {
+        SyrStyle style = node.getStyle();
+        int x = style != null && style.has(SyrStyle.LEFT) ? Math.round(style.left) : 0;
+        int y = style != null && style.has(SyrStyle.TOP) ? Math.round(style.top) : 0;
+        if (offset != null) {
+            x += offset[0];
+            y += offset[1];
+        }
+        return new int[]{x, y};
+    }
+
+    void remove(int tag) {
+        mEntries.remove(tag);
+    }
+
+    void clear() {
+        mEntries.clear();
+    }
+
+    int size() {
+        return mEntries.size();
+    }
+}
@@ -0,0 +1,183 @@
+package syr.js.org.syrnative;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.ArrayDeque;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Applies the raster's view operation batches on Choreographer frame callbacks.
+ *
+ * Every frame drains pending operations for at most the frame budget and then
+ * yields, so a large first mount is spread over several frames instead of
+ * blocking the main thread until the whole tree is attached. Mount batches are
+ * applied top-level first (see SyrViewOperations.orderByDepth) so the outer
+ * layout shows up in the first frame and its contents fill in after.
+ *
+ * Batches that answer user input skip the budget: when one is queued, the
+ * scheduler drains everything up to and including it in the current frame.
+ * Batches are never reordered, a later update may remove or re-render views
+ * an earlier batch attaches.
+ */
+public class SyrFrameScheduler implements Choreographer.FrameCallback {
+
+    public static final long DEFAULT_FRAME_BUDGET_MS = 8;
+
+    private final SyrRaster mRaster;
+    private final Handler mHandler;
+    private final ArrayDeque<SyrViewOperations> mPending = new ArrayDeque<SyrViewOperations>();
+    private Choreographer mChoreographer;
+    private long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_MS * 1000000L;
+    private boolean mFrameScheduled;
+    private boolean mCancelled;
+    private int mInputBatches; // queued batches with input priority
+    private int mCommits;
+
+    // position within the batch at the head of the queue
+    private int mCursor;
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            scheduleFrame();
+        }
+    };
+
+    SyrFrameScheduler(SyrRaster raster, Handler mainHandler) {
+        mRaster = raster;
+        mHandler = mainHandler;
+    }
+
+    /**
+     * time spent applying view operations per frame, before the rest waits for the next vsync
+     */
+    public void setFrameBudgetMillis(long budget) {
+        mFrameBudgetNanos = Math.max(1, budget) * 1000000L;
+    }
+
+    public long getFrameBudgetMillis() {
+        return mFrameBudgetNanos / 1000000L;
+    }
+
+    /**
+     * queue a batch from any thread, it is applied from the next frame on
+     */
+    public void schedule(SyrViewOperations operations) {
+        operations.mScheduledAt = SystemClock.uptimeMillis();
+        boolean post;
+        synchronized (mPending) {
+            if (mCancelled) {
+                // the raster was torn down while it was building this batch
+                return;
+            }
+            mPending.add(operations);
+            if (operations.mInput) {
+                mInputBatches++;
+            }
+            post = !mFrameScheduled;
+            mFrameScheduled = true;
+        }
+        if (post) {
+            // the choreographer belongs to the main looper, ask for the frame from there
+            mHandler.post(mScheduleFrame);
+        }
+    }
+
+    /**
+     * drop the queued batches and apply nothing more, on the main thread when the raster is torn down
+     */
+    void cancel() {
+        synchronized (mPending) {
+            mCancelled = true;
+            mPending.clear();
+            mInputBatches = 0;
+            mFrameScheduled = false;
+        }
+        mCursor = 0;
+        mHandler.removeCallbacks(mScheduleFrame);
+        if (mChoreographer != null) {
+            mChoreographer.removeFrameCallback(this);
+        }
+    }
+
+    private void scheduleFrame() {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        mChoreographer.postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        long start = System.nanoTime();
+        long deadline = start + mFrameBudgetNanos;
+
+        while (true) {
+            SyrViewOperations operations;
+            boolean flush;
+            synchronized (mPending) {
+                operations = mPending.peek();
+                if (operations == null) {
+                    mFrameScheduled = false;
+                    return;
+                }
+                flush = mInputBatches > 0;
+            }
+
+            // always make progress, even when the budget is already spent
+            long batchStart = System.nanoTime();
+            int size = operations.size();
+            operations.mFrames++;
+            while (mCursor < size) {
+                operations.applyAt(mCursor++);
+                if (!flush && System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+            operations.mBusyNanos += System.nanoTime() - batchStart;
+
+            if (mCursor < size) {
+                // out of budget, pick up from here on the next vsync
+                mChoreographer.postFrameCallback(this);
+                return;
+            }
+
+            synchronized (mPending) {
+                mPending.poll();
+                if (operations.mInput) {
+                    mInputBatches--;
+                }
+            }
+            mCursor = 0;
+            report(operations);
+            mRaster.operationsApplied(operations);
+
+            if (!flush && System.nanoTime() >= deadline) {
+                synchronized (mPending) {
+                    if (mPending.isEmpty()) {
+                        mFrameScheduled = false;
+                        return;
+                    }
+                }
+                mChoreographer.postFrameCallback(this);
+                return;
+            }
+        }
+    }
+
+    private void report(SyrViewOperations operations) {
+        mCommits++;
+        if (Log.isLoggable("SyrRaster", Log.DEBUG)) {
+            Log.d("SyrRaster", "commit " + mCommits + ": " + operations.size() + " view operations"
+                    + (operations.mInput ? " (input)" : "")
+                    + " over " + operations.mFrames + " frames, "
+                    + (operations.mBusyNanos / 1000000f) + "ms on the main thread, "
+                    + (SystemClock.uptimeMillis() - operations.mScheduledAt) + "ms until visible");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package syr.js.org.syrnative;
+
+import android.util.SparseArray;
+
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Heights of the nodes inside scrollview content, as SyrRaster.getHeight
+ * sums them: a styled child adds its style height, an unstyled one the
+ * height of its own children.
+ *
+ * Within a message every node is measured once, the result is memoized on
+ * the node. Across messages every measured node is kept by tag with the tag
+ * of its parent, so an update of one node only re-measures that node and
+ * corrects its unstyled ancestors up to the scrollview, instead of measuring
+ * the whole content again.
+ */
+public class SyrHeightCache {
+
+    static class Entry {
+        // instance key of the node, rows of a window are found by it
+        String key;
+        // tag of the parent, 0 for the node measured at the top
+        int parent;
+        // what the node adds to its parent's height
+        int contribution;
+        // sum of the node's children, its content height
+        int height;
+        // the contribution comes from the node's style and doesn't follow its children
+        boolean fixed;
+    }
+
+    private final SyrInstanceRegistry mInstances;
+    private final SparseArray<Entry> mEntries = new SparseArray<Entry>();
+
+    SyrHeightCache(SyrInstanceRegistry instances) {
+        mInstances = instances;
+    }
+
+    Entry get(int tag) {
+        return mEntries.get(tag);
+    }
+
+    /**
+     * content height of a node, the sum of what its children add
+     */
+    int measure(Component node) {
+        if (node.contentHeight >= 0) {
+            return node.contentHeight;
+        }
+        int tag = mInstances.tag(node);
+        int height = 0;
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            height += measureChild(children.get(i), tag);
+        }
+        node.contentHeight = height;
+        if (tag > 0) {
+            entry(tag, node).height = height;
+        }
+        return height;
+    }
+
+    /**
+     * what a child adds to its parent, its style height when styled, and record it under the parent
+     */
+    int measureChild(Component child, int parent) {
+        SyrStyle style = child.getStyle();
+        int contribution;
+        if (style != null) {
+            contribution = style.has(SyrStyle.HEIGHT) ? style.height : 0;
+        } else {
+            contribution = measure(child);
+        }
+        record(child, parent, contribution, style != null);
+        return contribution;
+    }
+
+    void record(Component child, int parent, int contribution, boolean fixed) {
+        int tag = mInstances.tag(child);
+        if (tag == 0) {
+            return;
+        }
+        Entry entry = entry(tag, child);
+        entry.parent = parent;
+        entry.contribution = contribution;
+        entry.fixed = fixed;
+    }
+
+    void remove(int tag) {
+        mEntries.remove(tag);
+    }
+
+    /**
+     * forget a node and the nodes under it
+     */
+    void removeTree(Component node) {
+        remove(mInstances.tag(node));
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            removeTree(children.get(i));
+        }
+    }
+
+    void clear() {
+        mEntries.clear();
+    }
+
+    int size() {
+        return mEntries.size();
+    }
+
+    private Entry entry(int tag, Component node) {
+        Entry entry = mEntries.get(tag);
+        if (entry == null) {
+            entry = new Entry();
+            entry.key = SyrRaster.instanceKey(node);
+            mEntries.put(tag, entry);
+        }
+        return entry;
+    }
+}
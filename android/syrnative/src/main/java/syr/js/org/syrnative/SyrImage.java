@@ -15,20 +15,27 @@ import android.os.Looper;
 import android.view.View;
 import android.widget.ImageView;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.InputStream;
-import java.math.BigDecimal;
+import java.util.WeakHashMap;
 
 /**
  * Created by dereanderson on 1/10/18.
  */
 
-public class SyrImage implements SyrBaseModule, SyrComponent {
+public class SyrImage implements SyrBaseModule, SyrComponent, SyrReleasable {
+
+    // the download running for each image view, a new source or an unmount cancels it
+    private final WeakHashMap<ImageView, DownloadImageTask> mLoads = new WeakHashMap<ImageView, DownloadImageTask>();
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
 
         ImageView imageView;
         if (instance != null) {
@@ -36,83 +43,71 @@ public class SyrImage implements SyrBaseModule, SyrComponent {
         } else {
             imageView = new ImageView(context);
         }
-        JSONObject style = null;
-        JSONObject source = null;
-
-        try {
-            JSONObject jsonInstance = component.getJSONObject("instance");
-            JSONObject jsonProps = jsonInstance.getJSONObject("props");
-
-            if (jsonInstance.has("style")) {
-                style = jsonInstance.getJSONObject("style");
-                if (instance == null) {
-                    imageView.setLayoutParams(SyrStyler.styleLayout(style));
-                } else {
-                    if (style.has("width")) {
-
-                        imageView.getLayoutParams().width = style.getInt("width");
-
-                    }
+        SyrStyle style = component.getStyle();
+        JSONObject props = component.getProps();
 
-                    if (style.has("height")) {
-
-                        imageView.getLayoutParams().height = style.getInt("height");
-                    }
-                    imageView.setLayoutParams(imageView.getLayoutParams());
-                }
+        // only what changed since the last render is applied to an existing view
+        if (style != null) {
+            if (component.styleChanged(SyrStyle.SIZE)) {
+                SyrStyler.applyLayout(imageView, style);
             }
 
-            if (style != null) {
+            if (component.styleChanged(SyrStyle.BACKGROUND)) {
                 SyrStyler.styleView(imageView, style);
+            }
 
-                if (style.has("left")) {
-                    imageView.setX(BigDecimal.valueOf(style.getDouble("left")).floatValue());
-                }
+            if (component.styleChanged(SyrStyle.LEFT) && style.has(SyrStyle.LEFT)) {
+                imageView.setX(style.left);
+            }
 
-                if (style.has("top")) {
-                    imageView.setY(BigDecimal.valueOf(style.getDouble("top")).floatValue());
-                }
+            if (component.styleChanged(SyrStyle.TOP) && style.has(SyrStyle.TOP)) {
+                imageView.setY(style.top);
             }
-            if (jsonProps.has("source")) {
+        }
+
+        // the image is only loaded again when the source (or the radius it is clipped to) changed
+        boolean reload = component.propsChanged() || component.styleChanged(SyrStyle.BORDER_RADIUS);
+        JSONObject source = props != null ? props.optJSONObject("source") : null;
+        if (reload && source != null && source.has("uri")) {
 
-                // grabs the source url if present
-                source = jsonProps.getJSONObject("source");
-                String path = source.getString("uri");
+            // grabs the source url if present
+            String path = source.optString("uri");
 
-                // check if image exists in Resources
-                final int pathExists = context.getResources().getIdentifier(path, "drawable", context.getPackageName());
+            // check if image exists in Resources
+            final int pathExists = context.getResources().getIdentifier(path, "drawable", context.getPackageName());
 //
-                if (pathExists != 0) {
-                    final ImageView iv = imageView;
-                    new Thread(new Runnable() {
-                        @Override
-                        public void run() {
-                            // if exist set image
-                            new Handler(Looper.getMainLooper()).post(new Runnable() {
-                                @Override
-                                public void run() {
-                                    iv.setImageResource(pathExists);
-
-                                }
-
-                            });
-                        }
-                    }).start();
+            if (pathExists != 0) {
+                final ImageView iv = imageView;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        // if exist set image
+                        new Handler(Looper.getMainLooper()).post(new Runnable() {
+                            @Override
+                            public void run() {
+                                iv.setImageResource(pathExists);
+
+                            }
+
+                        });
+                    }
+                }).start();
 //                    imageView.setImageResource(pathExists);
 
-                } else {
-                    //Assume that its a url for now and try to fetch it in a background task
-                    new DownloadImageTask(imageView, style).execute(path);
-                }
-                imageView.setScaleType(ImageView.ScaleType.FIT_XY);
-
             } else {
-                // throw red box because missing source prop entirely
+                //Assume that its a url for now and try to fetch it in a background task
+                float borderRadius = style != null && style.has(SyrStyle.BORDER_RADIUS) ? style.borderRadius : 0;
+                DownloadImageTask task = new DownloadImageTask(imageView, borderRadius);
+                cancelLoad(imageView);
+                synchronized (mLoads) {
+                    mLoads.put(imageView, task);
+                }
+                task.execute(path);
             }
+            imageView.setScaleType(ImageView.ScaleType.FIT_XY);
 
-
-        } catch (JSONException e) {
-            e.printStackTrace();
+        } else {
+            // throw red box because missing source prop entirely
         }
 
         return imageView;
@@ -123,13 +118,29 @@ public class SyrImage implements SyrBaseModule, SyrComponent {
         return "Image";
     }
 
+    @Override
+    public void releaseView(View view) {
+        cancelLoad((ImageView) view);
+        ((ImageView) view).setImageDrawable(null);
+    }
+
+    private void cancelLoad(ImageView imageView) {
+        DownloadImageTask task;
+        synchronized (mLoads) {
+            task = mLoads.remove(imageView);
+        }
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
     private class DownloadImageTask extends AsyncTask<String, Void, Bitmap> {
         ImageView bmImage;
-        JSONObject style;
+        float borderRadius;
 
-        public DownloadImageTask(ImageView bmImage, JSONObject style) {
+        public DownloadImageTask(ImageView bmImage, float borderRadius) {
             this.bmImage = bmImage;
-            this.style = style;
+            this.borderRadius = borderRadius;
         }
 
         protected Bitmap doInBackground(String... urls) {
@@ -145,32 +156,29 @@ public class SyrImage implements SyrBaseModule, SyrComponent {
         }
 
         protected void onPostExecute(Bitmap bitmap) {
-            try {
-                if (bitmap != null) {
-                    Bitmap output = Bitmap.createBitmap(bitmap.getWidth(), bitmap
-                            .getHeight(), Bitmap.Config.ARGB_8888);
-                    Canvas canvas = new Canvas(output);
-
-                    final int color = 0xff424242;
-                    final Paint paint = new Paint();
-                    final Rect rect = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
-                    final RectF rectF = new RectF(rect);
-                    float roundPx = 0;
-                    if (style.has("borderRadius")) {
-                        roundPx = BigDecimal.valueOf(style.getDouble("borderRadius")).floatValue();
-                    }
-                    paint.setAntiAlias(true);
-                    canvas.drawARGB(0, 0, 0, 0);
-                    paint.setColor(color);
-                    canvas.drawRoundRect(rectF, roundPx, roundPx, paint);
-
-                    paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
-                    canvas.drawBitmap(bitmap, rect, rect, paint);
-                    bmImage.setImageBitmap(output);
+            synchronized (mLoads) {
+                if (mLoads.get(bmImage) == this) {
+                    mLoads.remove(bmImage);
                 }
-
-            } catch (JSONException e) {
-                e.printStackTrace();
+            }
+            if (bitmap != null) {
+                Bitmap output = Bitmap.createBitmap(bitmap.getWidth(), bitmap
+                        .getHeight(), Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(output);
+
+                final int color = 0xff424242;
+                final Paint paint = new Paint();
+                final Rect rect = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
+                final RectF rectF = new RectF(rect);
+                float roundPx = borderRadius;
+                paint.setAntiAlias(true);
+                canvas.drawARGB(0, 0, 0, 0);
+                paint.setColor(color);
+                canvas.drawRoundRect(rectF, roundPx, roundPx, paint);
+
+                paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
+                canvas.drawBitmap(bitmap, rect, rect, paint);
+                bmImage.setImageBitmap(output);
             }
         }
     }
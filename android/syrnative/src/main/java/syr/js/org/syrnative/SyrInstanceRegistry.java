@@ -0,0 +1,163 @@
+package syr.js.org.syrnative;
+
+import android.util.SparseArray;
+
+import java.util.HashMap;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * The mounted nodes of the raster, by integer tag.
+ *
+ * Every instance key gets a tag the first time the raster sees it, and js is
+ * told the tag with the node's componentDidMount. A node's tag is resolved
+ * once per message: a tag js sent back on the node is checked against the
+ * node's instance key, built when the node was decoded, and anything else
+ * looks its key up once. From then on the node carries its tag and every
+ * lookup, here and in the raster's caches, is a SparseArray lookup of an int.
+ * Tags are never reused, a stale tag misses instead of finding another node.
+ */
+public class SyrInstanceRegistry {
+
+    static class Entry {
+        final int tag;
+        final String key;
+        // the view rendered for the node, null for a non-renderable
+        Object instance;
+        // what the view was last rendered from
+        Component rendered;
+
+        Entry(int tag, String key) {
+            this.tag = tag;
+            this.key = key;
+        }
+    }
+
+    private final SparseArray<Entry> mEntries = new SparseArray<Entry>();
+    // instance key -> tag, for every key the raster mounted or cached something for
+    private final HashMap<String, Integer> mTags = new HashMap<String, Integer>();
+    private int mNextTag = 1;
+
+    /**
+     * tag of a node, a new one when its key has none yet, 0 for a node without a key
+     */
+    int tag(Component node) {
+        if (node.tag > 0) {
+            return node.tag;
+        }
+        String key = SyrRaster.instanceKey(node);
+        if (key == null) {
+            return 0;
+        }
+        Entry entry = node.sentTag > 0 ? mEntries.get(node.sentTag) : null;
+        if (entry != null && entry.key.equals(key)) {
+            node.tag = entry.tag;
+            return node.tag;
+        }
+        Integer tag = mTags.get(key);
+        if (tag == null) {
+            tag = mNextTag++;
+            mTags.put(key, tag);
+        }
+        node.tag = tag;
+        return node.tag;
+    }
+
+    /**
+     * the entry of a mounted node, null when the node isn't mounted
+     */
+    Entry get(Component node) {
+        return mEntries.get(tag(node));
+    }
+
+    Entry get(String key) {
+        Integer tag = key != null ? mTags.get(key) : null;
+        return tag != null ? mEntries.get(tag) : null;
+    }
+
+    Entry get(int tag) {
+        return mEntries.get(tag);
+    }
+
+    /**
+     * the entry of a node, registered under its tag when the node isn't mounted yet
+     */
+    Entry obtain(Component node) {
+        int tag = tag(node);
+        if (tag == 0) {
+            return null;
+        }
+        Entry entry = mEntries.get(tag);
+        if (entry == null) {
+            entry = new Entry(tag, SyrRaster.instanceKey(node));
+            mEntries.put(tag, entry);
+            // a node that kept its tag while it was unmounted brings it back
+            mTags.put(entry.key, tag);
+        }
+        return entry;
+    }
+
+    /**
+     * the view of a mounted node, null when it has none
+     */
+    Object getInstance(Component node) {
+        Entry entry = get(node);
+        return entry != null ? entry.instance : null;
+    }
+
+    Object getInstance(String key) {
+        Entry entry = get(key);
+        return entry != null ? entry.instance : null;
+    }
+
+    Object getInstance(int tag) {
+        Entry entry = mEntries.get(tag);
+        return entry != null ? entry.instance : null;
+    }
+
+    /**
+     * tag of an instance key, 0 when the raster has none
+     */
+    int getTag(String key) {
+        Integer tag = key != null ? mTags.get(key) : null;
+        return tag != null ? tag : 0;
+    }
+
+    /**
+     * unmount a node, its key forgets its tag even when only the caches had it
+     */
+    Entry remove(Component node) {
+        Entry entry = get(node);
+        if (entry != null) {
+            remove(entry);
+        } else {
+            Integer tag = mTags.get(node.instanceKey);
+            if (tag != null && tag == node.tag) {
+                mTags.remove(node.instanceKey);
+            }
+        }
+        return entry;
+    }
+
+    void remove(Entry entry) {
+        mEntries.remove(entry.tag);
+        mTags.remove(entry.key);
+    }
+
+    int size() {
+        return mEntries.size();
+    }
+
+    Entry valueAt(int index) {
+        return mEntries.valueAt(index);
+    }
+
+    /**
+     * forget every node, tags keep counting so the ones js still has don't come back
+     */
+    void clear() {
+        mEntries.clear();
+        mTags.clear();
+    }
+}
@@ -0,0 +1,613 @@
+package syr.js.org.syrnative;
+
+import java.util.ArrayList;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * A node of the flexbox layout engine. Pure Java with no android classes, it
+ * is laid out on the raster thread and can be tested on the plain JVM.
+ *
+ * Supports flexDirection, justifyContent, alignItems and alignSelf, flex,
+ * flexGrow, flexShrink and flexBasis, padding, margin, absolute position, and
+ * sizes and offsets in points or percent of the parent. Lines don't wrap.
+ * Defaults follow react-native: children are laid out in a column and
+ * stretched across it.
+ *
+ * Changing a node's style or children marks it and its ancestors dirty. A
+ * layout pass only visits dirty subtrees and subtrees given a new size, and
+ * flags the nodes whose frame changed, so only those get applied to views.
+ * Frames are relative to the parent node.
+ */
+public class SyrLayoutNode {
+
+    // flexDirection
+    public static final int COLUMN = 0;
+    public static final int ROW = 1;
+    public static final int COLUMN_REVERSE = 2;
+    public static final int ROW_REVERSE = 3;
+
+    // justifyContent, alignItems and alignSelf
+    public static final int AUTO = 0;
+    public static final int FLEX_START = 1;
+    public static final int CENTER = 2;
+    public static final int FLEX_END = 3;
+    public static final int STRETCH = 4;
+    public static final int SPACE_BETWEEN = 5;
+    public static final int SPACE_AROUND = 6;
+    public static final int SPACE_EVENLY = 7;
+
+    // units of sizes and offsets
+    public static final int UNIT_AUTO = 0;
+    public static final int UNIT_POINT = 1;
+    public static final int UNIT_PERCENT = 2;
+
+    // edges of padding and margin
+    public static final int LEFT = 0;
+    public static final int TOP = 1;
+    public static final int RIGHT = 2;
+    public static final int BOTTOM = 3;
+
+    /**
+     * measures the content of a leaf, text for instance
+     */
+    public interface MeasureFunction {
+        /**
+         * @param width   width available for the content, NaN when unconstrained
+         * @param height  height available for the content, NaN when unconstrained
+         * @param size    receives the content width and height
+         */
+        void measure(SyrLayoutNode node, float width, float height, float[] size);
+    }
+
+    // style
+    private int mFlexDirection = COLUMN;
+    private int mJustifyContent = FLEX_START;
+    private int mAlignItems = STRETCH;
+    private int mAlignSelf = AUTO;
+    private float mFlexGrow;
+    private float mFlexShrink;
+    private float mFlexBasis = Float.NaN;
+    private boolean mAbsolute;
+    private float mWidth = Float.NaN;
+    private int mWidthUnit = UNIT_AUTO;
+    private float mHeight = Float.NaN;
+    private int mHeightUnit = UNIT_AUTO;
+    private float mLeft = Float.NaN;
+    private int mLeftUnit = UNIT_AUTO;
+    private float mTop = Float.NaN;
+    private int mTopUnit = UNIT_AUTO;
+    private final float[] mPadding = new float[4];
+    private final float[] mMargin = new float[4];
+    private MeasureFunction mMeasureFunction;
+    private Object mContext;
+
+    private SyrLayoutNode mParent;
+    private final ArrayList<SyrLayoutNode> mChildren = new ArrayList<SyrLayoutNode>(4);
+
+    // frame, relative to the parent
+    private float mX;
+    private float mY;
+    private float mLayoutWidth;
+    private float mLayoutHeight;
+    private boolean mHasNewLayout = true;
+
+    // the style or children changed since the last layout
+    private boolean mDirty = true;
+    // size the children were last laid out in
+    private float mLaidOutWidth = Float.NaN;
+    private float mLaidOutHeight = Float.NaN;
+
+    // last measurement, valid until the node is marked dirty
+    private boolean mMeasured;
+    private float mMeasuredForWidth;
+    private float mMeasuredForHeight;
+    private float mMeasuredWidth;
+    private float mMeasuredHeight;
+
+    // sizes of this node while its parent runs flex
+    private float mFlexMain;
+    private float mFlexCross;
+
+    // content size found by the last flex pass
+    private float mContentWidth;
+    private float mContentHeight;
+
+    public void setContext(Object context) {
+        mContext = context;
+    }
+
+    public Object getContext() {
+        return mContext;
+    }
+
+    public SyrLayoutNode getParent() {
+        return mParent;
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public SyrLayoutNode getChildAt(int index) {
+        return mChildren.get(index);
+    }
+
+    public int indexOf(SyrLayoutNode child) {
+        return mChildren.indexOf(child);
+    }
+
+    public void addChildAt(SyrLayoutNode child, int index) {
+        if (child.mParent != null) {
+            throw new IllegalStateException("Layout node already has a parent");
+        }
+        child.mParent = this;
+        mChildren.add(index, child);
+        markDirty();
+    }
+
+    public SyrLayoutNode removeChildAt(int index) {
+        SyrLayoutNode child = mChildren.remove(index);
+        child.mParent = null;
+        markDirty();
+        return child;
+    }
+
+    public void removeChild(SyrLayoutNode child) {
+        int index = mChildren.indexOf(child);
+        if (index >= 0) {
+            removeChildAt(index);
+        }
+    }
+
+    public void setFlexDirection(int flexDirection) {
+        if (mFlexDirection != flexDirection) {
+            mFlexDirection = flexDirection;
+            markDirty();
+        }
+    }
+
+    public void setJustifyContent(int justifyContent) {
+        if (mJustifyContent != justifyContent) {
+            mJustifyContent = justifyContent;
+            markDirty();
+        }
+    }
+
+    public void setAlignItems(int alignItems) {
+        if (mAlignItems != alignItems) {
+            mAlignItems = alignItems;
+            markDirty();
+        }
+    }
+
+    public void setAlignSelf(int alignSelf) {
+        if (mAlignSelf != alignSelf) {
+            mAlignSelf = alignSelf;
+            markDirty();
+        }
+    }
+
+    public void setFlexGrow(float flexGrow) {
+        if (mFlexGrow != flexGrow) {
+            mFlexGrow = flexGrow;
+            markDirty();
+        }
+    }
+
+    public void setFlexShrink(float flexShrink) {
+        if (mFlexShrink != flexShrink) {
+            mFlexShrink = flexShrink;
+            markDirty();
+        }
+    }
+
+    /**
+     * starting main size before free space is distributed, NaN for the node's own size
+     */
+    public void setFlexBasis(float flexBasis) {
+        if (!same(mFlexBasis, flexBasis)) {
+            mFlexBasis = flexBasis;
+            markDirty();
+        }
+    }
+
+    /**
+     * react-native's flex: a positive value grows and shrinks from a basis of 0,
+     * a negative one only shrinks
+     */
+    public void setFlex(float flex) {
+        if (flex > 0) {
+            setFlexGrow(flex);
+            setFlexShrink(1);
+            setFlexBasis(0);
+        } else {
+            setFlexGrow(0);
+            setFlexShrink(flex < 0 ? -flex : 0);
+            setFlexBasis(Float.NaN);
+        }
+    }
+
+    public void setAbsolute(boolean absolute) {
+        if (mAbsolute != absolute) {
+            mAbsolute = absolute;
+            markDirty();
+        }
+    }
+
+    public void setWidth(float width, int unit) {
+        if (!same(mWidth, width) || mWidthUnit != unit) {
+            mWidth = width;
+            mWidthUnit = unit;
+            markDirty();
+        }
+    }
+
+    public void setHeight(float height, int unit) {
+        if (!same(mHeight, height) || mHeightUnit != unit) {
+            mHeight = height;
+            mHeightUnit = unit;
+            markDirty();
+        }
+    }
+
+    /**
+     * offset from where flex puts the node, or the position of an absolute node
+     */
+    public void setLeft(float left, int unit) {
+        if (!same(mLeft, left) || mLeftUnit != unit) {
+            mLeft = left;
+            mLeftUnit = unit;
+            markDirty();
+        }
+    }
+
+    public void setTop(float top, int unit) {
+        if (!same(mTop, top) || mTopUnit != unit) {
+            mTop = top;
+            mTopUnit = unit;
+            markDirty();
+        }
+    }
+
+    public void setPadding(int edge, float padding) {
+        if (mPadding[edge] != padding) {
+            mPadding[edge] = padding;
+            markDirty();
+        }
+    }
+
+    public void setMargin(int edge, float margin) {
+        if (mMargin[edge] != margin) {
+            mMargin[edge] = margin;
+            markDirty();
+        }
+    }
+
+    public void setMeasureFunction(MeasureFunction measureFunction) {
+        if (mMeasureFunction != measureFunction) {
+            mMeasureFunction = measureFunction;
+            markDirty();
+        }
+    }
+
+    /**
+     * the node needs to be laid out again, and so do its ancestors
+     */
+    public void markDirty() {
+        for (SyrLayoutNode node = this; node != null; node = node.mParent) {
+            node.mDirty = true;
+            node.mMeasured = false;
+        }
+    }
+
+    public boolean isDirty() {
+        return mDirty;
+    }
+
+    public float getLayoutX() {
+        return mX;
+    }
+
+    public float getLayoutY() {
+        return mY;
+    }
+
+    public float getLayoutWidth() {
+        return mLayoutWidth;
+    }
+
+    public float getLayoutHeight() {
+        return mLayoutHeight;
+    }
+
+    /**
+     * the frame changed since markLayoutSeen
+     */
+    public boolean hasNewLayout() {
+        return mHasNewLayout;
+    }
+
+    public void markLayoutSeen() {
+        mHasNewLayout = false;
+    }
+
+    /**
+     * lay out the tree under this node, sized in an owner of the given size.
+     * A size without a style is the owner's width, and the content's height.
+     */
+    public void calculateLayout(float ownerWidth, float ownerHeight) {
+        float width = resolve(mWidth, mWidthUnit, ownerWidth);
+        float height = resolve(mHeight, mHeightUnit, ownerHeight);
+        if (Float.isNaN(width) && !Float.isNaN(ownerWidth)) {
+            width = Math.max(0, ownerWidth - mMargin[LEFT] - mMargin[RIGHT]);
+        }
+        if (Float.isNaN(width) || Float.isNaN(height)) {
+            measure(width, height);
+            width = Float.isNaN(width) ? mMeasuredWidth : width;
+            height = Float.isNaN(height) ? mMeasuredHeight : height;
+        }
+
+        float x = resolve(mLeft, mLeftUnit, ownerWidth);
+        float y = resolve(mTop, mTopUnit, ownerHeight);
+        setFrame((Float.isNaN(x) ? 0 : x) + mMargin[LEFT], (Float.isNaN(y) ? 0 : y) + mMargin[TOP], width, height);
+        layout(width, height);
+    }
+
+    // position the children in a node of this size, skipped when nothing changed
+    private void layout(float width, float height) {
+        if (!mDirty && width == mLaidOutWidth && height == mLaidOutHeight) {
+            return;
+        }
+        if (!mChildren.isEmpty()) {
+            flex(width, height, true);
+        }
+        mLaidOutWidth = width;
+        mLaidOutHeight = height;
+        mDirty = false;
+    }
+
+    // size of the node, NaN width or height is sized to the content
+    private void measure(float width, float height) {
+        if (mMeasured && same(width, mMeasuredForWidth) && same(height, mMeasuredForHeight)) {
+            return;
+        }
+
+        float measuredWidth = width;
+        float measuredHeight = height;
+        if (Float.isNaN(width) || Float.isNaN(height)) {
+            float paddingWidth = mPadding[LEFT] + mPadding[RIGHT];
+            float paddingHeight = mPadding[TOP] + mPadding[BOTTOM];
+            if (!mChildren.isEmpty()) {
+                flex(width, height, false);
+                measuredWidth = mContentWidth;
+                measuredHeight = mContentHeight;
+            } else if (mMeasureFunction != null) {
+                float[] size = new float[2];
+                mMeasureFunction.measure(this,
+                        Float.isNaN(width) ? Float.NaN : Math.max(0, width - paddingWidth),
+                        Float.isNaN(height) ? Float.NaN : Math.max(0, height - paddingHeight),
+                        size);
+                measuredWidth = Float.isNaN(width) ? size[0] + paddingWidth : width;
+                measuredHeight = Float.isNaN(height) ? size[1] + paddingHeight : height;
+            } else {
+                measuredWidth = Float.isNaN(width) ? paddingWidth : width;
+                measuredHeight = Float.isNaN(height) ? paddingHeight : height;
+            }
+        }
+
+        mMeasured = true;
+        mMeasuredForWidth = width;
+        mMeasuredForHeight = height;
+        mMeasuredWidth = measuredWidth;
+        mMeasuredHeight = measuredHeight;
+    }
+
+    /**
+     * size the children along the main axis and across it, then place them when perform
+     * is set. Leaves the size of the node, its content's where width or height is NaN,
+     * in mContentWidth and mContentHeight.
+     */
+    private void flex(float width, float height, boolean perform) {
+        boolean row = mFlexDirection == ROW || mFlexDirection == ROW_REVERSE;
+        boolean reverse = mFlexDirection == ROW_REVERSE || mFlexDirection == COLUMN_REVERSE;
+        int mainStart = row ? LEFT : TOP;
+        int mainEnd = row ? RIGHT : BOTTOM;
+        int crossStart = row ? TOP : LEFT;
+        int crossEnd = row ? BOTTOM : RIGHT;
+
+        float innerWidth = Float.isNaN(width) ? Float.NaN : Math.max(0, width - mPadding[LEFT] - mPadding[RIGHT]);
+        float innerHeight = Float.isNaN(height) ? Float.NaN : Math.max(0, height - mPadding[TOP] - mPadding[BOTTOM]);
+        float innerMain = row ? innerWidth : innerHeight;
+        float innerCross = row ? innerHeight : innerWidth;
+
+        // sizes from the children's styles, or their content
+        float used = 0;
+        float grow = 0;
+        float shrink = 0;
+        int count = 0;
+        for (int i = 0; i < mChildren.size(); i++) {
+            SyrLayoutNode child = mChildren.get(i);
+            if (child.mAbsolute) {
+                continue;
+            }
+            count++;
+            float childWidth = resolve(child.mWidth, child.mWidthUnit, innerWidth);
+            float childHeight = resolve(child.mHeight, child.mHeightUnit, innerHeight);
+            float main = row ? childWidth : childHeight;
+            float cross = row ? childHeight : childWidth;
+            if (!Float.isNaN(child.mFlexBasis)) {
+                main = child.mFlexBasis;
+            }
+            if (Float.isNaN(cross) && child.alignIn(this) == STRETCH && !Float.isNaN(innerCross)) {
+                cross = Math.max(0, innerCross - child.mMargin[crossStart] - child.mMargin[crossEnd]);
+            }
+            if (Float.isNaN(main) || Float.isNaN(cross)) {
+                child.measure(row ? main : cross, row ? cross : main);
+                if (Float.isNaN(main)) {
+                    main = row ? child.mMeasuredWidth : child.mMeasuredHeight;
+                }
+                if (Float.isNaN(cross)) {
+                    cross = row ? child.mMeasuredHeight : child.mMeasuredWidth;
+                }
+            }
+            child.mFlexMain = main;
+            child.mFlexCross = cross;
+            used += main + child.mMargin[mainStart] + child.mMargin[mainEnd];
+            grow += child.mFlexGrow;
+            shrink += child.mFlexShrink * main;
+        }
+
+        // grow into the free space, or shrink to fit
+        float free = Float.isNaN(innerMain) ? 0 : innerMain - used;
+        if ((free > 0 && grow > 0) || (free < 0 && shrink > 0)) {
+            used = 0;
+            for (int i = 0; i < mChildren.size(); i++) {
+                SyrLayoutNode child = mChildren.get(i);
+                if (child.mAbsolute) {
+                    continue;
+                }
+                if (free > 0) {
+                    child.mFlexMain += free * child.mFlexGrow / grow;
+                } else {
+                    child.mFlexMain = Math.max(0, child.mFlexMain + free * child.mFlexShrink * child.mFlexMain / shrink);
+                }
+                used += child.mFlexMain + child.mMargin[mainStart] + child.mMargin[mainEnd];
+            }
+        }
+
+        float maxCross = 0;
+        for (int i = 0; i < mChildren.size(); i++) {
+            SyrLayoutNode child = mChildren.get(i);
+            if (!child.mAbsolute) {
+                maxCross = Math.max(maxCross, child.mFlexCross + child.mMargin[crossStart] + child.mMargin[crossEnd]);
+            }
+        }
+
+        float contentMain = used + mPadding[mainStart] + mPadding[mainEnd];
+        float contentCross = maxCross + mPadding[crossStart] + mPadding[crossEnd];
+        mContentWidth = !Float.isNaN(width) ? width : row ? contentMain : contentCross;
+        mContentHeight = !Float.isNaN(height) ? height : row ? contentCross : contentMain;
+        if (!perform) {
+            return;
+        }
+
+        float mainSize = Float.isNaN(innerMain) ? used : innerMain;
+        float crossSize = Float.isNaN(innerCross) ? maxCross : innerCross;
+        free = mainSize - used;
+
+        float leading = 0;
+        float between = 0;
+        switch (mJustifyContent) {
+            case CENTER:
+                leading = free / 2;
+                break;
+            case FLEX_END:
+                leading = free;
+                break;
+            case SPACE_BETWEEN:
+                between = free > 0 && count > 1 ? free / (count - 1) : 0;
+                break;
+            case SPACE_AROUND:
+                between = free > 0 && count > 0 ? free / count : 0;
+                leading = between / 2;
+                break;
+            case SPACE_EVENLY:
+                between = free > 0 ? free / (count + 1) : 0;
+                leading = between;
+                break;
+            default:
+                break;
+        }
+
+        float position = leading;
+        for (int i = 0; i < mChildren.size(); i++) {
+            SyrLayoutNode child = mChildren.get(i);
+            if (child.mAbsolute) {
+                continue;
+            }
+            float main = child.mFlexMain;
+            float cross = child.mFlexCross;
+            float mainPosition = reverse
+                    ? mPadding[mainStart] + mainSize - position - child.mMargin[mainStart] - main
+                    : mPadding[mainStart] + position + child.mMargin[mainStart];
+            position += child.mMargin[mainStart] + main + child.mMargin[mainEnd] + between;
+
+            float crossPosition;
+            switch (child.alignIn(this)) {
+                case FLEX_END:
+                    crossPosition = mPadding[crossStart] + crossSize - cross - child.mMargin[crossEnd];
+                    break;
+                case CENTER:
+                    crossPosition = mPadding[crossStart] + child.mMargin[crossStart]
+                            + (crossSize - cross - child.mMargin[crossStart] - child.mMargin[crossEnd]) / 2;
+                    break;
+                default:
+                    crossPosition = mPadding[crossStart] + child.mMargin[crossStart];
+            }
+
+            float x = row ? mainPosition : crossPosition;
+            float y = row ? crossPosition : mainPosition;
+            // relative offsets move the node from where flex put it
+            float left = resolve(child.mLeft, child.mLeftUnit, innerWidth);
+            float top = resolve(child.mTop, child.mTopUnit, innerHeight);
+            x += Float.isNaN(left) ? 0 : left;
+            y += Float.isNaN(top) ? 0 : top;
+
+            float childWidth = row ? main : cross;
+            float childHeight = row ? cross : main;
+            child.setFrame(x, y, childWidth, childHeight);
+            child.layout(childWidth, childHeight);
+        }
+
+        // absolute children are placed by their offsets and take no part in flex
+        for (int i = 0; i < mChildren.size(); i++) {
+            SyrLayoutNode child = mChildren.get(i);
+            if (!child.mAbsolute) {
+                continue;
+            }
+            float childWidth = resolve(child.mWidth, child.mWidthUnit, width);
+            float childHeight = resolve(child.mHeight, child.mHeightUnit, height);
+            if (Float.isNaN(childWidth) || Float.isNaN(childHeight)) {
+                child.measure(childWidth, childHeight);
+                childWidth = Float.isNaN(childWidth) ? child.mMeasuredWidth : childWidth;
+                childHeight = Float.isNaN(childHeight) ? child.mMeasuredHeight : childHeight;
+            }
+            float left = resolve(child.mLeft, child.mLeftUnit, width);
+            float top = resolve(child.mTop, child.mTopUnit, height);
+            child.setFrame((Float.isNaN(left) ? 0 : left) + child.mMargin[LEFT],
+                    (Float.isNaN(top) ? 0 : top) + child.mMargin[TOP], childWidth, childHeight);
+            child.layout(childWidth, childHeight);
+        }
+    }
+
+    private int alignIn(SyrLayoutNode parent) {
+        return mAlignSelf != AUTO ? mAlignSelf : parent.mAlignItems;
+    }
+
+    private void setFrame(float x, float y, float width, float height) {
+        if (x != mX || y != mY || width != mLayoutWidth || height != mLayoutHeight) {
+            mX = x;
+            mY = y;
+            mLayoutWidth = width;
+            mLayoutHeight = height;
+            mHasNewLayout = true;
+        }
+    }
+
+    static float resolve(float value, int unit, float base) {
+        switch (unit) {
+            case UNIT_POINT:
+                return value;
+            case UNIT_PERCENT:
+                return Float.isNaN(base) ? Float.NaN : value * base / 100;
+            default:
+                return Float.NaN;
+        }
+    }
+
+    private static boolean same(float a, float b) {
+        return a == b || (Float.isNaN(a) && Float.isNaN(b));
+    }
+}
@@ -0,0 +1,409 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Flexbox layout of the gui, computed on the raster thread.
+ *
+ * A view is laid out when its style uses a flexbox property (flexDirection,
+ * flex, justifyContent, padding, a percentage size, ...) or when one of its
+ * children does. Every such view mirrors its renderable children into a
+ * SyrLayoutNode tree, non-renderable components are looked through, and the
+ * resulting frames are recorded as view operations. Everything else keeps its
+ * absolute left/top/width/height.
+ *
+ * The trees are kept across messages by tag, an update only dirties
+ * the nodes whose style or text changed and only those are laid out again.
+ */
+public class SyrLayoutTree {
+
+    // default text size of a TextView, in sp
+    private static final float DEFAULT_TEXT_SIZE = 14;
+    private static final SyrStyle NO_STYLE = new SyrStyle();
+
+    private final SyrRaster mRaster;
+    private final SparseArray<SyrLayoutNode> mNodes = new SparseArray<SyrLayoutNode>();
+    // size each root is laid out in
+    private final SparseArray<float[]> mRoots = new SparseArray<float[]>();
+
+    // frames to record even when the layout didn't change, the view was re-rendered from its style
+    private final ArrayList<SyrLayoutNode> mRestyled = new ArrayList<SyrLayoutNode>();
+
+    // size of the screen, what top level roots are laid out in
+    private float mDisplayWidth;
+    private float mDisplayHeight;
+
+    private TextPaint mTextPaint;
+    private final SyrLayoutNode.MeasureFunction mMeasureText = new SyrLayoutNode.MeasureFunction() {
+        @Override
+        public void measure(SyrLayoutNode node, float width, float height, float[] size) {
+            measureText((Component) node.getContext(), width, size);
+        }
+    };
+
+    SyrLayoutTree(SyrRaster raster) {
+        mRaster = raster;
+    }
+
+    /**
+     * lay out the flexbox views of a mounted or updated tree and record their frames
+     */
+    void layout(Component ast, SyrViewOperations operations) {
+        DisplayMetrics metrics = mRaster.getContext().getResources().getDisplayMetrics();
+        mDisplayWidth = metrics.widthPixels;
+        mDisplayHeight = metrics.heightPixels;
+        findRoots(ast, mDisplayWidth, mDisplayHeight);
+
+        for (int i = 0; i < mRoots.size(); i++) {
+            SyrLayoutNode root = mNodes.get(mRoots.keyAt(i));
+            if (root == null || !root.isDirty()) {
+                continue;
+            }
+            float[] owner = mRoots.valueAt(i);
+            root.calculateLayout(owner[0], owner[1]);
+            apply(root, operations, true);
+        }
+        for (int i = 0; i < mRestyled.size(); i++) {
+            SyrLayoutNode node = mRestyled.get(i);
+            if (node.getContext() != null) {
+                record(node, operations, node.getParent() == null);
+            }
+        }
+        mRestyled.clear();
+    }
+
+    private void findRoots(Component node, float ownerWidth, float ownerHeight) {
+        if (node.isUnmount()) {
+            return;
+        }
+        Object module = mRaster.getComponentModule(node.getElementName());
+        if (module instanceof SyrScrollview) {
+            // scrollview and listview rows are laid out as the window mounts them
+            return;
+        }
+        if (module != null) {
+            int tag = mRaster.tag(node);
+            if (tag > 0 && participates(node)) {
+                SyrLayoutNode root = sync(node, tag);
+                if (root.getParent() == null) {
+                    mRoots.put(tag, new float[]{ownerWidth, ownerHeight});
+                }
+                return;
+            }
+            SyrStyle style = node.getStyle();
+            if (style != null && style.has(SyrStyle.WIDTH)) {
+                ownerWidth = style.width;
+            }
+            if (style != null && style.has(SyrStyle.HEIGHT)) {
+                ownerHeight = style.height;
+            }
+        }
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            findRoots(children.get(i), ownerWidth, ownerHeight);
+        }
+    }
+
+    /**
+     * mirror a renderable node and its renderable children into layout nodes
+     */
+    private SyrLayoutNode sync(Component node, int tag) {
+        SyrLayoutNode layoutNode = mNodes.get(tag);
+        if (layoutNode == null) {
+            layoutNode = new SyrLayoutNode();
+            mNodes.put(tag, layoutNode);
+        } else if (node.isUpdate() && node.styleChanged(SyrStyle.SIZE | SyrStyle.LEFT | SyrStyle.TOP)) {
+            // the update re-applies the style's size, the layout's frame has to follow
+            mRestyled.add(layoutNode);
+        }
+        Component previous = (Component) layoutNode.getContext();
+        layoutNode.setContext(node);
+        applyStyle(layoutNode, node.getStyle());
+
+        Object module = mRaster.getComponentModule(node.getElementName());
+        if (module instanceof SyrText) {
+            layoutNode.setMeasureFunction(mMeasureText);
+            if (previous != null && previous != node && textChanged(previous, node)) {
+                layoutNode.markDirty();
+            }
+            return layoutNode;
+        }
+        layoutNode.setMeasureFunction(null);
+        if (module instanceof SyrScrollview) {
+            // scrollviews size themselves, their rows are laid out as they mount
+            removeChildren(layoutNode, 0);
+            return layoutNode;
+        }
+        if (!participates(node)) {
+            // a leaf of the layout, flexbox views further down are roots of their own
+            removeChildren(layoutNode, 0);
+            SyrStyle style = node.getStyle();
+            List<Component> children = node.getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                findRoots(children.get(i),
+                        style != null && style.has(SyrStyle.WIDTH) ? style.width : mDisplayWidth,
+                        style != null && style.has(SyrStyle.HEIGHT) ? style.height : mDisplayHeight);
+            }
+            return layoutNode;
+        }
+
+        ArrayList<Component> children = new ArrayList<Component>();
+        collectRenderables(node, children);
+        int index = 0;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            int childTag = mRaster.tag(child);
+            if (childTag == 0) {
+                continue;
+            }
+            SyrLayoutNode childNode = sync(child, childTag);
+            if (layoutNode.indexOf(childNode) != index) {
+                if (childNode.getParent() != null) {
+                    childNode.getParent().removeChild(childNode);
+                }
+                mRoots.remove(childTag);
+                layoutNode.addChildAt(childNode, index);
+            }
+            index++;
+        }
+        removeChildren(layoutNode, index);
+        return layoutNode;
+    }
+
+    private void collectRenderables(Component node, List<Component> renderables) {
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            if (child.isUnmount()) {
+                continue;
+            }
+            if (isRenderable(child)) {
+                renderables.add(child);
+            } else {
+                collectRenderables(child, renderables);
+            }
+        }
+    }
+
+    // children past the synced ones are gone from the tree
+    private void removeChildren(SyrLayoutNode layoutNode, int from) {
+        while (layoutNode.getChildCount() > from) {
+            forget(layoutNode.removeChildAt(layoutNode.getChildCount() - 1));
+        }
+    }
+
+    private void forget(SyrLayoutNode layoutNode) {
+        Component node = (Component) layoutNode.getContext();
+        if (node != null) {
+            int tag = mRaster.tag(node);
+            if (tag > 0 && mNodes.get(tag) == layoutNode) {
+                mNodes.remove(tag);
+                mRoots.remove(tag);
+            }
+        }
+        layoutNode.setContext(null);
+        while (layoutNode.getChildCount() > 0) {
+            forget(layoutNode.removeChildAt(layoutNode.getChildCount() - 1));
+        }
+    }
+
+    private void applyStyle(SyrLayoutNode layoutNode, SyrStyle style) {
+        if (style == null) {
+            style = NO_STYLE;
+        }
+        layoutNode.setFlexDirection(style.flexDirection);
+        layoutNode.setJustifyContent(style.justifyContent);
+        layoutNode.setAlignItems(style.alignItems);
+        layoutNode.setAlignSelf(style.alignSelf);
+        if (!Float.isNaN(style.flex)) {
+            layoutNode.setFlex(style.flex);
+        } else {
+            layoutNode.setFlexGrow(0);
+            layoutNode.setFlexShrink(0);
+            layoutNode.setFlexBasis(Float.NaN);
+        }
+        if (!Float.isNaN(style.flexGrow)) {
+            layoutNode.setFlexGrow(style.flexGrow);
+        }
+        if (!Float.isNaN(style.flexShrink)) {
+            layoutNode.setFlexShrink(style.flexShrink);
+        }
+        if (!Float.isNaN(style.flexBasis)) {
+            layoutNode.setFlexBasis(style.flexBasis);
+        }
+        layoutNode.setAbsolute(style.absolute);
+
+        setLength(layoutNode, SyrStyle.WIDTH, style.has(SyrStyle.WIDTH), style.width, style.widthPercent);
+        setLength(layoutNode, SyrStyle.HEIGHT, style.has(SyrStyle.HEIGHT), style.height, style.heightPercent);
+        setLength(layoutNode, SyrStyle.LEFT, style.has(SyrStyle.LEFT), style.left, style.leftPercent);
+        setLength(layoutNode, SyrStyle.TOP, style.has(SyrStyle.TOP), style.top, style.topPercent);
+
+        for (int edge = SyrLayoutNode.LEFT; edge <= SyrLayoutNode.BOTTOM; edge++) {
+            layoutNode.setPadding(edge, edge(style.padding, edge));
+            layoutNode.setMargin(edge, edge(style.margin, edge));
+        }
+    }
+
+    // an edge the style didn't set is 0
+    private static float edge(float[] edges, int edge) {
+        return edges != null && !Float.isNaN(edges[edge]) ? edges[edge] : 0;
+    }
+
+    private static void setLength(SyrLayoutNode layoutNode, int property, boolean points, float value, float percent) {
+        int unit = SyrLayoutNode.UNIT_AUTO;
+        if (!Float.isNaN(percent)) {
+            unit = SyrLayoutNode.UNIT_PERCENT;
+            value = percent;
+        } else if (points) {
+            unit = SyrLayoutNode.UNIT_POINT;
+        } else {
+            value = Float.NaN;
+        }
+        switch (property) {
+            case SyrStyle.WIDTH:
+                layoutNode.setWidth(value, unit);
+                break;
+            case SyrStyle.HEIGHT:
+                layoutNode.setHeight(value, unit);
+                break;
+            case SyrStyle.LEFT:
+                layoutNode.setLeft(value, unit);
+                break;
+            default:
+                layoutNode.setTop(value, unit);
+        }
+    }
+
+    private void apply(SyrLayoutNode layoutNode, SyrViewOperations operations, boolean root) {
+        // a node that kept its frame can still have children that moved, the walk goes on below it
+        if (layoutNode.hasNewLayout()) {
+            record(layoutNode, operations, root);
+            layoutNode.markLayoutSeen();
+        }
+        for (int i = 0; i < layoutNode.getChildCount(); i++) {
+            apply(layoutNode.getChildAt(i), operations, false);
+        }
+    }
+
+    private void record(SyrLayoutNode layoutNode, SyrViewOperations operations, boolean root) {
+        Component node = (Component) layoutNode.getContext();
+        View view = mRaster.findView(node);
+        if (view == null) {
+            return;
+        }
+        int x = Math.round(layoutNode.getLayoutX());
+        int y = Math.round(layoutNode.getLayoutY());
+        int width = Math.round(layoutNode.getLayoutX() + layoutNode.getLayoutWidth()) - x;
+        int height = Math.round(layoutNode.getLayoutY() + layoutNode.getLayoutHeight()) - y;
+        if (root) {
+            // a root stays where the raster put it, only its size comes from the layout
+            x = SyrViewOperations.KEEP_POSITION;
+            y = SyrViewOperations.KEEP_POSITION;
+        }
+        operations.setFrame(view, x, y, width, height);
+    }
+
+    /**
+     * size of a text's single line, text isn't wrapped
+     */
+    private void measureText(Component node, float width, float[] size) {
+        String text = node != null && node.getValue() != null ? node.getValue() : "";
+        SyrStyle style = node != null ? node.getStyle() : null;
+        Context context = mRaster.getContext();
+        if (mTextPaint == null) {
+            mTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        }
+        float textSize = style != null && style.has(SyrStyle.FONT_SIZE) ? style.fontSize
+                : DEFAULT_TEXT_SIZE * context.getResources().getDisplayMetrics().scaledDensity;
+        mTextPaint.setTextSize(textSize);
+        mTextPaint.setTypeface(style != null && style.bold ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT);
+
+        float desired = Layout.getDesiredWidth(text, mTextPaint);
+        size[0] = Float.isNaN(width) ? desired : Math.min(desired, width);
+        StaticLayout layout = new StaticLayout(text, mTextPaint, (int) Math.ceil(desired),
+                Layout.Alignment.ALIGN_NORMAL, 1, 0, false);
+        size[1] = layout.getHeight();
+    }
+
+    private static boolean textChanged(Component previous, Component node) {
+        if (!android.text.TextUtils.equals(previous.getValue(), node.getValue())) {
+            return true;
+        }
+        SyrStyle before = previous.getStyle();
+        SyrStyle after = node.getStyle();
+        if (before == null || after == null) {
+            return before != after;
+        }
+        return before.fontSize != after.fontSize || before.bold != after.bold;
+    }
+
+    private boolean isRenderable(Component node) {
+        return mRaster.getComponentModule(node.getElementName()) != null;
+    }
+
+    /**
+     * a node is laid out when it or one of its renderable children uses flexbox
+     */
+    boolean participates(Component node) {
+        SyrStyle style = node.getStyle();
+        if (style != null && style.has(SyrStyle.FLEX)) {
+            return true;
+        }
+        ArrayList<Component> children = new ArrayList<Component>();
+        collectRenderables(node, children);
+        for (int i = 0; i < children.size(); i++) {
+            SyrStyle childStyle = children.get(i).getStyle();
+            if (childStyle != null && childStyle.has(SyrStyle.FLEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * forget the layout node of a view that went away
+     */
+    void remove(int tag) {
+        SyrLayoutNode layoutNode = mNodes.get(tag);
+        if (layoutNode != null) {
+            if (layoutNode.getParent() != null) {
+                layoutNode.getParent().removeChild(layoutNode);
+            }
+            forget(layoutNode);
+        }
+    }
+
+    /**
+     * forget the layout nodes of an unmounted tree
+     */
+    void removeTree(Component node) {
+        remove(mRaster.tag(node));
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            removeTree(children.get(i));
+        }
+    }
+
+    void clear() {
+        mNodes.clear();
+        mRoots.clear();
+        mRestyled.clear();
+    }
+
+    int size() {
+        return mNodes.size();
+    }
+}
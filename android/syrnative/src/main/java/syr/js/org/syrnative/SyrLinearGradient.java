@@ -1,7 +1,6 @@
 package syr.js.org.syrnative;
 
 import android.content.Context;
-import android.graphics.Color;
 import android.graphics.drawable.GradientDrawable;
 import android.view.View;
 
@@ -17,32 +16,40 @@ public class SyrLinearGradient implements SyrBaseModule, SyrComponent {
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
         View view = new View(context);
-        JSONObject style = null;
-        JSONArray colors = null;
+        SyrStyle style = component.getStyle();
+        if (style == null) {
+            style = new SyrStyle();
+        }
+        JSONArray colors = component.getProps() != null ? component.getProps().optJSONArray("colors") : null;
 
         try {
-            JSONObject attributes = component.getJSONObject("attributes");
-            style = attributes.getJSONObject("style");
-            colors = attributes.getJSONArray("colors");
+            if (colors == null || colors.length() < 2) {
+                throw new JSONException("LinearGradient needs two colors");
+            }
 
             GradientDrawable gd = new GradientDrawable(
                     GradientDrawable.Orientation.TOP_BOTTOM,
-                    new int[]{Color.parseColor(colors.getString(0)),
-                            Color.parseColor(colors.getString(1))});
+                    new int[]{SyrColor.parse(colors.getString(0)),
+                            SyrColor.parse(colors.getString(1))});
 
-            if (style.has("borderColor") && style.has("borderWidth")) {
+            if (style.has(SyrStyle.BORDER_COLOR) && style.has(SyrStyle.BORDER_WIDTH)) {
                 // borders on views
-                gd.setStroke(style.getInt("borderWidth"), Color.parseColor(style.getString("borderColor")));
+                gd.setStroke(style.borderWidth, style.borderColor);
 
-            } else if (style.has("borderColor")) {
+            } else if (style.has(SyrStyle.BORDER_COLOR)) {
 
-                gd.setStroke(3, Color.parseColor(style.getString("borderColor")));
+                gd.setStroke(3, style.borderColor);
             }
 
             // corner radius
-            if (style.has("borderRadius")) {
-                gd.setCornerRadius(style.getInt("borderRadius"));
+            if (style.has(SyrStyle.BORDER_RADIUS)) {
+                gd.setCornerRadius(style.borderRadius);
             } else {
                 gd.setCornerRadius(0);
             }
@@ -51,6 +58,8 @@ public class SyrLinearGradient implements SyrBaseModule, SyrComponent {
 
         } catch (JSONException e) {
             e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
         }
 
         view.setLayoutParams(SyrStyler.styleLayout(style));
@@ -0,0 +1,352 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * The rows of a ListView. JS sends one row template and the list's data with
+ * the mount, and only deltas of the data after that (removed keys, inserted
+ * and updated items, the order when rows moved).
+ *
+ * A row's node is bound from the template when its row is mounted: every
+ * "{{field}}" in the template's value, props and style is replaced by that
+ * field of the row's item, "{{field.sub}}" walks nested objects and "{{.}}"
+ * is the item itself. Bound nodes get the uuid of their template node plus
+ * "@" and the row key, js hands their events to the template's component.
+ */
+public class SyrListBinder {
+
+    static final String DEFAULT_KEY_FIELD = "key";
+
+    private final String mUuid;
+    private Component mTemplate;
+    private String mKeyField = DEFAULT_KEY_FIELD;
+
+    private ArrayList<String> mKeys = new ArrayList<String>();
+    private final HashMap<String, Object> mItems = new HashMap<String, Object>();
+
+    // rows whose item or template changed since the raster last synced them
+    private final HashSet<String> mChanged = new HashSet<String>();
+    private boolean mAllChanged;
+
+    /**
+     * @param uuid uuid js sends the list's deltas with
+     */
+    SyrListBinder(String uuid, Component list) {
+        mUuid = uuid;
+        update(list);
+    }
+
+    String getUuid() {
+        return mUuid;
+    }
+
+    /**
+     * take the template, and the data when it was sent, from a gui node of the list
+     */
+    void update(Component list) {
+        JSONObject props = list.getProps();
+        if (props != null) {
+            mKeyField = props.optString("keyField", DEFAULT_KEY_FIELD);
+        }
+
+        List<Component> children = list.getChildren();
+        Component template = children.isEmpty() ? null : children.get(0);
+        if (template != null && !template.isUnmount()) {
+            if (mTemplate != null) {
+                // rows bound from the old template are re-bound, the raster only applies what differs
+                mAllChanged = true;
+            }
+            mTemplate = template;
+        }
+
+        if (list.getRows() != null) {
+            setItems(list.getRows());
+        }
+    }
+
+    /**
+     * apply a data delta sent by js
+     */
+    void apply(JSONObject delta) {
+        JSONArray removed = delta.optJSONArray("removed");
+        if (removed != null && removed.length() > 0) {
+            HashSet<String> keys = new HashSet<String>(removed.length() * 2);
+            for (int i = 0; i < removed.length(); i++) {
+                String key = removed.optString(i);
+                keys.add(key);
+                mItems.remove(key);
+                mChanged.remove(key);
+            }
+            ArrayList<String> kept = new ArrayList<String>(mKeys.size());
+            for (int i = 0; i < mKeys.size(); i++) {
+                if (!keys.contains(mKeys.get(i))) {
+                    kept.add(mKeys.get(i));
+                }
+            }
+            mKeys = kept;
+        }
+
+        JSONArray updated = delta.optJSONArray("updated");
+        if (updated != null) {
+            for (int i = 0; i < updated.length(); i++) {
+                JSONObject row = updated.optJSONObject(i);
+                String key = row != null ? row.optString("key", null) : null;
+                if (key != null && mItems.containsKey(key)) {
+                    mItems.put(key, row.opt("item"));
+                    mChanged.add(key);
+                }
+            }
+        }
+
+        // inserts come in ascending index of the new data
+        JSONArray inserted = delta.optJSONArray("inserted");
+        if (inserted != null) {
+            for (int i = 0; i < inserted.length(); i++) {
+                JSONObject row = inserted.optJSONObject(i);
+                String key = row != null ? row.optString("key", null) : null;
+                if (key == null || mItems.containsKey(key)) {
+                    continue;
+                }
+                int index = Math.max(0, Math.min(row.optInt("index", mKeys.size()), mKeys.size()));
+                mKeys.add(index, key);
+                mItems.put(key, row.opt("item"));
+            }
+        }
+
+        JSONArray order = delta.optJSONArray("order");
+        if (order != null) {
+            ArrayList<String> keys = new ArrayList<String>(order.length());
+            for (int i = 0; i < order.length(); i++) {
+                String key = order.optString(i);
+                if (mItems.containsKey(key)) {
+                    keys.add(key);
+                }
+            }
+            mKeys = keys;
+        }
+    }
+
+    int size() {
+        return mKeys.size();
+    }
+
+    String getKey(int index) {
+        return mKeys.get(index);
+    }
+
+    /**
+     * height of every row, the template's
+     */
+    int getRowHeight(SyrRaster raster) {
+        if (mTemplate == null) {
+            return 0;
+        }
+        SyrStyle style = mTemplate.getStyle();
+        if (style != null && style.has(SyrStyle.HEIGHT)) {
+            return style.height;
+        }
+        return raster.getHeight(mTemplate);
+    }
+
+    boolean isChanged(String key) {
+        return mAllChanged || mChanged.contains(key);
+    }
+
+    /**
+     * called once the raster synced the rows
+     */
+    void clearChanges() {
+        mChanged.clear();
+        mAllChanged = false;
+    }
+
+    /**
+     * the node of a row, bound from the template and the row's item
+     */
+    Component bind(String key) {
+        if (mTemplate == null) {
+            return null;
+        }
+        return bind(mTemplate, mItems.get(key), key);
+    }
+
+    private void setItems(JSONArray rows) {
+        mKeys = new ArrayList<String>(rows.length());
+        mItems.clear();
+        mChanged.clear();
+        for (int i = 0; i < rows.length(); i++) {
+            Object item = rows.opt(i);
+            String key = rowKey(item, i, mKeyField);
+            if (!mItems.containsKey(key)) {
+                mKeys.add(key);
+            }
+            mItems.put(key, item);
+        }
+        mAllChanged = true;
+    }
+
+    /**
+     * same key js gives a row, its item's keyField or else its index
+     */
+    static String rowKey(Object item, int index, String keyField) {
+        if (item instanceof JSONObject) {
+            Object key = ((JSONObject) item).opt(keyField);
+            if (key != null && key != JSONObject.NULL) {
+                return String.valueOf(key);
+            }
+        }
+        return String.valueOf(index);
+    }
+
+    private static Component bind(Component template, Object item, String key) {
+        Component row = new Component();
+        row.elementName = template.elementName;
+        row.guid = template.guid;
+        row.fenceid = template.fenceid;
+        row.uuid = template.uuid != null ? template.uuid.concat("@").concat(key) : null;
+        row.instanceUuid = row.uuid;
+
+        row.props = hasBindings(template.props) ? (JSONObject) bindValue(template.props, item) : template.props;
+        SyrStyle style = template.style;
+        if (style != null && hasBindings(style.extras)) {
+            style = SyrStyle.fromJSON((JSONObject) bindValue(style.toJSON(), item));
+        }
+        row.style = style;
+        if (isBinding(template.value)) {
+            Object value = bindString(template.value, item);
+            row.value = value != null ? String.valueOf(value) : null;
+        } else {
+            row.value = template.value;
+        }
+
+        List<Component> children = template.children;
+        for (int i = 0; i < children.size(); i++) {
+            if (!children.get(i).isUnmount()) {
+                row.children.add(bind(children.get(i), item, key));
+            }
+        }
+        return row;
+    }
+
+    static boolean isBinding(String value) {
+        return value != null && value.indexOf("{{") >= 0;
+    }
+
+    private static boolean hasBindings(Object value) {
+        if (value instanceof String) {
+            return isBinding((String) value);
+        } else if (value instanceof JSONObject) {
+            Iterator<String> keys = ((JSONObject) value).keys();
+            while (keys.hasNext()) {
+                if (hasBindings(((JSONObject) value).opt(keys.next()))) {
+                    return true;
+                }
+            }
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            for (int i = 0; i < array.length(); i++) {
+                if (hasBindings(array.opt(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Object bindValue(Object value, Object item) {
+        try {
+            if (value instanceof String) {
+                Object bound = bindString((String) value, item);
+                return bound != null ? bound : JSONObject.NULL;
+            } else if (value instanceof JSONObject) {
+                JSONObject object = (JSONObject) value;
+                JSONObject bound = new JSONObject();
+                Iterator<String> keys = object.keys();
+                while (keys.hasNext()) {
+                    String name = keys.next();
+                    bound.put(name, bindValue(object.opt(name), item));
+                }
+                return bound;
+            } else if (value instanceof JSONArray) {
+                JSONArray array = (JSONArray) value;
+                JSONArray bound = new JSONArray();
+                for (int i = 0; i < array.length(); i++) {
+                    bound.put(bindValue(array.opt(i), item));
+                }
+                return bound;
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return value;
+    }
+
+    /**
+     * a string that is one binding keeps the type of the field, anything else
+     * is interpolated into a string
+     */
+    static Object bindString(String text, Object item) {
+        int open = text.indexOf("{{");
+        if (open < 0) {
+            return text;
+        }
+        int close = text.indexOf("}}", open);
+        if (open == 0 && close == text.length() - 2) {
+            return lookup(item, text.substring(2, close).trim());
+        }
+
+        StringBuilder bound = new StringBuilder(text.length() + 16);
+        int start = 0;
+        while (open >= 0 && close > open) {
+            bound.append(text, start, open);
+            Object value = lookup(item, text.substring(open + 2, close).trim());
+            if (value != null) {
+                bound.append(value);
+            }
+            start = close + 2;
+            open = text.indexOf("{{", start);
+            close = open >= 0 ? text.indexOf("}}", open) : -1;
+        }
+        bound.append(text, start, text.length());
+        return bound.toString();
+    }
+
+    private static Object lookup(Object item, String path) {
+        if (path.isEmpty() || path.equals(".")) {
+            return item == JSONObject.NULL ? null : item;
+        }
+        Object value = item;
+        int start = 0;
+        while (value != null && start <= path.length()) {
+            int end = path.indexOf('.', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            String name = path.substring(start, end);
+            if (value instanceof JSONObject) {
+                value = ((JSONObject) value).opt(name);
+            } else if (value instanceof JSONArray) {
+                try {
+                    value = ((JSONArray) value).opt(Integer.parseInt(name));
+                } catch (NumberFormatException e) {
+                    value = null;
+                }
+            } else {
+                value = null;
+            }
+            start = end + 1;
+        }
+        return value == JSONObject.NULL ? null : value;
+    }
+}
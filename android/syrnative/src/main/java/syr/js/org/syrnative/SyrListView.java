@@ -0,0 +1,16 @@
+package syr.js.org.syrnative;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * A ScrollView whose rows are bound by the raster from one row template and
+ * a data array, see SyrListBinder. Its rows are always windowed.
+ */
+public class SyrListView extends SyrScrollview {
+
+    @Override
+    public String getName() {
+        return "ListView";
+    }
+}
@@ -0,0 +1,56 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Envelope for a message received over the SyrBridge.
+ *
+ * Protocol 2 carries the payload inline: {"v":2,"type":"gui","payload":{...}},
+ * so a message is decoded exactly once. Protocol 1 nests the payload as an
+ * escaped JSON string under "ast" and is still accepted for rasters that
+ * have not been upgraded.
+ *
+ * gui messages are decoded into a Component tree, every other type keeps its
+ * payload as a JSONObject.
+ */
+public class SyrMessage {
+
+    public static final int PROTOCOL_LEGACY = 1;
+    public static final int PROTOCOL_INLINE = 2;
+    // inline envelope, cmd messages carrying a callId are answered with a completion event
+    public static final int PROTOCOL_CALLS = 3;
+
+    // the newest protocol this host speaks, advertised to the raster on boot
+    public static final int PROTOCOL_VERSION = PROTOCOL_CALLS;
+
+    private int version;
+    private String type;
+    private JSONObject payload;
+    private Component ast;
+
+    SyrMessage(int version, String type, JSONObject payload, Component ast) {
+        this.version = version;
+        this.type = type;
+        this.payload = payload;
+        this.ast = ast;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public JSONObject getPayload() {
+        return payload;
+    }
+
+    public Component getAST() {
+        return ast;
+    }
+}
@@ -0,0 +1,391 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Dispatch table for the @SyrMethods of the registered native modules.
+ *
+ * Methods are looked up once, when the modules are set on the raster, and
+ * keyed by the same clazz_method_paramTypes_ signature that is exported to js.
+ * A cmd message only costs a table lookup, the call then runs on the
+ * registered module instance on the executor the module asked for (see
+ * SyrQueuedModule), so a slow native method no longer holds up the bridge
+ * thread that processes the AST. Unless a module asks otherwise its calls run
+ * one at a time and in the order js sent them, as they did on the bridge
+ * thread, only on a thread of the shared pool.
+ *
+ * The tables generated by syrnative-processor (<Class>$$SyrMethods) are used
+ * when they are on the classpath, modules compiled without the processor fall
+ * back to finding their methods reflectively.
+ *
+ * A cmd that carries a callId is answered with a completion event, keyed by
+ * that id, holding the method's return value or the error it threw. Methods
+ * that finish later return a SyrPromise. Completions go out with the other
+ * events in the bridge's per-frame flush.
+ */
+public class SyrMethodDispatcher {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    // threads of every module that runs off the main thread, they time out when idle
+    private static ThreadPoolExecutor sBackgroundPool;
+
+    private final Context mContext;
+    private final Handler mUiHandler = new Handler(Looper.getMainLooper());
+    private final Executor mUiExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mUiHandler.post(command);
+        }
+    };
+    private LinkedHashMap<String, Invoker> mInvokers = new LinkedHashMap<String, Invoker>();
+    private List<SerialExecutor> mSerialQueues = new ArrayList<SerialExecutor>();
+    private SyrBridge mBridge;
+
+    SyrMethodDispatcher(Context context) {
+        mContext = context;
+    }
+
+    public void setBridge(SyrBridge bridge) {
+        mBridge = bridge;
+    }
+
+    /**
+     * add the exported methods of a module to the table
+     */
+    public void register(SyrBaseModule module) {
+        Executor executor = executorFor(module);
+        Class clazz = module.getClass();
+        String originalClazzName = clazz.getName();
+        while (clazz != null) {
+            SyrMethodTable table = generatedTable(clazz);
+            if (table != null) {
+                String[] methods = table.getMethods();
+                for (int i = 0; i < methods.length; i++) {
+                    String signature = originalClazzName + "_" + methods[i];
+                    if (!mInvokers.containsKey(signature)) {
+                        mInvokers.put(signature, new Invoker(module, table, i, executor));
+                    }
+                }
+                clazz = clazz.getSuperclass();
+                continue;
+            }
+
+            for (Method method : clazz.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                // this is a native method to export over the bridge
+                if (method.isAnnotationPresent(SyrMethod.class)
+                        && (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers))) {
+                    String paramType = "";
+                    Class<?>[] parameters = method.getParameterTypes();
+                    for (Class _clazz : parameters) {
+                        paramType = paramType + _clazz.getName() + "_";
+                    }
+                    String signature = String.format("%s_%s_%s", originalClazzName, method.getName(), paramType);
+                    if (!mInvokers.containsKey(signature)) {
+                        method.setAccessible(true);
+                        mInvokers.put(signature, new Invoker(module, method, executor));
+                    }
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+    }
+
+    private static SyrMethodTable generatedTable(Class clazz) {
+        if (clazz.getName().startsWith("java.") || clazz.getName().startsWith("android.")) {
+            return null;
+        }
+        try {
+            return (SyrMethodTable) Class.forName(clazz.getName() + "$$SyrMethods").newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InstantiationException e) {
+            e.printStackTrace();
+            return null;
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * signatures of every registered method, in the format exported to js
+     */
+    public ArrayList<String> getSignatures() {
+        return new ArrayList<String>(mInvokers.keySet());
+    }
+
+    /**
+     * run a cmd message, the call itself happens later on the module's executor
+     */
+    public boolean dispatch(JSONObject command) throws JSONException {
+        String clazz = command.getString("clazz");
+        String methodName = command.getString("method");
+        JSONArray paramTypes = command.getJSONArray("paramTypes");
+
+        StringBuilder signature = new StringBuilder(clazz).append('_').append(methodName).append('_');
+        for (int i = 0; i < paramTypes.length(); i++) {
+            signature.append(paramTypes.getString(i)).append('_');
+        }
+
+        final Invoker invoker = mInvokers.get(signature.toString());
+        if (invoker == null) {
+            return false;
+        }
+
+        // args are still stringified by the js NativeModules, accept them inline as well
+        JSONObject argsObj = command.optJSONObject("args");
+        if (argsObj == null) {
+            argsObj = new JSONObject(command.getString("args"));
+        }
+        final JSONObject args = argsObj;
+        // js that predates call ids doesn't wait for a completion
+        final Object callId = command.opt("callId");
+
+        invoker.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Object result = null;
+                String error = null;
+                SyrPromise.sAwaitedCall.set(callId != null);
+                try {
+                    result = invoker.invoke(args, mContext);
+                } catch (InvocationTargetException e) {
+                    e.getCause().printStackTrace();
+                    error = e.getCause().toString();
+                } catch (JSONException e) {
+                    Log.w("syrcmdexec", "Arguments don't match: " + e.getMessage());
+                    error = e.getMessage();
+                } catch (Exception e) {
+                    // a failing native method must not take down the executor's thread
+                    e.printStackTrace();
+                    error = e.toString();
+                } finally {
+                    SyrPromise.sAwaitedCall.remove();
+                }
+
+                if (callId != null) {
+                    complete(callId, result, error);
+                }
+            }
+        });
+        return true;
+    }
+
+    private void complete(final Object callId, Object result, String error) {
+        if (error == null && result instanceof SyrPromise) {
+            ((SyrPromise) result).setListener(new SyrPromise.Listener() {
+                @Override
+                public void onComplete(Object result, String error) {
+                    sendCompletion(callId, result, error);
+                }
+            });
+        } else {
+            sendCompletion(callId, result, error);
+        }
+    }
+
+    private void sendCompletion(Object callId, Object result, String error) {
+        if (mBridge == null) {
+            return;
+        }
+        try {
+            JSONObject completion = new JSONObject();
+            completion.put("type", "completion");
+            completion.put("callId", callId);
+            completion.put("result", result != null ? result : JSONObject.NULL);
+            if (error != null) {
+                completion.put("error", error);
+            }
+            mBridge.sendEvent(completion);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * drop the calls still queued for the modules and for the main thread,
+     * the shared pool stays for other instances
+     */
+    public void shutdown() {
+        for (int i = 0; i < mSerialQueues.size(); i++) {
+            mSerialQueues.get(i).shutdown();
+        }
+        mSerialQueues.clear();
+        mUiHandler.removeCallbacksAndMessages(null);
+    }
+
+    private Executor executorFor(SyrBaseModule module) {
+        int queue = SyrQueuedModule.QUEUE_SERIAL;
+        if (module instanceof SyrQueuedModule) {
+            queue = ((SyrQueuedModule) module).getMethodQueue();
+        }
+
+        switch (queue) {
+            case SyrQueuedModule.QUEUE_UI:
+                return mUiExecutor;
+            case SyrQueuedModule.QUEUE_BACKGROUND:
+                return backgroundPool();
+            default:
+                SerialExecutor serial = new SerialExecutor(backgroundPool());
+                mSerialQueues.add(serial);
+                return serial;
+        }
+    }
+
+    private static synchronized Executor backgroundPool() {
+        if (sBackgroundPool == null) {
+            int size = Math.max(2, Math.min(CORES, 4));
+            sBackgroundPool = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), threadFactory("SyrModules"));
+            sBackgroundPool.allowCoreThreadTimeOut(true);
+        }
+        return sBackgroundPool;
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + mCount.incrementAndGet());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Runs the calls of one module one at a time, in the order they were
+     * queued, on whichever pool thread is free. A module doesn't hold a thread
+     * of its own while it has nothing to do.
+     */
+    static class SerialExecutor implements Executor {
+        private final Executor mExecutor;
+        private final ArrayDeque<Runnable> mCalls = new ArrayDeque<Runnable>();
+        private boolean mRunning;
+        private boolean mShutdown;
+
+        SerialExecutor(Executor executor) {
+            mExecutor = executor;
+        }
+
+        @Override
+        public synchronized void execute(Runnable call) {
+            if (mShutdown) {
+                return;
+            }
+            mCalls.add(call);
+            if (!mRunning) {
+                mRunning = true;
+                mExecutor.execute(mDrain);
+            }
+        }
+
+        private final Runnable mDrain = new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    Runnable call;
+                    synchronized (SerialExecutor.this) {
+                        call = mCalls.poll();
+                        if (call == null) {
+                            mRunning = false;
+                            return;
+                        }
+                    }
+                    call.run();
+                }
+            }
+        };
+
+        /**
+         * drop the calls that haven't started, the one running finishes
+         */
+        synchronized void shutdown() {
+            mShutdown = true;
+            mCalls.clear();
+        }
+    }
+
+    /**
+     * A resolved @SyrMethod, bound to its module instance. Calls go through the
+     * generated table when there is one, through reflection otherwise.
+     */
+    static class Invoker {
+        final Object target;
+        final SyrMethodTable table;
+        final int index;
+        final Method method;
+        final Executor executor;
+
+        Invoker(Object target, SyrMethodTable table, int index, Executor executor) {
+            this.target = target;
+            this.table = table;
+            this.index = index;
+            this.method = null;
+            this.executor = executor;
+        }
+
+        Invoker(Object target, Method method, Executor executor) {
+            this.target = Modifier.isStatic(method.getModifiers()) ? null : target;
+            this.table = null;
+            this.index = -1;
+            this.method = method;
+            this.executor = executor;
+        }
+
+        Object invoke(JSONObject args, Context context)
+                throws JSONException, IllegalAccessException, InvocationTargetException {
+            if (table != null) {
+                return table.invoke(target, index, args, context);
+            }
+            return method.invoke(target, arguments(args, context));
+        }
+
+        /**
+         * positional arguments from the js arguments object ({"0": .., "1": ..}), converted
+         * to the parameter types like the generated tables do, Context parameters are
+         * filled in by the host instead of js
+         */
+        private Object[] arguments(JSONObject argsObj, Context context) throws JSONException {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            Object[] args = new Object[parameterTypes.length];
+            int position = 0;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (Context.class.isAssignableFrom(parameterTypes[i])) {
+                    args[i] = context;
+                } else {
+                    args[i] = SyrArguments.get(argsObj, position++, parameterTypes[i]);
+                }
+            }
+            return args;
+        }
+    }
+}
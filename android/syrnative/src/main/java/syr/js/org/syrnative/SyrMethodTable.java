@@ -0,0 +1,31 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * The @SyrMethods declared by one class, generated at compile time by the
+ * syrnative-processor as <Class>$$SyrMethods.
+ *
+ * Each method is called directly with arguments decoded by position and type,
+ * Context parameters are injected by the host. No reflection is involved, so
+ * the methods survive R8/ProGuard minification.
+ */
+public interface SyrMethodTable {
+
+    /**
+     * method_paramTypes_ part of each method's signature, indexed like invoke()
+     */
+    String[] getMethods();
+
+    /**
+     * call a method of the table on a module instance (ignored for static methods),
+     * returns what the method returned, null for void methods
+     */
+    Object invoke(Object module, int method, JSONObject args, Context context) throws JSONException;
+}
@@ -23,6 +23,7 @@ public class SyrNetworking extends AsyncTask<JSONObject, Void, String> implement
     private String guid = null;
     private Integer responseCode = null;
     private JSONObject platformErrors = new JSONObject();
+    private SyrPromise promise = new SyrPromise();
 
     protected String doInBackground(JSONObject... request) {
         URL url;
@@ -95,11 +96,14 @@ public class SyrNetworking extends AsyncTask<JSONObject, Void, String> implement
         JSONObject eventMap = new JSONObject();
         JSONObject body = new JSONObject();
         try {
-            if (guid != null) {
-                body.put("data", response);
-                body.put("guid", guid);
-                body.put("responseCode", responseCode);
-                body.put("platformError", platformErrors);
+            body.put("data", response);
+            body.put("guid", guid);
+            body.put("responseCode", responseCode);
+            body.put("platformError", platformErrors);
+            if (promise.isAwaited()) {
+                // answered as the completion of the js call
+                promise.resolve(body);
+            } else if (guid != null) {
                 eventMap.put("type", "event");
                 eventMap.put("name", "NetworkingCallback");
                 eventMap.put("body", body);
@@ -113,8 +117,10 @@ public class SyrNetworking extends AsyncTask<JSONObject, Void, String> implement
     }
 
     @SyrMethod
-    public static void request(JSONObject requestObject) {
-        new SyrNetworking().execute(requestObject);
+    public static SyrPromise request(JSONObject requestObject) {
+        SyrNetworking task = new SyrNetworking();
+        task.execute(requestObject);
+        return task.promise;
     }
 
     private String streamConverter(InputStream is) {
@@ -0,0 +1,85 @@
+package syr.js.org.syrnative;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Result of a @SyrMethod that completes later, e.g. after a network request
+ * or once the user picked an alert action. Return one from the method and
+ * resolve or reject it from any thread, the value is sent back to the js
+ * call that started it with the next batch of events.
+ *
+ * Methods that can answer right away just return the value instead.
+ */
+public class SyrPromise {
+
+    // set by the dispatcher while it runs a call that js is waiting on
+    static final ThreadLocal<Boolean> sAwaitedCall = new ThreadLocal<Boolean>();
+
+    interface Listener {
+        void onComplete(Object result, String error);
+    }
+
+    private boolean mCompleted;
+    private Object mResult;
+    private String mError;
+    private Listener mListener;
+    private final boolean mAwaited;
+
+    public SyrPromise() {
+        mAwaited = Boolean.TRUE.equals(sAwaitedCall.get());
+    }
+
+    /**
+     * false when the method was called by js that doesn't wait for completions,
+     * the module should answer with its own event then
+     */
+    public boolean isAwaited() {
+        return mAwaited;
+    }
+
+    /**
+     * complete with a value that can be put in a JSONObject
+     */
+    public void resolve(Object result) {
+        complete(result, null);
+    }
+
+    public void reject(String error) {
+        complete(null, error != null ? error : "rejected");
+    }
+
+    public synchronized boolean isCompleted() {
+        return mCompleted;
+    }
+
+    private void complete(Object result, String error) {
+        Listener listener;
+        synchronized (this) {
+            if (mCompleted) {
+                return;
+            }
+            mCompleted = true;
+            mResult = result;
+            mError = error;
+            listener = mListener;
+            mListener = null;
+        }
+        if (listener != null) {
+            listener.onComplete(result, error);
+        }
+    }
+
+    /**
+     * set by the dispatcher, called right away when the promise has already completed
+     */
+    void setListener(Listener listener) {
+        synchronized (this) {
+            if (!mCompleted) {
+                mListener = listener;
+                return;
+            }
+        }
+        listener.onComplete(mResult, mError);
+    }
+}
@@ -0,0 +1,21 @@
+package syr.js.org.syrnative;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * A native module that picks the thread its @SyrMethods are called on.
+ * Modules that don't implement this run as QUEUE_SERIAL.
+ */
+public interface SyrQueuedModule extends SyrBaseModule {
+
+    // the main thread, for methods that touch views or show dialogs
+    int QUEUE_UI = 1;
+    // shared pool of background threads, calls may run concurrently and out of order,
+    // only for modules that are thread-safe
+    int QUEUE_BACKGROUND = 2;
+    // calls run one at a time in the order they were sent, on a background thread
+    int QUEUE_SERIAL = 3;
+
+    int getMethodQueue();
+}
@@ -2,7 +2,9 @@ package syr.js.org.syrnative;
 
 import android.content.Context;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,18 +12,14 @@ import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
 import android.widget.ScrollView;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Syr Project
@@ -38,21 +36,72 @@ public class SyrRaster {
     private List<SyrBaseModule> mModules;
     public HashMap<String, String> registeredModules = new HashMap<>();
     private HashMap<String, Object> mModuleMap = new HashMap<String, Object>(); // getName()-> SyrClass Instance
-    private HashMap<String, Object> mModuleInstances = new HashMap<String, Object>(); // guid -> Object Instance
-    private Set<String> mNonRenderables = new HashSet<String>();
+    private final SyrInstanceRegistry mInstances = new SyrInstanceRegistry(); // tag -> view and what it was last rendered from
+    private HashMap<String, SyrScrollWindow> mLists = new HashMap<String, SyrScrollWindow>(); // list uuid -> its window
     public ArrayList<String> exportedMethods = new ArrayList<String>();
+    private SyrMethodDispatcher mDispatcher;
+    private SyrViewPool mViewPool;
+    private final SyrHeightCache mHeights = new SyrHeightCache(mInstances);
+    private final SyrLayoutTree mLayout = new SyrLayoutTree(this);
+    private final SyrFlattener mFlattener = new SyrFlattener(this, mLayout);
+    private final SyrReconciler mReconciler = new SyrReconciler();
+    private final SyrAnimator mAnimator = new SyrAnimator();
+
+    // view mutations of the message being processed, committed to the main thread in one post
+    private SyrViewOperations mOperations;
+    private final ArrayList<SyrViewOperations> mRecycledOperations = new ArrayList<SyrViewOperations>();
+    private SyrFrameScheduler mScheduler;
+
+    // the raster thread, the only thread that reads or writes raster state: the instance
+    // registry, lists, layout, flattener and reconciler. Bridge messages, window refreshes
+    // and clearRootView run on it in the order they arrive. The main thread only applies
+    // finished SyrViewOperations batches, views are created and first rendered here while
+    // they are detached and only touched on the main thread once a batch inserts them
+    private HandlerThread mRasterThread;
+    private Handler mRasterHandler;
+    // set once by destroy(), nothing is posted to the raster thread after it
+    private boolean mDestroyed;
+    // set while windowed rows are mounted again, js already knows they are mounted
+    private boolean mSilentMounts;
+
+    // updates arriving this soon after a touch are treated as answers to it
+    private static final long INPUT_WINDOW_MS = 500;
+    private volatile long mLastInputTime = -INPUT_WINDOW_MS;
 
     /**
      * Instantiate the interface and set the context
      */
     SyrRaster(Context c) {
         mContext = c;
+        mDispatcher = new SyrMethodDispatcher(c);
+        mViewPool = new SyrViewPool(c, this);
+        SyrDrawableCache.getInstance().register(c);
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public SyrRootView getRootview() {
+        return mRootview;
     }
 
     public void setRootview(SyrRootView rootview) {
         mRootview = rootview;
         // main thread looper for UI updates
         uiHandler = new Handler(Looper.getMainLooper());
+        mScheduler = new SyrFrameScheduler(this, uiHandler);
+    }
+
+    public SyrFrameScheduler getScheduler() {
+        return mScheduler;
+    }
+
+    /**
+     * called by the root view for every touch, the updates that follow get input priority
+     */
+    void noteInput() {
+        mLastInputTime = SystemClock.uptimeMillis();
     }
 
     /**
@@ -78,346 +127,480 @@ public class SyrRaster {
                 mModuleMap.put(moduleName, module);
             }
 
-            // get modules exportable methods
-            getExportedMethods(module.getClass());
+            // add the modules exportable methods to the dispatch table
+            mDispatcher.register(module);
         }
+        exportedMethods = mDispatcher.getSignatures();
+
+        // have views ready for the first render
+        mViewPool.prewarmDefaults();
+    }
+
+    Object getComponentModule(String elementName) {
+        return mModuleMap.get(elementName);
+    }
+
+    public SyrViewPool getViewPool() {
+        return mViewPool;
     }
 
     /**
-     * Get all Exported Bridged Methods
+     * tag of a node, what the raster's caches are keyed by. On the raster thread
      */
-    public void getExportedMethods(Class clazz) {
-        String originalClazzName = clazz.getName();
-        while (clazz != null) {
-            for (Method method : clazz.getDeclaredMethods()) {
-                int modifiers = method.getModifiers();
-                String methodName = method.getName();
-                Annotation[] annos = method.getAnnotations();
-                for (Annotation anno : annos) {
-                    if (anno.toString().contains("SyrMethod")) {
-                        // this is a native method to export over the bridge
-                        if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) {
-                            String paramType = "";
-                            Class<?>[] parameters = method.getParameterTypes();
-                            for (Class _clazz : parameters) {
-                                paramType = paramType + _clazz.getName() + "_";
-                            }
-                            String moduleMethodName = String.format("%s_%s_%s", originalClazzName, methodName, paramType);
-                            exportedMethods.add(moduleMethodName);
-                        }
-                    }
-                }
-            }
-            clazz = clazz.getSuperclass();
-        }
+    int tag(Component node) {
+        return mInstances.tag(node);
+    }
+
+    /**
+     * number of nodes the raster keeps for mounted views, read it on the raster thread
+     */
+    int mountedCount() {
+        return mInstances.size();
+    }
+
+    /**
+     * number of layout-only nodes left out of the view hierarchy, read it on the raster thread
+     */
+    int flattenedCount() {
+        return mFlattener.size();
+    }
+
+    public SyrMethodDispatcher getDispatcher() {
+        return mDispatcher;
     }
 
     public void setBridge(SyrBridge bridge) {
         mBridge = bridge;
+        mDispatcher.setBridge(bridge);
     }
 
-    public void parseAST(final JSONObject jsonObject) {
+    /**
+     * run a message on the raster thread, after every message posted before it
+     */
+    void post(Runnable message) {
+        Handler handler = getRasterHandler();
+        if (handler != null) {
+            handler.post(message);
+        }
+    }
 
-        try {
-            final JSONObject ast = new JSONObject(jsonObject.getString("ast"));
-            if (ast.has("update")) {
-                Boolean isUpdate = ast.getBoolean("update");
-                if (isUpdate) {
-                    update(ast);
-                } else {
-                    buildInstanceTree(ast);
-                }
-            } else {
-                buildInstanceTree(ast);
+    /**
+     * render a gui message, on the raster thread
+     */
+    public void parseAST(final Component ast) {
+        mOperations = obtainOperations();
+        if (ast.isUpdate()) {
+            mOperations.mInput = SystemClock.uptimeMillis() - mLastInputTime < INPUT_WINDOW_MS;
+            update(ast);
+            resizeAncestors(ast);
+            mLayout.layout(ast, mOperations);
+        } else {
+            buildInstanceTree(ast);
+            mLayout.layout(ast, mOperations);
+            mOperations.orderByDepth();
+        }
+        commitOperations();
+    }
+
+    private SyrViewOperations obtainOperations() {
+        synchronized (mRecycledOperations) {
+            int last = mRecycledOperations.size() - 1;
+            if (last >= 0) {
+                return mRecycledOperations.remove(last);
             }
+        }
+        return new SyrViewOperations(this);
+    }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+    /**
+     * called on the main thread once the scheduler has applied every operation of a batch
+     */
+    void operationsApplied(SyrViewOperations operations) {
+        // js hears about a mount once the view is attached
+        for (int i = 0; i < operations.mMounts.size(); i++) {
+            mBridge.sendEvent(operations.mMounts.get(i));
+        }
+        operations.clear();
+        synchronized (mRecycledOperations) {
+            mRecycledOperations.add(operations);
+        }
+    }
+
+    /**
+     * hand every view mutation recorded for this message to the frame scheduler
+     */
+    private void commitOperations() {
+        SyrViewOperations operations = mOperations;
+        mOperations = null;
+        if (operations.isEmpty()) {
+            operationsApplied(operations);
+            return;
         }
+        mScheduler.schedule(operations);
     }
 
-    public void update(final JSONObject ast) {
+    public void update(final Component ast) {
         syncState(ast, null);
 
     }
 
-    public void syncState(final JSONObject component, ViewGroup viewParent) {
+    public void syncState(final Component component, ViewGroup viewParent) {
+        syncState(component, viewParent, null, null);
+    }
 
-        try {
+    /**
+     * @param parent the node component is a child of
+     * @param offset where component's parent starts within viewParent, when the parent was flattened
+     */
+    private void syncState(final Component component, ViewGroup viewParent, Component parent, int[] offset) {
+
+        SyrFlattener.Entry flattened = mFlattener.get(tag(component));
+        if (flattened != null) {
+            syncFlattened(component, viewParent, parent, offset);
+            return;
+        }
+
+        //getting the children of the components
+        List<Component> children = component.getChildren();
 
-            //getting uuid of the component
-            String tempUid = component.getString("uuid");
+        //checking if the component has been rendered before
+        SyrInstanceRegistry.Entry entry = mInstances.get(component);
+        final View componentInstance = entry != null ? (View) entry.instance : null;
 
-            //checking to see if it has a key (component inside an array), if it does....changing it to match the key set we have in the cache
+        if (componentInstance instanceof ViewGroup) {
+            viewParent = (ViewGroup) componentInstance;
+        }
 
-            if (component.has("attributes")) {
-                if (component.getJSONObject("attributes").has("key")) {
-                    if (component.getJSONObject("attributes").getInt("key") != 0) {
-                        tempUid = tempUid.concat("-").concat(component.getJSONObject("attributes").getString("key"));
+        //getting a componentModule if one is available with a className
+        final SyrComponent componentModule = (SyrComponent) mModuleMap.get(component.getElementName());
+
+        //UNMOUNT CODE
+
+        // the view of the component, once it is rendered
+        View rendered = null;
+
+        //remove the component from its parent if it has unmount on it
+        //only components to be umounted have this on them.
+        if (component.isUnmount()) {
+            unmountTree(component);
+            return;
+        } else { //no unmount on the component
+            if (componentInstance != null && componentModule != null) {
+                //this will update an existing component, does not create or attach a new component.
+                View updatedComponent = createComponent(component);
+                rendered = updatedComponent;
+                SyrScrollWindow window = updatedComponent instanceof SyrScrollContainer
+                        ? ((SyrScrollContainer) updatedComponent).getWindow() : null;
+                if (window != null) {
+                    syncWindow(window, component);
+                    return;
+                }
+                if (offset != null) {
+                    setPosition(updatedComponent, component, offset);
+                }
+                //if the updated component is a view group and has children
+                if (updatedComponent instanceof ViewGroup) {
+                    viewParent = (ViewGroup) updatedComponent;
+                    if (viewParent instanceof ScrollView) {
+                        View content = viewParent.getChildAt(0);
+                        if (content != null) {
+                            mOperations.setHeight(content, getHeight(component));
+                        }
                     }
                 }
-            } else if (component.has("key")) {
-                if (component.getInt("key") != 0) {
-                    tempUid = tempUid.concat("-").concat(component.getString("key"));
+            } else if (componentInstance == null && componentModule != null) { //if it is a new renderable element that has not been rendered yet.
+                if (mFlattener.isLayoutOnly(component, parent, viewParent)) {
+                    int[] childOffset = mFlattener.flatten(tag(component), viewParent, component, offset);
+                    emitComponentDidMount(component);
+                    syncChildren(component, viewParent, childOffset);
+                    return;
                 }
-            }
-
-            final String uuid = tempUid;
+                final View newComponent = createComponent(component);
+                rendered = newComponent;
+                final ViewGroup vParent = viewParent; //reference to the current viewParent
+                LinearLayout.LayoutParams params = null;
+                if (viewParent instanceof LinearLayout) {
+                    params = new LinearLayout.LayoutParams(
+                            LinearLayout.LayoutParams.WRAP_CONTENT,
+                            LinearLayout.LayoutParams.WRAP_CONTENT,
+                            1.0f);
+                }
+                //@TODO this is the case when the uuid turns out undefined.
+                // The app works fine if we ignore these but we need to figure out a solution for this soon
+                if (vParent != null) {
+                    //add component to the viewParent, the params are set on the main thread with it
+                    mOperations.insert(vParent, newComponent, -1, params);
+                } else {
+                    //@TODO test this with null renders
+                    //no parent for the new component so add it to rootView?
+                    mOperations.insertRoot(newComponent);
+                }
+                if (offset != null) {
+                    setPosition(newComponent, component, offset);
+                }
+                emitComponentDidMount(component);
 
-            //getting the children of the components
-            JSONArray children = component.getJSONArray("children");
+                if (newComponent instanceof ViewGroup) {
+                    viewParent = (ViewGroup) newComponent;
+                }
 
-            //checking if the component has been rendered before
-            final View componentInstance = (View) mModuleInstances.get(uuid);
 
-            if (componentInstance instanceof ViewGroup) {
-                viewParent = (ViewGroup) componentInstance;
+            } else { //component is a non renderable
+                if (entry == null) {
+                    //mount the component if it has not been mounted yet
+                    mInstances.obtain(component);
+                    emitComponentDidMount(component);
+                }
+                // children of a non-renderable go where it would have
+                syncChildren(component, viewParent, offset);
+                return;
             }
+        }
+        syncChildren(component, viewParent, null);
+        if (rendered instanceof ViewGroup) {
+            reorderChildren(component, (ViewGroup) rendered);
+        }
+    }
 
-            //getting the className of the element
-            String className = null;
-            if (component.has("elementName")) {
-                className = component.getString("elementName");
+    /**
+     * move the child views of a view into the order of the update, with as few moves as possible
+     */
+    private void reorderChildren(Component node, ViewGroup view) {
+        // scrollviews keep their children in a content layout, windowed rows are moved by their window
+        if (view instanceof ScrollView || view instanceof SyrScrollContainer) {
+            return;
+        }
+        List<Integer> order = new ArrayList<Integer>();
+        childOrder(node, order);
+        List<Integer> previous = mReconciler.record(tag(node), order);
+        if (previous == null || previous.equals(order)) {
+            return;
+        }
+        int[] moves = SyrReconciler.moves(previous, order);
+        for (int i = 0; i < moves.length; i++) {
+            int index = moves[i];
+            View child = findView(order.get(index));
+            if (child != null) {
+                mOperations.moveBefore(child, index + 1 < order.size() ? findView(order.get(index + 1)) : null);
             }
+        }
+    }
 
-            //getting a componentModule if one is available with a className
-            final SyrComponent componentModule = (SyrComponent) mModuleMap.get(className);
+    /**
+     * tags of the views a node's children put into its view, in order, through non-renderables and flattened views
+     */
+    private void childOrder(Component node, List<Integer> order) {
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            if (child.isUnmount()) {
+                continue;
+            }
+            int tag = tag(child);
+            if (mModuleMap.get(child.getElementName()) != null && mFlattener.get(tag) == null) {
+                order.add(tag);
+            } else {
+                childOrder(child, order);
+            }
+        }
+    }
 
-            //UNMOUNT CODE
-
-            //checking for umount on the component --- only components to be umounted have this on them.
-            Boolean unmount = null;
-            if (component.has("unmount")) {
-                unmount = component.getBoolean("unmount");
-            }
-
-            //remove the component from its parent if it has unmount on it
-            if (unmount != null && unmount) {
-                //BEST CASE scenario, the component to unmount is a single component which is a renderable
-                //if we have an instance of it in the cache
-                if (componentInstance != null) {
-                    final View instanceToRemove = componentInstance;
-                    mModuleInstances.remove(uuid); //remove the element from the cache to avoid unecessary collisions
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            final ViewGroup parent = (ViewGroup) instanceToRemove.getParent();
-                            if (instanceToRemove.getParent() != null) {
-                                parent.removeView(instanceToRemove);
-                                emitComponentWillUnMount(uuid);
-                            }
-                            //@TODO need to assign a new viewParent Here since we took out the current one?
-//                            viewParent = parent;
-                        }
-                    });
-                } else { //this is the use case where the or the component to unmount is a non-renderable so we need to unmount all its children
-                    if (mNonRenderables.contains(uuid)) {
-                        mNonRenderables.remove(uuid);
-                        emitComponentWillUnMount(uuid);
-                    }
-                    if (children != null) {
-                        //unmount the children if the parent is a non-renderable
-                        unmountChildren(component);
-                        return;
-                    }
-                }
-            } else { //no unmount on the component
-                if (componentInstance != null && componentModule != null) {
-                    //this will update an existing component, does not create or attach a new component.
-                    View updatedComponent = createComponent(component);
-                    //if the updated component is a view group and has children
-                    if (updatedComponent instanceof ViewGroup) {
-                        viewParent = (ViewGroup) updatedComponent;
-                        if (viewParent instanceof ScrollView) {
-                            if (viewParent.getChildAt(0).getLayoutParams() != null) {
-                                viewParent.getChildAt(0).getLayoutParams().height = getHeight(component);
-                            }
-                        }
-                    }
-                } else if (componentInstance == null && componentModule != null) { //if it is a new renderable element that has not been rendered yet.
-                    final View newComponent = createComponent(component);
-                    final ViewGroup vParent = viewParent; //reference to the current viewParent
-                    if (viewParent instanceof LinearLayout) {
-                        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                                LinearLayout.LayoutParams.WRAP_CONTENT,
-                                LinearLayout.LayoutParams.WRAP_CONTENT,
-                                1.0f);
-
-                        newComponent.setLayoutParams(params);
-                    }
-                    //@TODO this is the case when the uuid turns out undefined.
-                    // The app works fine if we ignore these but we need to figure out a solution for this soon
-                    if (vParent != null) {
-                        uiHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                //add component to the viewParent
-                                if (vParent instanceof ScrollView) {
-                                    ViewGroup firstChild = (ViewGroup) vParent.getChildAt(0);
-                                    firstChild.addView(newComponent);
-                                } else {
-                                    vParent.addView(newComponent);
-                                }
-                            }
-                        });
-                    } else {
-                        //@TODO test this with null renders
-                        uiHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                //no parent for the new component so add it to rootView?
-                                mRootview.addView(newComponent);
-                            }
-                        });
-                    }
-                    emitComponentDidMount(uuid);
+    /**
+     * the order of the children a view was mounted with
+     */
+    private void recordChildren(Component node, View view) {
+        if (view instanceof ViewGroup && !(view instanceof ScrollView) && !(view instanceof SyrScrollContainer)) {
+            List<Integer> order = new ArrayList<Integer>();
+            childOrder(node, order);
+            mReconciler.record(tag(node), order);
+        }
+    }
 
-                    if (newComponent instanceof ViewGroup) {
-                        viewParent = (ViewGroup) newComponent;
-                    }
+    /**
+     * a layout-only View that was flattened into viewParent
+     */
+    private void syncFlattened(Component component, ViewGroup viewParent, Component parent, int[] offset) {
+        int tag = tag(component);
+        if (component.isUnmount()) {
+            unmountTree(component);
+            return;
+        }
+        if (mFlattener.isLayoutOnly(component, parent, viewParent)) {
+            syncChildren(component, viewParent, mFlattener.flatten(tag, viewParent, component, offset));
+            return;
+        }
 
+        // it has something to draw now, give it a view and move its children into it
+        mFlattener.remove(tag);
+        View view = createComponent(component);
+        mOperations.insert(viewParent, view, -1);
+        setPosition(view, component, offset);
+        if (view instanceof ViewGroup) {
+            rehome(component, (ViewGroup) view, null);
+            syncChildren(component, (ViewGroup) view, null);
+            recordChildren(component, view);
+        }
+    }
 
-                } else { //component is a non renderable
-                    if (!mNonRenderables.contains(uuid)) {
-                        //mount the component if it has not been mounted yet
-                        mNonRenderables.add(uuid);
-                        emitComponentDidMount(uuid);
-                    }
-                }
+    /**
+     * move the views under a formerly flattened node into host
+     */
+    private void rehome(Component node, ViewGroup host, int[] offset) {
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            if (child.isUnmount()) {
+                continue;
             }
-            syncChildren(component, viewParent);
+            int tag = tag(child);
+            View view = findView(child);
+            if (mFlattener.get(tag) != null) {
+                rehome(child, host, mFlattener.flatten(tag, host, child, offset));
+            } else if (view != null) {
+                mOperations.insert(host, view, -1);
+                setPosition(view, child, offset);
+            } else {
+                rehome(child, host, offset);
+            }
+        }
+    }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+    /**
+     * place a view added to the host of a flattened node
+     */
+    private void setPosition(View view, Component node, int[] offset) {
+        int[] position = SyrFlattener.position(node, offset);
+        mOperations.setPosition(view, position[0], position[1]);
+    }
+
+    /**
+     * unmount every child of a component, see unmountTree
+     */
+    public void unmountChildren(final Component component) {
+        List<Component> children = component.getChildren();
+        ArrayList<String> unmounted = new ArrayList<String>();
+        for (int i = 0; i < children.size(); i++) {
+            unmountTree(children.get(i), true, unmounted);
+        }
+        if (!unmounted.isEmpty()) {
+            mOperations.unmounted(unmounted);
         }
     }
 
-    public void unmountChildren(final JSONObject component) {
-        try {
-            //get the children of the component
-            JSONArray children = component.getJSONArray("children");
-            for (int i = 0; i < children.length(); i++) {
-                JSONObject child = children.getJSONObject(i);
-                String childuuid = child.getJSONObject("instance").getString("uuid");
-                View childInstance = (View) mModuleInstances.get(childuuid);
-                //if the child is a non-renderable, get the first child (since we follow the pattern of returning a singe view), to unmount
-                if (childInstance == null && child.has("children")) {
-                    child = child.getJSONArray("children").getJSONObject(0);
-                    childuuid = child.getJSONObject("instance").getString("uuid");
-                    childInstance = (View) mModuleInstances.get(childuuid);
-                }
-                final String uuidToRemove = childuuid;
-                final View instanceToRemove = childInstance;
-                //just double checking, this will always hold true. Not sure why I dont trust my own code.
-                Boolean unmountChildInstance = component.getBoolean("unmount");
-                if (unmountChildInstance == true && instanceToRemove != null) {
-                    mModuleInstances.remove(childuuid);
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (instanceToRemove.getParent() != null) {
-                                ViewGroup parent = (ViewGroup) instanceToRemove.getParent();
-                                parent.removeView(instanceToRemove);
-                                emitComponentWillUnMount(uuidToRemove);
-                            }
-                        }
-                    });
-                }
-            }
-        } catch (JSONException e) {
-            e.printStackTrace();
+    /**
+     * Unmount a node and everything under it in one pass. Every node of the
+     * subtree leaves the registry and the caches, the views are detached,
+     * their animations and image loads stopped and the views pooled, and js
+     * hears componentWillUnmount for all of them once the views are gone.
+     */
+    private void unmountTree(Component node) {
+        ArrayList<String> unmounted = new ArrayList<String>();
+        unmountTree(node, true, unmounted);
+        if (!unmounted.isEmpty()) {
+            mOperations.unmounted(unmounted);
         }
     }
 
-    public void syncChildren(final JSONObject component, ViewGroup viewParent) {
-        try {
-            JSONArray children = component.getJSONArray("children");
-            if (children != null && children.length() > 0) {
-                String key = null;
-                if (component.has("attributes")) {
-                    JSONObject attributes = component.getJSONObject("attributes");
-                    if (attributes.has("key")) {
-                        key = attributes.getString("key");
-                    }
-                }
-                for (int i = 0; i < children.length(); i++) {
-                    JSONObject child = children.getJSONObject(i);
-                    if (key != null) {
-                        child.put("key", key);
-                    }
-                    syncState(child, viewParent);
-                }
+    /**
+     * @param attached  whether node's views are in a view that stays mounted
+     * @param unmounted collects the keys js hears componentWillUnmount for, null to unmount silently
+     */
+    private void unmountTree(Component node, boolean attached, List<String> unmounted) {
+        String key = instanceKey(node);
+        int tag = tag(node);
+        boolean flattened = mFlattener.get(tag) != null;
+        SyrInstanceRegistry.Entry entry = mInstances.remove(node);
+        View view = entry != null && entry.instance instanceof View ? (View) entry.instance : null;
+        if (unmounted != null && key != null && (entry != null || flattened)) {
+            unmounted.add(key);
+        }
+
+        if (view != null) {
+            if (attached) {
+                mOperations.remove(view, null, node.getElementName());
             } else {
-                return;
+                mOperations.release(view, node.getElementName());
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
+        }
+
+        if (view instanceof SyrScrollContainer && ((SyrScrollContainer) view).getWindow() != null) {
+            // rows are laid out in the scrollview's content, they go with it
+            ArrayList<SyrScrollWindow.Row> rows = ((SyrScrollContainer) view).getWindow().getRows();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).node != null) {
+                    unmountTree(rows.get(i).node, false, unmounted);
+                }
+            }
+        }
+        forget(tag, view);
+
+        // children of a non-renderable or a flattened node are in the view it would have been
+        boolean childrenAttached = attached && view == null;
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            unmountTree(children.get(i), childrenAttached, unmounted);
+        }
+    }
+
+    public void syncChildren(final Component component, ViewGroup viewParent) {
+        syncChildren(component, viewParent, null);
+    }
+
+    private void syncChildren(final Component component, ViewGroup viewParent, int[] offset) {
+        List<Component> children = component.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            syncState(children.get(i), viewParent, component, offset);
         }
     }
 
     /**
      * parse the AST sent from the Syr Bridge
      */
-    public void buildInstanceTree(final JSONObject jsonObject) {
+    public void buildInstanceTree(final Component jsonObject) {
 
+        final View component = createComponent(jsonObject);
 
-        try {
-            final View component = createComponent(jsonObject);
-            final JSONObject js = jsonObject;
-
-            if (component != null) {
-                final String uuid = jsonObject.getString("uuid");
-
-                JSONArray children = jsonObject.getJSONArray("children");
-
-                if (component instanceof ScrollView && children.length() > 1) {
-                    final RelativeLayout relativeChild = new RelativeLayout(mContext);
-                    RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(RelativeLayout.LayoutParams.WRAP_CONTENT, getHeight(jsonObject));
-                    relativeChild.setLayoutParams(params);
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            ViewGroup scroll = (ViewGroup) component;
-                            scroll.addView(relativeChild);
-                        }
-                    });
-                }
+        if (component != null) {
+            final String uuid = jsonObject.getUuid();
 
-                if (children.length() > 0) {
-                    buildChildren(children, (ViewGroup) component, jsonObject, jsonObject);
-                }
+            List<Component> children = jsonObject.getChildren();
 
-                uiHandler.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        mRootview.addView(component);
-                        emitComponentDidMount(uuid);
-                    }
-                });
-            } else {
+            boolean windowed = buildWindow(component, jsonObject);
 
-                JSONArray childComponents = jsonObject.getJSONArray("children");
-                JSONObject childComponent = childComponents.getJSONObject(0);
-                buildInstanceTree(childComponent);
-                //@TODO check if instances uuid needs to be passed.
-                emitComponentDidMount(jsonObject.getString("uuid"));
+            if (!windowed && component instanceof ScrollView && children.size() > 1) {
+                final RelativeLayout relativeChild = new RelativeLayout(mContext);
+                RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(RelativeLayout.LayoutParams.WRAP_CONTENT, getHeight(jsonObject));
+                mOperations.insert((ViewGroup) component, relativeChild, -1, params);
             }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+            if (!windowed && children.size() > 0) {
+                buildChildren(children, (ViewGroup) component, jsonObject, null);
+                recordChildren(jsonObject, component);
+            }
+
+            mOperations.insertRoot(component);
+            emitComponentDidMount(uuid);
+        } else if (jsonObject.getChildren().size() > 0) {
+
+            Component childComponent = jsonObject.getChildren().get(0);
+            buildInstanceTree(childComponent);
+            //@TODO check if instances uuid needs to be passed.
+            emitComponentDidMount(jsonObject.getUuid());
         }
     }
 
-    public void setupAnimation(final JSONObject astDict) {
+    /**
+     * start an animation message, on the raster thread. The animator itself runs on the main thread
+     */
+    public void setupAnimation(final JSONObject animation) {
         try {
-            String animationStringify = astDict.getString("ast");
-            JSONObject animation = new JSONObject(animationStringify);
-
-            if (animation.has("guid")) {
-                String animatedTarget = animation.getString("guid");
-                View animationTarget = (View) mModuleInstances.get(animatedTarget);
+            int tag = animation.optInt("tag");
+            if (tag > 0 || animation.has("guid")) {
+                // js sends the tag once the target reported it, before that only the uuid
+                View animationTarget = (View) (tag > 0 ? mInstances.getInstance(tag)
+                        : mInstances.getInstance(animation.getString("guid")));
                 if (animationTarget != null) {
-                    SyrAnimator.animate(animationTarget, animation, mBridge, uiHandler);
+                    mAnimator.animate(animationTarget, animation, mBridge, uiHandler);
                 }
             } else {
                 Log.i("here", "there");
@@ -428,30 +611,129 @@ public class SyrRaster {
     }
 
     /**
-     * removes all sub view from the root
+     * removes all sub view from the root, callable from any thread
      */
     public void clearRootView() {
-        mModuleInstances.clear();
-        uiHandler.post(new Runnable() {
+        post(new Runnable() {
             @Override
             public void run() {
-                mRootview.removeAllViews();
+                clearRaster();
             }
         });
     }
 
+    private void clearRaster() {
+        forgetAll();
+        SyrViewOperations operations = obtainOperations();
+        operations.clearRoot();
+        mScheduler.schedule(operations);
+    }
+
+    private void forgetAll() {
+        for (int i = 0; i < mInstances.size(); i++) {
+            Object instance = mInstances.valueAt(i).instance;
+            if (instance instanceof SyrScrollContainer && ((SyrScrollContainer) instance).getWindow() != null) {
+                ((SyrScrollContainer) instance).getWindow().detach();
+            }
+        }
+        mInstances.clear();
+        mLists.clear();
+        mHeights.clear();
+        mLayout.clear();
+        mFlattener.clear();
+        mReconciler.clear();
+    }
+
+    /**
+     * Tear the raster down, on the main thread once its root view is no longer
+     * shown. Messages still queued are dropped, the raster thread forgets every
+     * node and quits, and nothing queued for the main thread is applied any more.
+     */
+    public void destroy() {
+        Handler rasterHandler;
+        synchronized (this) {
+            if (mDestroyed) {
+                return;
+            }
+            mDestroyed = true;
+            rasterHandler = mRasterHandler;
+            mRasterHandler = null;
+            mRasterThread = null;
+        }
+        if (rasterHandler != null) {
+            rasterHandler.removeCallbacksAndMessages(null);
+            rasterHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    forgetAll();
+                    Looper.myLooper().quit();
+                }
+            });
+        }
+        if (mScheduler != null) {
+            mScheduler.cancel();
+        }
+        if (uiHandler != null) {
+            // animation steps and anything else still waiting for the main thread
+            uiHandler.removeCallbacksAndMessages(null);
+        }
+        mAnimator.cancelAll();
+        mViewPool.shutdown();
+        mDispatcher.shutdown();
+        synchronized (mRecycledOperations) {
+            mRecycledOperations.clear();
+        }
+        if (mRootview != null) {
+            mRootview.removeAllViews();
+        }
+    }
+
+    SyrAnimator getAnimator() {
+        return mAnimator;
+    }
+
     public void emitComponentDidMount(String guid) {
+        emitComponentDidMount(guid, mInstances.getTag(guid));
+    }
+
+    private void emitComponentDidMount(Component node) {
+        emitComponentDidMount(instanceKey(node), tag(node));
+    }
+
+    private void emitComponentDidMount(String guid, int tag) {
+        if (mSilentMounts) {
+            return;
+        }
+        JSONObject eventMap = componentDidMount(guid, tag);
+        if (eventMap == null) {
+            return;
+        }
+        if (mOperations != null) {
+            mOperations.mMounts.add(eventMap);
+        } else {
+            mBridge.sendEvent(eventMap);
+        }
+    }
+
+    /**
+     * the componentDidMount event of a node, built on the raster thread while its tag can be read
+     */
+    private JSONObject componentDidMount(String guid, int tag) {
 
         // send event for componentDidMount
         try {
             JSONObject eventMap = new JSONObject();
             eventMap.put("type", "componentDidMount");
             eventMap.put("guid", guid);
-            mBridge.sendEvent(eventMap);
+            // js sends the tag back on the node, later lookups don't go through the uuid
+            if (tag > 0) {
+                eventMap.put("tag", tag);
+            }
+            return eventMap;
         } catch (JSONException e) {
             e.printStackTrace();
         }
-
+        return null;
     }
 
     public void emitComponentWillUnMount(String guid) {
@@ -468,173 +750,601 @@ public class SyrRaster {
 
     }
 
-    public int getHeight(JSONObject component) {
-        int height = 0;
-        try {
-            JSONArray children = component.getJSONArray("children");
-            JSONObject style = null;
-            for (int i = 0; i < children.length(); i++) {
-                JSONObject child = children.getJSONObject(i);
-                JSONObject jsonInstance = child.getJSONObject("instance");
-                if (jsonInstance.has("style")) {
-                    style = jsonInstance.getJSONObject("style");
-                    if (style.has("height")) {
-                        Object childHeight = style.get("height");
-                        if (childHeight instanceof Integer) {
-                            height = height + (Integer) childHeight;
-                        } else {
-                            height = height + getHeight(child);
-                        }
-                    }
-                } else {
-                    height = height + getHeight(child);
+    /**
+     * height of a node's children, styled children add their style height and
+     * unstyled ones the height of their own children. Memoized, see SyrHeightCache
+     */
+    public int getHeight(Component component) {
+        return mHeights.measure(component);
+    }
+
+    /**
+     * a node inside scrollview content was updated on its own, correct the heights of its
+     * unstyled ancestors and resize the scrollview's content if the node's height changed
+     */
+    private void resizeAncestors(Component node) {
+        SyrHeightCache.Entry entry = mHeights.get(tag(node));
+        if (entry == null || entry.parent == 0) {
+            return;
+        }
+
+        SyrStyle style = node.getStyle();
+        int height;
+        if (style != null && style.has(SyrStyle.HEIGHT)) {
+            height = style.height;
+        } else if (style != null && entry.fixed) {
+            height = 0;
+        } else {
+            height = getHeight(node);
+        }
+        int delta = height - entry.contribution;
+        entry.contribution += delta;
+        SyrHeightCache.Entry child = entry;
+        int parent = entry.parent;
+        while (delta != 0 && parent != 0) {
+            SyrHeightCache.Entry ancestor = mHeights.get(parent);
+            if (ancestor == null) {
+                return;
+            }
+            ancestor.height += delta;
+            Object instance = mInstances.getInstance(parent);
+            if (instance instanceof SyrScrollContainer) {
+                resizeContent((SyrScrollContainer) instance, child.key, delta, ancestor.height);
+                return;
+            }
+            if (ancestor.fixed) {
+                return;
+            }
+            ancestor.contribution += delta;
+            child = ancestor;
+            parent = ancestor.parent;
+        }
+    }
+
+    /**
+     * the content of a scrollview grew or shrank by delta because of its child
+     */
+    private void resizeContent(SyrScrollContainer scrollView, String child, int delta, int height) {
+        SyrScrollWindow window = scrollView.getWindow();
+        if (window == null) {
+            View content = scrollView.getChildAt(0);
+            if (content != null) {
+                mOperations.setHeight(content, height);
+            }
+            return;
+        }
+
+        // rows stacked after the resized one move with it
+        SyrScrollWindow.Row row = window.getRow(child);
+        if (row == null) {
+            return;
+        }
+        row.height += delta;
+        ArrayList<SyrScrollWindow.Row> rows = window.getRows();
+        for (int i = rows.indexOf(row) + 1; i < rows.size(); i++) {
+            SyrScrollWindow.Row next = rows.get(i);
+            if (!next.stacked) {
+                break;
+            }
+            next.top += delta;
+            if (next.mounted && next.viewNode != null) {
+                View view = (View) mInstances.getInstance(next.viewNode);
+                if (view != null) {
+                    mOperations.setY(view, next.top);
                 }
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
-        return height;
+        window.setRows(rows);
+        mOperations.setHeight(window.getContent(), window.getContentHeight());
+        mountWindow(window);
     }
 
 
-    private void buildChildren(JSONArray children, final ViewGroup viewParent, JSONObject renderedParent, JSONObject immediateParent) {
+    /**
+     * @param offset where the children start within viewParent, when their parent was flattened into it
+     */
+    private void buildChildren(List<Component> children, final ViewGroup viewParent, Component renderedParent, int[] offset) {
+
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            List<Component> childChildren = child.getChildren();
+            if (mFlattener.isLayoutOnly(child, renderedParent, viewParent)) {
+                int[] childOffset = mFlattener.flatten(tag(child), viewParent, child, offset);
+                buildChildren(childChildren, viewParent, child, childOffset);
+                emitComponentDidMount(child);
+                continue;
+            }
+            final View component = createComponent(child);
+
+            boolean windowed = component != null && buildWindow(component, child);
 
-        try {
+            if (!windowed && component instanceof ScrollView && children.size() > 1) {
+                final RelativeLayout relativeChild = new RelativeLayout(mContext);
+                RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(RelativeLayout.LayoutParams.WRAP_CONTENT, getHeight(child));
+                mOperations.insert((ViewGroup) component, relativeChild, -1, params);
+            }
 
-            for (int i = 0; i < children.length(); i++) {
-                JSONObject child = children.getJSONObject(i);
-                final View component = createComponent(child);
-                JSONArray childChildren = child.getJSONArray("children");
-                String tempUid = child.getString("uuid");
+            if (component == null) {
+                buildChildren(childChildren, viewParent, renderedParent, offset);
+            } else {
 
-                if (child.has("attributes")) {
-                    if (child.getJSONObject("attributes").has("key")) {
-                        if (child.getJSONObject("attributes").getInt("key") != 0) {
-                            tempUid = tempUid.concat("-").concat(child.getJSONObject("attributes").getString("key"));
-                        }
+                //checking to see if the parent is a stackView a.k.a LinearLayout
+                //@TODO if possible do something similar to respondsToSelector on Obj c
+                LinearLayout.LayoutParams params = null;
+                if (viewParent instanceof LinearLayout) {
+                    params = new LinearLayout.LayoutParams(
+                            LinearLayout.LayoutParams.WRAP_CONTENT,
+                            LinearLayout.LayoutParams.WRAP_CONTENT,
+                            1.0f); //equal spacing layoutParams for stackView
+
+                    JSONObject parentProps = renderedParent.getProps();
+                    if (parentProps != null && parentProps.has("spacing") && renderedParent.renderedChildren > 0) {
+                        params.setMargins(0, parentProps.optInt("spacing"), 0, 0);
                     }
+                    //@TODO defaulting to equal spacing between components. Need to change it and add spacing and distribution concept.
+                    renderedParent.renderedChildren++;
+
                 }
 
-                final String uuid = tempUid;
-
-                if (component instanceof ScrollView && children.length() > 1) {
-                    final RelativeLayout relativeChild = new RelativeLayout(mContext);
-                    RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(RelativeLayout.LayoutParams.WRAP_CONTENT, getHeight(child));
-                    relativeChild.setLayoutParams(params);
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            ViewGroup scroll = (ViewGroup) component;
-                            scroll.addView(relativeChild);
-                        }
-                    });
+                //@TODO need better handling
+                mOperations.insert(viewParent, component, -1, params);
+                if (offset != null) {
+                    setPosition(component, child, offset);
                 }
 
-                if (component == null) {
-                    buildChildren(childChildren, viewParent, renderedParent, child);
-                } else {
+                if (component instanceof ViewGroup && !windowed) {
+                    buildChildren(childChildren, (ViewGroup) component, child, null);
+                    recordChildren(child, component);
+                }
+            }
+            emitComponentDidMount(child);
+        }
+    }
 
-                    //checking to see if the parent is a stackView a.k.a LinearLayout
-                    //@TODO if possible do something similar to respondsToSelector on Obj c
-                    if (viewParent instanceof LinearLayout) {
-                        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                                LinearLayout.LayoutParams.WRAP_CONTENT,
-                                LinearLayout.LayoutParams.WRAP_CONTENT,
-                                1.0f); //equal spacing layoutParams for stackView
-
-                        JSONObject parentInstance = renderedParent.getJSONObject("instance");
-                        JSONObject parentProps = parentInstance.getJSONObject("props");
-                        if (parentProps.has("spacing") && renderedParent.has("renderedChildren")) {
-                            params.setMargins(0, parentProps.getInt("spacing"), 0, 0);
-                        }
-                        //@TODO defaulting to equal spacing between components. Need to change it and add spacing and distribution concept.
-                        component.setLayoutParams(params);
-                        if (renderedParent.has("renderedChildren")) {
-                            renderedParent.getJSONArray("renderedChildren").put(component);
-                        } else {
-                            JSONArray renderedChildren = new JSONArray();
-                            renderedChildren.put(component);
-                            renderedParent.put("renderedChildren", renderedChildren);
-                        }
+    /**
+     * windows the children of a scrollview so only rows near the viewport get views,
+     * false when the scrollview should lay out all of its children instead
+     */
+    private boolean buildWindow(View component, Component node) {
+        // lists are always windowed, their one child is the row template
+        boolean list = mModuleMap.get(node.getElementName()) instanceof SyrListView;
+        if (!(component instanceof SyrScrollContainer) || (!list && node.getChildren().size() < 2)) {
+            return false;
+        }
+        JSONObject props = node.getProps();
+        if (!list && props != null && !props.optBoolean("windowed", true)) {
+            return false;
+        }
+
+        // until the scrollview is laid out its style height, or the screen, is the viewport
+        SyrStyle style = node.getStyle();
+        int viewport = style != null && style.has(SyrStyle.HEIGHT) && style.height > 0
+                ? style.height
+                : mContext.getResources().getDisplayMetrics().heightPixels;
+        int overscan = props != null ? props.optInt("overscan", -1) : -1;
+
+        SyrScrollContainer scrollView = (SyrScrollContainer) component;
+        RelativeLayout content = new RelativeLayout(mContext);
+        SyrScrollWindow window = new SyrScrollWindow(this, scrollView, content, viewport, overscan);
+        if (list) {
+            SyrListBinder binder = new SyrListBinder(instanceKey(node), node);
+            window.setBinder(binder);
+            mLists.put(binder.getUuid(), window);
+        }
+        syncRows(window, node);
+        mOperations.insert(scrollView, content, -1, new RelativeLayout.LayoutParams(
+                RelativeLayout.LayoutParams.WRAP_CONTENT, window.getContentHeight()));
+        scrollView.setWindow(window);
+        mountWindow(window);
+        return true;
+    }
 
+    /**
+     * update the row records of a window from the scrollview's children.
+     * Rows are stacked in order unless they have a top, and only mounted rows are re-rendered
+     */
+    private void syncRows(SyrScrollWindow window, Component node) {
+        if (window.getBinder() != null) {
+            syncListRows(window);
+            return;
+        }
+        List<Component> children = node.getChildren();
+        ArrayList<SyrScrollWindow.Row> previous = window.getRows();
+        ArrayList<SyrScrollWindow.Row> rows = new ArrayList<SyrScrollWindow.Row>(children.size());
+        HashSet<String> keys = new HashSet<String>(children.size() * 2);
+        int offset = 0;
+
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            String key = instanceKey(child);
+            SyrScrollWindow.Row row = window.getRow(key);
+
+            if (child.isUnmount()) {
+                if (row != null && row.mounted) {
+                    unmountRow(row, key);
+                } else if (row != null) {
+                    // a row without views, js hears about it with the rest of the batch
+                    if (row.node != null) {
+                        forgetTree(row.node);
                     }
+                    mOperations.unmounted(Collections.singletonList(key));
+                }
+                continue;
+            }
 
-                    //@TODO need better handling
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (component.getParent() != null) {
-                                ViewGroup parent = (ViewGroup) component.getParent();
-                                parent.removeView(component);
-                            }
-                            if (viewParent instanceof ScrollView) {
-                                ViewGroup firstChild = (ViewGroup) viewParent.getChildAt(0);
-                                firstChild.addView(component);
-                            } else {
-                                viewParent.addView(component);
-                            }
+            if (row == null) {
+                // a new row is mounted for js as soon as it is recorded
+                row = new SyrScrollWindow.Row(key);
+                emitMountTree(child);
+                row.node = child;
+            } else {
+                row.node = child;
+                if (row.mounted) {
+                    updateRow(row);
+                }
+            }
 
-                        }
-                    });
+            SyrStyle style = child.getStyle();
+            row.stacked = style == null || !style.has(SyrStyle.TOP);
+            int top = row.stacked ? offset : (int) style.top;
+            if (row.mounted && row.top != top && row.viewNode != null) {
+                View view = (View) mInstances.getInstance(row.viewNode);
+                if (view != null) {
+                    mOperations.setY(view, top);
+                }
+            }
+            row.top = top;
+            boolean fixed = style != null && style.has(SyrStyle.HEIGHT);
+            row.height = fixed ? style.height : getHeight(child);
+            mHeights.record(child, tag(node), row.height, fixed);
+            offset = top + row.height;
+
+            keys.add(key);
+            rows.add(row);
+        }
 
-                    if (component instanceof ViewGroup) {
-                        buildChildren(childChildren, (ViewGroup) component, child, child);
-                    }
+        // rows js dropped without an unmount
+        for (int i = 0; i < previous.size(); i++) {
+            SyrScrollWindow.Row row = previous.get(i);
+            if (!keys.contains(row.key) && row.mounted) {
+                unmountRow(row, null);
+            }
+        }
+        window.setRows(rows);
+    }
+
+    /**
+     * update the row records of a list from its binder. Rows are stacked in the
+     * order of the data, and only mounted rows whose item changed are bound again
+     */
+    private void syncListRows(SyrScrollWindow window) {
+        SyrListBinder binder = window.getBinder();
+        ArrayList<SyrScrollWindow.Row> previous = window.getRows();
+        int count = binder.size();
+        int height = binder.getRowHeight(this);
+        ArrayList<SyrScrollWindow.Row> rows = new ArrayList<SyrScrollWindow.Row>(count);
+        HashSet<String> keys = new HashSet<String>(count * 2);
+
+        for (int i = 0; i < count; i++) {
+            String key = binder.getKey(i);
+            SyrScrollWindow.Row row = window.getRow(key);
+            if (row == null) {
+                row = new SyrScrollWindow.Row(key);
+                row.bound = true;
+            } else if (row.mounted && binder.isChanged(key)) {
+                row.node = binder.bind(key);
+                updateRow(row);
+            }
+
+            int top = i * height;
+            if (row.mounted && row.top != top && row.viewNode != null) {
+                View view = (View) mInstances.getInstance(row.viewNode);
+                if (view != null) {
+                    mOperations.setY(view, top);
                 }
-                emitComponentDidMount(uuid);
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
+            row.top = top;
+            row.height = height;
+
+            keys.add(key);
+            rows.add(row);
+        }
+
+        for (int i = 0; i < previous.size(); i++) {
+            SyrScrollWindow.Row row = previous.get(i);
+            if (!keys.contains(row.key) && row.mounted) {
+                unmountRow(row, null);
+            }
         }
+        binder.clearChanges();
+        window.setRows(rows);
     }
 
-    private View createComponent(final JSONObject child) {
+    /**
+     * apply a data delta js sent for a list, rows outside the window are only recorded. On the raster thread
+     */
+    public void updateList(final JSONObject delta) {
+        SyrScrollWindow window = mLists.get(delta.optString("guid"));
+        if (window == null || window.isDetached()) {
+            return;
+        }
+        mOperations = obtainOperations();
+        window.getBinder().apply(delta);
+        syncWindow(window, null);
+        commitOperations();
+    }
 
-        String className = null;
-        View returnView = null;
-        String uuid = null;
-        if (child.has("elementName")) {
+    /**
+     * windowed children are synced as rows, offscreen ones only as records
+     */
+    private void syncWindow(SyrScrollWindow window, Component node) {
+        if (window.getBinder() != null && node != null) {
+            window.getBinder().update(node);
+        }
+        syncRows(window, node);
+        mOperations.setHeight(window.getContent(), window.getContentHeight());
+        mountWindow(window);
+    }
 
-            try {
+    /**
+     * mount the rows within the window and unmount the ones that left it
+     */
+    private void mountWindow(SyrScrollWindow window) {
+        int top = window.getWindowTop();
+        int bottom = window.getWindowBottom();
+        ArrayList<SyrScrollWindow.Row> rows = window.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            SyrScrollWindow.Row row = rows.get(i);
+            boolean visible = SyrScrollWindow.intersects(row, top, bottom);
+            if (visible && !row.mounted) {
+                mountRow(window, row);
+            } else if (!visible && row.mounted) {
+                unmountRow(row, null);
+            }
+        }
+        window.setMountedRange(top, bottom);
+    }
 
-                uuid = child.getString("uuid");
-                if (child.has("attributes")) {
-                    if (child.getJSONObject("attributes").has("key")) {
-                        uuid = uuid.concat(child.getJSONObject("attributes").getString("key"));
-                    }
+    /**
+     * called from the main thread when scrolling gets near the edge of the mounted rows
+     */
+    void refreshWindow(final SyrScrollWindow window) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                window.onRefresh();
+                if (window.isDetached()) {
+                    return;
                 }
-                className = child.getString("elementName");
-                final SyrComponent componentModule = (SyrComponent) mModuleMap.get(className);
+                mOperations = obtainOperations();
+                mountWindow(window);
+                commitOperations();
+            }
+        });
+    }
 
-                if (componentModule == null) {
-                    mNonRenderables.add(uuid);
-                    return null;
-                }
+    private synchronized Handler getRasterHandler() {
+        if (mRasterHandler == null && !mDestroyed) {
+            mRasterThread = new HandlerThread("SyrRaster");
+            mRasterThread.start();
+            mRasterHandler = new Handler(mRasterThread.getLooper());
+        }
+        return mRasterHandler;
+    }
 
-                if (mModuleInstances.containsKey(uuid)) {
+    private void mountRow(SyrScrollWindow window, SyrScrollWindow.Row row) {
+        row.mounted = true;
+        if (row.bound) {
+            row.node = window.getBinder().bind(row.key);
+        }
+        row.viewNode = firstRenderable(row.node);
+        if (row.viewNode == null) {
+            return;
+        }
 
-                    final View view = (View) mModuleInstances.get(child.getString("uuid"));
+        mSilentMounts = true;
+        try {
+            View view = createComponent(row.viewNode);
+            // a new (or pooled) view that isn't attached yet
+            view.setY(row.top);
+            mOperations.insert(window.getContent(), view, -1);
+            if (view instanceof ViewGroup && !buildWindow(view, row.viewNode)) {
+                buildChildren(row.viewNode.getChildren(), (ViewGroup) view, row.viewNode, null);
+                recordChildren(row.viewNode, view);
+            }
+            mLayout.layout(row.viewNode, mOperations);
+        } finally {
+            mSilentMounts = false;
+        }
+    }
 
-                    uiHandler.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            componentModule.render(child, mContext, view);
-                        }
-                    });
+    private void updateRow(SyrScrollWindow.Row row) {
+        Component viewNode = firstRenderable(row.node);
+        if (viewNode == null || row.viewNode == null || tag(viewNode) != tag(row.viewNode)) {
+            // the row renders as a different view now, mount it again
+            SyrScrollWindow.Row stale = new SyrScrollWindow.Row(row.key);
+            stale.node = row.node;
+            stale.viewNode = row.viewNode;
+            unmountRow(stale, null);
+            row.mounted = false;
+            row.viewNode = null;
+            return;
+        }
+        row.viewNode = viewNode;
+
+        // re-render the row's view in place, then its children
+        View view = createComponent(viewNode);
+        SyrScrollWindow window = view instanceof SyrScrollContainer
+                ? ((SyrScrollContainer) view).getWindow() : null;
+        if (window != null) {
+            syncWindow(window, viewNode);
+        } else if (view instanceof ViewGroup) {
+            syncChildren(viewNode, (ViewGroup) view);
+            reorderChildren(viewNode, (ViewGroup) view);
+        }
+        mLayout.layout(viewNode, mOperations);
+    }
 
+    /**
+     * remove a row's view and forget the instances of its subtree, the record stays
+     */
+    private void unmountRow(SyrScrollWindow.Row row, String uuid) {
+        // the view the row was mounted as, its node may render as another one by now
+        View view = row.viewNode != null ? findView(row.viewNode) : null;
+        // rows leaving the window stay mounted for js
+        ArrayList<String> unmounted = uuid != null ? new ArrayList<String>() : null;
+        if (row.node != null) {
+            unmountTree(row.node, true, unmounted);
+        }
+        if (view != null && findView(row.viewNode) == view) {
+            unmountTree(row.viewNode, true, unmounted);
+        }
+        if (unmounted != null && !unmounted.isEmpty()) {
+            mOperations.unmounted(unmounted);
+        }
+        if (row.bound) {
+            row.node = null;
+        }
+        row.mounted = false;
+        row.viewNode = null;
+    }
 
-                } else {
+    private void forgetTree(Component node) {
+        SyrInstanceRegistry.Entry entry = mInstances.remove(node);
+        forget(tag(node), entry != null ? entry.instance : null);
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            forgetTree(children.get(i));
+        }
+    }
 
-                    returnView = componentModule.render(child, mContext, null);
-                    mModuleInstances.put(uuid, returnView);
+    /**
+     * drop what the caches keep for a node that left the registry
+     */
+    private void forget(int tag, Object instance) {
+        if (tag > 0) {
+            mHeights.remove(tag);
+            mLayout.remove(tag);
+            mFlattener.remove(tag);
+            mReconciler.remove(tag);
+        }
+        if (instance instanceof SyrScrollContainer) {
+            forgetWindow(((SyrScrollContainer) instance).getWindow());
+        }
+    }
 
-                }
+    private void forgetWindow(SyrScrollWindow window) {
+        if (window == null) {
+            return;
+        }
+        window.detach();
+        if (window.getBinder() != null) {
+            mLists.remove(window.getBinder().getUuid());
+        }
+        ArrayList<SyrScrollWindow.Row> rows = window.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).node != null) {
+                forgetTree(rows.get(i).node);
+            }
+        }
+    }
+
+    /**
+     * the view rendered for an instance key, null when there is none
+     */
+    View findView(String key) {
+        Object instance = mInstances.getInstance(key);
+        return instance instanceof View ? (View) instance : null;
+    }
+
+    View findView(int tag) {
+        Object instance = mInstances.getInstance(tag);
+        return instance instanceof View ? (View) instance : null;
+    }
+
+    View findView(Component node) {
+        Object instance = mInstances.getInstance(node);
+        return instance instanceof View ? (View) instance : null;
+    }
+
+    /**
+     * the node a row is shown as, non-renderables render their first child
+     */
+    private Component firstRenderable(Component node) {
+        while (node != null && mModuleMap.get(node.getElementName()) == null) {
+            node = node.getChildren().isEmpty() ? null : node.getChildren().get(0);
+        }
+        return node;
+    }
 
-            } catch (JSONException e) {
-                e.printStackTrace();
+    private void emitMountTree(Component node) {
+        List<Component> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            emitMountTree(children.get(i));
+        }
+        emitComponentDidMount(node);
+    }
+
+    /**
+     * key of a node's view in the registry, and the uuid sent to js with its events.
+     * Keyed children carry their key the way js builds their instance uuid. Built once
+     * when the node is decoded, nodes made on this side (bound list rows) build it on first use
+     */
+    static String instanceKey(Component node) {
+        if (node.instanceKey != null) {
+            return node.instanceKey;
+        }
+        String uuid = node.getUuid();
+        String key = node.getKey();
+        if (uuid != null && key != null && !key.equals("0")) {
+            uuid = uuid.concat("-").concat(key);
+        }
+        node.instanceKey = uuid;
+        return uuid;
+    }
+
+    private View createComponent(final Component child) {
+
+        String className = child.getElementName();
+        View returnView = null;
+        if (className != null) {
+
+            final SyrComponent componentModule = (SyrComponent) mModuleMap.get(className);
+
+            if (componentModule == null) {
+                mInstances.obtain(child);
+                return null;
             }
 
-            return (View) mModuleInstances.get(uuid);
+            SyrInstanceRegistry.Entry entry = mInstances.get(child);
+            if (entry != null && entry.instance != null) {
+
+                final View view = (View) entry.instance;
+
+                // only re-render when something the view shows changed since it was last rendered
+                child.diff(entry.rendered);
+                if (child.hasChanges()) {
+                    mOperations.update(componentModule, child, view);
+                    entry.rendered = child.snapshot();
+                }
+                return view;
+
+            } else {
+
+                // a view unmounted earlier is rendered as new when the pool has one.
+                // Off the main thread only detached views are rendered, see SyrComponent
+                returnView = componentModule.render(child, mContext, mViewPool.acquire(child));
+                if (returnView != null && returnView.getParent() != null) {
+                    throw new IllegalStateException(className + " rendered a view that is already attached");
+                }
+                entry = mInstances.obtain(child);
+                if (entry != null) {
+                    entry.instance = returnView;
+                    entry.rendered = child.snapshot();
+                }
+                return returnView;
+
+            }
         } else {
             return null;
         }
@@ -0,0 +1,130 @@
+package syr.js.org.syrnative;
+
+import android.util.SparseArray;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Tags of the child views the raster put into every view, in order, by the tag of the view.
+ *
+ * During an update removed children leave their parent and new ones are
+ * appended, the survivors keep the order of the previous render. Comparing
+ * that with the order of the update finds the fewest children to move: the
+ * longest run of children already in order (a longest increasing
+ * subsequence) stays where it is, every other child is moved in front of the
+ * child that follows it. Sorting or filtering a keyed list moves views
+ * instead of re-creating them.
+ */
+public class SyrReconciler {
+
+    private final SparseArray<List<Integer>> mChildren = new SparseArray<List<Integer>>();
+
+    /**
+     * remember the child order of a parent, returns the order it had before
+     */
+    List<Integer> record(int parent, List<Integer> children) {
+        if (parent == 0) {
+            return null;
+        }
+        List<Integer> previous = mChildren.get(parent);
+        mChildren.put(parent, children);
+        return previous;
+    }
+
+    void remove(int parent) {
+        mChildren.remove(parent);
+    }
+
+    void clear() {
+        mChildren.clear();
+    }
+
+    int size() {
+        return mChildren.size();
+    }
+
+    /**
+     * Indexes into next of the children to move, from last to first. Each goes
+     * right before next[index + 1], the last child of next to the end.
+     *
+     * @param previous order of the children after the last render
+     * @param next     order the children should have now
+     */
+    static <T> int[] moves(List<T> previous, List<T> next) {
+        HashMap<T, Integer> positions = new HashMap<T, Integer>(previous.size() * 2);
+        for (int i = 0; i < previous.size(); i++) {
+            positions.put(previous.get(i), i);
+        }
+
+        // where each child of next sits now: survivors in their previous order, new children appended
+        int[] current = new int[next.size()];
+        HashSet<T> seen = new HashSet<T>(next.size() * 2);
+        int appended = previous.size();
+        for (int i = 0; i < next.size(); i++) {
+            T key = next.get(i);
+            if (!seen.add(key)) {
+                // duplicate keys can't be matched, leave the order alone
+                return new int[0];
+            }
+            Integer position = positions.get(key);
+            current[i] = position != null ? position : appended++;
+        }
+
+        boolean[] stays = longestIncreasing(current);
+        int count = 0;
+        for (int i = 0; i < stays.length; i++) {
+            if (!stays[i]) {
+                count++;
+            }
+        }
+        int[] moves = new int[count];
+        int m = 0;
+        for (int i = next.size() - 1; i >= 0; i--) {
+            if (!stays[i]) {
+                moves[m++] = i;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * marks one longest strictly increasing subsequence of values
+     */
+    static boolean[] longestIncreasing(int[] values) {
+        int n = values.length;
+        boolean[] marked = new boolean[n];
+        if (n == 0) {
+            return marked;
+        }
+        // tails[k] is the index ending the best subsequence of length k + 1
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        for (int i = tails[length - 1]; i >= 0; i = previous[i]) {
+            marked[i] = true;
+        }
+        return marked;
+    }
+}
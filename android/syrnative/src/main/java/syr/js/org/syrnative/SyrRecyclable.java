@@ -0,0 +1,28 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Implemented by SyrComponents whose views can be kept in the SyrViewPool
+ * once they are unmounted, and rendered again for a new mount of the same
+ * element.
+ */
+public interface SyrRecyclable {
+
+    /**
+     * a view as render() creates it before applying any props or style,
+     * also used to pre-fill the pool while the main thread is idle
+     */
+    View createView(Context context);
+
+    /**
+     * called on the main thread with a detached view, undo whatever a render
+     * could have set that a new render doesn't always set again.
+     * Return false if the view can't be reused.
+     */
+    boolean resetView(View view);
+}
@@ -0,0 +1,19 @@
+package syr.js.org.syrnative;
+
+import android.view.View;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Implemented by SyrComponents that start work for their views which can
+ * outlive a mount, like an image download.
+ */
+public interface SyrReleasable {
+
+    /**
+     * called on the main thread with a view that was unmounted, stop whatever
+     * still runs for it and drop what it holds so the view can be collected
+     */
+    void releaseView(View view);
+}
@@ -53,7 +53,21 @@ public class SyrRootView extends FrameLayout {
         return mProps;
     }
 
+    SyrBridge getBridge() {
+        return mBridge;
+    }
+
+    /**
+     * tear the instance down, on the main thread once the root view is no longer shown
+     */
     public void destroy() {
+        if (mRaster != null) {
+            mRaster.destroy();
+        }
+        if (mBridge != null) {
+            mBridge.destroy();
+        }
+        removeAllViews();
         mContext = null;
         mBridge = null;
         mRaster = null;
@@ -62,13 +76,22 @@ public class SyrRootView extends FrameLayout {
         mLoaded = false;
     }
 
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (mRaster != null) {
+            mRaster.noteInput();
+        }
+        return super.dispatchTouchEvent(event);
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
         mWidth = this.getWidth();
         mHeight = this.getHeight();
 
-        if (mHeight > 0 && mWidth > 0 && !mLoaded) {
+        // a destroyed root view doesn't boot again
+        if (mHeight > 0 && mWidth > 0 && !mLoaded && mBridge != null) {
             mLoaded = true;
             mBridge.bootParams.put("height", Integer.toString(mHeight));
             mBridge.bootParams.put("width", Integer.toString(mWidth));
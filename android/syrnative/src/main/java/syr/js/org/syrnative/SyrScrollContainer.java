@@ -0,0 +1,47 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.widget.ScrollView;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * The ScrollView rendered by SyrScrollview. Reports scroll offset and
+ * viewport size changes to its SyrScrollWindow when the raster windows
+ * its children.
+ */
+public class SyrScrollContainer extends ScrollView {
+
+    private volatile SyrScrollWindow mWindow;
+
+    public SyrScrollContainer(Context context) {
+        super(context);
+    }
+
+    public SyrScrollWindow getWindow() {
+        return mWindow;
+    }
+
+    void setWindow(SyrScrollWindow window) {
+        mWindow = window;
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        SyrScrollWindow window = mWindow;
+        if (window != null) {
+            window.onScroll(t, getHeight());
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        SyrScrollWindow window = mWindow;
+        if (window != null) {
+            window.onScroll(getScrollY(), h);
+        }
+    }
+}
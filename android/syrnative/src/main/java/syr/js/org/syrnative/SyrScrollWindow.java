@@ -0,0 +1,209 @@
+package syr.js.org.syrnative;
+
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * The children of a windowed ScrollView. Every child is kept as a Row, its
+ * node plus its offset and height in the content, and only rows within the
+ * viewport plus an overscan above and below have views. Rows scrolled out of
+ * that range are unmounted (their views go back to the SyrViewPool) and
+ * mounted again from their node when they come back.
+ *
+ * Rows are owned by the raster and only touched under its render lock. The
+ * main thread only reports scroll offsets and asks the raster to refresh
+ * once the viewport gets near the edge of the mounted range.
+ */
+public class SyrScrollWindow {
+
+    static class Row {
+        final String key;
+        Component node;
+        // node of the view the row is mounted as, the first renderable of the node
+        Component viewNode;
+        int top;
+        int height;
+        boolean mounted;
+        // node bound from a list template when mounted, dropped once unmounted
+        boolean bound;
+        // placed right after the previous row, rather than at a top of its own
+        boolean stacked;
+
+        Row(String key) {
+            this.key = key;
+        }
+    }
+
+    private final SyrRaster mRaster;
+    private final SyrScrollContainer mScrollView;
+    private final ViewGroup mContent;
+    private final int mOverscan;
+    private SyrListBinder mBinder;
+
+    // raster thread
+    private ArrayList<Row> mRows = new ArrayList<Row>();
+    private HashMap<String, Row> mRowsByKey = new HashMap<String, Row>();
+    private boolean mDetached;
+
+    // written by the main thread
+    private volatile int mScrollY;
+    private volatile int mViewportHeight;
+
+    // written by the raster thread, the content range that has mounted rows
+    private volatile int mContentHeight;
+    private volatile int mMountedTop;
+    private volatile int mMountedBottom = -1;
+
+    private final AtomicBoolean mRefreshPending = new AtomicBoolean();
+
+    /**
+     * @param viewportHeight height of the scrollview until it has been laid out
+     * @param overscan pixels mounted above and below the viewport, -1 for one viewport
+     */
+    SyrScrollWindow(SyrRaster raster, SyrScrollContainer scrollView, ViewGroup content,
+                    int viewportHeight, int overscan) {
+        mRaster = raster;
+        mScrollView = scrollView;
+        mContent = content;
+        mViewportHeight = viewportHeight;
+        mOverscan = overscan;
+    }
+
+    public SyrScrollContainer getScrollView() {
+        return mScrollView;
+    }
+
+    public ViewGroup getContent() {
+        return mContent;
+    }
+
+    /**
+     * rows of a ListView, null when the rows are the scrollview's children
+     */
+    SyrListBinder getBinder() {
+        return mBinder;
+    }
+
+    void setBinder(SyrListBinder binder) {
+        mBinder = binder;
+    }
+
+    public int getContentHeight() {
+        return mContentHeight;
+    }
+
+    /**
+     * rows with a view right now
+     */
+    public int getMountedCount() {
+        int count = 0;
+        for (int i = 0; i < mRows.size(); i++) {
+            if (mRows.get(i).mounted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getRowCount() {
+        return mRows.size();
+    }
+
+    ArrayList<Row> getRows() {
+        return mRows;
+    }
+
+    Row getRow(String key) {
+        return mRowsByKey.get(key);
+    }
+
+    /**
+     * replace the rows, laid out by the raster in the order js sent them
+     */
+    void setRows(ArrayList<Row> rows) {
+        HashMap<String, Row> byKey = new HashMap<String, Row>(rows.size() * 2);
+        int height = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            byKey.put(row.key, row);
+            height = Math.max(height, row.top + row.height);
+        }
+        mRows = rows;
+        mRowsByKey = byKey;
+        mContentHeight = height;
+    }
+
+    boolean isDetached() {
+        return mDetached;
+    }
+
+    void detach() {
+        mDetached = true;
+        mScrollView.setWindow(null);
+    }
+
+    int getOverscan() {
+        return mOverscan >= 0 ? mOverscan : mViewportHeight;
+    }
+
+    /**
+     * top of the range that should have views, the scroll offset less the overscan
+     */
+    int getWindowTop() {
+        return Math.max(0, mScrollY - getOverscan());
+    }
+
+    int getWindowBottom() {
+        return mScrollY + mViewportHeight + getOverscan();
+    }
+
+    static boolean intersects(Row row, int top, int bottom) {
+        return row.top <= bottom && row.top + row.height >= top;
+    }
+
+    /**
+     * called by the raster after it mounted the rows between top and bottom
+     */
+    void setMountedRange(int top, int bottom) {
+        mMountedTop = top;
+        mMountedBottom = Math.min(bottom, mContentHeight);
+    }
+
+    /**
+     * main thread, from the scrollview
+     */
+    void onScroll(int scrollY, int viewportHeight) {
+        mScrollY = scrollY;
+        if (viewportHeight > 0) {
+            mViewportHeight = viewportHeight;
+        }
+
+        // refresh before the viewport reaches the edge of what is mounted,
+        // half of the overscan is left as a margin
+        int margin = getOverscan() / 2;
+        int top = Math.max(0, scrollY - margin);
+        int bottom = Math.min(mContentHeight, scrollY + mViewportHeight + margin);
+        if (top < mMountedTop || bottom > mMountedBottom) {
+            requestRefresh();
+        }
+    }
+
+    void requestRefresh() {
+        if (mRefreshPending.compareAndSet(false, true)) {
+            mRaster.refreshWindow(this);
+        }
+    }
+
+    /**
+     * the raster is about to refresh, scrolls from now on need another refresh
+     */
+    void onRefresh() {
+        mRefreshPending.set(false);
+    }
+}
@@ -4,10 +4,8 @@ import android.content.Context;
 import android.view.View;
 import android.widget.LinearLayout;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
 
 
 /**
@@ -18,6 +16,11 @@ public class SyrStackview implements SyrBaseModule, SyrComponent {
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
         LinearLayout linearLayout;
         if (instance != null) {
             linearLayout = (LinearLayout) instance;
@@ -25,90 +28,54 @@ public class SyrStackview implements SyrBaseModule, SyrComponent {
             linearLayout = new LinearLayout(context);
         }
 
-        JSONObject style = null;
+        SyrStyle style = component.getStyle();
+        JSONObject props = component.getProps();
 
-        try {
-            JSONObject jsonInstance = component.getJSONObject("instance");
-            JSONObject props = jsonInstance.getJSONObject("props");
+        // set linearLayout styles
+        if (style != null) {
 
-            // set linearLayout styles
-            if (jsonInstance.has("style")) {
+            if (style.has(SyrStyle.LEFT)) {
+                linearLayout.setX(style.left);
+            }
 
-                style = jsonInstance.getJSONObject("style");
-//                linearLayout.setLayoutParams(SyrStyler.styleLayout(style));
-                SyrStyler.styleView(linearLayout, style);
+            if (style.has(SyrStyle.TOP)) {
+                linearLayout.setY(style.top);
+            }
 
-                if (style.has("left")) {
-                    linearLayout.setX(style.getInt("left"));
-                }
+            if (instance == null) {
+                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT);
 
-                if (style.has("top")) {
-                    linearLayout.setY(style.getInt("top"));
+                if (style.has(SyrStyle.WIDTH)) {
+                    params.width = style.width;
                 }
 
-                if (instance == null) {
-                    LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT);
-                    Integer left = 0;
-                    Integer top = 0;
-
-                    if (style.has("width")) {
-
-                        params.width = style.getInt("width");
-
-                    }
-
-                    if (style.has("height")) {
-                        Object height = style.get("height");
-                        if (height instanceof Integer) {
-                            params.height = (Integer) height;
-                        }
-                    }
-
-                    if (style.has("left")) {
-                        linearLayout.setX(BigDecimal.valueOf(style.getDouble("left")).floatValue());
-                    }
-
-                    if (style.has("top")) {
-                        linearLayout.setY(BigDecimal.valueOf(style.getDouble("top")).floatValue());
-                    }
-
-                    linearLayout.setLayoutParams(params);
-                } else {
-                    if (style.has("width")) {
-
-                        linearLayout.getLayoutParams().width = style.getInt("width");
-
-                    }
-
-                    if (style.has("height")) {
-                        Object height = style.get("height");
-                        if (height instanceof Integer) {
-                            linearLayout.getLayoutParams().height = (Integer) height;
-                        }
-                    }
-                    linearLayout.setLayoutParams(linearLayout.getLayoutParams());
+                if (style.has(SyrStyle.HEIGHT)) {
+                    params.height = style.height;
                 }
 
-                SyrStyler.styleView(linearLayout, style);
-
-            }
-
-            if (props.has("axis") && props.getString("axis").contains("vertical")) {
-                linearLayout.setOrientation(LinearLayout.VERTICAL);
+                linearLayout.setLayoutParams(params);
             } else {
-                linearLayout.setOrientation(LinearLayout.HORIZONTAL);
-            }
+                if (style.has(SyrStyle.WIDTH)) {
+                    linearLayout.getLayoutParams().width = style.width;
+                }
 
-            if (jsonInstance.has("children")) {
-                linearLayout.setWeightSum(jsonInstance.getJSONArray("children").length());
+                if (style.has(SyrStyle.HEIGHT)) {
+                    linearLayout.getLayoutParams().height = style.height;
+                }
+                linearLayout.setLayoutParams(linearLayout.getLayoutParams());
             }
 
-            //@TODO recalculate the height based on the child elements. THen also pass the new height to the scrollView
+            SyrStyler.styleView(linearLayout, style);
 
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
 
+        if (props != null && props.optString("axis").contains("vertical")) {
+            linearLayout.setOrientation(LinearLayout.VERTICAL);
+        } else {
+            linearLayout.setOrientation(LinearLayout.HORIZONTAL);
+        }
+
+        //@TODO recalculate the height based on the child elements. THen also pass the new height to the scrollView
 
         return linearLayout;
     }
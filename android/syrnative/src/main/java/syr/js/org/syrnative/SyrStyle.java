@@ -0,0 +1,563 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Style of a render node, resolved once when the AST is decoded.
+ *
+ * Components read the primitive fields directly, a bit in flags tells
+ * whether the style set that property at all. Colors are resolved to
+ * ARGB ints up front. Keys the struct doesn't know about are kept in
+ * extras so nothing sent from js is lost.
+ */
+public class SyrStyle {
+
+    public static final int WIDTH = 1;
+    public static final int HEIGHT = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int TOP = 1 << 3;
+    public static final int OPACITY = 1 << 4;
+    public static final int BACKGROUND_COLOR = 1 << 5;
+    public static final int BORDER_RADIUS = 1 << 6;
+    public static final int BORDER_COLOR = 1 << 7;
+    public static final int BORDER_WIDTH = 1 << 8;
+    public static final int BORDER_SIDE_WIDTH = 1 << 9;
+    public static final int COLOR = 1 << 10;
+    public static final int FONT_SIZE = 1 << 11;
+    public static final int FONT_WEIGHT = 1 << 12;
+    public static final int TEXT_ALIGN = 1 << 13;
+    public static final int MAX_LINES = 1 << 14;
+    public static final int OVERFLOW = 1 << 15;
+    public static final int EXTRAS = 1 << 16;
+    // any flexbox property or percentage size, the node is laid out by SyrLayoutTree
+    public static final int FLEX = 1 << 17;
+
+    // groups components check when deciding what to re-apply
+    public static final int SIZE = WIDTH | HEIGHT;
+    public static final int BACKGROUND = BACKGROUND_COLOR | BORDER_RADIUS | BORDER_COLOR | BORDER_WIDTH | BORDER_SIDE_WIDTH | EXTRAS;
+    public static final int ALL = ~0;
+
+    public static final int TEXT_ALIGN_LEFT = 0;
+    public static final int TEXT_ALIGN_CENTER = 1;
+    public static final int TEXT_ALIGN_RIGHT = 2;
+
+    // css values of the flexbox keywords, indexed by the SyrLayoutNode constants
+    static final String[] FLEX_DIRECTIONS = {"column", "row", "column-reverse", "row-reverse"};
+    static final String[] FLEX_ALIGNS = {"auto", "flex-start", "center", "flex-end", "stretch",
+            "space-between", "space-around", "space-evenly"};
+    static final String[] EDGES = {"Left", "Top", "Right", "Bottom"};
+
+    public int flags;
+
+    public int width;
+    public int height;
+    public float left;
+    public float top;
+    public float opacity;
+    public int backgroundColor;
+    public float borderRadius;
+    public int borderColor;
+    public int borderWidth;
+    public int color;
+    public int fontSize;
+    public boolean bold;
+    public int textAlign;
+    public int maxLines;
+    public boolean overflowHidden;
+
+    // flexbox, see SyrLayoutNode. NaN when not set
+    public int flexDirection = SyrLayoutNode.COLUMN;
+    public int justifyContent = SyrLayoutNode.FLEX_START;
+    public int alignItems = SyrLayoutNode.STRETCH;
+    public int alignSelf = SyrLayoutNode.AUTO;
+    public float flex = Float.NaN;
+    public float flexGrow = Float.NaN;
+    public float flexShrink = Float.NaN;
+    public float flexBasis = Float.NaN;
+    public boolean absolute;
+    public float widthPercent = Float.NaN;
+    public float heightPercent = Float.NaN;
+    public float leftPercent = Float.NaN;
+    public float topPercent = Float.NaN;
+    // left, top, right, bottom, only allocated when set, NaN for an edge that isn't
+    public float[] padding;
+    public float[] margin;
+
+    // style keys without a field, only allocated when one shows up
+    public JSONObject extras;
+
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    void put(String name, double value) {
+        switch (name) {
+            case "width":
+                // sizes are whole pixels, 99.9 is 100 rather than 99
+                width = (int) Math.round(value);
+                flags |= WIDTH;
+                break;
+            case "height":
+                height = (int) Math.round(value);
+                flags |= HEIGHT;
+                break;
+            case "left":
+                left = (float) value;
+                flags |= LEFT;
+                break;
+            case "top":
+                top = (float) value;
+                flags |= TOP;
+                break;
+            case "opacity":
+                opacity = (float) value;
+                flags |= OPACITY;
+                break;
+            case "borderRadius":
+                borderRadius = (float) value;
+                flags |= BORDER_RADIUS;
+                break;
+            case "borderWidth":
+                borderWidth = (int) value;
+                flags |= BORDER_WIDTH;
+                break;
+            case "borderLeftWidth":
+            case "borderRightWidth":
+                // only the presence of a side border is used, the width stays in extras
+                flags |= BORDER_SIDE_WIDTH;
+                putExtra(name, value);
+                break;
+            case "fontSize":
+                fontSize = (int) value;
+                flags |= FONT_SIZE;
+                break;
+            case "maxLines":
+                maxLines = (int) value;
+                flags |= MAX_LINES;
+                break;
+            case "flex":
+                flex = (float) value;
+                flags |= FLEX;
+                break;
+            case "flexGrow":
+                flexGrow = (float) value;
+                flags |= FLEX;
+                break;
+            case "flexShrink":
+                flexShrink = (float) value;
+                flags |= FLEX;
+                break;
+            case "flexBasis":
+                flexBasis = (float) value;
+                flags |= FLEX;
+                break;
+            default:
+                if (name.startsWith("padding")) {
+                    if (!putEdges(true, name.substring(7), (float) value)) {
+                        putExtra(name, value);
+                    }
+                } else if (name.startsWith("margin")) {
+                    if (!putEdges(false, name.substring(6), (float) value)) {
+                        putExtra(name, value);
+                    }
+                } else {
+                    putExtra(name, value);
+                }
+        }
+    }
+
+    // padding and margin, all edges, Horizontal, Vertical or one edge. false for an edge it doesn't know
+    private boolean putEdges(boolean isPadding, String edge, float value) {
+        int first;
+        int step;
+        if (edge.isEmpty()) {
+            first = 0;
+            step = 1;
+        } else if (edge.equals("Horizontal")) {
+            first = 0;
+            step = 2;
+        } else if (edge.equals("Vertical")) {
+            first = 1;
+            step = 2;
+        } else {
+            first = indexOf(EDGES, edge);
+            if (first < 0) {
+                return false;
+            }
+            step = 4;
+        }
+
+        float[] edges = isPadding ? padding : margin;
+        if (edges == null) {
+            edges = new float[]{Float.NaN, Float.NaN, Float.NaN, Float.NaN};
+            if (isPadding) {
+                padding = edges;
+            } else {
+                margin = edges;
+            }
+        }
+        for (int i = first; i < edges.length; i += step) {
+            edges[i] = value;
+        }
+        flags |= FLEX;
+        return true;
+    }
+
+    /**
+     * "50%" sizes and offsets, numbers sent as strings
+     */
+    private boolean putLength(String name, String value) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.endsWith("%")) {
+                float percent = Float.parseFloat(trimmed.substring(0, trimmed.length() - 1).trim());
+                switch (name) {
+                    case "width":
+                        widthPercent = percent;
+                        break;
+                    case "height":
+                        heightPercent = percent;
+                        break;
+                    case "left":
+                        leftPercent = percent;
+                        break;
+                    default:
+                        topPercent = percent;
+                }
+                flags |= FLEX;
+            } else {
+                put(name, Double.parseDouble(trimmed));
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void put(String name, String value) {
+        if (SyrListBinder.isBinding(value)) {
+            // a list row template, stays as written until a row is bound
+            putExtra(name, value);
+            return;
+        }
+        switch (name) {
+            case "backgroundColor":
+                try {
+                    backgroundColor = SyrColor.parse(value);
+                    flags |= BACKGROUND_COLOR;
+                } catch (IllegalArgumentException e) {
+                    e.printStackTrace();
+                }
+                break;
+            case "borderColor":
+                try {
+                    borderColor = SyrColor.parse(value);
+                    flags |= BORDER_COLOR;
+                } catch (IllegalArgumentException e) {
+                    e.printStackTrace();
+                }
+                break;
+            case "color":
+                try {
+                    color = SyrColor.parse(value);
+                    flags |= COLOR;
+                } catch (IllegalArgumentException e) {
+                    e.printStackTrace();
+                }
+                break;
+            case "fontWeight":
+                bold = value.contains("bold");
+                flags |= FONT_WEIGHT;
+                break;
+            case "textAlign":
+                if (value.contains("center")) {
+                    textAlign = TEXT_ALIGN_CENTER;
+                } else if (value.contains("right")) {
+                    textAlign = TEXT_ALIGN_RIGHT;
+                } else {
+                    textAlign = TEXT_ALIGN_LEFT;
+                }
+                flags |= TEXT_ALIGN;
+                break;
+            case "overflow":
+                overflowHidden = value.contains("hidden");
+                flags |= OVERFLOW;
+                break;
+            case "width":
+            case "height":
+            case "left":
+            case "top":
+                if (!putLength(name, value)) {
+                    putExtra(name, value);
+                }
+                break;
+            case "flexDirection":
+                flexDirection = Math.max(0, indexOf(FLEX_DIRECTIONS, value));
+                flags |= FLEX;
+                break;
+            case "justifyContent":
+                justifyContent = Math.max(SyrLayoutNode.FLEX_START, indexOf(FLEX_ALIGNS, value));
+                flags |= FLEX;
+                break;
+            case "alignItems":
+                alignItems = Math.max(SyrLayoutNode.FLEX_START, indexOf(FLEX_ALIGNS, value));
+                flags |= FLEX;
+                break;
+            case "alignSelf":
+                alignSelf = Math.max(SyrLayoutNode.AUTO, indexOf(FLEX_ALIGNS, value));
+                flags |= FLEX;
+                break;
+            case "position":
+                absolute = value.equals("absolute");
+                flags |= FLEX;
+                break;
+            default:
+                putExtra(name, value);
+        }
+    }
+
+    void putExtra(String name, Object value) {
+        try {
+            if (extras == null) {
+                extras = new JSONObject();
+            }
+            extras.put(name, value);
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * flags of every property that was added, removed or changed since the previous style
+     */
+    public int diff(SyrStyle previous) {
+        if (previous == null) {
+            return ALL;
+        }
+
+        // set in only one of the two
+        int changes = flags ^ previous.flags;
+        int both = flags & previous.flags;
+        if ((both & WIDTH) != 0 && width != previous.width) {
+            changes |= WIDTH;
+        }
+        if ((both & HEIGHT) != 0 && height != previous.height) {
+            changes |= HEIGHT;
+        }
+        if ((both & LEFT) != 0 && left != previous.left) {
+            changes |= LEFT;
+        }
+        if ((both & TOP) != 0 && top != previous.top) {
+            changes |= TOP;
+        }
+        if ((both & OPACITY) != 0 && opacity != previous.opacity) {
+            changes |= OPACITY;
+        }
+        if ((both & BACKGROUND_COLOR) != 0 && backgroundColor != previous.backgroundColor) {
+            changes |= BACKGROUND_COLOR;
+        }
+        if ((both & BORDER_RADIUS) != 0 && borderRadius != previous.borderRadius) {
+            changes |= BORDER_RADIUS;
+        }
+        if ((both & BORDER_COLOR) != 0 && borderColor != previous.borderColor) {
+            changes |= BORDER_COLOR;
+        }
+        if ((both & BORDER_WIDTH) != 0 && borderWidth != previous.borderWidth) {
+            changes |= BORDER_WIDTH;
+        }
+        if ((both & COLOR) != 0 && color != previous.color) {
+            changes |= COLOR;
+        }
+        if ((both & FONT_SIZE) != 0 && fontSize != previous.fontSize) {
+            changes |= FONT_SIZE;
+        }
+        if ((both & FONT_WEIGHT) != 0 && bold != previous.bold) {
+            changes |= FONT_WEIGHT;
+        }
+        if ((both & TEXT_ALIGN) != 0 && textAlign != previous.textAlign) {
+            changes |= TEXT_ALIGN;
+        }
+        if ((both & MAX_LINES) != 0 && maxLines != previous.maxLines) {
+            changes |= MAX_LINES;
+        }
+        if ((both & OVERFLOW) != 0 && overflowHidden != previous.overflowHidden) {
+            changes |= OVERFLOW;
+        }
+        if ((both & FLEX) != 0 && !sameLayout(previous)) {
+            changes |= FLEX;
+        }
+        // side border widths live in extras too
+        if (!Component.sameJSON(extras, previous.extras)) {
+            changes |= EXTRAS | BORDER_SIDE_WIDTH;
+        }
+        return changes;
+    }
+
+    private boolean sameLayout(SyrStyle previous) {
+        return flexDirection == previous.flexDirection
+                && justifyContent == previous.justifyContent
+                && alignItems == previous.alignItems
+                && alignSelf == previous.alignSelf
+                && sameFloat(flex, previous.flex)
+                && sameFloat(flexGrow, previous.flexGrow)
+                && sameFloat(flexShrink, previous.flexShrink)
+                && sameFloat(flexBasis, previous.flexBasis)
+                && absolute == previous.absolute
+                && sameFloat(widthPercent, previous.widthPercent)
+                && sameFloat(heightPercent, previous.heightPercent)
+                && sameFloat(leftPercent, previous.leftPercent)
+                && sameFloat(topPercent, previous.topPercent)
+                && java.util.Arrays.equals(padding, previous.padding)
+                && java.util.Arrays.equals(margin, previous.margin);
+    }
+
+    private static boolean sameFloat(float a, float b) {
+        return a == b || (Float.isNaN(a) && Float.isNaN(b));
+    }
+
+    /**
+     * Style from a JSONObject, for components and callers still working with json.
+     */
+    public static SyrStyle fromJSON(JSONObject json) {
+        SyrStyle style = new SyrStyle();
+        if (json == null) {
+            return style;
+        }
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = json.opt(key);
+            if (value instanceof Number) {
+                style.put(key, ((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                style.put(key, (String) value);
+            } else if (value != null) {
+                style.putExtra(key, value);
+            }
+        }
+        return style;
+    }
+
+    /**
+     * JSON form of this style, for components that still render from a JSONObject.
+     */
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        try {
+            if (extras != null) {
+                Iterator<String> keys = extras.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    json.put(key, extras.get(key));
+                }
+            }
+            if (has(WIDTH)) {
+                json.put("width", width);
+            }
+            if (has(HEIGHT)) {
+                json.put("height", height);
+            }
+            if (has(LEFT)) {
+                json.put("left", (double) left);
+            }
+            if (has(TOP)) {
+                json.put("top", (double) top);
+            }
+            if (has(OPACITY)) {
+                json.put("opacity", (double) opacity);
+            }
+            if (has(BACKGROUND_COLOR)) {
+                json.put("backgroundColor", toColorString(backgroundColor));
+            }
+            if (has(BORDER_RADIUS)) {
+                json.put("borderRadius", (double) borderRadius);
+            }
+            if (has(BORDER_COLOR)) {
+                json.put("borderColor", toColorString(borderColor));
+            }
+            if (has(BORDER_WIDTH)) {
+                json.put("borderWidth", borderWidth);
+            }
+            if (has(COLOR)) {
+                json.put("color", toColorString(color));
+            }
+            if (has(FONT_SIZE)) {
+                json.put("fontSize", fontSize);
+            }
+            if (has(FONT_WEIGHT)) {
+                json.put("fontWeight", bold ? "bold" : "normal");
+            }
+            if (has(TEXT_ALIGN)) {
+                json.put("textAlign", textAlign == TEXT_ALIGN_CENTER ? "center" : textAlign == TEXT_ALIGN_RIGHT ? "right" : "left");
+            }
+            if (has(MAX_LINES)) {
+                json.put("maxLines", maxLines);
+            }
+            if (has(OVERFLOW)) {
+                json.put("overflow", overflowHidden ? "hidden" : "visible");
+            }
+            if (has(FLEX)) {
+                putLayout(json);
+            }
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+        return json;
+    }
+
+    private void putLayout(JSONObject json) throws JSONException {
+        json.put("flexDirection", FLEX_DIRECTIONS[flexDirection]);
+        json.put("justifyContent", FLEX_ALIGNS[justifyContent]);
+        json.put("alignItems", FLEX_ALIGNS[alignItems]);
+        json.put("alignSelf", FLEX_ALIGNS[alignSelf]);
+        json.put("position", absolute ? "absolute" : "relative");
+        putNumber(json, "flex", flex);
+        putNumber(json, "flexGrow", flexGrow);
+        putNumber(json, "flexShrink", flexShrink);
+        putNumber(json, "flexBasis", flexBasis);
+        putPercent(json, "width", widthPercent);
+        putPercent(json, "height", heightPercent);
+        putPercent(json, "left", leftPercent);
+        putPercent(json, "top", topPercent);
+        for (int i = 0; i < EDGES.length; i++) {
+            if (padding != null) {
+                putNumber(json, "padding" + EDGES[i], padding[i]);
+            }
+            if (margin != null) {
+                putNumber(json, "margin" + EDGES[i], margin[i]);
+            }
+        }
+    }
+
+    private static void putNumber(JSONObject json, String name, float value) throws JSONException {
+        if (!Float.isNaN(value)) {
+            json.put(name, (double) value);
+        }
+    }
+
+    private static void putPercent(JSONObject json, String name, float value) throws JSONException {
+        if (!Float.isNaN(value)) {
+            json.put(name, value + "%");
+        }
+    }
+
+    // css order with alpha last, as SyrColor reads it back
+    private static String toColorString(int color) {
+        return String.format("#%06x%02x", color & 0xffffff, color >>> 24);
+    }
+}
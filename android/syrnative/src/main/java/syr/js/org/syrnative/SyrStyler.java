@@ -3,119 +3,84 @@ package syr.js.org.syrnative;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
 import android.graphics.drawable.LayerDrawable;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.RelativeLayout;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
-
 /**
  * Created by dereanderson on 1/9/18.
  */
 
 public class SyrStyler {
 
+    /**
+     * resolved by SyrColor, anything unknown falls back to white
+     */
     static public int getColor(String colorString) {
-        if (colorString.contains("rgb")) {
-            if (colorString.contains("rgba")) {
-                colorString = colorString.replace("rgba(", "");
-            }
-            colorString = colorString.replace(("rgb"), "");
-            colorString = colorString.replace(")", "");
-
-            String[] colors = colorString.split(",");
-
-            int red = Integer.parseInt(colors[0]);
-            int blue = Integer.parseInt(colors[1]);
-            int green = Integer.parseInt(colors[2]);
-
-            double alphaD = 0.00;
-            if (colors[3] != null) {
-                alphaD = Double.parseDouble(colors[3]);
-                alphaD = 255 / alphaD;
-            }
-
-            int alpha = (int) alphaD;
-
-            return Color.argb(175, red, blue, green);
-        } else if (colorString.contains("#")) {
-            return Color.parseColor(colorString);
-        }
-        return Color.parseColor("#ffffff");
+        return SyrColor.parse(colorString, Color.WHITE);
     }
 
-    static public ViewGroup.LayoutParams styleLayout(JSONObject style) {
+    static public ViewGroup.LayoutParams styleLayout(SyrStyle style) {
         RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(0, 0);
-        try {
-
-
-            if (style.has("width")) {
-
-                params.width = style.getInt("width");
-
-
-            }
 
-            if (style.has("height")) {
-
-                params.height = style.getInt("height");
-            }
+        if (style.has(SyrStyle.WIDTH)) {
+            params.width = style.width;
+        }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+        if (style.has(SyrStyle.HEIGHT)) {
+            params.height = style.height;
         }
+
         return params;
     }
 
-    static public void styleView(View component, JSONObject style) {
-
-
-        try {
-
-            GradientDrawable gd = new GradientDrawable();
-
-            Drawable[] layers = {gd};
-
-            LayerDrawable layerDrawable = new LayerDrawable(layers);
-            if (style.has("backgroundColor")) {
-                String backgroundColor = style.getString("backgroundColor");
-                gd = new GradientDrawable(
-                        GradientDrawable.Orientation.TOP_BOTTOM,
-                        new int[]{getColor(backgroundColor), getColor(backgroundColor)});
-            }
-
-            if (style.has("borderRadius")) {
-                float borderRadius = BigDecimal.valueOf(style.getDouble("borderRadius")).floatValue();
-                gd.setCornerRadius(borderRadius);
-            }
-
-            if (style.has("borderColor") && style.has("borderWidth")) {
-                // borders on views
-                gd.setStroke(style.getInt("borderWidth"), getColor(style.getString("borderColor")));
-
-            } else if (style.has("borderColor")) {
+    static public ViewGroup.LayoutParams styleLayout(JSONObject style) {
+        return styleLayout(SyrStyle.fromJSON(style));
+    }
 
-                gd.setStroke(3, getColor(style.getString("borderColor")));
-            }
+    /**
+     * sizes a new view, or updates the size of a view that has already been laid out.
+     * setLayoutParams requests a layout, so it is skipped when the size is unchanged
+     */
+    static public void applyLayout(View view, SyrStyle style) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            view.setLayoutParams(styleLayout(style));
+            return;
+        }
 
-            if (style.has("borderRightWidth") || style.has("borderLeftWidth")) {
+        boolean changed = false;
+        if (style.has(SyrStyle.WIDTH) && params.width != style.width) {
+            params.width = style.width;
+            changed = true;
+        }
 
-                layerDrawable.setLayerInset(0, 6, -3, -3, -3);
+        if (style.has(SyrStyle.HEIGHT) && params.height != style.height) {
+            params.height = style.height;
+            changed = true;
+        }
 
-                component.setBackground(layerDrawable);
-            } else {
-                component.setBackground(gd);
-            }
+        if (changed) {
+            view.setLayoutParams(params);
+        }
+    }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+    /**
+     * backgrounds come from SyrDrawableCache, views styled alike share one drawable state
+     */
+    static public void styleView(View component, SyrStyle style) {
+        Drawable current = component.getBackground();
+        Drawable background = SyrDrawableCache.getInstance().get(style, current);
+        if (background != current) {
+            component.setBackground(background);
         }
+    }
 
+    static public void styleView(View component, JSONObject style) {
+        styleView(component, SyrStyle.fromJSON(style));
     }
 
     //
@@ -1,6 +1,7 @@
 package syr.js.org.syrnative;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.graphics.Typeface;
 import android.text.TextUtils;
@@ -9,122 +10,158 @@ import android.view.Gravity;
 import android.view.View;
 import android.widget.TextView;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
-
 /**
  * Created by dereanderson on 1/9/18.
  */
 
-public class SyrText implements SyrBaseModule, SyrComponent {
+public class SyrText implements SyrBaseModule, SyrComponent, SyrRecyclable {
+
+    // what a new TextView looks like, restored on pooled views. Captured by
+    // createView on the raster or the main thread and read by resetView on
+    // main, so it is published whole through the volatile field
+    private volatile Defaults mDefaults;
+
+    private static final class Defaults {
+        final float textSize;
+        final Typeface typeface;
+        final ColorStateList textColors;
+        final int gravity;
+
+        Defaults(TextView textView) {
+            textSize = textView.getTextSize();
+            typeface = textView.getTypeface();
+            textColors = textView.getTextColors();
+            gravity = textView.getGravity();
+        }
+    }
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
 
         TextView textView;
         if (instance != null) {
             textView = (TextView) instance;
         } else {
-            textView = new TextView(context);
+            textView = (TextView) createView(context);
         }
 
         String value = "";
-        JSONObject style = null;
+        SyrStyle style = component.getStyle();
 
-        try {
-            JSONObject jsonInstance = component.getJSONObject("instance");
-            JSONObject props = jsonInstance.getJSONObject("props");
+        // only what changed since the last render is applied to an existing view
+        if (style != null) {
 
-            if (jsonInstance.has("style")) {
-                style = jsonInstance.getJSONObject("style");
-
-                if (style.has("left")) {
-                    textView.setX(BigDecimal.valueOf(style.getDouble("left")).floatValue());
-                }
-
-                if (style.has("top")) {
-                    textView.setY(BigDecimal.valueOf(style.getDouble("top")).floatValue());
-                }
-
-                if (instance == null) {
-                    textView.setLayoutParams(SyrStyler.styleLayout(style));
-
-                } else {
-
-                    if (style.has("width")) {
-
-                        textView.getLayoutParams().width = style.getInt("width");
-
-                    }
-
-                    if (style.has("height")) {
+            if (component.styleChanged(SyrStyle.LEFT) && style.has(SyrStyle.LEFT)) {
+                textView.setX(style.left);
+            }
 
-                        textView.getLayoutParams().height = style.getInt("height");
-                    }
-                    textView.setLayoutParams(textView.getLayoutParams());
+            if (component.styleChanged(SyrStyle.TOP) && style.has(SyrStyle.TOP)) {
+                textView.setY(style.top);
+            }
 
-                }
+            if (component.styleChanged(SyrStyle.SIZE)) {
+                SyrStyler.applyLayout(textView, style);
+            }
 
-                if (style.has("color")) {
-                    textView.setTextColor(Color.parseColor(style.getString("color")));
+            if (component.styleChanged(SyrStyle.COLOR)) {
+                if (style.has(SyrStyle.COLOR)) {
+                    textView.setTextColor(style.color);
                 } else {
                     textView.setTextColor(Color.BLACK);
                 }
+            }
 
-                if (style.has("fontSize")) {
-                    textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.getInt("fontSize"));
-                }
+            if (component.styleChanged(SyrStyle.FONT_SIZE) && style.has(SyrStyle.FONT_SIZE)) {
+                textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.fontSize);
+            }
 
-                if (style.has("fontWeight")) {
-                    if (style.getString("fontWeight").contains("bold")) {
-                        textView.setTypeface(null, Typeface.BOLD);
-                    }
+            if (component.styleChanged(SyrStyle.FONT_WEIGHT) && style.has(SyrStyle.FONT_WEIGHT)) {
+                if (style.bold) {
+                    textView.setTypeface(null, Typeface.BOLD);
                 }
+            }
 
-                if (style.has("textAlign")) {
-                    if (style.getString("textAlign").contains("center")) {
-                        textView.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
-                        textView.setGravity(Gravity.CENTER_HORIZONTAL);
-                    } else if (style.getString("textAlign").contains("right")) {
-                        textView.setTextAlignment(View.TEXT_ALIGNMENT_TEXT_END);
-                        textView.setGravity(Gravity.END);
-                    } else {
-                        textView.setTextAlignment(View.TEXT_ALIGNMENT_TEXT_START);
-                        textView.setGravity(Gravity.START);
-                    }
+            if (component.styleChanged(SyrStyle.TEXT_ALIGN) && style.has(SyrStyle.TEXT_ALIGN)) {
+                if (style.textAlign == SyrStyle.TEXT_ALIGN_CENTER) {
+                    textView.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
+                    textView.setGravity(Gravity.CENTER_HORIZONTAL);
+                } else if (style.textAlign == SyrStyle.TEXT_ALIGN_RIGHT) {
+                    textView.setTextAlignment(View.TEXT_ALIGNMENT_TEXT_END);
+                    textView.setGravity(Gravity.END);
+                } else {
+                    textView.setTextAlignment(View.TEXT_ALIGNMENT_TEXT_START);
+                    textView.setGravity(Gravity.START);
                 }
             }
+        }
 
-            //@TODO check with this. Looks like a default behaviour in iOS
+        //@TODO check with this. Looks like a default behaviour in iOS
 
+        if (component.styleChanged(SyrStyle.TEXT_ALIGN)) {
             textView.setGravity(Gravity.CENTER_VERTICAL);
+        }
 
-            if (style.has("maxLines")) {
-                textView.setLines(style.getInt("maxLines"));
+        if (component.styleChanged(SyrStyle.MAX_LINES)) {
+            if (style != null && style.has(SyrStyle.MAX_LINES)) {
+                textView.setLines(style.maxLines);
             } else {
                 //truncating the textView, so the it does not break the content
                 textView.setEllipsize(TextUtils.TruncateAt.END);
                 textView.setSingleLine(true);
             }
-            if(jsonInstance.has("value")) {
-                value = jsonInstance.getString("value");
+        }
+
+        if (component.valueChanged()) {
+            if (component.getValue() != null) {
+                value = component.getValue();
             } else {
                 value = "";
             }
-            if (textView.getText().toString() != value) {
+            // setText always relayouts, skip it when the text is the same
+            if (!TextUtils.equals(textView.getText(), value)) {
                 textView.setText(value);
             }
-
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
 
+        return textView;
+    }
 
+    @Override
+    public View createView(Context context) {
+        TextView textView = new TextView(context);
+        if (mDefaults == null) {
+            mDefaults = new Defaults(textView);
+        }
         return textView;
     }
 
+    @Override
+    public boolean resetView(View view) {
+        Defaults defaults = mDefaults;
+        if (defaults == null) {
+            return false;
+        }
+        TextView textView = (TextView) view;
+        textView.setText("");
+        textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, defaults.textSize);
+        textView.setTypeface(defaults.typeface);
+        textView.setTextColor(defaults.textColors);
+        textView.setTextAlignment(View.TEXT_ALIGNMENT_GRAVITY);
+        textView.setGravity(defaults.gravity);
+        textView.setSingleLine(false);
+        textView.setEllipsize(null);
+        textView.setMinLines(0);
+        textView.setMaxLines(Integer.MAX_VALUE);
+        return true;
+    }
+
     @Override
     public String getName() {
         return "Text";
@@ -10,7 +10,6 @@ import android.os.Vibrator;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
 
 import static android.content.Context.VIBRATOR_SERVICE;
 
@@ -23,6 +22,11 @@ public class SyrTouchableOpacity implements SyrBaseModule, SyrComponent {
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
 
         RelativeLayout layout;
         final Vibrator myVib = (Vibrator) context.getSystemService(VIBRATOR_SERVICE);
@@ -32,84 +36,63 @@ public class SyrTouchableOpacity implements SyrBaseModule, SyrComponent {
         } else {
             layout = new RelativeLayout(context);
         }
-        JSONObject style = null;
 
         layout.setClipChildren(false);
-        try {
-            final String uuid = component.getString("uuid");
-            style = component.getJSONObject("instance").getJSONObject("style");
-
-            if (instance == null) {
-                layout.setLayoutParams(SyrStyler.styleLayout(style));
-
-            } else {
-
-                if (style.has("width")) {
-
-                    layout.getLayoutParams().width = style.getInt("width");
-
-                }
+        final String uuid = component.getUuid();
+        SyrStyle style = component.getStyle();
 
-                if (style.has("height")) {
-
-                    layout.getLayoutParams().height = style.getInt("height");
-                }
-                layout.setLayoutParams(layout.getLayoutParams());
+        if (style != null) {
+            SyrStyler.applyLayout(layout, style);
 
+            if (style.has(SyrStyle.LEFT)) {
+                layout.setX(style.left);
             }
 
-            if (style.has("left")) {
-                layout.setX(BigDecimal.valueOf(style.getDouble("left")).floatValue());
+            if (style.has(SyrStyle.TOP)) {
+                layout.setY(style.top);
             }
 
-            if (style.has("top")) {
-                layout.setY(BigDecimal.valueOf(style.getDouble("top")).floatValue());
-            }
-
-            if (style.has("opacity")) {
-                layout.setAlpha(style.getInt("opacity"));
+            if (style.has(SyrStyle.OPACITY)) {
+                layout.setAlpha(style.opacity);
             }
 
             SyrStyler.styleView(layout, style);
+        }
 
-
-            layout.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    try {
-                        //@TODO: Make predefined vibrations like iOS and connect this to a prop
+        layout.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                try {
+                    //@TODO: Make predefined vibrations like iOS and connect this to a prop
 //                         myVib.vibrate(1);
-                        JSONObject eventMap = new JSONObject();
-                        eventMap.put("type", "onPress");
-                        eventMap.put("guid", uuid);
-                        SyrEventHandler.getInstance().sendEvent(eventMap);
-                    } catch (JSONException e) {
-                        e.printStackTrace();
-                    }
+                    JSONObject eventMap = new JSONObject();
+                    eventMap.put("type", "onPress");
+                    eventMap.put("guid", uuid);
+                    SyrEventHandler.getInstance().sendEvent(eventMap);
+                } catch (JSONException e) {
+                    e.printStackTrace();
                 }
-            });
-
-            final RelativeLayout l = layout;
-            layout.setOnTouchListener(new View.OnTouchListener() {
-                @Override
-                public boolean onTouch(View view, MotionEvent event) {
-                    switch (event.getAction()) {
-                        case MotionEvent.ACTION_DOWN:
-                            l.setAlpha((float) 0.3);
-                            break;
-                        case MotionEvent.ACTION_UP:
-                            l.setAlpha(1);
-                            break;
-                        case MotionEvent.ACTION_CANCEL:
-                            l.setAlpha(1);
-                            break;
-                    }
-                    return false;
+            }
+        });
+
+        final RelativeLayout l = layout;
+        layout.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View view, MotionEvent event) {
+                switch (event.getAction()) {
+                    case MotionEvent.ACTION_DOWN:
+                        l.setAlpha((float) 0.3);
+                        break;
+                    case MotionEvent.ACTION_UP:
+                        l.setAlpha(1);
+                        break;
+                    case MotionEvent.ACTION_CANCEL:
+                        l.setAlpha(1);
+                        break;
                 }
-            });
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
+                return false;
+            }
+        });
         return layout;
     }
 
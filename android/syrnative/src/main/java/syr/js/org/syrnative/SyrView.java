@@ -4,83 +4,72 @@ import android.content.Context;
 import android.view.View;
 import android.widget.RelativeLayout;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
-
 /**
  * Syr Project
  * https://syr.js.org
  * Created by Derek Anderson on 1/8/18.
  */
-public class SyrView implements SyrBaseModule, SyrComponent {
+public class SyrView implements SyrBaseModule, SyrComponent, SyrRecyclable {
 
     @Override
     public View render(JSONObject component, Context context, View instance) {
+        return render(Component.fromJSON(component), context, instance);
+    }
+
+    @Override
+    public View render(Component component, Context context, View instance) {
 
         RelativeLayout layout;
         if (instance != null) {
             layout = (RelativeLayout) instance;
         } else {
-            layout = new RelativeLayout(context);
+            layout = (RelativeLayout) createView(context);
         }
 
+        // only what changed since the last render is applied to an existing view
+        SyrStyle style = component.getStyle();
+        if (style != null) {
+            if (component.styleChanged(SyrStyle.SIZE)) {
+                SyrStyler.applyLayout(layout, style);
+            }
 
-        JSONObject style = null;
-        try {
-            JSONObject componentInstance = component.getJSONObject("instance");
-            if (componentInstance.has("style")) {
-                style = componentInstance.getJSONObject("style");
-                if (instance == null) {
-                    layout.setLayoutParams(SyrStyler.styleLayout(style));
-                } else {
-
-                    if (style.has("width")) {
-
-                        layout.getLayoutParams().width = style.getInt("width");
-
-                    }
-
-                    if (style.has("height")) {
-
-                        layout.getLayoutParams().height = style.getInt("height");
-                    }
-                    layout.setLayoutParams(layout.getLayoutParams());
-
-                }
-                if (style.has("left")) {
-                    layout.setX(BigDecimal.valueOf(style.getDouble("left")).floatValue());
-                }
+            if (component.styleChanged(SyrStyle.LEFT) && style.has(SyrStyle.LEFT)) {
+                layout.setX(style.left);
+            }
 
-                if (style.has("top")) {
-                    layout.setY(BigDecimal.valueOf(style.getDouble("top")).floatValue());
-                }
+            if (component.styleChanged(SyrStyle.TOP) && style.has(SyrStyle.TOP)) {
+                layout.setY(style.top);
+            }
 
-                if (style.has("opacity")) {
-                    layout.setAlpha(BigDecimal.valueOf(style.getDouble("opacity")).floatValue());
-                }
+            if (component.styleChanged(SyrStyle.OPACITY) && style.has(SyrStyle.OPACITY)) {
+                layout.setAlpha(style.opacity);
+            }
 
+            if (component.styleChanged(SyrStyle.BACKGROUND)) {
                 SyrStyler.styleView(layout, style);
+            }
 
-
-                if (style.has("overflow")) {
-                    String overflow = style.getString("overflow");
-                    if (overflow.contains("hidden")) {
-                        layout.setClipChildren(true);
-                    } else {
-                        layout.setClipChildren(false);
-                    }
-                }
-
+            if (component.styleChanged(SyrStyle.OVERFLOW) && style.has(SyrStyle.OVERFLOW)) {
+                layout.setClipChildren(style.overflowHidden);
             }
 
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
         return layout;
     }
 
+    @Override
+    public View createView(Context context) {
+        return new RelativeLayout(context);
+    }
+
+    @Override
+    public boolean resetView(View view) {
+        // position, opacity, background and children are reset by the pool
+        return true;
+    }
+
     @Override
     public String getName() {
         return "View";
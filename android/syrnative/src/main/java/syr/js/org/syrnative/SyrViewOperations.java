@@ -0,0 +1,385 @@
+package syr.js.org.syrnative;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * View mutations recorded while the raster processes one message.
+ *
+ * The raster appends operations on the raster thread and hands the whole
+ * batch to the SyrFrameScheduler, instead of posting one Runnable per
+ * add/remove/render. Once handed over a batch belongs to the main thread,
+ * it only comes back to the raster empty. Operations are kept in parallel arrays that grow once
+ * and are reused for every following batch.
+ */
+public class SyrViewOperations {
+
+    static final int OP_UPDATE = 1;      // re-render an existing view from its node
+    static final int OP_INSERT = 2;      // add a view to a parent, at an index or appended, with new layout params if any
+    static final int OP_INSERT_ROOT = 3; // add a view to the root view
+    static final int OP_REMOVE = 4;      // remove a view from its parent and emit componentWillUnmount (when it has a uuid)
+    static final int OP_MOVE = 5;        // move an attached view to an index within its parent
+    static final int OP_CLEAR_ROOT = 6;  // remove everything from the root view
+    static final int OP_SET_Y = 7;       // move an attached view vertically, e.g. a windowed scrollview row
+    static final int OP_SET_HEIGHT = 8;  // change the height of an attached view
+    static final int OP_SET_FRAME = 9;   // position and size a view from the flexbox layout
+    static final int OP_SET_POSITION = 10; // move a view whose parent was flattened into the view it's in
+    static final int OP_MOVE_BEFORE = 11;  // move an attached view in front of a sibling, or to the end
+    static final int OP_RELEASE = 12;      // let go of a view under a removed one, it goes back to the pool
+    static final int OP_UNMOUNTED = 13;    // emit componentWillUnmount for every node of an unmounted subtree
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // setFrame position that leaves the view where it is
+    static final int KEEP_POSITION = Integer.MIN_VALUE;
+
+    private SyrRaster mRaster;
+    private int[] mTypes = new int[INITIAL_CAPACITY];
+    private int[] mIndexes = new int[INITIAL_CAPACITY];
+    private View[] mViews = new View[INITIAL_CAPACITY];
+    private Object[] mTargets = new Object[INITIAL_CAPACITY]; // parent ViewGroup, SyrComponent or element name
+    private Object[] mArgs = new Object[INITIAL_CAPACITY];    // Component node, uuid or layout params
+    private int[] mDepths = new int[INITIAL_CAPACITY];
+    private int mSize;
+
+    // depth of every view inserted by this batch, the root view is depth 0
+    private IdentityHashMap<View, Integer> mViewDepths = new IdentityHashMap<View, Integer>();
+    private int mMaxDepth;
+
+    // application order when the batch has been ordered by depth, null for recorded order
+    private int[] mOrder;
+    private boolean mOrdered;
+
+    // componentDidMount events held until the views of this batch are attached
+    ArrayList<JSONObject> mMounts = new ArrayList<JSONObject>();
+
+    // bookkeeping for the SyrFrameScheduler
+    boolean mInput;
+    long mScheduledAt;
+    int mFrames;
+    long mBusyNanos;
+
+    SyrViewOperations(SyrRaster raster) {
+        mRaster = raster;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    void update(SyrComponent module, Component node, View view) {
+        add(OP_UPDATE, view, module, node, -1, depthOf(view));
+    }
+
+    void insert(ViewGroup parent, View view, int index) {
+        insert(parent, view, index, null);
+    }
+
+    /**
+     * @param params layout params the view gets as it is added, null to keep its own
+     */
+    void insert(ViewGroup parent, View view, int index, ViewGroup.LayoutParams params) {
+        int depth = depthOf(parent) + 1;
+        mViewDepths.put(view, depth);
+        add(OP_INSERT, view, parent, params, index, depth);
+    }
+
+    void insertRoot(View view) {
+        mViewDepths.put(view, 1);
+        add(OP_INSERT_ROOT, view, null, null, -1, 1);
+    }
+
+    void remove(View view, String uuid, String elementName) {
+        add(OP_REMOVE, view, elementName, uuid, -1, 0);
+    }
+
+    /**
+     * a view inside a subtree whose top view is removed by the same batch
+     */
+    void release(View view, String elementName) {
+        add(OP_RELEASE, view, elementName, null, -1, 0);
+    }
+
+    /**
+     * instance keys of the nodes of an unmounted subtree, js hears about them together
+     */
+    void unmounted(List<String> keys) {
+        add(OP_UNMOUNTED, null, null, keys, -1, 0);
+    }
+
+    void move(View view, int index) {
+        add(OP_MOVE, view, null, null, index, 0);
+    }
+
+    /**
+     * @param anchor the sibling view goes in front of, null for the end
+     */
+    void moveBefore(View view, View anchor) {
+        add(OP_MOVE_BEFORE, view, anchor, null, -1, 0);
+    }
+
+    void setY(View view, int y) {
+        add(OP_SET_Y, view, null, null, y, 0);
+    }
+
+    void setHeight(View view, int height) {
+        add(OP_SET_HEIGHT, view, null, null, height, 0);
+    }
+
+    /**
+     * frames come from the layout of the whole batch, they apply after every view is attached and rendered
+     */
+    void setFrame(View view, int x, int y, int width, int height) {
+        add(OP_SET_FRAME, view, null, new int[]{x, y, width, height}, -1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * positions apply after the view is rendered, the render sets the position of its own style
+     */
+    void setPosition(View view, int x, int y) {
+        add(OP_SET_POSITION, view, null, new int[]{x, y}, -1, Integer.MAX_VALUE);
+    }
+
+    void clearRoot() {
+        add(OP_CLEAR_ROOT, null, null, null, -1, 0);
+    }
+
+    // views attached before this batch count as top-level
+    private int depthOf(View view) {
+        Integer depth = mViewDepths.get(view);
+        return depth != null ? depth : 1;
+    }
+
+    private void add(int type, View view, Object target, Object arg, int index, int depth) {
+        if (mSize == mTypes.length) {
+            grow();
+        }
+        mTypes[mSize] = type;
+        mViews[mSize] = view;
+        mTargets[mSize] = target;
+        mArgs[mSize] = arg;
+        mIndexes[mSize] = index;
+        mDepths[mSize] = depth;
+        if (depth != Integer.MAX_VALUE) {
+            mMaxDepth = Math.max(mMaxDepth, depth);
+        }
+        mSize++;
+    }
+
+    /**
+     * Apply a mount batch level by level, so when it is spread over several
+     * frames the outer views are attached first. Only batches that attach and
+     * render views are reordered, with removes or moves in the batch the
+     * recorded order matters and is kept. Siblings keep their relative order.
+     */
+    void orderByDepth() {
+        for (int i = 0; i < mSize; i++) {
+            if (mTypes[i] != OP_INSERT && mTypes[i] != OP_INSERT_ROOT && mTypes[i] != OP_UPDATE
+                    && mTypes[i] != OP_SET_FRAME && mTypes[i] != OP_SET_POSITION) {
+                return;
+            }
+        }
+        // frames and positions go after the deepest level
+        for (int i = 0; i < mSize; i++) {
+            if (mTypes[i] == OP_SET_FRAME || mTypes[i] == OP_SET_POSITION) {
+                mDepths[i] = mMaxDepth + 1;
+            }
+        }
+
+        // counting sort, stable so appends into one parent stay in order
+        int[] starts = new int[mMaxDepth + 3];
+        for (int i = 0; i < mSize; i++) {
+            starts[mDepths[i] + 1]++;
+        }
+        for (int d = 1; d < starts.length; d++) {
+            starts[d] += starts[d - 1];
+        }
+        if (mOrder == null || mOrder.length < mSize) {
+            mOrder = new int[mTypes.length];
+        }
+        for (int i = 0; i < mSize; i++) {
+            mOrder[starts[mDepths[i]]++] = i;
+        }
+        mOrdered = true;
+    }
+
+    private void grow() {
+        int capacity = mTypes.length * 2;
+        int[] types = new int[capacity];
+        int[] indexes = new int[capacity];
+        int[] depths = new int[capacity];
+        View[] views = new View[capacity];
+        Object[] targets = new Object[capacity];
+        Object[] args = new Object[capacity];
+        System.arraycopy(mTypes, 0, types, 0, mSize);
+        System.arraycopy(mIndexes, 0, indexes, 0, mSize);
+        System.arraycopy(mDepths, 0, depths, 0, mSize);
+        System.arraycopy(mViews, 0, views, 0, mSize);
+        System.arraycopy(mTargets, 0, targets, 0, mSize);
+        System.arraycopy(mArgs, 0, args, 0, mSize);
+        mTypes = types;
+        mIndexes = indexes;
+        mDepths = depths;
+        mViews = views;
+        mTargets = targets;
+        mArgs = args;
+    }
+
+    /**
+     * apply the operation at a position of the batch, on the main thread
+     */
+    void applyAt(int position) {
+        applyOperation(mOrdered ? mOrder[position] : position);
+    }
+
+    private void applyOperation(int i) {
+        View view = mViews[i];
+        switch (mTypes[i]) {
+            case OP_UPDATE:
+                ((SyrComponent) mTargets[i]).render((Component) mArgs[i], mRaster.getContext(), view);
+                break;
+            case OP_INSERT: {
+                ViewGroup parent = (ViewGroup) mTargets[i];
+                if (view.getParent() != null) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
+                // scrollviews hold a single content layout, once it is in place children go into that
+                if (parent instanceof ScrollView && parent.getChildCount() > 0) {
+                    parent = (ViewGroup) parent.getChildAt(0);
+                }
+                int index = mIndexes[i];
+                if (index < 0 || index > parent.getChildCount()) {
+                    index = -1;
+                }
+                if (mArgs[i] != null) {
+                    parent.addView(view, index, (ViewGroup.LayoutParams) mArgs[i]);
+                } else {
+                    parent.addView(view, index);
+                }
+                break;
+            }
+            case OP_INSERT_ROOT:
+                mRaster.getRootview().addView(view);
+                break;
+            case OP_REMOVE:
+                if (view.getParent() != null) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                    if (mArgs[i] != null) {
+                        mRaster.emitComponentWillUnMount((String) mArgs[i]);
+                    }
+                    recycle((String) mTargets[i], view);
+                }
+                break;
+            case OP_RELEASE:
+                // the top view is already detached, nothing under it is on screen
+                if (view.getParent() != null) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
+                recycle((String) mTargets[i], view);
+                break;
+            case OP_UNMOUNTED: {
+                List<?> keys = (List<?>) mArgs[i];
+                for (int k = 0; k < keys.size(); k++) {
+                    mRaster.emitComponentWillUnMount((String) keys.get(k));
+                }
+                break;
+            }
+            case OP_MOVE: {
+                ViewGroup parent = (ViewGroup) view.getParent();
+                if (parent != null && parent.indexOfChild(view) != mIndexes[i]) {
+                    parent.removeView(view);
+                    parent.addView(view, Math.min(mIndexes[i], parent.getChildCount()));
+                }
+                break;
+            }
+            case OP_MOVE_BEFORE: {
+                ViewGroup parent = (ViewGroup) view.getParent();
+                if (parent != null) {
+                    parent.removeView(view);
+                    int index = mTargets[i] != null ? parent.indexOfChild((View) mTargets[i]) : -1;
+                    parent.addView(view, index >= 0 ? index : parent.getChildCount());
+                }
+                break;
+            }
+            case OP_CLEAR_ROOT:
+                mRaster.getRootview().removeAllViews();
+                break;
+            case OP_SET_Y:
+                view.setY(mIndexes[i]);
+                break;
+            case OP_SET_HEIGHT: {
+                ViewGroup.LayoutParams params = view.getLayoutParams();
+                if (params != null && params.height != mIndexes[i]) {
+                    params.height = mIndexes[i];
+                    view.setLayoutParams(params);
+                }
+                break;
+            }
+            case OP_SET_POSITION: {
+                int[] position = (int[]) mArgs[i];
+                view.setX(position[0]);
+                view.setY(position[1]);
+                break;
+            }
+            case OP_SET_FRAME: {
+                int[] frame = (int[]) mArgs[i];
+                if (frame[0] != KEEP_POSITION) {
+                    view.setX(frame[0]);
+                    view.setY(frame[1]);
+                }
+                ViewGroup.LayoutParams params = view.getLayoutParams();
+                if (params == null) {
+                    view.setLayoutParams(new ViewGroup.LayoutParams(frame[2], frame[3]));
+                } else if (params.width != frame[2] || params.height != frame[3]) {
+                    params.width = frame[2];
+                    params.height = frame[3];
+                    view.setLayoutParams(params);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * stop what still runs for a detached view so nothing keeps it alive, then pool it
+     */
+    private void recycle(String elementName, View view) {
+        mRaster.getAnimator().cancel(view);
+        Object module = mRaster.getComponentModule(elementName);
+        if (module instanceof SyrReleasable) {
+            ((SyrReleasable) module).releaseView(view);
+        }
+        mRaster.getViewPool().release(elementName, view);
+    }
+
+    void clear() {
+        // drop references so applied views and nodes can be collected
+        for (int i = 0; i < mSize; i++) {
+            mViews[i] = null;
+            mTargets[i] = null;
+            mArgs[i] = null;
+        }
+        mSize = 0;
+        mMaxDepth = 0;
+        mOrdered = false;
+        mViewDepths.clear();
+        mMounts.clear();
+        mInput = false;
+        mFrames = 0;
+        mBusyNanos = 0;
+    }
+}
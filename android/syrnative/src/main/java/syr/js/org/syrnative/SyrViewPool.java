@@ -0,0 +1,252 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Syr Project
+ * https://syr.js.org
+ *
+ * Detached views kept per element name, so mounting a component that was
+ * unmounted before (list rows, add/remove items) reuses a view instead of
+ * constructing a new one. Only components implementing SyrRecyclable are pooled.
+ *
+ * Views are released on the main thread after their remove is applied, and
+ * acquired by the raster when it renders a new node. The pool can also be
+ * filled ahead of the first AST from an IdleHandler on the main looper.
+ */
+public class SyrViewPool {
+
+    static final int DEFAULT_CAPACITY = 16;
+
+    // components pre-created before the first render, and how many of each
+    static final String[] PREWARM_COMPONENTS = {"View", "Text"};
+    static final int PREWARM_COUNT = 8;
+
+    private final Context mContext;
+    private final SyrRaster mRaster;
+    private final HashMap<String, ArrayList<View>> mViews = new HashMap<String, ArrayList<View>>();
+    private final HashMap<String, Integer> mCapacities = new HashMap<String, Integer>();
+    private final HashMap<String, Integer> mPrewarm = new HashMap<String, Integer>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private boolean mIdleHandlerAdded;
+
+    private int mHits;
+    private int mMisses;
+
+    SyrViewPool(Context context, SyrRaster raster) {
+        mContext = context;
+        mRaster = raster;
+    }
+
+    /**
+     * most views of an element kept once unmounted, 0 turns pooling off for it
+     */
+    public synchronized void setCapacity(String elementName, int capacity) {
+        mCapacities.put(elementName, capacity);
+        ArrayList<View> views = mViews.get(elementName);
+        while (views != null && views.size() > capacity) {
+            views.remove(views.size() - 1);
+        }
+    }
+
+    public synchronized int getCapacity(String elementName) {
+        Integer capacity = mCapacities.get(elementName);
+        return capacity != null ? capacity : DEFAULT_CAPACITY;
+    }
+
+    /**
+     * a pooled view for a new node of this element, with layout params matching
+     * a fresh view, or null when there is none. On the raster thread, pooled views are detached
+     */
+    public View acquire(Component component) {
+        View view;
+        synchronized (this) {
+            ArrayList<View> views = mViews.get(component.getElementName());
+            if (views == null || views.isEmpty()) {
+                mMisses++;
+                return null;
+            }
+            view = views.remove(views.size() - 1);
+            mHits++;
+        }
+
+        SyrStyle style = component.getStyle();
+        if (style != null) {
+            view.setLayoutParams(SyrStyler.styleLayout(style));
+        } else {
+            view.setLayoutParams(new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+        return view;
+    }
+
+    /**
+     * keep a view that was just removed from its parent, called on the main thread
+     */
+    public void release(String elementName, View view) {
+        if (elementName == null || view == null || view.getParent() != null) {
+            return;
+        }
+        SyrRecyclable component = recyclable(elementName);
+        if (component == null || isFull(elementName)) {
+            return;
+        }
+
+        reset(view);
+        if (!component.resetView(view)) {
+            return;
+        }
+        add(elementName, view);
+    }
+
+    /**
+     * pre-create views of an element while the main thread is idle
+     */
+    public void prewarm(String elementName, int count) {
+        synchronized (this) {
+            Integer queued = mPrewarm.get(elementName);
+            mPrewarm.put(elementName, Math.max(count, queued != null ? queued : 0));
+        }
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                addIdleHandler();
+            }
+        });
+    }
+
+    void prewarmDefaults() {
+        for (int i = 0; i < PREWARM_COMPONENTS.length; i++) {
+            prewarm(PREWARM_COMPONENTS[i], PREWARM_COUNT);
+        }
+    }
+
+    /**
+     * drop every pooled view and stop pre-creating, on the main thread when the raster is torn down
+     */
+    public void shutdown() {
+        clear();
+        mHandler.removeCallbacksAndMessages(null);
+        if (mIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+            mIdleHandlerAdded = false;
+        }
+    }
+
+    public synchronized int size(String elementName) {
+        ArrayList<View> views = mViews.get(elementName);
+        return views != null ? views.size() : 0;
+    }
+
+    public synchronized int getHitCount() {
+        return mHits;
+    }
+
+    public synchronized int getMissCount() {
+        return mMisses;
+    }
+
+    public synchronized void clear() {
+        mViews.clear();
+        mPrewarm.clear();
+    }
+
+    // main thread only
+    private void addIdleHandler() {
+        if (!mIdleHandlerAdded) {
+            mIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    // creates one view per idle pass so a frame is never held up for long
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            String elementName = null;
+            synchronized (SyrViewPool.this) {
+                Iterator<Map.Entry<String, Integer>> pending = mPrewarm.entrySet().iterator();
+                while (pending.hasNext()) {
+                    Map.Entry<String, Integer> entry = pending.next();
+                    int target = Math.min(entry.getValue(), getCapacity(entry.getKey()));
+                    ArrayList<View> views = mViews.get(entry.getKey());
+                    if (views != null && views.size() >= target) {
+                        pending.remove();
+                        continue;
+                    }
+                    elementName = entry.getKey();
+                    break;
+                }
+            }
+
+            if (elementName == null) {
+                mIdleHandlerAdded = false;
+                return false;
+            }
+
+            SyrRecyclable component = recyclable(elementName);
+            if (component == null) {
+                synchronized (SyrViewPool.this) {
+                    mPrewarm.remove(elementName);
+                }
+                return true;
+            }
+            add(elementName, component.createView(mContext));
+            return true;
+        }
+    };
+
+    private SyrRecyclable recyclable(String elementName) {
+        Object module = mRaster.getComponentModule(elementName);
+        return module instanceof SyrRecyclable ? (SyrRecyclable) module : null;
+    }
+
+    private synchronized boolean isFull(String elementName) {
+        return size(elementName) >= getCapacity(elementName);
+    }
+
+    private synchronized void add(String elementName, View view) {
+        ArrayList<View> views = mViews.get(elementName);
+        if (views == null) {
+            views = new ArrayList<View>();
+            mViews.put(elementName, views);
+        }
+        if (views.size() < getCapacity(elementName)) {
+            views.add(view);
+        } else if (Log.isLoggable("SyrRaster", Log.DEBUG)) {
+            Log.d("SyrRaster", "view pool for " + elementName + " is full");
+        }
+    }
+
+    /**
+     * what a render may have set on any view, components reset the rest
+     */
+    private static void reset(View view) {
+        view.animate().cancel();
+        view.clearAnimation();
+        view.setTranslationX(0);
+        view.setTranslationY(0);
+        view.setAlpha(1);
+        view.setScaleX(1);
+        view.setScaleY(1);
+        view.setRotation(0);
+        view.setVisibility(View.VISIBLE);
+        view.setBackground(null);
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            group.removeAllViews();
+            group.setClipChildren(true);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Diffing a render node against the one its view was rendered from, on the plain JVM.
+ */
+public class ComponentTest {
+
+    private static Component node(String style, String props, String value) throws Exception {
+        Component node = new Component();
+        node.elementName = "View";
+        node.style = style != null ? SyrStyle.fromJSON(new JSONObject(style)) : null;
+        node.props = props != null ? new JSONObject(props) : null;
+        node.value = value;
+        return node;
+    }
+
+    @Test
+    public void newView_rendersEverything() throws Exception {
+        Component node = node("{\"width\": 10}", null, null);
+        node.diff(null);
+        assertEquals(SyrStyle.ALL, node.styleChanges);
+        assertTrue(node.propsChanged());
+        assertTrue(node.valueChanged());
+    }
+
+    @Test
+    public void sameNode_hasNoChanges() throws Exception {
+        Component previous = node("{\"width\": 10, \"backgroundColor\": \"#ff0000\"}", "{\"a\": [1, {\"b\": 2}]}", "text");
+        Component next = node("{\"backgroundColor\": \"#f00\", \"width\": 10.0}", "{\"a\": [1.0, {\"b\": 2}]}", "text");
+        next.diff(previous.snapshot());
+        assertFalse(next.hasChanges());
+    }
+
+    @Test
+    public void changedStyle_onlyFlagsWhatChanged() throws Exception {
+        Component previous = node("{\"width\": 10, \"height\": 20, \"backgroundColor\": \"red\"}", null, null);
+        Component next = node("{\"width\": 10, \"height\": 20, \"backgroundColor\": \"blue\"}", null, null);
+        next.diff(previous);
+        assertTrue(next.styleChanged(SyrStyle.BACKGROUND_COLOR));
+        assertFalse(next.styleChanged(SyrStyle.SIZE));
+        assertFalse(next.propsChanged());
+        assertFalse(next.valueChanged());
+    }
+
+    @Test
+    public void addedAndRemovedStyle_areChanges() throws Exception {
+        Component previous = node("{\"width\": 10, \"opacity\": 0.5}", null, null);
+        Component next = node("{\"width\": 10, \"fontSize\": 12}", null, null);
+        next.diff(previous);
+        assertTrue(next.styleChanged(SyrStyle.OPACITY));
+        assertTrue(next.styleChanged(SyrStyle.FONT_SIZE));
+        assertFalse(next.styleChanged(SyrStyle.WIDTH));
+
+        Component unstyled = node(null, null, null);
+        unstyled.diff(previous);
+        assertTrue(unstyled.styleChanged(SyrStyle.WIDTH | SyrStyle.OPACITY));
+        assertFalse(unstyled.styleChanged(SyrStyle.FONT_SIZE));
+    }
+
+    @Test
+    public void changedPropsAndValue_areFlagged() throws Exception {
+        Component previous = node(null, "{\"source\": \"a.png\"}", "one");
+        Component next = node(null, "{\"source\": \"b.png\"}", "two");
+        next.diff(previous);
+        assertTrue(next.propsChanged());
+        assertTrue(next.valueChanged());
+        assertEquals(0, next.styleChanges);
+    }
+
+    @Test
+    public void snapshot_keepsWhatIsDiffedWithoutTheChildren() throws Exception {
+        Component node = node("{\"width\": 10}", "{\"a\": 1}", "text");
+        node.children.add(node(null, null, null));
+        Component snapshot = node.snapshot();
+        assertTrue(snapshot.children.isEmpty());
+        assertSame(node.style, snapshot.style);
+        assertSame(node.props, snapshot.props);
+        assertEquals("text", snapshot.value);
+        assertEquals("View", snapshot.elementName);
+    }
+
+    @Test
+    public void sameJSON_comparesNumbersByValue() throws Exception {
+        assertTrue(Component.sameJSON(new JSONObject("{\"a\": 1}"), new JSONObject("{\"a\": 1.0}")));
+        assertFalse(Component.sameJSON(new JSONObject("{\"a\": 1}"), new JSONObject("{\"a\": 1, \"b\": 2}")));
+        assertFalse(Component.sameJSON(new JSONObject("{\"a\": [1, 2]}"), new JSONObject("{\"a\": [2, 1]}")));
+        assertFalse(Component.sameJSON(new JSONObject("{\"a\": \"1\"}"), new JSONObject("{\"a\": 1}")));
+    }
+}
@@ -0,0 +1,83 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * CSS color parsing on the plain JVM.
+ */
+public class SyrColorTest {
+
+    private static void assertInvalid(String color) {
+        try {
+            SyrColor.parse(color);
+            fail("parsed " + color);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void hex_allLengths() throws Exception {
+        assertEquals(0xffff0000, SyrColor.parse("#f00"));
+        assertEquals(0x88ff0000, SyrColor.parse("#f008"));
+        assertEquals(0xff336699, SyrColor.parse("#336699"));
+        assertEquals(0xff336699, SyrColor.parse("#336699FF"));
+        // css order, alpha last
+        assertEquals(0x80336699, SyrColor.parse("#33669980"));
+        assertEquals(0xffabcdef, SyrColor.parse("  #ABCDEF "));
+    }
+
+    @Test
+    public void rgb_commaAndSpaceSyntax() throws Exception {
+        assertEquals(0xff0a141e, SyrColor.parse("rgb(10, 20, 30)"));
+        assertEquals(0xff0a141e, SyrColor.parse("rgb(10 20 30)"));
+        assertEquals(0x800a141e, SyrColor.parse("rgba(10, 20, 30, 0.5)"));
+        assertEquals(0x800a141e, SyrColor.parse("rgb(10 20 30 / 50%)"));
+        assertEquals(0xffff8000, SyrColor.parse("rgb(100%, 50.2%, 0%)"));
+        // out of range channels are clamped
+        assertEquals(0xffff0000, SyrColor.parse("rgb(300, -5, 0)"));
+    }
+
+    @Test
+    public void hsl_toRgb() throws Exception {
+        assertEquals(0xffff0000, SyrColor.parse("hsl(0, 100%, 50%)"));
+        assertEquals(0xff00ff00, SyrColor.parse("hsl(120deg 100% 50%)"));
+        assertEquals(0xff0000ff, SyrColor.parse("hsl(0.6667turn, 100%, 50%)"));
+        assertEquals(0x80808080, SyrColor.parse("hsla(0, 0%, 50%, 0.5)"));
+    }
+
+    @Test
+    public void namedColors() throws Exception {
+        assertEquals(0xffff0000, SyrColor.parse("red"));
+        assertEquals(0xff663399, SyrColor.parse("RebeccaPurple"));
+        assertEquals(0, SyrColor.parse("transparent"));
+    }
+
+    @Test
+    public void invalidColors_throwOrFallBack() throws Exception {
+        assertInvalid(null);
+        assertInvalid("");
+        assertInvalid("#12");
+        assertInvalid("#12345g");
+        assertInvalid("rgb(1, 2)");
+        assertInvalid("rgb(1, 2, 3");
+        assertInvalid("notacolor");
+        assertEquals(0xff000000, SyrColor.parse("nope", 0xff000000));
+    }
+
+    @Test
+    public void styleColors_surviveTheJsonRoundTrip() throws Exception {
+        SyrStyle style = SyrStyle.fromJSON(new JSONObject()
+                .put("backgroundColor", "rgba(255, 0, 0, 0.5)")
+                .put("borderColor", "#33669980")
+                .put("color", "blue"));
+        SyrStyle copy = SyrStyle.fromJSON(style.toJSON());
+        assertEquals(0x80ff0000, copy.backgroundColor);
+        assertEquals(0x80336699, copy.borderColor);
+        assertEquals(0xff0000ff, copy.color);
+        assertEquals(0, copy.diff(style));
+    }
+}
@@ -0,0 +1,41 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * What backgrounds the drawable cache treats as the same, on the plain JVM.
+ * Caching and eviction need real drawables, see SyrDrawableCacheInstrumentedTest.
+ */
+public class SyrDrawableCacheTest {
+
+    private static String key(String style) throws Exception {
+        return SyrDrawableCache.key(SyrStyle.fromJSON(new JSONObject(style)));
+    }
+
+    @Test
+    public void sameBackground_sameKey() throws Exception {
+        // size, text and layout don't change the background
+        assertEquals(key("{\"backgroundColor\": \"#ff0000\", \"borderRadius\": 4}"),
+                key("{\"backgroundColor\": \"red\", \"borderRadius\": 4, \"width\": 50, \"color\": \"blue\"}"));
+    }
+
+    @Test
+    public void differentBackground_differentKey() throws Exception {
+        String plain = key("{\"backgroundColor\": \"red\"}");
+        assertNotEquals(plain, key("{\"backgroundColor\": \"blue\"}"));
+        assertNotEquals(plain, key("{\"backgroundColor\": \"red\", \"borderRadius\": 4}"));
+        assertNotEquals(key("{\"borderColor\": \"red\", \"borderWidth\": 1}"),
+                key("{\"borderColor\": \"red\", \"borderWidth\": 2}"));
+        assertNotEquals(key("{\"borderColor\": \"red\"}"),
+                key("{\"borderColor\": \"red\", \"borderLeftWidth\": 2}"));
+    }
+
+    @Test
+    public void unsetAndZero_differ() throws Exception {
+        // a transparent background is still a background
+        assertNotEquals(key("{}"), key("{\"backgroundColor\": \"transparent\"}"));
+    }
+}
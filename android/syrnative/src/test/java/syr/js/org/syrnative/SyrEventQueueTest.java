@@ -0,0 +1,153 @@
+package syr.js.org.syrnative;
+
+import android.os.Handler;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batching of native to js events on the plain JVM, flushes are driven by hand.
+ */
+public class SyrEventQueueTest {
+
+    private final List<String> mScripts = new ArrayList<String>();
+    private int mPosts;
+    private final SyrEventQueue mQueue = new SyrEventQueue(new Handler(), new SyrEventQueue.Sender() {
+        @Override
+        public void evaluate(String script) {
+            mScripts.add(script);
+        }
+    }) {
+        @Override
+        void post(Runnable task) {
+            // counted instead of run, flushes are driven by hand
+            mPosts++;
+        }
+    };
+
+    private static JSONObject event(String type, String guid, int value) throws Exception {
+        return new JSONObject().put("type", type).put("guid", guid).put("value", value);
+    }
+
+    /**
+     * the events of the one evaluation that went out
+     */
+    private JSONArray sent() throws Exception {
+        assertEquals(1, mScripts.size());
+        String script = mScripts.get(0);
+        assertTrue(script.startsWith("SyrEvents.emit(") && script.endsWith(");"));
+        return new JSONArray(script.substring("SyrEvents.emit(".length(), script.length() - 2));
+    }
+
+    @Test
+    public void queuedEvents_goOutInOneEmit() throws Exception {
+        mQueue.setReady(true);
+        for (int i = 0; i < 3; i++) {
+            mQueue.add(event("componentDidMount", "node-" + i, i));
+        }
+        mQueue.flush();
+
+        JSONArray events = sent();
+        assertEquals(3, events.length());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("node-" + i, events.getJSONObject(i).getString("guid"));
+        }
+        assertEquals(1, mQueue.getFlushCount());
+        assertEquals(3, mQueue.getEventCount());
+
+        // nothing queued, nothing sent
+        mQueue.flush();
+        assertEquals(1, mScripts.size());
+    }
+
+    @Test
+    public void eventsBeforeReady_waitForThePage() throws Exception {
+        mQueue.add(event("componentDidMount", "a", 0));
+        mQueue.flush();
+        assertTrue(mScripts.isEmpty());
+
+        mQueue.setReady(true);
+        mQueue.add(event("componentDidMount", "b", 0));
+        mQueue.flush();
+        JSONArray events = sent();
+        assertEquals(2, events.length());
+        assertEquals("a", events.getJSONObject(0).getString("guid"));
+        assertEquals("b", events.getJSONObject(1).getString("guid"));
+    }
+
+    @Test
+    public void navigatingAway_holdsEventsAgain() throws Exception {
+        mQueue.setReady(true);
+        mQueue.setReady(false);
+        mQueue.add(event("onPress", "a", 0));
+        mQueue.flush();
+        assertTrue(mScripts.isEmpty());
+    }
+
+    @Test
+    public void eventsBeforeReady_postOneFlush() throws Exception {
+        int count = SyrEventQueue.FLUSH_THRESHOLD * 3;
+        for (int i = 0; i < count; i++) {
+            mQueue.add(event("componentDidMount", "node-" + i, i));
+        }
+        mQueue.flushWith(event("onPress", "button", 0));
+        assertEquals(0, mPosts);
+
+        mQueue.setReady(true);
+        mQueue.setReady(true);
+        assertEquals(1, mPosts);
+        mQueue.flush();
+        assertEquals(count + 1, sent().length());
+    }
+
+    @Test
+    public void navigation_dropsTheEventsOfTheOldPage() throws Exception {
+        mQueue.setReady(true);
+        mQueue.add(event("onScroll", "list", 1));
+        mQueue.add(event("componentDidMount", "a", 0));
+        mQueue.setReady(false);
+        mQueue.setReady(true);
+
+        // the old page's scroll position no longer points into the queue
+        mQueue.add(event("onPress", "button", 0));
+        mQueue.add(event("onScroll", "list", 2));
+        mQueue.flush();
+        JSONArray events = sent();
+        assertEquals(2, events.length());
+        assertEquals("onPress", events.getJSONObject(0).getString("type"));
+        assertEquals(2, events.getJSONObject(1).getInt("value"));
+        assertEquals(0, mQueue.getCoalescedCount());
+    }
+
+    @Test
+    public void coalescibleEvents_keepTheLatestAfterDiscreteOnes() throws Exception {
+        mQueue.setReady(true);
+        mQueue.add(event("onScroll", "list", 1));
+        mQueue.add(event("onPress", "button", 0));
+        mQueue.add(event("onScroll", "list", 2));
+        mQueue.add(event("onScroll", "other", 3));
+        mQueue.flush();
+
+        JSONArray events = sent();
+        assertEquals(3, events.length());
+        assertEquals("onPress", events.getJSONObject(0).getString("type"));
+        assertEquals(2, events.getJSONObject(1).getInt("value"));
+        assertEquals("other", events.getJSONObject(2).getString("guid"));
+        assertEquals(1, mQueue.getCoalescedCount());
+    }
+
+    @Test
+    public void discreteEvents_areNeverMerged() throws Exception {
+        mQueue.setReady(true);
+        mQueue.add(event("onPress", "button", 1));
+        mQueue.add(event("onPress", "button", 2));
+        mQueue.flush();
+        assertEquals(2, sent().length());
+    }
+}
@@ -0,0 +1,139 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+import android.widget.ScrollView;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Which View nodes are left out of the view hierarchy, on the plain JVM.
+ */
+public class SyrFlattenerTest {
+
+    private SyrRaster mRaster;
+    private SyrFlattener mFlattener;
+    private RelativeLayout mHost;
+
+    @Before
+    public void setUp() {
+        mRaster = new SyrRaster(new ContextWrapper(null) {
+            @Override
+            public Context getApplicationContext() {
+                return this;
+            }
+        });
+        List<SyrBaseModule> modules = new ArrayList<SyrBaseModule>();
+        modules.add(new SyrView());
+        modules.add(new SyrText());
+        mRaster.setModules(modules);
+        mFlattener = new SyrFlattener(mRaster, new SyrLayoutTree(mRaster));
+        mHost = new RelativeLayout(null);
+    }
+
+    private static Component node(String elementName, String style, Component... children) throws Exception {
+        Component node = new Component();
+        node.elementName = elementName;
+        node.style = style != null ? SyrStyle.fromJSON(new JSONObject(style)) : null;
+        for (int i = 0; i < children.length; i++) {
+            node.children.add(children[i]);
+        }
+        return node;
+    }
+
+    private static Component box(String style) throws Exception {
+        return node("View", style, node("Text", "{\"width\": 50, \"height\": 20, \"left\": 10, \"top\": 10}"));
+    }
+
+    private boolean isLayoutOnly(Component node) {
+        return mFlattener.isLayoutOnly(node, null, mHost);
+    }
+
+    @Test
+    public void positioningViews_areLayoutOnly() throws Exception {
+        assertTrue(isLayoutOnly(box("{\"left\": 10, \"top\": 10, \"width\": 100, \"height\": 100}")));
+        // nothing is clipped, the children don't have to fit
+        assertTrue(isLayoutOnly(box("{\"width\": 10, \"height\": 10, \"overflow\": \"visible\"}")));
+    }
+
+    @Test
+    public void viewsWithSomethingToDraw_keepTheirView() throws Exception {
+        String size = "\"width\": 100, \"height\": 100";
+        assertFalse(isLayoutOnly(box("{" + size + ", \"backgroundColor\": \"#ff0000\"}")));
+        assertFalse(isLayoutOnly(box("{" + size + ", \"opacity\": 0.5}")));
+        assertFalse(isLayoutOnly(box("{" + size + ", \"overflow\": \"hidden\"}")));
+        assertFalse(isLayoutOnly(box("{" + size + ", \"borderLeftWidth\": 1}")));
+        assertFalse(isLayoutOnly(box(null)));
+
+        Component pressable = box("{" + size + "}");
+        pressable.props = new JSONObject("{\"onPress\": true}");
+        assertFalse(isLayoutOnly(pressable));
+    }
+
+    @Test
+    public void childrenThatWouldBeClipped_keepTheView() throws Exception {
+        // clipped at the right and bottom edge
+        assertFalse(isLayoutOnly(box("{\"width\": 55, \"height\": 100}")));
+        assertFalse(isLayoutOnly(box("{\"width\": 100, \"height\": 25}")));
+        // without a size there is nothing to fit in
+        assertFalse(isLayoutOnly(box("{\"left\": 10}")));
+
+        assertFalse(isLayoutOnly(node("View", "{\"width\": 100, \"height\": 100}",
+                node("Text", "{\"width\": 50, \"height\": 20, \"left\": -1}"))));
+        assertFalse(isLayoutOnly(node("View", "{\"width\": 100, \"height\": 100}",
+                node("Text", "{\"left\": 10}"))));
+    }
+
+    @Test
+    public void childrenOfNonRenderables_mustFitToo() throws Exception {
+        String size = "{\"width\": 100, \"height\": 100}";
+        assertTrue(isLayoutOnly(node("View", size,
+                node("Fragment", null, node("Text", "{\"width\": 100, \"height\": 100}")))));
+        assertFalse(isLayoutOnly(node("View", size,
+                node("Fragment", null, node("Text", "{\"width\": 101, \"height\": 100}")))));
+
+        // an unmounting child doesn't count
+        Component leaving = node("Text", "{\"width\": 200, \"height\": 200}");
+        leaving.unmount = true;
+        assertTrue(isLayoutOnly(node("View", size, leaving)));
+    }
+
+    @Test
+    public void viewsPlacedByTheirParent_keepTheirView() throws Exception {
+        Component box = box("{\"width\": 100, \"height\": 100}");
+        assertFalse(mFlattener.isLayoutOnly(box, null, null));
+        assertFalse(mFlattener.isLayoutOnly(box, null, new LinearLayout(null)));
+        assertFalse(mFlattener.isLayoutOnly(box, null, new ScrollView(null)));
+        assertFalse(mFlattener.isLayoutOnly(box, null, new SyrScrollContainer(null)));
+
+        // flexbox frames are relative to the view of the parent
+        assertFalse(isLayoutOnly(box("{\"flex\": 1, \"width\": 100, \"height\": 100}")));
+        Component column = node("View", "{\"flex\": 1}", box);
+        assertFalse(mFlattener.isLayoutOnly(box, column, mHost));
+    }
+
+    @Test
+    public void onlyPlainViews_areFlattened() throws Exception {
+        assertFalse(isLayoutOnly(node("Text", "{\"width\": 100, \"height\": 100}")));
+        assertFalse(isLayoutOnly(node("Unknown", "{\"width\": 100, \"height\": 100}")));
+    }
+
+    @Test
+    public void position_isTheRoundedOriginPlusTheOffset() throws Exception {
+        Component node = node("View", "{\"left\": 10.6, \"top\": 5}");
+        assertArrayEquals(new int[]{11, 5}, SyrFlattener.position(node, null));
+        assertArrayEquals(new int[]{14, 9}, SyrFlattener.position(node, new int[]{3, 4}));
+
+        assertArrayEquals(new int[]{3, 4}, SyrFlattener.position(node("View", null), new int[]{3, 4}));
+        assertArrayEquals(new int[]{0, 7}, SyrFlattener.position(node("View", "{\"top\": 7}"), null));
+    }
+}
@@ -0,0 +1,80 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measuring scrollview content once, on the plain JVM. The heights kept by
+ * tag need a real SparseArray, see SyrHeightCacheInstrumentedTest.
+ */
+public class SyrHeightCacheTest {
+
+    private static Component node(String uuid, String style, Component... children) throws Exception {
+        Component node = new Component();
+        node.elementName = "View";
+        node.uuid = uuid;
+        node.style = style != null ? SyrStyle.fromJSON(new JSONObject(style)) : null;
+        for (int i = 0; i < children.length; i++) {
+            node.children.add(children[i]);
+        }
+        return node;
+    }
+
+    /**
+     * content
+     *   a: height 40
+     *   group (unstyled)
+     *     b: height 10
+     *     c: styled without a height
+     */
+    private static Component content() throws Exception {
+        return node("content", null,
+                node("a", "{\"height\": 40}"),
+                node("group", null,
+                        node("b", "{\"height\": 10}"),
+                        node("c", "{\"width\": 10}")));
+    }
+
+    @Test
+    public void measure_sumsStyledHeightsAndUnstyledContent() throws Exception {
+        SyrHeightCache heights = new SyrHeightCache(new SyrInstanceRegistry());
+        assertEquals(50, heights.measure(content()));
+        assertEquals(0, heights.measure(node("empty", null)));
+    }
+
+    @Test
+    public void measure_isMemoizedOnTheNode() throws Exception {
+        SyrHeightCache heights = new SyrHeightCache(new SyrInstanceRegistry());
+        Component content = content();
+        assertEquals(50, heights.measure(content));
+        assertEquals(50, content.contentHeight);
+        assertEquals(10, content.getChildren().get(1).contentHeight);
+
+        // a node measured once isn't walked again
+        content.getChildren().add(node("d", "{\"height\": 100}"));
+        assertEquals(50, heights.measure(content));
+
+        content.contentHeight = -1;
+        assertEquals(150, heights.measure(content));
+    }
+
+    @Test
+    public void measure_tagsEveryNodeByItsKey() throws Exception {
+        SyrInstanceRegistry instances = new SyrInstanceRegistry();
+        SyrHeightCache heights = new SyrHeightCache(instances);
+        Component content = content();
+        heights.measure(content);
+        Component group = content.getChildren().get(1);
+        assertTrue(group.tag > 0);
+        assertNotEquals(group.tag, content.tag);
+
+        // the same node in a later message finds the tag its cache entry has
+        Component next = node("group", null);
+        assertEquals(group.tag, instances.tag(next));
+        Component keyed = node("group", null);
+        keyed.key = "7";
+        assertNotEquals(group.tag, instances.tag(keyed));
+    }
+}
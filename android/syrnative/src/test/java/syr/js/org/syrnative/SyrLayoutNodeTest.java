@@ -0,0 +1,192 @@
+package syr.js.org.syrnative;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Flexbox layout on the plain JVM.
+ */
+public class SyrLayoutNodeTest {
+
+    private static final float DELTA = 0.001f;
+
+    private static SyrLayoutNode node(float width, float height) {
+        SyrLayoutNode node = new SyrLayoutNode();
+        if (!Float.isNaN(width)) {
+            node.setWidth(width, SyrLayoutNode.UNIT_POINT);
+        }
+        if (!Float.isNaN(height)) {
+            node.setHeight(height, SyrLayoutNode.UNIT_POINT);
+        }
+        return node;
+    }
+
+    private static void assertFrame(SyrLayoutNode node, float x, float y, float width, float height) {
+        assertEquals(x, node.getLayoutX(), DELTA);
+        assertEquals(y, node.getLayoutY(), DELTA);
+        assertEquals(width, node.getLayoutWidth(), DELTA);
+        assertEquals(height, node.getLayoutHeight(), DELTA);
+    }
+
+    @Test
+    public void column_stacksAndStretches() throws Exception {
+        SyrLayoutNode root = node(300, 400);
+        SyrLayoutNode first = node(Float.NaN, 100);
+        SyrLayoutNode second = node(Float.NaN, 50);
+        root.addChildAt(first, 0);
+        root.addChildAt(second, 1);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(root, 0, 0, 300, 400);
+        assertFrame(first, 0, 0, 300, 100);
+        assertFrame(second, 0, 100, 300, 50);
+    }
+
+    @Test
+    public void row_growsByFlexAndAppliesPadding() throws Exception {
+        SyrLayoutNode root = node(320, 100);
+        root.setFlexDirection(SyrLayoutNode.ROW);
+        root.setPadding(SyrLayoutNode.LEFT, 10);
+        root.setPadding(SyrLayoutNode.RIGHT, 10);
+        SyrLayoutNode fixed = node(100, Float.NaN);
+        SyrLayoutNode one = new SyrLayoutNode();
+        one.setFlex(1);
+        SyrLayoutNode two = new SyrLayoutNode();
+        two.setFlex(2);
+        root.addChildAt(fixed, 0);
+        root.addChildAt(one, 1);
+        root.addChildAt(two, 2);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(fixed, 10, 0, 100, 100);
+        assertFrame(one, 110, 0, 66.667f, 100);
+        assertFrame(two, 176.667f, 0, 133.333f, 100);
+    }
+
+    @Test
+    public void justifyAndAlign_centerChildren() throws Exception {
+        SyrLayoutNode root = node(200, 200);
+        root.setJustifyContent(SyrLayoutNode.CENTER);
+        root.setAlignItems(SyrLayoutNode.CENTER);
+        SyrLayoutNode child = node(50, 40);
+        root.addChildAt(child, 0);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(child, 75, 80, 50, 40);
+    }
+
+    @Test
+    public void spaceBetween_andMargins() throws Exception {
+        SyrLayoutNode root = node(300, 50);
+        root.setFlexDirection(SyrLayoutNode.ROW);
+        root.setJustifyContent(SyrLayoutNode.SPACE_BETWEEN);
+        root.setAlignItems(SyrLayoutNode.FLEX_START);
+        SyrLayoutNode first = node(50, 20);
+        first.setMargin(SyrLayoutNode.LEFT, 10);
+        SyrLayoutNode last = node(50, 20);
+        last.setMargin(SyrLayoutNode.TOP, 5);
+        root.addChildAt(first, 0);
+        root.addChildAt(last, 1);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(first, 10, 0, 50, 20);
+        assertFrame(last, 250, 5, 50, 20);
+    }
+
+    @Test
+    public void percentages_resolveAgainstTheParent() throws Exception {
+        SyrLayoutNode root = node(400, 200);
+        SyrLayoutNode child = new SyrLayoutNode();
+        child.setWidth(50, SyrLayoutNode.UNIT_PERCENT);
+        child.setHeight(25, SyrLayoutNode.UNIT_PERCENT);
+        root.setAlignItems(SyrLayoutNode.FLEX_START);
+        root.addChildAt(child, 0);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(child, 0, 0, 200, 50);
+    }
+
+    @Test
+    public void autoHeight_wrapsTheContent() throws Exception {
+        SyrLayoutNode root = node(100, Float.NaN);
+        root.setPadding(SyrLayoutNode.TOP, 8);
+        root.setPadding(SyrLayoutNode.BOTTOM, 8);
+        root.addChildAt(node(Float.NaN, 30), 0);
+        root.addChildAt(node(Float.NaN, 30.5f), 1);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(root, 0, 0, 100, 76.5f);
+    }
+
+    @Test
+    public void absoluteChildren_skipFlex() throws Exception {
+        SyrLayoutNode root = node(200, 200);
+        SyrLayoutNode flowing = node(Float.NaN, 50);
+        SyrLayoutNode overlay = node(20, 20);
+        overlay.setAbsolute(true);
+        overlay.setLeft(10, SyrLayoutNode.UNIT_PERCENT);
+        overlay.setTop(30, SyrLayoutNode.UNIT_POINT);
+        root.addChildAt(overlay, 0);
+        root.addChildAt(flowing, 1);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(overlay, 20, 30, 20, 20);
+        assertFrame(flowing, 0, 0, 200, 50);
+    }
+
+    @Test
+    public void measureFunction_sizesLeaves() throws Exception {
+        SyrLayoutNode root = node(200, Float.NaN);
+        root.setAlignItems(SyrLayoutNode.FLEX_START);
+        SyrLayoutNode text = new SyrLayoutNode();
+        text.setMeasureFunction(new SyrLayoutNode.MeasureFunction() {
+            @Override
+            public void measure(SyrLayoutNode node, float width, float height, float[] size) {
+                size[0] = 120;
+                size[1] = 18;
+            }
+        });
+        root.addChildAt(text, 0);
+
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertFrame(text, 0, 0, 120, 18);
+        assertEquals(18, root.getLayoutHeight(), DELTA);
+    }
+
+    @Test
+    public void relayout_onlyTouchesWhatChanged() throws Exception {
+        SyrLayoutNode root = node(300, 300);
+        SyrLayoutNode first = node(Float.NaN, 100);
+        SyrLayoutNode second = node(Float.NaN, 100);
+        SyrLayoutNode inner = node(10, 10);
+        second.addChildAt(inner, 0);
+        root.addChildAt(first, 0);
+        root.addChildAt(second, 1);
+        root.calculateLayout(Float.NaN, Float.NaN);
+        root.markLayoutSeen();
+        first.markLayoutSeen();
+        second.markLayoutSeen();
+        inner.markLayoutSeen();
+        assertFalse(root.isDirty());
+
+        first.setHeight(150, SyrLayoutNode.UNIT_POINT);
+        assertTrue(root.isDirty());
+        assertFalse(second.isDirty());
+        root.calculateLayout(Float.NaN, Float.NaN);
+
+        assertTrue(first.hasNewLayout());
+        assertTrue(second.hasNewLayout());
+        assertFalse(inner.hasNewLayout());
+        assertFrame(second, 0, 150, 300, 100);
+        assertFalse(root.isDirty());
+    }
+}
@@ -0,0 +1,186 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Applying the data deltas of a ListView and binding its rows, on the plain JVM.
+ */
+public class SyrListBinderTest {
+
+    private static Component template(String value, String props) throws Exception {
+        Component template = new Component();
+        template.elementName = "Text";
+        template.uuid = "row";
+        template.value = value;
+        template.props = props != null ? new JSONObject(props) : null;
+        return template;
+    }
+
+    private static Component list(String props, String rows, Component template) throws Exception {
+        Component list = new Component();
+        list.elementName = "ListView";
+        list.uuid = "list";
+        list.props = props != null ? new JSONObject(props) : null;
+        list.rows = rows != null ? new JSONArray(rows) : null;
+        if (template != null) {
+            list.children.add(template);
+        }
+        return list;
+    }
+
+    private static SyrListBinder binder(String rows) throws Exception {
+        return new SyrListBinder("list", list(null, rows, template("{{name}}", null)));
+    }
+
+    private static List<String> keys(SyrListBinder binder) {
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < binder.size(); i++) {
+            keys.add(binder.getKey(i));
+        }
+        return keys;
+    }
+
+    @Test
+    public void rows_areKeyedByTheKeyFieldOrTheirIndex() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"name\": \"no key\"}, {\"key\": 7}, \"plain\"]");
+        assertEquals(Arrays.asList("a", "1", "7", "3"), keys(binder));
+
+        SyrListBinder custom = new SyrListBinder("list",
+                list("{\"keyField\": \"id\"}", "[{\"id\": \"x\", \"key\": \"a\"}, {\"id\": \"y\"}]", template("", null)));
+        assertEquals(Arrays.asList("x", "y"), keys(custom));
+    }
+
+    @Test
+    public void duplicateKeys_keepTheFirstPositionAndTheLastItem() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\", \"name\": \"one\"}, {\"key\": \"b\"}, {\"key\": \"a\", \"name\": \"two\"}]");
+        assertEquals(Arrays.asList("a", "b"), keys(binder));
+        assertEquals("two", binder.bind("a").getValue());
+    }
+
+    @Test
+    public void newData_changesEveryRow() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"key\": \"b\"}]");
+        assertTrue(binder.isChanged("a"));
+        binder.clearChanges();
+        assertFalse(binder.isChanged("a"));
+        assertFalse(binder.isChanged("b"));
+    }
+
+    @Test
+    public void removed_dropsTheRows() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"key\": \"b\"}, {\"key\": \"c\"}]");
+        binder.clearChanges();
+        binder.apply(new JSONObject("{\"removed\": [\"b\", \"missing\"]}"));
+        assertEquals(Arrays.asList("a", "c"), keys(binder));
+        assertFalse(binder.isChanged("a"));
+    }
+
+    @Test
+    public void updated_changesOnlyThatRow() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\", \"name\": \"one\"}, {\"key\": \"b\", \"name\": \"two\"}]");
+        binder.clearChanges();
+        binder.apply(new JSONObject("{\"updated\": [{\"key\": \"b\", \"item\": {\"key\": \"b\", \"name\": \"three\"}},"
+                + " {\"key\": \"missing\", \"item\": {}}]}"));
+        assertEquals(Arrays.asList("a", "b"), keys(binder));
+        assertFalse(binder.isChanged("a"));
+        assertTrue(binder.isChanged("b"));
+        assertFalse(binder.isChanged("missing"));
+        assertEquals("three", binder.bind("b").getValue());
+    }
+
+    @Test
+    public void inserted_goesToItsIndex() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"key\": \"c\"}]");
+        binder.apply(new JSONObject("{\"inserted\": ["
+                + "{\"key\": \"b\", \"index\": 1, \"item\": {\"name\": \"bee\"}},"
+                + "{\"key\": \"z\", \"index\": 99, \"item\": {}},"
+                + "{\"key\": \"a\", \"index\": 0, \"item\": {\"name\": \"again\"}}]}"));
+        // an index past the end appends, a key the list has is not inserted twice
+        assertEquals(Arrays.asList("a", "b", "c", "z"), keys(binder));
+        assertEquals("bee", binder.bind("b").getValue());
+        assertNotEquals("again", binder.bind("a").getValue());
+    }
+
+    @Test
+    public void order_movesTheRows() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"key\": \"b\"}, {\"key\": \"c\"}]");
+        binder.clearChanges();
+        binder.apply(new JSONObject("{\"order\": [\"c\", \"a\", \"gone\", \"b\"]}"));
+        assertEquals(Arrays.asList("c", "a", "b"), keys(binder));
+        // a move doesn't change what a row shows
+        assertFalse(binder.isChanged("c"));
+    }
+
+    @Test
+    public void oneDelta_appliesRemovesUpdatesInsertsThenOrder() throws Exception {
+        SyrListBinder binder = binder("[{\"key\": \"a\"}, {\"key\": \"b\"}, {\"key\": \"c\"}]");
+        binder.apply(new JSONObject("{\"removed\": [\"a\"],"
+                + " \"updated\": [{\"key\": \"c\", \"item\": {\"name\": \"see\"}}],"
+                + " \"inserted\": [{\"key\": \"d\", \"index\": 0, \"item\": {}}],"
+                + " \"order\": [\"c\", \"b\", \"d\"]}"));
+        assertEquals(Arrays.asList("c", "b", "d"), keys(binder));
+        assertEquals("see", binder.bind("c").getValue());
+    }
+
+    @Test
+    public void newTemplate_changesEveryRow() throws Exception {
+        Component list = list(null, "[{\"key\": \"a\"}]", template("{{name}}", null));
+        SyrListBinder binder = new SyrListBinder("list", list);
+        binder.clearChanges();
+
+        // an update without a template or data keeps both
+        binder.update(list(null, null, null));
+        assertFalse(binder.isChanged("a"));
+        assertEquals(1, binder.size());
+
+        binder.update(list(null, null, template("{{key}}", null)));
+        assertTrue(binder.isChanged("a"));
+        assertEquals("a", binder.bind("a").getValue());
+    }
+
+    @Test
+    public void bind_replacesTheFieldsOfTheItem() throws Exception {
+        Component template = template("Hello {{name}}, {{address.city}}!",
+                "{\"count\": \"{{count}}\", \"tags\": [\"{{tags.0}}\"], \"fixed\": \"text\"}");
+        Component child = template("{{.}}", null);
+        child.uuid = "label";
+        template.children.add(child);
+        SyrListBinder binder = new SyrListBinder("list", list(null,
+                "[{\"key\": \"a\", \"name\": \"Ann\", \"address\": {\"city\": \"Oslo\"}, \"count\": 3, \"tags\": [\"x\"]}]",
+                template));
+
+        Component row = binder.bind("a");
+        assertEquals("Hello Ann, Oslo!", row.getValue());
+        // a field on its own keeps its type
+        assertEquals(3, row.getProps().get("count"));
+        assertEquals("x", row.getProps().getJSONArray("tags").get(0));
+        assertEquals("text", row.getProps().getString("fixed"));
+        assertEquals("row@a", row.getUuid());
+        assertEquals("label@a", row.getChildren().get(0).getUuid());
+        assertTrue(row.getChildren().get(0).getValue().contains("Ann"));
+    }
+
+    @Test
+    public void bind_leavesMissingFieldsEmpty() throws Exception {
+        SyrListBinder binder = new SyrListBinder("list", list(null, "[{\"key\": \"a\"}]",
+                template("[{{name}}]", "{\"title\": \"{{name}}\"}")));
+        Component row = binder.bind("a");
+        assertEquals("[]", row.getValue());
+        assertTrue(row.getProps().isNull("title"));
+    }
+
+    @Test
+    public void unboundTemplate_isShared() throws Exception {
+        Component template = template("plain", "{\"a\": 1}");
+        SyrListBinder binder = new SyrListBinder("list", list(null, "[{\"key\": \"a\"}]", template));
+        assertSame(template.props, binder.bind("a").getProps());
+    }
+}
@@ -0,0 +1,192 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Which thread module calls run on, and in which order, on the plain JVM.
+ */
+public class SyrMethodDispatcherTest {
+
+    private static final int CALLS = 200;
+
+    public static class OrderedModule implements SyrBaseModule {
+        final List<Integer> calls = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(CALLS);
+        volatile boolean overlapped;
+
+        @Override
+        public String getName() {
+            return "OrderedModule";
+        }
+
+        @SyrMethod
+        public void record(int value) throws InterruptedException {
+            if (running.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            // long enough for a second pool thread to pick up the next call if it could
+            Thread.sleep(value % 10 == 0 ? 2 : 0);
+            calls.add(value);
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    public static class ConcurrentModule extends OrderedModule implements SyrQueuedModule {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+
+        @Override
+        public int getMethodQueue() {
+            return QUEUE_BACKGROUND;
+        }
+
+        @SyrMethod
+        public void block() throws InterruptedException {
+            bothRunning.countDown();
+            bothRunning.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class TypedModule implements SyrBaseModule {
+        List<Object> received;
+
+        @Override
+        public String getName() {
+            return "TypedModule";
+        }
+
+        @SyrMethod
+        public void typed(int count, float ratio, long id, boolean on, String label, JSONObject options) {
+            received = Arrays.<Object>asList(count, ratio, id, on, label, options.optInt("a"));
+        }
+    }
+
+    /**
+     * what syrnative-processor generates for TypedModule
+     */
+    private static class TypedModuleTable implements SyrMethodTable {
+        @Override
+        public String[] getMethods() {
+            return new String[]{"typed_int_float_long_boolean_java.lang.String_org.json.JSONObject_"};
+        }
+
+        @Override
+        public Object invoke(Object module, int method, JSONObject args, Context context)
+                throws JSONException {
+            ((TypedModule) module).typed(SyrArguments.getInt(args, 0), SyrArguments.getFloat(args, 1),
+                    SyrArguments.getLong(args, 2), SyrArguments.getBoolean(args, 3),
+                    SyrArguments.getString(args, 4), SyrArguments.getJSONObject(args, 5));
+            return null;
+        }
+    }
+
+    private static JSONObject call(Class clazz, String method, String paramType, Object arg) throws Exception {
+        JSONObject command = new JSONObject();
+        command.put("clazz", clazz.getName());
+        command.put("method", method);
+        JSONArray paramTypes = new JSONArray();
+        JSONObject args = new JSONObject();
+        if (paramType != null) {
+            paramTypes.put(paramType);
+            args.put("0", arg);
+        }
+        command.put("paramTypes", paramTypes);
+        command.put("args", args);
+        return command;
+    }
+
+    @Test
+    public void modulesByDefault_runCallsOneAtATimeInOrder() throws Exception {
+        SyrMethodDispatcher dispatcher = new SyrMethodDispatcher(null);
+        OrderedModule module = new OrderedModule();
+        dispatcher.register(module);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < CALLS; i++) {
+            assertTrue(dispatcher.dispatch(call(OrderedModule.class, "record", "int", i)));
+            expected.add(i);
+        }
+        assertTrue(module.done.await(10, TimeUnit.SECONDS));
+        assertFalse(module.overlapped);
+        assertEquals(expected, module.calls);
+    }
+
+    @Test
+    public void backgroundModules_mayRunCallsConcurrently() throws Exception {
+        SyrMethodDispatcher dispatcher = new SyrMethodDispatcher(null);
+        ConcurrentModule module = new ConcurrentModule();
+        dispatcher.register(module);
+
+        dispatcher.dispatch(call(ConcurrentModule.class, "block", null, null));
+        dispatcher.dispatch(call(ConcurrentModule.class, "block", null, null));
+        // only returns in time when both calls are inside block() together
+        assertTrue(module.bothRunning.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdown_dropsCallsThatHaveNotStarted() throws Exception {
+        final List<Runnable> pool = new ArrayList<Runnable>();
+        SyrMethodDispatcher.SerialExecutor serial = new SyrMethodDispatcher.SerialExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // a busy pool, the queue is drained by hand
+                pool.add(command);
+            }
+        });
+        final List<String> ran = new ArrayList<String>();
+        serial.execute(new Runnable() {
+            @Override
+            public void run() {
+                ran.add("queued");
+            }
+        });
+        serial.shutdown();
+        assertEquals(1, pool.size());
+        pool.get(0).run();
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void unknownMethods_areNotDispatched() throws Exception {
+        SyrMethodDispatcher dispatcher = new SyrMethodDispatcher(null);
+        dispatcher.register(new OrderedModule());
+        assertFalse(dispatcher.dispatch(call(OrderedModule.class, "record", "java.lang.String", "x")));
+        assertFalse(dispatcher.dispatch(call(OrderedModule.class, "getName", null, null)));
+    }
+
+    @Test
+    public void reflectedAndGeneratedCalls_convertArgumentsAlike() throws Exception {
+        // numbers as js sends them, objects still stringified
+        JSONObject args = new JSONObject("{\"0\": 1.0, \"1\": 2, \"2\": \"3\", \"3\": \"true\","
+                + " \"4\": 5, \"5\": \"{\\\"a\\\": 6}\"}");
+        List<Object> expected = Arrays.<Object>asList(1, 2f, 3L, true, "5", 6);
+
+        TypedModule generated = new TypedModule();
+        new SyrMethodDispatcher.Invoker(generated, new TypedModuleTable(), 0, null).invoke(args, null);
+        assertEquals(expected, generated.received);
+
+        TypedModule reflected = new TypedModule();
+        Method typed = TypedModule.class.getMethod("typed",
+                int.class, float.class, long.class, boolean.class, String.class, JSONObject.class);
+        new SyrMethodDispatcher.Invoker(reflected, typed, null).invoke(args, null);
+        assertEquals(expected, reflected.received);
+    }
+}
@@ -0,0 +1,111 @@
+package syr.js.org.syrnative;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Keyed child moves on the plain JVM.
+ */
+public class SyrReconcilerTest {
+
+    /**
+     * the children of a view after an update: removed ones gone, new ones appended, then the moves
+     */
+    private static List<String> apply(List<String> previous, List<String> next, int[] moves) {
+        List<String> children = new ArrayList<String>();
+        for (int i = 0; i < previous.size(); i++) {
+            if (next.contains(previous.get(i))) {
+                children.add(previous.get(i));
+            }
+        }
+        for (int i = 0; i < next.size(); i++) {
+            if (!previous.contains(next.get(i))) {
+                children.add(next.get(i));
+            }
+        }
+        for (int i = 0; i < moves.length; i++) {
+            String key = next.get(moves[i]);
+            children.remove(key);
+            if (moves[i] + 1 < next.size()) {
+                children.add(children.indexOf(next.get(moves[i] + 1)), key);
+            } else {
+                children.add(key);
+            }
+        }
+        return children;
+    }
+
+    private static void assertReconciles(List<String> previous, List<String> next, int expectedMoves) {
+        int[] moves = SyrReconciler.moves(previous, next);
+        assertEquals(expectedMoves, moves.length);
+        assertEquals(next, apply(previous, next, moves));
+    }
+
+    @Test
+    public void sameOrder_movesNothing() throws Exception {
+        assertReconciles(Arrays.asList("a", "b", "c"), Arrays.asList("a", "b", "c"), 0);
+    }
+
+    @Test
+    public void movingOneChild_isOneMove() throws Exception {
+        assertReconciles(Arrays.asList("a", "b", "c", "d", "e"), Arrays.asList("a", "d", "b", "c", "e"), 1);
+        assertReconciles(Arrays.asList("a", "b", "c", "d", "e"), Arrays.asList("b", "c", "d", "e", "a"), 1);
+    }
+
+    @Test
+    public void reversing_keepsOneChild() throws Exception {
+        assertReconciles(Arrays.asList("a", "b", "c", "d"), Arrays.asList("d", "c", "b", "a"), 3);
+    }
+
+    @Test
+    public void filterAndInsert_onlyMovesWhatIsOutOfPlace() throws Exception {
+        // c removed, x and y new, y goes in front
+        assertReconciles(Arrays.asList("a", "b", "c", "d"), Arrays.asList("y", "a", "b", "d", "x"), 1);
+        assertReconciles(Arrays.asList("a", "b", "c", "d"), Arrays.asList("d", "b"), 1);
+    }
+
+    @Test
+    public void sortingLargeList_movesLessThanEveryChild() throws Exception {
+        List<String> previous = new ArrayList<String>();
+        List<String> next = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            previous.add(String.valueOf(i));
+        }
+        // every tenth child goes to the front, the first one already is
+        for (int i = 0; i < 1000; i += 10) {
+            next.add(String.valueOf(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 != 0) {
+                next.add(String.valueOf(i));
+            }
+        }
+        assertReconciles(previous, next, 99);
+    }
+
+    @Test
+    public void duplicateKeys_leaveTheOrderAlone() throws Exception {
+        assertEquals(0, SyrReconciler.moves(Arrays.asList("a", "b"), Arrays.asList("b", "b", "a")).length);
+    }
+
+    @Test
+    public void longestIncreasing_marksOneLongestRun() throws Exception {
+        boolean[] marked = SyrReconciler.longestIncreasing(new int[]{3, 1, 4, 1, 5, 9, 2, 6});
+        int count = 0;
+        int last = Integer.MIN_VALUE;
+        int[] values = {3, 1, 4, 1, 5, 9, 2, 6};
+        for (int i = 0; i < marked.length; i++) {
+            if (marked[i]) {
+                assertTrue(values[i] > last);
+                last = values[i];
+                count++;
+            }
+        }
+        assertEquals(4, count);
+    }
+}
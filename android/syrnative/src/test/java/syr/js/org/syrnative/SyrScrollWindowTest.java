@@ -0,0 +1,175 @@
+package syr.js.org.syrnative;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Which content range a scroll window keeps mounted, on the plain JVM.
+ */
+public class SyrScrollWindowTest {
+
+    /**
+     * counts the refreshes a window asks for instead of posting them
+     */
+    private static class RefreshCounter extends SyrRaster {
+        int refreshes;
+
+        RefreshCounter() {
+            super(new ContextWrapper(null) {
+                @Override
+                public Context getApplicationContext() {
+                    return this;
+                }
+            });
+        }
+
+        @Override
+        void refreshWindow(SyrScrollWindow window) {
+            refreshes++;
+        }
+    }
+
+    private RefreshCounter mRaster;
+
+    @Before
+    public void setUp() {
+        mRaster = new RefreshCounter();
+    }
+
+    private SyrScrollWindow window(int viewport, int overscan) {
+        return new SyrScrollWindow(mRaster, new SyrScrollContainer(null), null, viewport, overscan);
+    }
+
+    private static SyrScrollWindow.Row row(String key, int top, int height) {
+        SyrScrollWindow.Row row = new SyrScrollWindow.Row(key);
+        row.top = top;
+        row.height = height;
+        return row;
+    }
+
+    /**
+     * count rows of the same height stacked from the top
+     */
+    private static ArrayList<SyrScrollWindow.Row> rows(int count, int height) {
+        ArrayList<SyrScrollWindow.Row> rows = new ArrayList<SyrScrollWindow.Row>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(String.valueOf(i), i * height, height));
+        }
+        return rows;
+    }
+
+    @Test
+    public void setRows_contentEndsAtTheLowestRow() throws Exception {
+        SyrScrollWindow window = window(500, 100);
+        window.setRows(rows(10, 50));
+        assertEquals(500, window.getContentHeight());
+        assertEquals(10, window.getRowCount());
+        assertSame(window.getRows().get(3), window.getRow("3"));
+
+        // a row with a top of its own can end below the last one
+        ArrayList<SyrScrollWindow.Row> rows = rows(2, 50);
+        rows.add(row("placed", 20, 300));
+        window.setRows(rows);
+        assertEquals(320, window.getContentHeight());
+        assertNull(window.getRow("3"));
+    }
+
+    @Test
+    public void window_isTheViewportPlusOverscan() throws Exception {
+        SyrScrollWindow window = window(500, 100);
+        assertEquals(0, window.getWindowTop());
+        assertEquals(600, window.getWindowBottom());
+
+        window.onScroll(1000, 0);
+        assertEquals(900, window.getWindowTop());
+        assertEquals(1600, window.getWindowBottom());
+
+        // a laid out viewport replaces the initial height
+        window.onScroll(1000, 400);
+        assertEquals(1500, window.getWindowBottom());
+    }
+
+    @Test
+    public void defaultOverscan_isOneViewport() throws Exception {
+        SyrScrollWindow window = window(500, -1);
+        assertEquals(500, window.getOverscan());
+        window.onScroll(2000, 0);
+        assertEquals(1500, window.getWindowTop());
+        assertEquals(3000, window.getWindowBottom());
+
+        window.onScroll(2000, 300);
+        assertEquals(300, window.getOverscan());
+    }
+
+    @Test
+    public void intersects_includesRowsTouchingTheEdges() throws Exception {
+        assertTrue(SyrScrollWindow.intersects(row("a", 100, 50), 0, 100));
+        assertTrue(SyrScrollWindow.intersects(row("a", 50, 50), 100, 200));
+        assertTrue(SyrScrollWindow.intersects(row("a", 0, 500), 100, 200));
+        assertFalse(SyrScrollWindow.intersects(row("a", 201, 50), 100, 200));
+        assertFalse(SyrScrollWindow.intersects(row("a", 0, 99), 100, 200));
+    }
+
+    @Test
+    public void scrollWithinTheMountedRange_doesNotRefresh() throws Exception {
+        SyrScrollWindow window = window(500, 200);
+        window.setRows(rows(100, 50));
+        window.setMountedRange(window.getWindowTop(), window.getWindowBottom());
+
+        // half of the overscan below the viewport is still mounted
+        window.onScroll(100, 0);
+        assertEquals(0, mRaster.refreshes);
+    }
+
+    @Test
+    public void scrollNearTheEdge_refreshesOnce() throws Exception {
+        SyrScrollWindow window = window(500, 200);
+        window.setRows(rows(100, 50));
+        window.setMountedRange(window.getWindowTop(), window.getWindowBottom());
+
+        window.onScroll(150, 0);
+        assertEquals(1, mRaster.refreshes);
+
+        // scrolls before the raster refreshed don't ask again
+        window.onScroll(400, 0);
+        assertEquals(1, mRaster.refreshes);
+
+        window.onRefresh();
+        window.setMountedRange(window.getWindowTop(), window.getWindowBottom());
+        window.onScroll(450, 0);
+        assertEquals(1, mRaster.refreshes);
+        window.onScroll(1000, 0);
+        assertEquals(2, mRaster.refreshes);
+    }
+
+    @Test
+    public void scrollAboveTheMountedRange_refreshes() throws Exception {
+        SyrScrollWindow window = window(500, 200);
+        window.setRows(rows(100, 50));
+        window.onScroll(2000, 0);
+        window.setMountedRange(window.getWindowTop(), window.getWindowBottom());
+        window.onRefresh();
+        mRaster.refreshes = 0;
+
+        window.onScroll(1850, 0);
+        assertEquals(1, mRaster.refreshes);
+    }
+
+    @Test
+    public void mountedRange_stopsAtTheEndOfTheContent() throws Exception {
+        SyrScrollWindow window = window(500, 200);
+        window.setRows(rows(10, 50));
+        window.setMountedRange(window.getWindowTop(), window.getWindowBottom());
+
+        // everything is mounted, scrolling to the end needs no refresh
+        window.onScroll(300, 0);
+        assertEquals(0, mRaster.refreshes);
+    }
+}
@@ -0,0 +1,64 @@
+package syr.js.org.syrnative;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Resolving styles sent from js on the plain JVM.
+ */
+public class SyrStyleTest {
+
+    private static final float DELTA = 0.001f;
+
+    private static SyrStyle style(String json) throws Exception {
+        return SyrStyle.fromJSON(new JSONObject(json));
+    }
+
+    @Test
+    public void sizes_roundToWholePixels() throws Exception {
+        SyrStyle style = style("{\"width\": 99.6, \"height\": 20.4}");
+        assertEquals(100, style.width);
+        assertEquals(20, style.height);
+        assertTrue(style.has(SyrStyle.SIZE));
+    }
+
+    @Test
+    public void edges_keepOnlyWhatWasSet() throws Exception {
+        SyrStyle style = style("{\"paddingLeft\": 5, \"marginVertical\": 8}");
+        assertEquals(5, style.padding[0], DELTA);
+        assertTrue(Float.isNaN(style.padding[1]));
+        assertEquals(8, style.margin[1], DELTA);
+        assertEquals(8, style.margin[3], DELTA);
+        assertTrue(Float.isNaN(style.margin[0]));
+
+        JSONObject json = style.toJSON();
+        assertEquals(5, json.getDouble("paddingLeft"), DELTA);
+        assertFalse(json.has("paddingTop"));
+        assertFalse(json.has("marginLeft"));
+        assertEquals(8, json.getDouble("marginBottom"), DELTA);
+    }
+
+    @Test
+    public void unknownEdges_stayUnderTheirOwnName() throws Exception {
+        SyrStyle style = style("{\"paddingStart\": 4, \"marginEnd\": 6}");
+        assertNull(style.padding);
+        assertNull(style.margin);
+        assertFalse(style.has(SyrStyle.FLEX));
+        assertEquals(4, style.extras.getInt("paddingStart"));
+        assertEquals(6, style.extras.getInt("marginEnd"));
+        assertFalse(style.extras.has("marginStart"));
+    }
+
+    @Test
+    public void allEdges_setEveryEdge() throws Exception {
+        SyrStyle style = new SyrStyle();
+        style.put("padding", 3);
+        style.put("paddingHorizontal", 7);
+        assertEquals(7, style.padding[0], DELTA);
+        assertEquals(3, style.padding[1], DELTA);
+        assertEquals(7, style.padding[2], DELTA);
+        assertEquals(3, style.padding[3], DELTA);
+    }
+}
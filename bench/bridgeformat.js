@@ -0,0 +1,91 @@
+// compares the legacy (json inside json) bridge envelope with the inline envelope
+// on the ASTs the samples produce.
+//
+//   npm run bench:bridge
+//
+// every sample is rendered through the NoDOM raster, each message is captured
+// and then encoded/decoded repeatedly in both formats.
+import { RasterManager } from '../index';
+import { NoDOM } from '../lib/rasters/nodom';
+import {
+  encodeMessage,
+  BRIDGE_PROTOCOL_LEGACY,
+  BRIDGE_PROTOCOL_INLINE,
+} from '../lib/rasters/wkwebview';
+
+const fs = require('fs');
+const path = require('path');
+
+const ITERATIONS = 200;
+const samplesDir = path.join(__dirname, '..', 'samples');
+const skip = ['index.js', 'store.js', 'styles.js'];
+
+const messages = [];
+NoDOM.recieveMessage = (type, message) => {
+  try {
+    // encode at capture time, the ast is mutated by later renders
+    messages.push({
+      legacy: encodeMessage(type, message, BRIDGE_PROTOCOL_LEGACY),
+      inline: encodeMessage(type, message, BRIDGE_PROTOCOL_INLINE),
+    });
+  } catch (e) {
+    // not every message is serializable outside of a bridge (cycles, etc)
+  }
+};
+RasterManager.setRaster(NoDOM);
+
+fs
+  .readdirSync(samplesDir)
+  .filter(file => file.endsWith('.js') && skip.indexOf(file) < 0)
+  .forEach(file => {
+    try {
+      require(path.join(samplesDir, file));
+    } catch (e) {
+      console.warn(`skipping ${file}: ${e.message}`);
+    }
+  });
+
+const decodeLegacy = raw => {
+  const envelope = JSON.parse(raw);
+  return JSON.parse(envelope.ast);
+};
+
+const decodeInline = raw => {
+  return JSON.parse(raw).payload;
+};
+
+const time = (format, decode) => {
+  let bytes = 0;
+  let start = process.hrtime();
+  for (let i = 0; i < ITERATIONS; i++) {
+    for (let m = 0; m < messages.length; m++) {
+      decode(messages[m][format]);
+    }
+  }
+  let diff = process.hrtime(start);
+  messages.forEach(message => (bytes += message[format].length));
+  return {
+    bytes: bytes,
+    ms: (diff[0] * 1e3 + diff[1] / 1e6) / ITERATIONS,
+  };
+};
+
+const legacy = time('legacy', decodeLegacy);
+const inline = time('inline', decodeInline);
+
+console.log(`messages captured: ${messages.length}`);
+console.log(
+  `legacy  ${legacy.bytes} bytes  ${legacy.ms.toFixed(3)} ms per pass`
+);
+console.log(
+  `inline  ${inline.bytes} bytes  ${inline.ms.toFixed(3)} ms per pass`
+);
+console.log(
+  `inline is ${(legacy.ms / inline.ms).toFixed(2)}x faster to decode, ${(
+    100 -
+    inline.bytes / legacy.bytes * 100
+  ).toFixed(1)}% smaller`
+);
+
+// samples leave timers running (animations, intervals)
+process.exit(0);
@@ -24,6 +24,7 @@ import { Image } from './lib/image';
 import { LinearGradient } from './lib/lineargradient';
 import { TouchableOpacity } from './lib/touchable';
 import { ScrollView } from './lib/scrollview';
+import { ListView } from './lib/listview';
 import { Alert } from './lib/alertDialogue';
 import { Switch } from './lib/switch';
 
@@ -75,6 +76,7 @@ export {
   Dimensions,
   EventEmitter,
   ScrollView,
+  ListView,
   LinearGradient,
   TouchableOpacity,
   PixelRatio,
@@ -5,14 +5,23 @@ class alertDialogue {
   constructor() {
     this.subscriptions = {};
     EventEmitter.addListener('alertDialogue', title => {
-      this.subscriptions[title.body]();
+      this.pressed(title.body);
     });
   }
   alert(title, message, actions) {
     actions.forEach(action => {
       this.subscriptions[action.title] = action.onPress;
     });
-    NativeModules.SyrAlertDialogue.alert(title, message, actions);
+    const call = NativeModules.SyrAlertDialogue.alert(title, message, actions);
+    if (call) {
+      // the action picked comes back as the call's result, null when dismissed
+      call.then(action => this.pressed(action));
+    }
+  }
+  pressed(action) {
+    if (action && this.subscriptions[action]) {
+      this.subscriptions[action]();
+    }
   }
 }
 
@@ -113,8 +113,10 @@ class animated extends Component {
       cached.state.x = animation.x2;
     }
 
+    // the native tag finds the target without going through its uuid
     RasterManager.getRaster().sendMessage('animation', {
       guid: this.AnimationTargets[animation.guid],
+      tag: cached && cached.tag,
       animation: animation,
     });
   }
@@ -2,6 +2,10 @@ import { Utils } from './utils';
 
 let uuids = {};
 
+// native module calls waiting on their completion, by call id
+let pendingCalls = {};
+let nextCallId = 1;
+
 class events {
   constructor() {
     this.components = {};
@@ -34,9 +38,31 @@ class events {
         return;
       }
 
+      // answer to a native module call
+      if (event.type == 'completion') {
+        handleCompletion(event);
+        return;
+      }
+
       // emit an event to a component
       let component = this.components[event.guid];
 
+      // rows of a ListView are bound natively from its template, their events
+      // go to the template's component with the key of the row
+      if (!component && typeof event.guid === 'string') {
+        let at = event.guid.indexOf('@');
+        if (at > -1) {
+          event.key = event.guid.substring(at + 1);
+          component = this.components[event.guid.substring(0, at)];
+        }
+      }
+
+      // native tags nodes as they mount, the tag goes back with the node
+      // so native can find it without building its uuid
+      if (event.type == 'componentDidMount' && event.tag && this.onTag) {
+        this.onTag(event.guid, event.tag);
+      }
+
       if (lifeCycles.indexOf(event.type) > -1) {
         // use lifecycle handler
         handleLifeCycle(event, component);
@@ -46,6 +72,32 @@ class events {
       }
     }
 
+    /**
+     * Register a native module call before it is sent, so its completion can't
+     * arrive ahead of the handler.
+     * @return {object} callId to send with the cmd, promise of the result
+     */
+    this.expectCompletion = () => {
+      const callId = nextCallId++;
+      const promise = new Promise((resolve, reject) => {
+        pendingCalls[callId] = { resolve: resolve, reject: reject };
+      });
+      return { callId: callId, promise: promise };
+    };
+
+    function handleCompletion(event) {
+      const call = pendingCalls[event.callId];
+      if (!call) {
+        return;
+      }
+      delete pendingCalls[event.callId];
+      if (event.error) {
+        call.reject(new Error(event.error));
+      } else {
+        call.resolve(event.result);
+      }
+    }
+
     this.emit = event => {
       if (event instanceof Array) {
         event.forEach((event, index, array) => {
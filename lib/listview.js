@@ -0,0 +1,151 @@
+/** Class represents a list, rows are bound natively from a template and a data array */
+import { Component } from './component';
+import { RasterManager } from './rastermanager';
+
+const DEFAULT_KEY_FIELD = 'key';
+
+/**
+ * Stable key of a row, the keyField of its item or else its index
+ * @param {*} item row data
+ * @param {number} index position of the row
+ * @param {string} keyField field of the item holding its key
+ */
+const rowKey = (item, index, keyField) => {
+  if (
+    item !== null &&
+    typeof item === 'object' &&
+    item[keyField] !== undefined &&
+    item[keyField] !== null
+  ) {
+    return String(item[keyField]);
+  }
+  return String(index);
+};
+
+/**
+ * What changed between two data arrays of a list, rows are matched by key.
+ * Items are compared by reference first, so treat them as immutable.
+ * @param {array} previous data the native list has
+ * @param {array} next new data
+ * @param {string} keyField field of an item holding its key
+ * @return {object} removed keys, inserted and updated rows, and the order of
+ * the keys when rows moved. null when nothing changed
+ */
+const diffRows = (previous, next, keyField) => {
+  keyField = keyField || DEFAULT_KEY_FIELD;
+  let previousItems = {};
+  let previousKeys = [];
+  previous.forEach((item, index) => {
+    let key = rowKey(item, index, keyField);
+    previousItems[key] = item;
+    previousKeys.push(key);
+  });
+
+  let nextKeys = {};
+  let inserted = [];
+  let updated = [];
+  let kept = [];
+  next.forEach((item, index) => {
+    let key = rowKey(item, index, keyField);
+    nextKeys[key] = true;
+    if (!previousItems.hasOwnProperty(key)) {
+      inserted.push({ index: index, key: key, item: item });
+      return;
+    }
+    let previousItem = previousItems[key];
+    if (
+      item !== previousItem &&
+      JSON.stringify(item) !== JSON.stringify(previousItem)
+    ) {
+      updated.push({ key: key, item: item });
+    }
+    kept.push(key);
+  });
+
+  let removed = previousKeys.filter(key => !nextKeys[key]);
+
+  // rows that stayed keep their order unless they were moved
+  let moved = false;
+  let position = 0;
+  for (let i = 0; i < previousKeys.length && !moved; i++) {
+    if (nextKeys[previousKeys[i]]) {
+      moved = previousKeys[i] !== kept[position];
+      position++;
+    }
+  }
+
+  if (
+    removed.length == 0 &&
+    inserted.length == 0 &&
+    updated.length == 0 &&
+    !moved
+  ) {
+    return null;
+  }
+
+  let delta = { removed: removed, inserted: inserted, updated: updated };
+  if (moved) {
+    delta.order = next.map((item, index) => rowKey(item, index, keyField));
+  }
+  return delta;
+};
+
+// the data stays off the serialized props, it crosses the bridge as rows on mount
+// and as deltas after that
+const hideData = props => {
+  if (props && Object.prototype.propertyIsEnumerable.call(props, 'data')) {
+    Object.defineProperty(props, 'data', {
+      value: props.data,
+      enumerable: false,
+      writable: true,
+      configurable: true,
+    });
+  }
+};
+
+class ListView extends Component {
+  constructor(props) {
+    super(props);
+    let data = (props && props.data) || [];
+    hideData(props);
+
+    // sent with the mount only
+    this.rows = data;
+
+    // what the native list was last sent, not serialized
+    Object.defineProperty(this, 'sentRows', {
+      value: data.slice(),
+      enumerable: false,
+      writable: true,
+    });
+  }
+
+  componentWillReceiveProps(nextProps) {
+    this.rows = undefined;
+    if (!nextProps || nextProps.data === undefined) {
+      return;
+    }
+
+    let data = nextProps.data || [];
+    hideData(nextProps);
+
+    let delta = diffRows(this.sentRows, data, nextProps.keyField);
+    this.sentRows = data.slice();
+
+    let raster = RasterManager.getRaster();
+    if (delta && raster && raster.sendMessage) {
+      delta.guid = this.uuid;
+      raster.sendMessage('list', delta);
+    }
+  }
+
+  tag(instance) {
+    let tag = instance || document.createElement('div');
+    tag.style['overflow-x'] = 'hidden';
+    tag.style['overflow-y'] = 'scroll';
+    tag.style['white-space'] = 'nowrap';
+    return tag;
+  }
+}
+
+export { ListView, diffRows, rowKey };
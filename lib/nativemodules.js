@@ -1,6 +1,14 @@
 import { RasterManager } from './rastermanager';
 import { RasterUtils } from './rasters/rasterutils';
 import { Platform } from './platform';
+import { Events } from './events';
+import { BRIDGE_PROTOCOL_CALLS } from './rasters/wkwebview';
+
+// hosts that answer cmd messages with completions advertise it on boot
+const supportsCompletions = () => {
+  let raster = RasterManager.getRaster();
+  return raster && raster.protocol && raster.protocol() >= BRIDGE_PROTOCOL_CALLS;
+};
 
 class nativemodules {
   constructor() {
@@ -32,17 +40,26 @@ class nativemodules {
           this[exportClassName] = this[exportClassName] || {};
 
           // NativeModules.FooClass.FooMethod
+          // returns a promise of the method's result when the host supports completions
           this[exportClassName][exportMethodName] = function() {
             let _clazz = clazz;
             let _method = method;
-
-            // FooMethod is called
-            RasterManager.getRaster().sendMessage('cmd', {
+            let cmd = {
               clazz: _clazz,
               method: _method,
               paramTypes: paramTypes,
               args: JSON.stringify(arguments),
-            });
+            };
+
+            let call;
+            if (supportsCompletions()) {
+              call = Events.expectCompletion();
+              cmd.callId = call.callId;
+            }
+
+            // FooMethod is called
+            RasterManager.getRaster().sendMessage('cmd', cmd);
+            return call && call.promise;
           };
         });
       }
@@ -48,16 +48,16 @@ class networking {
         headers: headers,
       };
 
-      // call to native layer for fetch
-      NativeModules.SyrNetworking.request(request);
-
-      // make thenable
-      return Promise.resolve({
-        then: cb => {
-          request.cb = cb;
-          this.requests[guid] = request;
-          return this;
-        },
+      return new Promise(resolve => {
+        // registered before the call so the answer always finds it
+        request.cb = resolve;
+        this.requests[guid] = request;
+
+        // call to native layer for fetch, hosts with completions answer the call itself
+        const call = NativeModules.SyrNetworking.request(request);
+        if (call) {
+          call.then(body => this.requestHandler({ body: body }));
+        }
       });
     }
 
@@ -69,7 +69,6 @@ class networking {
     const body = event.body;
 
     if (!this.requests[body.guid]) {
-      setTimeout(() => this.requestHandler(event), 20); // make sure we have cb ready before we fire it
       return;
     }
 
@@ -36,6 +36,13 @@ RasterManager.render.getInstance = uuid => {
   return _cache[uuid];
 };
 
+// keep the native tag on the cached node, it is sent with every update of the node
+Events.onTag = (uuid, tag) => {
+  if (_cache[uuid]) {
+    _cache[uuid].tag = tag;
+  }
+};
+
 const prepareProps = component => {
   component.instance.props = component.attributes;
 
@@ -1,5 +1,33 @@
 import { RasterUtils } from './rasterutils';
 
+// bridge envelope versions
+// 1: payload is stringified and nested under `ast`, decoded twice by the host
+// 2: payload is carried inline under `payload`, decoded once by the host
+// 3: inline envelope, `cmd` messages with a `callId` are answered by a completion event
+const BRIDGE_PROTOCOL_LEGACY = 1;
+const BRIDGE_PROTOCOL_INLINE = 2;
+const BRIDGE_PROTOCOL_CALLS = 3;
+
+/**
+ * Encode a raster message for the native bridge
+ * @param {string} type gui, animation, cmd, list
+ * @param {object} message payload to send
+ * @param {number} version bridge protocol version the host understands
+ */
+const encodeMessage = (type, message, version) => {
+  if (version >= BRIDGE_PROTOCOL_INLINE) {
+    return JSON.stringify({
+      v: BRIDGE_PROTOCOL_INLINE,
+      type: type,
+      payload: message,
+    });
+  }
+  return JSON.stringify({
+    type: type,
+    ast: JSON.stringify(message),
+  });
+};
+
 class wkraster {
   constructor() {
     this.type = 'wkwebview';
@@ -9,6 +37,15 @@ class wkraster {
     this.sendMessage('gui', component);
   }
 
+  // hosts advertise the envelope they can decode on boot,
+  // anything that doesn't gets the legacy format
+  protocol() {
+    if (RasterUtils.props && RasterUtils.props.bridge_protocol) {
+      return parseInt(RasterUtils.props.bridge_protocol, 10);
+    }
+    return BRIDGE_PROTOCOL_LEGACY;
+  }
+
   sendMessage(type, message) {
     if (
       window.webkit &&
@@ -22,12 +59,7 @@ class wkraster {
       });
     } else if (window.SyrBridge) {
       // post to android webview
-      window.SyrBridge.message(
-        JSON.stringify({
-          type: type,
-          ast: JSON.stringify(message),
-        })
-      );
+      window.SyrBridge.message(encodeMessage(type, message, this.protocol()));
     }
   }
 
@@ -48,4 +80,10 @@ class wkraster {
 }
 
 const WKRaster = new wkraster();
-export { WKRaster };
+export {
+  WKRaster,
+  encodeMessage,
+  BRIDGE_PROTOCOL_LEGACY,
+  BRIDGE_PROTOCOL_INLINE,
+  BRIDGE_PROTOCOL_CALLS,
+};
@@ -0,0 +1,38 @@
+import { Events } from '../lib/events';
+
+const assert = require('assert');
+
+describe('Events', function() {
+  describe('completions', function() {
+    it('resolves the call a completion is keyed to', function() {
+      const first = Events.expectCompletion();
+      const second = Events.expectCompletion();
+      assert.notEqual(first.callId, second.callId);
+
+      // completions arrive batched, out of call order
+      Events.emit([
+        { type: 'completion', callId: second.callId, result: 'second' },
+        { type: 'completion', callId: first.callId, result: { ok: true } },
+      ]);
+
+      return Promise.all([first.promise, second.promise]).then(results => {
+        assert.deepEqual(results[0], { ok: true });
+        assert.equal(results[1], 'second');
+      });
+    });
+
+    it('rejects the call when native reports an error', function() {
+      const call = Events.expectCompletion();
+      Events.emit({ type: 'completion', callId: call.callId, error: 'boom' });
+
+      return call.promise.then(
+        () => assert.fail('should have been rejected'),
+        error => assert.equal(error.message, 'boom')
+      );
+    });
+
+    it('ignores completions for unknown calls', function() {
+      Events.emit({ type: 'completion', callId: -1, result: 'nobody' });
+    });
+  });
+});
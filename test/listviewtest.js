@@ -0,0 +1,54 @@
+import { diffRows, rowKey } from '../lib/listview';
+const assert = require('assert');
+
+describe('ListView', function() {
+  const rows = [
+    { id: 1, title: 'one' },
+    { id: 2, title: 'two' },
+    { id: 3, title: 'three' },
+  ];
+
+  it('should key rows by keyField, or by index without one', function() {
+    assert.equal(rowKey({ id: 7 }, 0, 'id'), '7');
+    assert.equal(rowKey({ title: 'no id' }, 4, 'id'), '4');
+    assert.equal(rowKey('plain', 2, 'id'), '2');
+  });
+
+  it('should send nothing when the data is unchanged', function() {
+    assert.equal(diffRows(rows, rows.slice(), 'id'), null);
+    assert.equal(
+      diffRows(rows, rows.map(row => Object.assign({}, row)), 'id'),
+      null
+    );
+  });
+
+  it('should send only appended rows', function() {
+    const next = rows.concat([{ id: 4, title: 'four' }]);
+    const delta = diffRows(rows, next, 'id');
+    assert.deepEqual(delta.removed, []);
+    assert.deepEqual(delta.updated, []);
+    assert.deepEqual(delta.inserted, [
+      { index: 3, key: '4', item: { id: 4, title: 'four' } },
+    ]);
+    assert.equal(delta.order, undefined);
+  });
+
+  it('should send removed keys and changed rows', function() {
+    const next = [rows[0], { id: 3, title: 'tres' }];
+    const delta = diffRows(rows, next, 'id');
+    assert.deepEqual(delta.removed, ['2']);
+    assert.deepEqual(delta.updated, [
+      { key: '3', item: { id: 3, title: 'tres' } },
+    ]);
+    assert.deepEqual(delta.inserted, []);
+    assert.equal(delta.order, undefined);
+  });
+
+  it('should send the order only when rows moved', function() {
+    const next = [rows[2], rows[0], rows[1]];
+    const delta = diffRows(rows, next, 'id');
+    assert.deepEqual(delta.order, ['3', '1', '2']);
+    assert.deepEqual(delta.removed, []);
+    assert.deepEqual(delta.updated, []);
+  });
+});
@@ -0,0 +1,32 @@
+import {
+  encodeMessage,
+  BRIDGE_PROTOCOL_LEGACY,
+  BRIDGE_PROTOCOL_INLINE,
+} from '../lib/rasters/wkwebview';
+
+const assert = require('assert');
+
+describe('WKRaster', function() {
+  describe('encodeMessage', function() {
+    const ast = { uuid: 'foo', children: [{ uuid: 'bar', children: [] }] };
+
+    it('nests the payload as a string for legacy hosts', function() {
+      const envelope = JSON.parse(
+        encodeMessage('gui', ast, BRIDGE_PROTOCOL_LEGACY)
+      );
+      assert.equal(envelope.type, 'gui');
+      assert.equal(typeof envelope.ast, 'string');
+      assert.deepEqual(JSON.parse(envelope.ast), ast);
+    });
+
+    it('carries the payload inline for protocol 2 hosts', function() {
+      const envelope = JSON.parse(
+        encodeMessage('gui', ast, BRIDGE_PROTOCOL_INLINE)
+      );
+      assert.equal(envelope.v, BRIDGE_PROTOCOL_INLINE);
+      assert.equal(envelope.type, 'gui');
+      assert.equal(envelope.ast, undefined);
+      assert.deepEqual(envelope.payload, ast);
+    });
+  });
+});